@@ -33,6 +33,8 @@ package net.laubenberger.wichtel.controller.net.client;
 import java.io.IOException;
 import java.net.Socket;
 
+import net.laubenberger.wichtel.controller.net.codec.Codec;
+import net.laubenberger.wichtel.controller.net.metrics.Metrics;
 import net.laubenberger.wichtel.misc.HolderListener;
 import net.laubenberger.wichtel.misc.extendedObject.ExtendedObject;
 
@@ -135,6 +137,25 @@ public interface Client extends ExtendedObject, Runnable, HolderListener<Listene
 	 */
 	byte[] readStream() throws IOException;
 
+	/**
+	 * Suspends or resumes reading from the connection (default: false).
+	 * A suspended connection doesn't read further messages, so a slow consumer applies backpressure to the peer via the socket buffers instead of queueing the messages.
+	 *
+	 * @param isReadSuspended true/false
+	 * @see net.laubenberger.wichtel.controller.net.flow.FlowPublisher
+	 * @since 0.3.0
+	 */
+	void setReadSuspended(boolean isReadSuspended);
+
+	/**
+	 * Checks if reading from the connection is suspended.
+	 *
+	 * @return true/false
+	 * @see #setReadSuspended(boolean)
+	 * @since 0.3.0
+	 */
+	boolean isReadSuspended();
+
 	/**
 	 * Writes on a socket-stream from a byte-array.
 	 *
@@ -143,4 +164,122 @@ public interface Client extends ExtendedObject, Runnable, HolderListener<Listene
 	 * @since 0.0.1
 	 */
 	void writeStream(byte... data) throws IOException;
-}   
+
+	/**
+	 * Returns the {@link Codec} for the framing of the messages.
+	 *
+	 * @return {@link Codec}
+	 * @see Codec
+	 * @since 0.3.0
+	 */
+	Codec getCodec();
+
+	/**
+	 * Sets the {@link Codec} for the framing of the messages.
+	 *
+	 * @param codec for the framing
+	 * @see Codec
+	 * @since 0.3.0
+	 */
+	void setCodec(Codec codec);
+
+	/**
+	 * Returns the flush window for coalescing messages.
+	 *
+	 * @return flush window in milliseconds, 0 if every message is written immediately
+	 * @since 0.3.0
+	 */
+	long getFlushWindow();
+
+	/**
+	 * Sets the flush window for coalescing messages (default: 0).
+	 * Small messages are coalesced for at most this time or until they reach the flush threshold, 0 writes every message immediately.
+	 *
+	 * @param flushWindow in milliseconds
+	 * @see net.laubenberger.wichtel.controller.net.codec.FrameWriter
+	 * @since 0.3.0
+	 */
+	void setFlushWindow(long flushWindow);
+
+	/**
+	 * Returns the flush threshold for coalescing messages.
+	 *
+	 * @return flush threshold in bytes
+	 * @since 0.3.0
+	 */
+	int getFlushThreshold();
+
+	/**
+	 * Sets the flush threshold for coalescing messages (default: {@link net.laubenberger.wichtel.controller.net.codec.FrameWriter#DEFAULT_FLUSH_THRESHOLD}).
+	 * Coalesced messages are written as soon as they reach this size.
+	 *
+	 * @param flushThreshold in bytes
+	 * @see net.laubenberger.wichtel.controller.net.codec.FrameWriter
+	 * @since 0.3.0
+	 */
+	void setFlushThreshold(int flushThreshold);
+
+	/**
+	 * Returns the idle timeout of the connection.
+	 *
+	 * @return idle timeout in milliseconds, 0 if disabled
+	 * @since 0.3.0
+	 */
+	long getIdleTimeout();
+
+	/**
+	 * Sets the idle timeout of the connection (default: 0, disabled).
+	 * The connection is stopped if no message was read or written during this time.
+	 *
+	 * @param idleTimeout in milliseconds
+	 * @see net.laubenberger.wichtel.controller.net.timer.Watchdog
+	 * @since 0.3.0
+	 */
+	void setIdleTimeout(long idleTimeout);
+
+	/**
+	 * Returns the read timeout of the connection.
+	 *
+	 * @return read timeout in milliseconds, 0 if disabled
+	 * @since 0.3.0
+	 */
+	long getReadTimeout();
+
+	/**
+	 * Sets the read timeout of the connection (default: 0, disabled).
+	 * The connection is stopped if a read doesn't return a complete message within this time: a blocking {@link #readStream()} from its call, a non-blocking connection from the first byte of a message.
+	 *
+	 * @param readTimeout in milliseconds
+	 * @see net.laubenberger.wichtel.controller.net.timer.Watchdog
+	 * @since 0.3.0
+	 */
+	void setReadTimeout(long readTimeout);
+
+	/**
+	 * Returns the heartbeat interval of the connection.
+	 *
+	 * @return heartbeat interval in milliseconds, 0 if disabled
+	 * @since 0.3.0
+	 */
+	long getHeartbeatInterval();
+
+	/**
+	 * Sets the heartbeat interval of the connection (default: 0, disabled).
+	 * An empty message is sent if no message was written during this time; received empty messages are treated as heartbeats and not passed on.
+	 * Both peers must enable heartbeats, an idle timeout of a few intervals on the peer detects a dead connection.
+	 *
+	 * @param heartbeatInterval in milliseconds
+	 * @see net.laubenberger.wichtel.controller.net.timer.Watchdog
+	 * @since 0.3.0
+	 */
+	void setHeartbeatInterval(long heartbeatInterval);
+
+	/**
+	 * Returns the {@link Metrics} of the client.
+	 *
+	 * @return {@link Metrics}
+	 * @see Metrics
+	 * @since 0.3.0
+	 */
+	Metrics getMetrics();
+}
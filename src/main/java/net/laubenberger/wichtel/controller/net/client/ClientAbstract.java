@@ -31,15 +31,29 @@
 package net.laubenberger.wichtel.controller.net.client;
 
 import java.io.IOException;
-import java.io.InputStream;
 import java.net.Socket;
+import java.net.SocketException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
 import java.util.Collection;
 import java.util.HashSet;
-
-import net.laubenberger.wichtel.helper.HelperArray;
-import net.laubenberger.wichtel.helper.HelperIO;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.JMException;
+
+import net.laubenberger.wichtel.controller.net.codec.Codec;
+import net.laubenberger.wichtel.controller.net.codec.CodecDelimiter;
+import net.laubenberger.wichtel.controller.net.codec.FrameDecoder;
+import net.laubenberger.wichtel.controller.net.codec.FrameWriter;
+import net.laubenberger.wichtel.controller.net.metrics.Metrics;
+import net.laubenberger.wichtel.controller.net.timer.ListenerWatchdog;
+import net.laubenberger.wichtel.controller.net.timer.Watchdog;
 import net.laubenberger.wichtel.helper.HelperLog;
 import net.laubenberger.wichtel.helper.HelperNumber;
+import net.laubenberger.wichtel.helper.HelperThread;
+import net.laubenberger.wichtel.misc.BufferPool;
 import net.laubenberger.wichtel.misc.Event;
 import net.laubenberger.wichtel.misc.exception.RuntimeExceptionIsNull;
 import net.laubenberger.wichtel.misc.exception.RuntimeExceptionMustBeGreater;
@@ -61,7 +75,68 @@ public abstract class ClientAbstract extends ExtendedObjectAbstract implements C
 	
 	private final Event<Client> event = new Event<Client>(this);
 
-	private Thread thread;
+	private static final AtomicLong CONNECTIONS = new AtomicLong();
+	private static final Executor EXECUTOR = HelperThread.createExecutor(HelperThread.createThreadFactory(Client.class.getSimpleName(), false));
+
+	private final long connectionId = CONNECTIONS.incrementAndGet();
+
+	private final Runnable task = new Runnable() {
+		@Override
+		public void run() {
+			thread = Thread.currentThread();
+			try {
+				ClientAbstract.this.run();
+			} finally {
+				thread = null; //the thread may be reused by the executor
+			}
+		}
+	};
+
+	private final Watchdog watchdog = new Watchdog(new ListenerWatchdog() {
+		@Override
+		public void watchdogIdle(final Event<Watchdog> event) {
+			if (log.isDebugEnabled()) log.debug("Connection " + connectionId + " is idle"); //$NON-NLS-1$ //$NON-NLS-2$
+			EXECUTOR.execute(taskTimeout);
+		}
+
+		@Override
+		public void watchdogReadTimeout(final Event<Watchdog> event) {
+			if (log.isDebugEnabled()) log.debug("Read on connection " + connectionId + " timed out"); //$NON-NLS-1$ //$NON-NLS-2$
+			EXECUTOR.execute(taskTimeout);
+		}
+
+		@Override
+		public void watchdogHeartbeat(final Event<Watchdog> event) {
+			EXECUTOR.execute(taskHeartbeat); //a blocking write must not delay the timer
+		}
+	});
+
+	private final Runnable taskTimeout = new Runnable() {
+		@Override
+		public void run() {
+			try {
+				stop();
+			} catch (IOException ex) {
+				if (log.isDebugEnabled()) log.debug("Could not stop the connection", ex); //$NON-NLS-1$
+			}
+		}
+	};
+
+	private final Runnable taskHeartbeat = new Runnable() {
+		@Override
+		public void run() {
+			try {
+				writeStream(Watchdog.HEARTBEAT);
+			} catch (IOException ex) {
+				if (log.isDebugEnabled()) log.debug("Could not send the heartbeat", ex); //$NON-NLS-1$
+			}
+		}
+	};
+
+	private volatile Thread thread;
+
+	private Executor executor = EXECUTOR;
+	private boolean isVirtualThreads;
 
 	private final Collection<ListenerClient> listeners = new HashSet<>();
 
@@ -69,7 +144,21 @@ public abstract class ClientAbstract extends ExtendedObjectAbstract implements C
 	private int port;
 	private Socket socket;
 
-	private boolean isRunning;
+	private Codec codec = new CodecDelimiter();
+	private FrameDecoder decoder;
+	private volatile FrameWriter writer;
+	private long flushWindow;
+	private int flushThreshold = FrameWriter.DEFAULT_FLUSH_THRESHOLD;
+
+	private boolean isTcpNoDelay;
+	private int sendBufferSize; //0: OS default
+
+	private final Metrics metrics = new Metrics();
+	private boolean isMBeanEnabled;
+
+	private volatile boolean isRunning;
+	private final Object readLock = new Object();
+	private volatile boolean isReadSuspended;
 
 	protected ClientAbstract(final String host, final int port) {
 		super();
@@ -113,10 +202,301 @@ public abstract class ClientAbstract extends ExtendedObjectAbstract implements C
 	}
 
 
+	/**
+	 * Returns the unique id of the connection.
+	 *
+	 * @return id of the connection
+	 * @since 0.3.0
+	 */
+	public long getConnectionId() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+		
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(connectionId));
+		return connectionId;
+	}
+
+	/**
+	 * Returns the {@link Executor} for the thread of the client.
+	 *
+	 * @return {@link Executor}
+	 * @see Executor
+	 * @since 0.3.0
+	 */
+	public Executor getExecutor() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+		
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(executor));
+		return executor;
+	}
+
+	/**
+	 * Sets the {@link Executor} for the thread of the client.
+	 * The value is used on the next {@link #start()}.
+	 *
+	 * @param executor for the client
+	 * @see Executor
+	 * @since 0.3.0
+	 */
+	public void setExecutor(final Executor executor) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(executor));
+		
+		if (null == executor) {
+			throw new RuntimeExceptionIsNull("executor"); //$NON-NLS-1$
+		}
+
+		this.executor = executor;
+		isVirtualThreads = false;
+		
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	/**
+	 * Sets the {@link ThreadFactory} for the thread of the client.
+	 * The value is used on the next {@link #start()}.
+	 *
+	 * @param factory for the client
+	 * @see ThreadFactory
+	 * @since 0.3.0
+	 */
+	public void setThreadFactory(final ThreadFactory factory) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(factory));
+		
+		setExecutor(HelperThread.createExecutor(factory));
+		
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	/**
+	 * Checks if the client runs on a virtual thread.
+	 *
+	 * @return true/false
+	 * @since 0.3.0
+	 */
+	public boolean isVirtualThreads() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+		
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(isVirtualThreads));
+		return isVirtualThreads;
+	}
+
+	/**
+	 * Enables or disables a virtual thread for the client.
+	 * On VMs without virtual threads, a platform daemon thread is used.
+	 * The value is used on the next {@link #start()}.
+	 *
+	 * @param isVirtualThreads true/false
+	 * @see HelperThread#createVirtualThreadFactory(String)
+	 * @since 0.3.0
+	 */
+	public void setVirtualThreads(final boolean isVirtualThreads) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(isVirtualThreads));
+		
+		executor = isVirtualThreads ? HelperThread.createExecutor(HelperThread.createVirtualThreadFactory(Client.class.getSimpleName())) : EXECUTOR;
+		this.isVirtualThreads = isVirtualThreads;
+		
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	/**
+	 * Checks if TCP_NODELAY is enabled on the connection.
+	 *
+	 * @return true/false
+	 * @since 0.3.0
+	 */
+	public boolean isTcpNoDelay() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+		
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(isTcpNoDelay));
+		return isTcpNoDelay;
+	}
+
+	/**
+	 * Enables or disables TCP_NODELAY on the connection (default: false, the setting of the OS).
+	 * Without Nagle's algorithm, small messages are sent without delay; combine it with a flush window to keep the number of packets low.
+	 * The value is used on the next {@link #start()}.
+	 *
+	 * @param isTcpNoDelay true/false
+	 * @since 0.3.0
+	 */
+	public void setTcpNoDelay(final boolean isTcpNoDelay) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(isTcpNoDelay));
+		
+		this.isTcpNoDelay = isTcpNoDelay;
+		
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	/**
+	 * Returns the size of the send buffer (SO_SNDBUF) of the connection.
+	 *
+	 * @return size of the send buffer in bytes, 0 for the setting of the OS
+	 * @since 0.3.0
+	 */
+	public int getSendBufferSize() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+		
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(sendBufferSize));
+		return sendBufferSize;
+	}
+
+	/**
+	 * Sets the size of the send buffer (SO_SNDBUF) of the connection (default: 0, the setting of the OS).
+	 * The value is used on the next {@link #start()}.
+	 *
+	 * @param sendBufferSize in bytes, 0 for the setting of the OS
+	 * @since 0.3.0
+	 */
+	public void setSendBufferSize(final int sendBufferSize) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(sendBufferSize));
+		
+		if (0 > sendBufferSize) {
+			throw new RuntimeExceptionMustBeGreater("sendBufferSize", sendBufferSize, 0); //$NON-NLS-1$
+		}
+
+		this.sendBufferSize = sendBufferSize;
+		
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	/**
+	 * Applies the socket options (e.g. {@link #isTcpNoDelay()}) to a new {@link Socket}.
+	 * Implementations of {@link #start()} should call this method for their socket.
+	 *
+	 * @param socket to configure
+	 * @throws SocketException
+	 * @see Socket
+	 * @since 0.3.0
+	 */
+	protected void configureSocket(final Socket socket) throws SocketException {
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodStart(socket));
+		
+		if (isTcpNoDelay) {
+			socket.setTcpNoDelay(true);
+		}
+		if (0 < sendBufferSize) {
+			socket.setSendBufferSize(sendBufferSize);
+		}
+		
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodExit());
+	}
+
+	/**
+	 * Checks if the {@link #getMetrics()} are registered as MXBean while the client is running.
+	 *
+	 * @return true/false
+	 * @since 0.3.0
+	 */
+	public boolean isMBeanEnabled() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+		
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(isMBeanEnabled));
+		return isMBeanEnabled;
+	}
+
+	/**
+	 * Enables or disables the registration of the {@link #getMetrics()} as MXBean "net.laubenberger.wichtel:type=Client" while the client is running (default: false).
+	 * The value is used on the next {@link #start()}.
+	 *
+	 * @param isMBeanEnabled true/false
+	 * @see Metrics#registerMBean(javax.management.ObjectName)
+	 * @since 0.3.0
+	 */
+	public void setMBeanEnabled(final boolean isMBeanEnabled) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(isMBeanEnabled));
+		
+		this.isMBeanEnabled = isMBeanEnabled;
+		
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	/**
+	 * Starts the thread of the client on the {@link #getExecutor()}.
+	 * The thread is named with the connection id while the client is running.
+	 *
+	 * @since 0.3.0
+	 */
+	protected void startThread() {
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodStart());
+		
+		HelperThread.execute(executor, task, Client.class.getSimpleName() + '-' + connectionId);
+		
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodExit());
+	}
+
+
 	/*
 	 * Private methods
 	 */
 
+	/**
+	 * Returns the {@link Watchdog} of the connection.
+	 *
+	 * @return {@link Watchdog}
+	 * @see Watchdog
+	 * @since 0.3.0
+	 */
+	protected Watchdog getWatchdog() {
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodStart());
+		
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodExit(watchdog));
+		return watchdog;
+	}
+
+	/**
+	 * Checks if a received message is a heartbeat, which must not be passed on.
+	 *
+	 * @param data received message
+	 * @return true if heartbeats are enabled and the message is empty
+	 * @see #setHeartbeatInterval(long)
+	 * @since 0.3.0
+	 */
+	protected boolean isHeartbeat(final byte... data) {
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodStart(data));
+		
+		final boolean result = 0L < watchdog.getHeartbeatInterval() && 0 == data.length;
+		
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodExit(result));
+		return result;
+	}
+
+	private void awaitResume() { //blocks the reading thread while reading is suspended
+		synchronized (readLock) {
+			while (isReadSuspended && isRunning) {
+				try {
+					readLock.wait();
+				} catch (InterruptedException ex) {
+					Thread.currentThread().interrupt(); //stopped
+					break;
+				}
+			}
+		}
+	}
+
+	private byte[] readMessage() throws IOException { //skips the heartbeats
+		byte[] result;
+		
+		watchdog.readStarted();
+		while (null != (result = decoder.read(socket.getInputStream()))) {
+			watchdog.readFinished();
+			if (!isHeartbeat(result)) {
+				break;
+			}
+			watchdog.readStarted();
+		}
+		return result;
+	}
+
+	private synchronized FrameWriter getWriter() throws IOException { //concurrent writers must share the same writer
+		if (null == writer) {
+			final SocketChannel channel = socket.getChannel();
+			final FrameWriter result = null != channel && channel.isBlocking() ? new FrameWriter(channel) : new FrameWriter(socket.getOutputStream());
+			result.setFlushWindow(flushWindow);
+			result.setFlushThreshold(flushThreshold);
+			writer = result;
+		}
+		return writer;
+	}
+
 	protected void fireStreamRead() {
 		if (log.isTraceEnabled()) log.trace(HelperLog.methodStart());
 		
@@ -130,7 +510,16 @@ public abstract class ClientAbstract extends ExtendedObjectAbstract implements C
 	protected void fireStarted() {
 		if (log.isTraceEnabled()) log.trace(HelperLog.methodStart());
 		
+		if (isMBeanEnabled) {
+			try {
+				metrics.registerMBean(Metrics.createObjectName(Client.class.getSimpleName(), getClass().getSimpleName() + '-' + host + ':' + port + '-' + connectionId));
+			} catch (JMException ex) {
+				log.warn("Could not register the metrics", ex); //$NON-NLS-1$
+			}
+		}
+		
 		isRunning = true;
+		watchdog.start();
 
 		for (final ListenerClient listener : listeners) {
 			listener.clientStarted(event);
@@ -142,7 +531,17 @@ public abstract class ClientAbstract extends ExtendedObjectAbstract implements C
 	protected void fireStopped() {
 		if (log.isTraceEnabled()) log.trace(HelperLog.methodStart());
 		
+		try {
+			metrics.unregisterMBean();
+		} catch (JMException ex) {
+			log.warn("Could not unregister the metrics", ex); //$NON-NLS-1$
+		}
+		
 		isRunning = false;
+		watchdog.stop();
+		synchronized (readLock) { //wakes a suspended reader
+			readLock.notifyAll();
+		}
 
 		for (final ListenerClient listener : listeners) {
 			listener.clientStopped(event);
@@ -218,6 +617,8 @@ public abstract class ClientAbstract extends ExtendedObjectAbstract implements C
 		}
 
 		this.socket = socket;
+		decoder = null;
+		writer = null;
 		
 		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
 	}
@@ -226,12 +627,15 @@ public abstract class ClientAbstract extends ExtendedObjectAbstract implements C
 	public void start() throws IOException {
 		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
 		
-		socket = new Socket(host, port);
+		final long start = System.nanoTime();
+		final Socket socket = new Socket(host, port);
+		configureSocket(socket);
+		setSocket(socket);
+		metrics.recordStart(System.nanoTime() - start);
 
-		thread = new Thread(this);
-		thread.start();
+		fireStarted(); //before the thread can fire the first received event
 
-		fireStarted();
+		startThread();
 		
 		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
 	}
@@ -242,10 +646,23 @@ public abstract class ClientAbstract extends ExtendedObjectAbstract implements C
 		
 		fireStopped();
 
+		final FrameWriter writer = this.writer;
+		if (null != writer && null != socket && !socket.isClosed()) {
+			try {
+				writer.flush(); //coalesced messages
+			} catch (IOException ex) {
+				if (log.isDebugEnabled()) log.debug("Could not flush the coalesced messages", ex); //$NON-NLS-1$
+			}
+		}
+		if (null != writer) {
+			writer.cancel(); //own timer of the writer
+		}
+
 		if (null != socket && !socket.isClosed()) {
 			socket.close();
 		}
 
+		final Thread thread = this.thread;
 		if (null != thread) {
 			if (thread.isAlive()) {
 				thread.interrupt();
@@ -257,28 +674,33 @@ public abstract class ClientAbstract extends ExtendedObjectAbstract implements C
 		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
 	}
 
-	@SuppressWarnings("resource")
+	@Override
+	public Metrics getMetrics() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+		
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(metrics));
+		return metrics;
+	}
+
 	@Override
 	public byte[] readStream() throws IOException {
 		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
 		
-		byte[] result = HelperArray.EMPTY_ARRAY_BYTE;
+		byte[] result = null;
 
 		if (socket.isClosed()) {
 			stop();
 		} else {
-			final InputStream is = socket.getInputStream();
-			byte input;
-
-			do {
-				input = (byte) is.read();
-
-				if (-1 != input) {
-					result = HelperArray.concatenate(result, new byte[]{input});
-				}
-			} while (-1 != input);
+			if (null == decoder) {
+				decoder = new FrameDecoder(codec, BufferPool.HEAP);
+			}
+			awaitResume();
+			final long bytesRead = decoder.getBytesRead();
+			result = readMessage();
+			metrics.recordRead(decoder.getBytesRead() - bytesRead, null == result ? 0L : 1L);
 			
 			if (null == result) { //server lost
+				decoder.release();
 				stop();
 			}
 		}
@@ -291,11 +713,40 @@ public abstract class ClientAbstract extends ExtendedObjectAbstract implements C
 	public void writeStream(final byte... data) throws IOException {
 		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(data));
 		
-		HelperIO.writeStream(socket.getOutputStream(), HelperArray.concatenate(data, new byte[]{(byte) -1}));
+		if (null == data) {
+			throw new RuntimeExceptionIsNull("data"); //$NON-NLS-1$
+		}
+
+		final ByteBuffer[] frame = codec.encode(data);
+		metrics.recordWrite(frame);
+		getWriter().write(frame); //header, payload and trailer in one packet
+		if (Watchdog.HEARTBEAT != data) {
+			watchdog.written();
+		}
+		
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	@Override
+	public void setReadSuspended(final boolean isReadSuspended) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(isReadSuspended));
+		
+		synchronized (readLock) {
+			this.isReadSuspended = isReadSuspended;
+			readLock.notifyAll();
+		}
 		
 		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
 	}
 
+	@Override
+	public boolean isReadSuspended() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+		
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(isReadSuspended));
+		return isReadSuspended;
+	}
+
 	@Override
 	public boolean isRunning() {
 		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
@@ -304,6 +755,137 @@ public abstract class ClientAbstract extends ExtendedObjectAbstract implements C
 		return isRunning;
 	}
 
+	@Override
+	public Codec getCodec() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+		
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(codec));
+		return codec;
+	}
+
+	@Override
+	public void setCodec(final Codec codec) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(codec));
+		
+		if (null == codec) {
+			throw new RuntimeExceptionIsNull("codec"); //$NON-NLS-1$
+		}
+
+		this.codec = codec;
+		decoder = null;
+		
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	@Override
+	public long getFlushWindow() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+		
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(flushWindow));
+		return flushWindow;
+	}
+
+	@Override
+	public void setFlushWindow(final long flushWindow) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(flushWindow));
+		
+		if (0L > flushWindow) {
+			throw new RuntimeExceptionMustBeGreater("flushWindow", flushWindow, 0); //$NON-NLS-1$
+		}
+
+		this.flushWindow = flushWindow;
+
+		final FrameWriter writer = this.writer;
+		if (null != writer) {
+			writer.setFlushWindow(flushWindow);
+		}
+		
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	@Override
+	public int getFlushThreshold() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+		
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(flushThreshold));
+		return flushThreshold;
+	}
+
+	@Override
+	public void setFlushThreshold(final int flushThreshold) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(flushThreshold));
+		
+		if (0 >= flushThreshold) {
+			throw new RuntimeExceptionMustBeGreater("flushThreshold", flushThreshold, 0); //$NON-NLS-1$
+		}
+
+		this.flushThreshold = flushThreshold;
+
+		final FrameWriter writer = this.writer;
+		if (null != writer) {
+			writer.setFlushThreshold(flushThreshold);
+		}
+		
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	@Override
+	public long getIdleTimeout() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+		
+		final long result = watchdog.getIdleTimeout();
+		
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(result));
+		return result;
+	}
+
+	@Override
+	public void setIdleTimeout(final long idleTimeout) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(idleTimeout));
+		
+		watchdog.setIdleTimeout(idleTimeout);
+		
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	@Override
+	public long getReadTimeout() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+		
+		final long result = watchdog.getReadTimeout();
+		
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(result));
+		return result;
+	}
+
+	@Override
+	public void setReadTimeout(final long readTimeout) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(readTimeout));
+		
+		watchdog.setReadTimeout(readTimeout);
+		
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	@Override
+	public long getHeartbeatInterval() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+		
+		final long result = watchdog.getHeartbeatInterval();
+		
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(result));
+		return result;
+	}
+
+	@Override
+	public void setHeartbeatInterval(final long heartbeatInterval) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(heartbeatInterval));
+		
+		watchdog.setHeartbeatInterval(heartbeatInterval);
+		
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
 	@Override
 	public void addListener(final ListenerClient listener) {
 		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(listener));
@@ -0,0 +1,267 @@
+/*
+ * Copyright (c) 2007-2013 by Stefan Laubenberger.
+ *
+ * "wichtel" is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License v3.0.
+ *
+ * "wichtel" is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * See the GNU Lesser General Public License for more details:
+ * -----------------------------------------------------------
+ * http://www.gnu.org/licenses
+ *
+ *
+ * This distribution is available at:
+ * ----------------------------------
+ * https://github.com/slaubenberger/wichtel/
+ *
+ *
+ * Contact information:
+ * --------------------
+ * Stefan Laubenberger
+ * Bullingerstrasse 53
+ * CH-8004 Zuerich
+ *
+ * http://www.laubenberger.net
+ * laubenberger@gmail.com
+ */
+
+package net.laubenberger.wichtel.controller.net.client;
+
+import java.io.IOException;
+import java.net.ProtocolException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.laubenberger.wichtel.controller.net.codec.CodecLength;
+import net.laubenberger.wichtel.controller.net.mux.MuxMessage;
+import net.laubenberger.wichtel.helper.HelperLog;
+import net.laubenberger.wichtel.misc.exception.RuntimeExceptionIsNull;
+import net.laubenberger.wichtel.misc.exception.RuntimeExceptionMustBeGreater;
+import net.laubenberger.wichtel.model.net.MuxType;
+
+
+/**
+ * Client for multiplexed connections.
+ * <p>
+ * Every request gets its own stream id, so many requests can be outstanding on the same connection.
+ * {@link #request(byte...)} returns immediately with a {@link CompletableFuture}, which is completed by the reader thread as soon as the response with the same stream id arrives.
+ * The server (e.g. {@link net.laubenberger.wichtel.controller.net.server.ServerMuxImpl}) may answer the requests in any order.
+ * The connection uses a {@link CodecLength}, since the message header is binary.
+ *
+ * @author Stefan Laubenberger
+ * @version 0.3.0, 2026-10-17
+ * @since 0.3.0
+ */
+public class ClientMuxImpl extends ClientAbstract {
+	private static final Logger log = LoggerFactory.getLogger(ClientMuxImpl.class);
+
+	private final ConcurrentMap<Integer, CompletableFuture<byte[]>> requests = new ConcurrentHashMap<>();
+	private final AtomicInteger streams = new AtomicInteger();
+
+	private long timeout;
+
+	private volatile byte[] data;
+
+	public ClientMuxImpl(final String host, final int port) {
+		super(host, port);
+		if (log.isTraceEnabled()) log.trace(HelperLog.constructor(host, port));
+
+		setCodec(new CodecLength());
+	}
+
+	/**
+	 * Returns the timeout for the responses.
+	 *
+	 * @return timeout in milliseconds, 0 for no timeout
+	 * @since 0.3.0
+	 */
+	public long getTimeout() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(timeout));
+		return timeout;
+	}
+
+	/**
+	 * Sets the timeout for the responses (default: 0, no timeout).
+	 * The future of a request without response in time is completed with a {@link java.util.concurrent.TimeoutException}.
+	 *
+	 * @param timeout in milliseconds, 0 for no timeout
+	 * @since 0.3.0
+	 */
+	public void setTimeout(final long timeout) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(timeout));
+		if (0L > timeout) {
+			throw new RuntimeExceptionMustBeGreater("timeout", timeout, 0); //$NON-NLS-1$
+		}
+
+		this.timeout = timeout;
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	/**
+	 * Returns the number of requests waiting for their response.
+	 *
+	 * @return number of outstanding requests
+	 * @since 0.3.0
+	 */
+	public int getPendingRequests() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		final int result = requests.size();
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(result));
+		return result;
+	}
+
+	/**
+	 * Sends a request without waiting for the response.
+	 * The future is completed exceptionally if the server answers with {@link MuxType#ERROR}, the timeout expires or the connection is lost.
+	 *
+	 * @param data payload of the request
+	 * @return {@link CompletableFuture} with the payload of the response
+	 * @see CompletableFuture
+	 * @since 0.3.0
+	 */
+	public CompletableFuture<byte[]> request(final byte... data) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(data));
+		if (null == data) {
+			throw new RuntimeExceptionIsNull("data"); //$NON-NLS-1$
+		}
+
+		final CompletableFuture<byte[]> result = new CompletableFuture<>();
+
+		int streamId;
+		do {
+			streamId = streams.incrementAndGet() & Integer.MAX_VALUE;
+		} while (null != requests.putIfAbsent(streamId, result));
+
+		final Integer key = streamId;
+		final long start = System.nanoTime();
+		result.whenComplete(new BiConsumer<byte[], Throwable>() {
+			@Override
+			public void accept(final byte[] response, final Throwable ex) {
+				requests.remove(key, result);
+				if (null == ex) {
+					getMetrics().recordExchange(System.nanoTime() - start);
+				}
+			}
+		});
+		if (0L < timeout) {
+			result.orTimeout(timeout, TimeUnit.MILLISECONDS);
+		}
+
+		if (isRunning()) {
+			try {
+				writeStream(MuxMessage.encode(streamId, MuxType.REQUEST, data));
+			} catch (IOException ex) {
+				result.completeExceptionally(ex);
+			}
+		} else {
+			result.completeExceptionally(new IOException("Client is not running")); //$NON-NLS-1$
+		}
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(result));
+		return result;
+	}
+
+
+	/*
+	 * Private methods
+	 */
+
+	private void complete(final MuxMessage message) {
+		final CompletableFuture<byte[]> future = requests.remove(message.getStreamId());
+
+		if (null == future) {
+			//unknown stream id or a request that has timed out
+			if (log.isWarnEnabled()) log.warn("No request for the response on stream " + message.getStreamId()); //$NON-NLS-1$
+		} else if (MuxType.ERROR == message.getType()) {
+			future.completeExceptionally(new IOException(new String(message.getPayload(), StandardCharsets.UTF_8)));
+		} else {
+			future.complete(message.getPayload());
+		}
+	}
+
+	private void failAll(final IOException ex) {
+		for (final CompletableFuture<byte[]> future : requests.values()) {
+			future.completeExceptionally(ex);
+		}
+	}
+
+
+	/*
+	 * Overridden methods
+	 */
+
+	@Override
+	public void stop() throws IOException {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		super.stop();
+		failAll(new IOException("Connection closed")); //$NON-NLS-1$
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+
+	/*
+	 * Implemented methods
+	 */
+
+	@Override
+	public byte[] getData() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(data));
+		return data;
+	}
+
+	/**
+	 * Reads the responses and completes the futures of their requests.
+	 * This method is called by the thread of the client.
+	 */
+	@Override
+	public void run() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		try {
+			byte[] data;
+			while (null != (data = readStream())) {
+				this.data = data;
+				fireStreamRead();
+
+				final MuxMessage message = MuxMessage.decode(data);
+				if (MuxType.REQUEST == message.getType()) {
+					throw new ProtocolException("Unexpected request on stream " + message.getStreamId()); //$NON-NLS-1$
+				}
+				complete(message);
+			}
+		} catch (IOException ex) {
+			if (isRunning()) {
+				log.error("Could not read response", ex); //$NON-NLS-1$
+				try {
+					stop();
+				} catch (IOException e) {
+					if (log.isDebugEnabled()) log.debug("Could not stop client", e); //$NON-NLS-1$
+				}
+			}
+		} finally {
+			failAll(new IOException("Connection lost")); //$NON-NLS-1$
+		}
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+}
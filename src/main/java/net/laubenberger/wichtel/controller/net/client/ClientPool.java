@@ -0,0 +1,703 @@
+/*
+ * Copyright (c) 2007-2013 by Stefan Laubenberger.
+ *
+ * "wichtel" is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License v3.0.
+ *
+ * "wichtel" is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * See the GNU Lesser General Public License for more details:
+ * -----------------------------------------------------------
+ * http://www.gnu.org/licenses
+ *
+ *
+ * This distribution is available at:
+ * ----------------------------------
+ * https://github.com/slaubenberger/wichtel/
+ *
+ *
+ * Contact information:
+ * --------------------
+ * Stefan Laubenberger
+ * Bullingerstrasse 53
+ * CH-8004 Zuerich
+ *
+ * http://www.laubenberger.net
+ * laubenberger@gmail.com
+ */
+
+package net.laubenberger.wichtel.controller.net.client;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.Map;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import javax.net.SocketFactory;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.laubenberger.wichtel.controller.net.codec.Codec;
+import net.laubenberger.wichtel.controller.net.codec.CodecDelimiter;
+import net.laubenberger.wichtel.helper.HelperLog;
+import net.laubenberger.wichtel.helper.HelperNumber;
+import net.laubenberger.wichtel.misc.exception.RuntimeExceptionIsNull;
+import net.laubenberger.wichtel.misc.exception.RuntimeExceptionMustBeGreater;
+import net.laubenberger.wichtel.misc.exception.RuntimeExceptionMustBeSmaller;
+import net.laubenberger.wichtel.misc.extendedObject.ExtendedObjectAbstract;
+
+
+/**
+ * Pool of keep-alive connections per host and port.
+ * <p>
+ * Borrowed connections ({@link ClientPooled}) offer the same {@link Client#readStream()} and {@link Client#writeStream(byte...)} contract as every other client.
+ * Reusing connections avoids the TCP (and TLS, with a {@link javax.net.ssl.SSLSocketFactory}) handshake for every request.
+ * A daemon timer evicts connections idle longer than {@link #getIdleTimeout()}, checks the health of the idle connections and keeps {@link #getMinIdle()} connections open for every known host.
+ * <p>
+ * Usage:
+ * <pre>
+ * final ClientPooled client = pool.borrow(host, port);
+ * try {
+ *    client.writeStream(request);
+ *    response = client.readStream();
+ *    client.release();
+ * } catch (IOException ex) {
+ *    pool.invalidate(client);
+ * }
+ * </pre>
+ *
+ * @author Stefan Laubenberger
+ * @version 0.3.0, 2026-10-17
+ * @since 0.3.0
+ */
+public class ClientPool extends ExtendedObjectAbstract {
+	private static final Logger log = LoggerFactory.getLogger(ClientPool.class);
+
+	public static final int DEFAULT_MAX_TOTAL = 8;
+	public static final int DEFAULT_MAX_IDLE = 8;
+	public static final long DEFAULT_BORROW_TIMEOUT = 30000L; //30s
+	public static final long DEFAULT_IDLE_TIMEOUT = 60000L; //1min
+	public static final long DEFAULT_EVICTION_INTERVAL = 30000L; //30s
+	public static final long DEFAULT_VALIDATION_INTERVAL = 1000L; //1s
+
+	private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+	private final SocketFactory socketFactory;
+	private final int maxTotal;
+
+	private volatile int minIdle;
+	private volatile int maxIdle = DEFAULT_MAX_IDLE;
+	private volatile long borrowTimeout = DEFAULT_BORROW_TIMEOUT;
+	private volatile long idleTimeout = DEFAULT_IDLE_TIMEOUT;
+	private volatile long validationInterval = DEFAULT_VALIDATION_INTERVAL;
+	private volatile boolean isTestOnBorrow = true;
+	private volatile Codec codec = new CodecDelimiter();
+
+	private final Timer timer;
+	private volatile boolean isClosed;
+
+	public ClientPool(final SocketFactory socketFactory, final int maxTotal, final long evictionInterval) {
+		super();
+		if (log.isTraceEnabled()) log.trace(HelperLog.constructor(socketFactory, maxTotal, evictionInterval));
+
+		if (null == socketFactory) {
+			throw new RuntimeExceptionIsNull("socketFactory"); //$NON-NLS-1$
+		}
+		if (0 >= maxTotal) {
+			throw new RuntimeExceptionMustBeGreater("maxTotal", maxTotal, 0); //$NON-NLS-1$
+		}
+		if (0L >= evictionInterval) {
+			throw new RuntimeExceptionMustBeGreater("evictionInterval", evictionInterval, 0); //$NON-NLS-1$
+		}
+
+		this.socketFactory = socketFactory;
+		this.maxTotal = maxTotal;
+
+		timer = new Timer(getClass().getSimpleName() + "-evictor", true); //$NON-NLS-1$
+		timer.schedule(new EvictionTask(), evictionInterval, evictionInterval);
+	}
+
+	public ClientPool(final SocketFactory socketFactory) {
+		this(socketFactory, DEFAULT_MAX_TOTAL, DEFAULT_EVICTION_INTERVAL);
+		if (log.isTraceEnabled()) log.trace(HelperLog.constructor(socketFactory));
+	}
+
+	public ClientPool() {
+		this(SocketFactory.getDefault());
+		if (log.isTraceEnabled()) log.trace(HelperLog.constructor());
+	}
+
+	/**
+	 * Returns the maximal number of borrowed connections per host.
+	 *
+	 * @return maximal number of borrowed connections per host
+	 * @since 0.3.0
+	 */
+	public int getMaxTotal() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(maxTotal));
+		return maxTotal;
+	}
+
+	/**
+	 * Returns the minimal number of idle connections per host.
+	 *
+	 * @return minimal number of idle connections
+	 * @since 0.3.0
+	 */
+	public int getMinIdle() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(minIdle));
+		return minIdle;
+	}
+
+	/**
+	 * Sets the minimal number of idle connections per host (default: 0).
+	 * The connections are opened by the eviction timer for every host borrowed from before, but borrowed and idle connections together never exceed {@link #getMaxTotal()}.
+	 *
+	 * @param minIdle minimal number of idle connections
+	 * @since 0.3.0
+	 */
+	public void setMinIdle(final int minIdle) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(minIdle));
+		if (0 > minIdle) {
+			throw new RuntimeExceptionMustBeGreater("minIdle", minIdle, -1); //$NON-NLS-1$
+		}
+		if (maxIdle < minIdle) {
+			throw new RuntimeExceptionMustBeSmaller("minIdle", minIdle, maxIdle); //$NON-NLS-1$
+		}
+
+		this.minIdle = minIdle;
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	/**
+	 * Returns the maximal number of idle connections per host.
+	 *
+	 * @return maximal number of idle connections
+	 * @since 0.3.0
+	 */
+	public int getMaxIdle() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(maxIdle));
+		return maxIdle;
+	}
+
+	/**
+	 * Sets the maximal number of idle connections per host (default: {@link #DEFAULT_MAX_IDLE}).
+	 * Released connections beyond this number are closed.
+	 *
+	 * @param maxIdle maximal number of idle connections
+	 * @since 0.3.0
+	 */
+	public void setMaxIdle(final int maxIdle) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(maxIdle));
+		if (0 > maxIdle) {
+			throw new RuntimeExceptionMustBeGreater("maxIdle", maxIdle, -1); //$NON-NLS-1$
+		}
+		if (minIdle > maxIdle) {
+			throw new RuntimeExceptionMustBeGreater("maxIdle", maxIdle, minIdle); //$NON-NLS-1$
+		}
+
+		this.maxIdle = maxIdle;
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	/**
+	 * Returns the maximal time to wait for a connection in milliseconds.
+	 *
+	 * @return borrow timeout in milliseconds
+	 * @since 0.3.0
+	 */
+	public long getBorrowTimeout() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(borrowTimeout));
+		return borrowTimeout;
+	}
+
+	/**
+	 * Sets the maximal time to wait for a connection if all connections of a host are borrowed (default: {@link #DEFAULT_BORROW_TIMEOUT}).
+	 * The value is also used as connect timeout.
+	 *
+	 * @param borrowTimeout in milliseconds
+	 * @since 0.3.0
+	 */
+	public void setBorrowTimeout(final long borrowTimeout) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(borrowTimeout));
+		if (0L > borrowTimeout) {
+			throw new RuntimeExceptionMustBeGreater("borrowTimeout", borrowTimeout, 0); //$NON-NLS-1$
+		}
+
+		this.borrowTimeout = borrowTimeout;
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	/**
+	 * Returns the time after which an idle connection is closed in milliseconds.
+	 *
+	 * @return idle timeout in milliseconds
+	 * @since 0.3.0
+	 */
+	public long getIdleTimeout() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(idleTimeout));
+		return idleTimeout;
+	}
+
+	/**
+	 * Sets the time after which an idle connection is closed (default: {@link #DEFAULT_IDLE_TIMEOUT}).
+	 * The connections for {@link #getMinIdle()} are kept open.
+	 *
+	 * @param idleTimeout in milliseconds
+	 * @since 0.3.0
+	 */
+	public void setIdleTimeout(final long idleTimeout) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(idleTimeout));
+		if (0L >= idleTimeout) {
+			throw new RuntimeExceptionMustBeGreater("idleTimeout", idleTimeout, 0); //$NON-NLS-1$
+		}
+
+		this.idleTimeout = idleTimeout;
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	/**
+	 * Checks if idle connections are validated before they are borrowed.
+	 *
+	 * @return true/false
+	 * @since 0.3.0
+	 */
+	public boolean isTestOnBorrow() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(isTestOnBorrow));
+		return isTestOnBorrow;
+	}
+
+	/**
+	 * Enables or disables the validation of idle connections before they are borrowed (default: true).
+	 *
+	 * @param isTestOnBorrow true/false
+	 * @see ClientPooled#isValid()
+	 * @since 0.3.0
+	 */
+	public void setTestOnBorrow(final boolean isTestOnBorrow) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(isTestOnBorrow));
+
+		this.isTestOnBorrow = isTestOnBorrow;
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	/**
+	 * Returns the idle time after which a connection is probed by {@link ClientPooled#isValid()} in milliseconds.
+	 *
+	 * @return validation interval in milliseconds
+	 * @since 0.3.0
+	 */
+	public long getValidationInterval() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(validationInterval));
+		return validationInterval;
+	}
+
+	/**
+	 * Sets the idle time after which a connection is probed by {@link ClientPooled#isValid()} with a read of up to 1ms (default: {@link #DEFAULT_VALIDATION_INTERVAL}).
+	 * Connections used more recently are only checked without blocking; 0 probes every connection.
+	 *
+	 * @param validationInterval in milliseconds
+	 * @since 0.3.0
+	 */
+	public void setValidationInterval(final long validationInterval) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(validationInterval));
+		if (0L > validationInterval) {
+			throw new RuntimeExceptionMustBeGreater("validationInterval", validationInterval, -1); //$NON-NLS-1$
+		}
+
+		this.validationInterval = validationInterval;
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	/**
+	 * Returns the {@link Codec} of the connections.
+	 *
+	 * @return {@link Codec}
+	 * @see Codec
+	 * @since 0.3.0
+	 */
+	public Codec getCodec() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(codec));
+		return codec;
+	}
+
+	/**
+	 * Sets the {@link Codec} of new connections (default: {@link CodecDelimiter}).
+	 *
+	 * @param codec for the connections
+	 * @see Codec
+	 * @since 0.3.0
+	 */
+	public void setCodec(final Codec codec) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(codec));
+		if (null == codec) {
+			throw new RuntimeExceptionIsNull("codec"); //$NON-NLS-1$
+		}
+
+		this.codec = codec;
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	/**
+	 * Returns the number of idle connections of a host.
+	 *
+	 * @param host of the server
+	 * @param port of the server
+	 * @return number of idle connections
+	 * @since 0.3.0
+	 */
+	public int getIdle(final String host, final int port) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(host, port));
+
+		final Entry entry = entries.get(getKey(host, port));
+		final int result = null == entry ? 0 : entry.idle.size();
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(result));
+		return result;
+	}
+
+	/**
+	 * Returns the number of borrowed connections of a host.
+	 *
+	 * @param host of the server
+	 * @param port of the server
+	 * @return number of borrowed connections
+	 * @since 0.3.0
+	 */
+	public int getActive(final String host, final int port) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(host, port));
+
+		final Entry entry = entries.get(getKey(host, port));
+		final int result = null == entry ? 0 : maxTotal - entry.permits.availablePermits();
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(result));
+		return result;
+	}
+
+	/**
+	 * Borrows a connection to a host.
+	 * An idle connection is reused if possible, otherwise a new one is opened.
+	 *
+	 * @param host of the server
+	 * @param port of the server
+	 * @return started {@link ClientPooled}
+	 * @throws SocketTimeoutException if no connection is available within {@link #getBorrowTimeout()}
+	 * @throws IOException if the connection couldn't be opened
+	 * @see ClientPooled
+	 * @since 0.3.0
+	 */
+	public ClientPooled borrow(final String host, final int port) throws IOException {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(host, port));
+		if (null == host) {
+			throw new RuntimeExceptionIsNull("host"); //$NON-NLS-1$
+		}
+		if (0 >= port) {
+			throw new RuntimeExceptionMustBeGreater("port", port, 0); //$NON-NLS-1$
+		}
+		if (HelperNumber.NUMBER_65536.intValue() <= port) {
+			throw new RuntimeExceptionMustBeSmaller("port", port, 65535); //$NON-NLS-1$
+		}
+		if (isClosed) {
+			throw new IOException("Pool is closed"); //$NON-NLS-1$
+		}
+
+		final Entry entry = getEntry(host, port);
+		final long start = System.currentTimeMillis();
+
+		try {
+			if (!entry.permits.tryAcquire(borrowTimeout, TimeUnit.MILLISECONDS)) {
+				throw new SocketTimeoutException("No connection to " + entry.key + " available within " + borrowTimeout + "ms"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			}
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while waiting for a connection to " + entry.key, ex); //$NON-NLS-1$
+		}
+
+		ClientPooled result = null;
+
+		try {
+			while (null == result) {
+				final ClientPooled client = entry.idle.pollFirst(); //most recently used first
+
+				if (null == client) {
+					result = open(entry, borrowTimeout - (System.currentTimeMillis() - start));
+				} else if (!isTestOnBorrow || client.isValid()) {
+					result = client;
+				} else {
+					close(client);
+				}
+			}
+		} finally {
+			if (null == result) {
+				entry.permits.release();
+			}
+		}
+		result.markBorrowed();
+		result.touch();
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(result));
+		return result;
+	}
+
+	/**
+	 * Returns a borrowed connection to the pool.
+	 * Stopped connections and connections beyond {@link #getMaxIdle()} are closed.
+	 * Connections which aren't borrowed (e.g. released twice) are ignored, so the pool never exceeds {@link #getMaxTotal()}.
+	 *
+	 * @param client to release
+	 * @see ClientPooled
+	 * @since 0.3.0
+	 */
+	public void release(final ClientPooled client) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(client));
+		if (null == client) {
+			throw new RuntimeExceptionIsNull("client"); //$NON-NLS-1$
+		}
+
+		final Entry entry = entries.get(getKey(client.getHost(), client.getPort()));
+
+		if (!client.markReturned()) {
+			if (log.isWarnEnabled()) log.warn("Connection is not borrowed, release ignored: " + client); //$NON-NLS-1$
+		} else if (null == entry) {
+			close(client);
+		} else {
+			if (isClosed || !client.isRunning() || maxIdle <= entry.idle.size()) {
+				close(client);
+			} else {
+				client.touch();
+				entry.idle.offerFirst(client);
+			}
+			entry.permits.release();
+		}
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	/**
+	 * Closes a borrowed connection (e.g. after an {@link IOException}) and frees its slot in the pool.
+	 * Connections which aren't borrowed (e.g. already released) are ignored.
+	 *
+	 * @param client to invalidate
+	 * @see ClientPooled
+	 * @since 0.3.0
+	 */
+	public void invalidate(final ClientPooled client) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(client));
+		if (null == client) {
+			throw new RuntimeExceptionIsNull("client"); //$NON-NLS-1$
+		}
+
+		if (client.markReturned()) {
+			close(client);
+
+			final Entry entry = entries.get(getKey(client.getHost(), client.getPort()));
+			if (null != entry) {
+				entry.permits.release();
+			}
+		} else {
+			if (log.isWarnEnabled()) log.warn("Connection is not borrowed, invalidate ignored: " + client); //$NON-NLS-1$
+		}
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	/**
+	 * Closes the pool and all idle connections.
+	 * Borrowed connections are closed when they are released.
+	 *
+	 * @since 0.3.0
+	 */
+	public void close() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		isClosed = true;
+		timer.cancel();
+
+		for (final Entry entry : entries.values()) {
+			ClientPooled client;
+			while (null != (client = entry.idle.pollFirst())) {
+				close(client);
+			}
+		}
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	/**
+	 * Checks if the pool is closed.
+	 *
+	 * @return true/false
+	 * @since 0.3.0
+	 */
+	public boolean isClosed() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(isClosed));
+		return isClosed;
+	}
+
+	/**
+	 * Creates a new connection.
+	 * Override this method to customize the {@link Socket} or the {@link ClientPooled}.
+	 *
+	 * @param socket connected {@link Socket}
+	 * @param host   of the server
+	 * @param port   of the server
+	 * @return new {@link ClientPooled}
+	 * @see ClientPooled
+	 * @since 0.3.0
+	 */
+	protected ClientPooled createClient(final Socket socket, final String host, final int port) {
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodStart(socket, host, port));
+
+		final ClientPooled result = new ClientPooled(this, socket, host, port);
+
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodExit(result));
+		return result;
+	}
+
+
+	/*
+	 * Private methods
+	 */
+
+	private static String getKey(final String host, final int port) {
+		return host + ':' + port;
+	}
+
+	private Entry getEntry(final String host, final int port) {
+		final String key = getKey(host, port);
+		Entry result = entries.get(key);
+
+		if (null == result) {
+			final Entry entry = new Entry(key, host, port, maxTotal);
+			result = entries.putIfAbsent(key, entry);
+
+			if (null == result) {
+				result = entry;
+			}
+		}
+		return result;
+	}
+
+	private ClientPooled open(final Entry entry, final long timeout) throws IOException {
+		final Socket socket = socketFactory.createSocket();
+
+		try {
+			socket.setKeepAlive(true);
+			socket.setTcpNoDelay(true);
+			socket.connect(new InetSocketAddress(entry.host, entry.port), (int) Math.min(Integer.MAX_VALUE, Math.max(1L, timeout)));
+		} catch (IOException ex) {
+			socket.close();
+			throw ex;
+		}
+
+		final ClientPooled result = createClient(socket, entry.host, entry.port);
+		result.start();
+
+		return result;
+	}
+
+	private static void close(final ClientPooled client) {
+		try {
+			client.stop();
+		} catch (IOException ex) {
+			if (log.isDebugEnabled()) log.debug("Could not close the connection", ex); //$NON-NLS-1$
+		}
+	}
+
+	private void evict(final Entry entry) {
+		final long now = System.currentTimeMillis();
+
+		//oldest connections are at the end of the deque; every connection is taken out while it's checked, so it can't be borrowed meanwhile
+		for (final ClientPooled client : entry.idle.toArray(new ClientPooled[entry.idle.size()])) {
+			if (entry.idle.removeFirstOccurrence(client)) {
+				if ((minIdle <= entry.idle.size() && idleTimeout <= now - client.getLastUsed()) || !client.isValid()) {
+					close(client);
+				} else {
+					entry.idle.offerLast(client);
+				}
+			}
+		}
+
+		//keep the minimal number of idle connections open; the borrowed connections hold the missing permits, so borrowed and idle stay within maxTotal
+		while (!isClosed && minIdle > entry.idle.size() && entry.permits.availablePermits() > entry.idle.size() && entry.permits.tryAcquire()) {
+			try {
+				entry.idle.offerLast(open(entry, borrowTimeout));
+			} catch (IOException ex) {
+				if (log.isDebugEnabled()) log.debug("Could not open an idle connection to " + entry.key, ex); //$NON-NLS-1$
+				break;
+			} finally {
+				entry.permits.release();
+			}
+		}
+	}
+
+
+	/*
+	 * Inner classes
+	 */
+
+	private static class Entry {
+		final String key;
+		final String host;
+		final int port;
+		final BlockingDeque<ClientPooled> idle = new LinkedBlockingDeque<>();
+		final Semaphore permits;
+
+		Entry(final String key, final String host, final int port, final int maxTotal) {
+			this.key = key;
+			this.host = host;
+			this.port = port;
+			permits = new Semaphore(maxTotal, true);
+		}
+	}
+
+	private class EvictionTask extends TimerTask {
+		@Override
+		public void run() {
+			for (final Map.Entry<String, Entry> entry : entries.entrySet()) {
+				try {
+					evict(entry.getValue());
+				} catch (RuntimeException ex) {
+					log.error("Could not evict the connections of " + entry.getKey(), ex); //$NON-NLS-1$
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,252 @@
+/*
+ * Copyright (c) 2007-2013 by Stefan Laubenberger.
+ *
+ * "wichtel" is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License v3.0.
+ *
+ * "wichtel" is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * See the GNU Lesser General Public License for more details:
+ * -----------------------------------------------------------
+ * http://www.gnu.org/licenses
+ *
+ *
+ * This distribution is available at:
+ * ----------------------------------
+ * https://github.com/slaubenberger/wichtel/
+ *
+ *
+ * Contact information:
+ * --------------------
+ * Stefan Laubenberger
+ * Bullingerstrasse 53
+ * CH-8004 Zuerich
+ *
+ * http://www.laubenberger.net
+ * laubenberger@gmail.com
+ */
+
+package net.laubenberger.wichtel.controller.net.client;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.laubenberger.wichtel.helper.HelperLog;
+import net.laubenberger.wichtel.misc.exception.RuntimeExceptionIsNull;
+
+
+/**
+ * Connection of a {@link ClientPool}.
+ * <p>
+ * The connection has no thread of its own: the borrower uses {@link #writeStream(byte...)} and {@link #readStream()} directly and returns the connection with {@link #release()}.
+ * {@link #stop()} closes the connection, it won't be reused afterwards.
+ *
+ * @author Stefan Laubenberger
+ * @version 0.3.0, 2026-10-17
+ * @since 0.3.0
+ */
+public class ClientPooled extends ClientAbstract {
+	private static final Logger log = LoggerFactory.getLogger(ClientPooled.class);
+
+	private final ClientPool pool;
+	private final AtomicBoolean isBorrowed = new AtomicBoolean();
+
+	private volatile byte[] data;
+	private volatile long lastUsed = System.currentTimeMillis();
+
+	protected ClientPooled(final ClientPool pool, final Socket socket, final String host, final int port) {
+		super(host, port);
+		if (log.isTraceEnabled()) log.trace(HelperLog.constructor(pool, socket, host, port));
+
+		if (null == pool) {
+			throw new RuntimeExceptionIsNull("pool"); //$NON-NLS-1$
+		}
+
+		this.pool = pool;
+		setSocket(socket);
+		setCodec(pool.getCodec());
+	}
+
+	/**
+	 * Returns the {@link ClientPool} of the connection.
+	 *
+	 * @return {@link ClientPool}
+	 * @see ClientPool
+	 * @since 0.3.0
+	 */
+	public ClientPool getPool() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(pool));
+		return pool;
+	}
+
+	/**
+	 * Returns the time of the last use in milliseconds.
+	 *
+	 * @return time of the last use
+	 * @since 0.3.0
+	 */
+	public long getLastUsed() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(lastUsed));
+		return lastUsed;
+	}
+
+	/**
+	 * Checks if the connection is borrowed from its {@link ClientPool}.
+	 *
+	 * @return true/false
+	 * @since 0.3.0
+	 */
+	public boolean isBorrowed() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		final boolean result = isBorrowed.get();
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(result));
+		return result;
+	}
+
+	/**
+	 * Returns the connection to its {@link ClientPool}.
+	 * The connection must not be used afterwards.
+	 *
+	 * @since 0.3.0
+	 */
+	public void release() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		pool.release(this);
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	/**
+	 * Checks if the connection is still usable.
+	 * A connection closed by the server or with unexpected pending data is invalid.
+	 * Only connections idle for at least {@link ClientPool#getValidationInterval()} are probed with a read of up to 1ms,
+	 * for the others the state of the {@link Socket} and the pending data are checked without blocking.
+	 *
+	 * @return true/false
+	 * @since 0.3.0
+	 */
+	public boolean isValid() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		boolean result = false;
+		final Socket socket = getSocket();
+
+		if (isRunning() && !socket.isClosed() && socket.isConnected() && !socket.isInputShutdown() && !socket.isOutputShutdown()) {
+			try {
+				final InputStream is = socket.getInputStream();
+
+				if (0 != is.available()) {
+					if (log.isDebugEnabled()) log.debug("Connection has unexpected pending data"); //$NON-NLS-1$
+				} else if (pool.getValidationInterval() > System.currentTimeMillis() - lastUsed) {
+					result = true; //recently used: a closed connection would have failed the last request
+				} else {
+					final int timeout = socket.getSoTimeout();
+					socket.setSoTimeout(1);
+					try {
+						is.read(); //returns -1 if the server closed the connection or data which doesn't belong to a request
+					} catch (SocketTimeoutException ex) {
+						result = true; //nothing to read: the connection is alive
+					} finally {
+						socket.setSoTimeout(timeout);
+					}
+				}
+			} catch (IOException ex) {
+				if (log.isDebugEnabled()) log.debug("Connection is invalid", ex); //$NON-NLS-1$
+			}
+		}
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(result));
+		return result;
+	}
+
+	protected void touch() {
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodStart());
+
+		lastUsed = System.currentTimeMillis();
+
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodExit());
+	}
+
+	boolean markBorrowed() {
+		return isBorrowed.compareAndSet(false, true);
+	}
+
+	boolean markReturned() {
+		return isBorrowed.compareAndSet(true, false);
+	}
+
+
+	/*
+	 * Overridden methods
+	 */
+
+	/**
+	 * Marks the connection as running, the {@link Socket} is already connected by the {@link ClientPool}.
+	 */
+	@Override
+	public void start() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		fireStarted();
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	@Override
+	public byte[] readStream() throws IOException {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		final byte[] result = super.readStream();
+		data = result;
+		touch();
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(result));
+		return result;
+	}
+
+	@Override
+	public void writeStream(final byte... data) throws IOException {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(data));
+
+		super.writeStream(data);
+		touch();
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+
+	/*
+	 * Implemented methods
+	 */
+
+	@Override
+	public byte[] getData() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(data));
+		return data;
+	}
+
+	/**
+	 * Does nothing, the connection is used by the borrowing thread.
+	 */
+	@Override
+	public void run() {
+		//do nothing
+	}
+}
@@ -33,12 +33,15 @@ package net.laubenberger.wichtel.controller.net.client;
 import javax.net.ssl.SSLSocketFactory;
 import javax.net.SocketFactory;
 
+import net.laubenberger.wichtel.controller.net.ssl.SSLConfig;
 import net.laubenberger.wichtel.helper.HelperLog;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.net.Socket;
+import java.security.GeneralSecurityException;
 
 /**
  * Skeleton for SSL secured clients.
@@ -49,12 +52,44 @@ import java.io.IOException;
  */
 public abstract class ClientSSLAbstract extends ClientAbstract {
 	private static final Logger log = LoggerFactory.getLogger(ClientSSLAbstract.class);
+
+	private SSLConfig sslConfig;
 	
 	protected ClientSSLAbstract(final String host, final int port) {
 		super(host, port);
 		if (log.isTraceEnabled()) log.trace(HelperLog.constructor(host, port));
 	}
 
+	/**
+	 * Returns the {@link SSLConfig} of the client.
+	 *
+	 * @return {@link SSLConfig} or null for the defaults of the VM
+	 * @see SSLConfig
+	 * @since 0.3.0
+	 */
+	public SSLConfig getSSLConfig() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(sslConfig));
+		return sslConfig;
+	}
+
+	/**
+	 * Sets the {@link SSLConfig} of the client (default: null, uses {@link SSLSocketFactory#getDefault()}).
+	 * The value is used on the next {@link #start()}.
+	 *
+	 * @param sslConfig for the client
+	 * @see SSLConfig
+	 * @since 0.3.0
+	 */
+	public void setSSLConfig(final SSLConfig sslConfig) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(sslConfig));
+
+		this.sslConfig = sslConfig;
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
 
 	/*
 	 * Overridden methods
@@ -64,12 +99,24 @@ public abstract class ClientSSLAbstract extends ClientAbstract {
 	public void start() throws IOException {
 		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
 		
-		final SocketFactory sslFactory = SSLSocketFactory.getDefault();
+		final SocketFactory sslFactory;
+		if (null == sslConfig) {
+			sslFactory = SSLSocketFactory.getDefault();
+		} else {
+			try {
+				sslFactory = sslConfig.getSocketFactory();
+			} catch (GeneralSecurityException ex) {
+				throw new IOException("Could not create the SSL context", ex); //$NON-NLS-1$
+			}
+		}
 
-		setSocket(sslFactory.createSocket(getHost(), getPort()));
+		final long start = System.nanoTime();
+		final Socket socket = sslFactory.createSocket(getHost(), getPort());
+		configureSocket(socket);
+		setSocket(socket);
+		getMetrics().recordStart(System.nanoTime() - start);
 
-		setThread(new Thread(this));
-		getThread().start();
+		startThread();
 
 		fireStarted();
 		
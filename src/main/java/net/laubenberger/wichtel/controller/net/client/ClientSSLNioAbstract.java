@@ -0,0 +1,421 @@
+/*
+ * Copyright (c) 2007-2013 by Stefan Laubenberger.
+ *
+ * "wichtel" is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License v3.0.
+ *
+ * "wichtel" is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * See the GNU Lesser General Public License for more details:
+ * -----------------------------------------------------------
+ * http://www.gnu.org/licenses
+ *
+ *
+ * This distribution is available at:
+ * ----------------------------------
+ * https://github.com/slaubenberger/wichtel/
+ *
+ *
+ * Contact information:
+ * --------------------
+ * Stefan Laubenberger
+ * Bullingerstrasse 53
+ * CH-8004 Zuerich
+ *
+ * http://www.laubenberger.net
+ * laubenberger@gmail.com
+ */
+
+package net.laubenberger.wichtel.controller.net.client;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.SocketChannel;
+import java.security.GeneralSecurityException;
+import java.util.concurrent.Executor;
+
+import javax.net.ssl.SSLEngine;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.laubenberger.wichtel.controller.net.nio.SelectorLoop;
+import net.laubenberger.wichtel.controller.net.server.ListenerServerThread;
+import net.laubenberger.wichtel.controller.net.server.ServerThread;
+import net.laubenberger.wichtel.controller.net.server.ServerThreadNioImpl;
+import net.laubenberger.wichtel.controller.net.ssl.SSLChannel;
+import net.laubenberger.wichtel.controller.net.ssl.SSLConfig;
+import net.laubenberger.wichtel.helper.HelperLog;
+import net.laubenberger.wichtel.misc.Event;
+import net.laubenberger.wichtel.misc.exception.RuntimeExceptionIsNull;
+import net.laubenberger.wichtel.misc.exception.RuntimeExceptionMustBeGreater;
+
+
+/**
+ * Skeleton for non-blocking SSL secured clients.
+ * <p>
+ * The connection is a {@link SocketChannel} secured by an {@link SSLChannel} with an {@link SSLEngine} from the {@link #getSSLConfig()}.
+ * It is served by a {@link SelectorLoop} (the same as a {@link ServerThreadNioImpl} on the server side), so the client doesn't own a {@link Thread}.
+ * Received messages are announced via {@link ListenerClient#clientStreamRead(Event)} on the loop thread, {@link #writeStream(byte...)} never blocks.
+ * Many clients can share one loop via {@link #setLoop(SelectorLoop)}, otherwise every client starts its own.
+ * <p>
+ * After the handshake a TLS connection is symmetric, only the client mode of the {@link SSLEngine} decides the role.
+ * Therefore the client serves its channel with a {@link ServerThreadNioImpl} and reuses its framing, write queue, timeouts and heartbeats instead of duplicating them in a client-side type.
+ * The {@link ListenerServerThread} is internal, it only forwards the events of the connection to the {@link ListenerClient}s.
+ *
+ * @author Stefan Laubenberger
+ * @version 0.3.0, 2026-10-17
+ * @since 0.3.0
+ */
+public abstract class ClientSSLNioAbstract extends ClientSSLAbstract {
+	private static final Logger log = LoggerFactory.getLogger(ClientSSLNioAbstract.class);
+
+	private final ListenerServerThread listener = new ListenerServerThread() {
+		@Override
+		public void serverThreadStreamRead(final Event<ServerThread> event) {
+			data = event.getSource().getData();
+			fireStreamRead();
+		}
+
+		@Override
+		public void serverThreadStarted(final Event<ServerThread> event) {
+			//nothing to do
+		}
+
+		@Override
+		public void serverThreadStopped(final Event<ServerThread> event) {
+			fireStopped();
+
+			if (isLoopOwner) {
+				loop.stop();
+			}
+		}
+	};
+
+	private Executor taskExecutor = SSLChannel.EXECUTOR;
+
+	private SelectorLoop loop;
+	private boolean isLoopOwner;
+
+	private long idleTimeout;
+	private long readTimeout;
+	private long heartbeatInterval;
+
+	private volatile ServerThreadNioImpl connection;
+	private volatile byte[] data;
+
+	protected ClientSSLNioAbstract(final String host, final int port) {
+		super(host, port);
+		if (log.isTraceEnabled()) log.trace(HelperLog.constructor(host, port));
+	}
+
+	protected ClientSSLNioAbstract(final String host, final int port, final SSLConfig sslConfig) {
+		this(host, port);
+		if (log.isTraceEnabled()) log.trace(HelperLog.constructor(host, port, sslConfig));
+
+		setSSLConfig(sslConfig);
+	}
+
+	/**
+	 * Returns the {@link SelectorLoop} of the client.
+	 *
+	 * @return {@link SelectorLoop}
+	 * @see SelectorLoop
+	 * @since 0.3.0
+	 */
+	public SelectorLoop getLoop() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(loop));
+		return loop;
+	}
+
+	/**
+	 * Sets a running {@link SelectorLoop} for the client (default: every client starts and stops its own loop).
+	 * The value is used on the next {@link #start()}.
+	 *
+	 * @param loop for the client
+	 * @see SelectorLoop
+	 * @since 0.3.0
+	 */
+	public void setLoop(final SelectorLoop loop) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(loop));
+		if (null == loop) {
+			throw new RuntimeExceptionIsNull("loop"); //$NON-NLS-1$
+		}
+
+		this.loop = loop;
+		isLoopOwner = false;
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	/**
+	 * Returns the {@link Executor} for the delegated tasks of the handshake.
+	 *
+	 * @return {@link Executor} for the delegated tasks
+	 * @see Executor
+	 * @since 0.3.0
+	 */
+	public Executor getTaskExecutor() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(taskExecutor));
+		return taskExecutor;
+	}
+
+	/**
+	 * Sets the {@link Executor} for the delegated tasks of the handshake (default: {@link SSLChannel#EXECUTOR}).
+	 *
+	 * @param taskExecutor for the delegated tasks
+	 * @see Executor
+	 * @since 0.3.0
+	 */
+	public void setTaskExecutor(final Executor taskExecutor) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(taskExecutor));
+		if (null == taskExecutor) {
+			throw new RuntimeExceptionIsNull("taskExecutor"); //$NON-NLS-1$
+		}
+
+		this.taskExecutor = taskExecutor;
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	/**
+	 * Returns the {@link SSLChannel} of the connection.
+	 *
+	 * @return {@link SSLChannel} or null if the client isn't started
+	 * @see SSLChannel
+	 * @since 0.3.0
+	 */
+	public SSLChannel getSSLChannel() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		final ServerThreadNioImpl connection = this.connection;
+		final SSLChannel result = null == connection ? null : connection.getSSLChannel();
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(result));
+		return result;
+	}
+
+
+	/*
+	 * Overridden methods
+	 */
+
+	@Override
+	public void start() throws IOException {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		final SSLConfig sslConfig = getSSLConfig();
+		if (null == sslConfig) {
+			throw new RuntimeExceptionIsNull("sslConfig"); //$NON-NLS-1$
+		}
+
+		final SSLEngine engine;
+		try {
+			engine = sslConfig.createClientEngine(getHost(), getPort());
+		} catch (GeneralSecurityException ex) {
+			throw new IOException("Could not create the SSL engine", ex); //$NON-NLS-1$
+		}
+
+		final SocketChannel channel = SocketChannel.open(new InetSocketAddress(getHost(), getPort()));
+
+		final ServerThreadNioImpl connection;
+		try {
+			configureSocket(channel.socket());
+			setSocket(channel.socket());
+
+			if (null == loop || isLoopOwner) {
+				loop = new SelectorLoop(getClass().getSimpleName() + '-' + getConnectionId());
+				isLoopOwner = true;
+				loop.start();
+			}
+
+			connection = new ServerThreadNioImpl(channel, loop, engine, taskExecutor);
+		} catch (IOException | RuntimeException ex) {
+			channel.close();
+			if (isLoopOwner && null != loop) {
+				loop.stop();
+			}
+			throw ex;
+		}
+		connection.setCodec(getCodec());
+		connection.setIdleTimeout(idleTimeout);
+		connection.setReadTimeout(readTimeout);
+		connection.setHeartbeatInterval(heartbeatInterval);
+		if (isReadSuspended()) {
+			connection.setReadSuspended(true); //applied when the channel is registered
+		}
+		connection.getMetrics().setParent(getMetrics()); //the connection records the start when it is registered
+		connection.addListener(listener);
+		this.connection = connection;
+
+		fireStarted();
+		connection.start();
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	@Override
+	public void stop() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		final ServerThreadNioImpl connection = this.connection;
+		if (null != connection) {
+			connection.stop();
+		}
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	/**
+	 * Returns the last received message.
+	 * The channel is read by the {@link SelectorLoop}, so this method never blocks.
+	 *
+	 * @return last received message
+	 * @since 0.3.0
+	 */
+	@Override
+	public byte[] readStream() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(data));
+		return data;
+	}
+
+	/**
+	 * Suspends or resumes reading on the {@link SelectorLoop} of the connection.
+	 *
+	 * @param isReadSuspended true/false
+	 * @since 0.3.0
+	 */
+	@Override
+	public void setReadSuspended(final boolean isReadSuspended) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(isReadSuspended));
+
+		super.setReadSuspended(isReadSuspended);
+
+		final ServerThreadNioImpl connection = this.connection;
+		if (null != connection) {
+			connection.setReadSuspended(isReadSuspended);
+		}
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	/**
+	 * Queues a message, it is sent by the {@link SelectorLoop} as soon as the handshake is finished.
+	 * <strong>Note:</strong> The frame wraps the array without copying it, so it must not be changed after this call.
+	 *
+	 * @param data message to send
+	 * @since 0.3.0
+	 */
+	@Override
+	public void writeStream(final byte... data) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(data));
+
+		connection.writeStream(data);
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	@Override
+	public long getIdleTimeout() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(idleTimeout));
+		return idleTimeout;
+	}
+
+	@Override
+	public void setIdleTimeout(final long idleTimeout) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(idleTimeout));
+		if (0L > idleTimeout) {
+			throw new RuntimeExceptionMustBeGreater("idleTimeout", idleTimeout, 0); //$NON-NLS-1$
+		}
+
+		this.idleTimeout = idleTimeout;
+
+		final ServerThreadNioImpl connection = this.connection;
+		if (null != connection) {
+			connection.setIdleTimeout(idleTimeout);
+		}
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	@Override
+	public long getReadTimeout() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(readTimeout));
+		return readTimeout;
+	}
+
+	@Override
+	public void setReadTimeout(final long readTimeout) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(readTimeout));
+		if (0L > readTimeout) {
+			throw new RuntimeExceptionMustBeGreater("readTimeout", readTimeout, 0); //$NON-NLS-1$
+		}
+
+		this.readTimeout = readTimeout;
+
+		final ServerThreadNioImpl connection = this.connection;
+		if (null != connection) {
+			connection.setReadTimeout(readTimeout);
+		}
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	@Override
+	public long getHeartbeatInterval() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(heartbeatInterval));
+		return heartbeatInterval;
+	}
+
+	@Override
+	public void setHeartbeatInterval(final long heartbeatInterval) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(heartbeatInterval));
+		if (0L > heartbeatInterval) {
+			throw new RuntimeExceptionMustBeGreater("heartbeatInterval", heartbeatInterval, 0); //$NON-NLS-1$
+		}
+
+		this.heartbeatInterval = heartbeatInterval;
+
+		final ServerThreadNioImpl connection = this.connection;
+		if (null != connection) {
+			connection.setHeartbeatInterval(heartbeatInterval);
+		}
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+
+	/*
+	 * Implemented methods
+	 */
+
+	@Override
+	public byte[] getData() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(data));
+		return data;
+	}
+
+	/**
+	 * Not used, the {@link SelectorLoop} reads the channel.
+	 */
+	@Override
+	public void run() {
+		//nothing to do
+	}
+}
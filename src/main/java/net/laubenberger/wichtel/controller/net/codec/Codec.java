@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2007-2013 by Stefan Laubenberger.
+ *
+ * "wichtel" is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License v3.0.
+ *
+ * "wichtel" is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * See the GNU Lesser General Public License for more details:
+ * -----------------------------------------------------------
+ * http://www.gnu.org/licenses
+ *
+ *
+ * This distribution is available at:
+ * ----------------------------------
+ * https://github.com/slaubenberger/wichtel/
+ *
+ *
+ * Contact information:
+ * --------------------
+ * Stefan Laubenberger
+ * Bullingerstrasse 53
+ * CH-8004 Zuerich
+ *
+ * http://www.laubenberger.net
+ * laubenberger@gmail.com
+ */
+
+package net.laubenberger.wichtel.controller.net.codec;
+
+import java.net.ProtocolException;
+import java.nio.ByteBuffer;
+
+
+/**
+ * Defines the methods for the framing of messages on a stream.
+ * <p>
+ * A codec is stateless and can be shared between connections; the state of a connection is kept by a {@link FrameDecoder}.
+ *
+ * @author Stefan Laubenberger
+ * @version 0.3.0, 2026-10-17
+ * @since 0.3.0
+ */
+public interface Codec {
+	/**
+	 * Returns the length of the first frame (header, payload and trailer) in the buffer.
+	 * The position of the buffer is not changed.
+	 *
+	 * @param buffer  with the received data (between position and limit)
+	 * @param scanned number of bytes already inspected by a previous call for the same frame
+	 * @return length of the frame or -1 if the buffer doesn't contain enough data to know it
+	 * @throws ProtocolException if the frame is malformed or exceeds {@link #getMaxFrameLength()}
+	 * @see ByteBuffer
+	 * @since 0.3.0
+	 */
+	int getFrameLength(ByteBuffer buffer, int scanned) throws ProtocolException;
+
+	/**
+	 * Extracts the payload of a complete frame and moves the position of the buffer behind the frame.
+	 *
+	 * @param buffer	  with the received data (between position and limit)
+	 * @param frameLength length of the frame returned by {@link #getFrameLength(ByteBuffer, int)}
+	 * @return payload of the frame
+	 * @see ByteBuffer
+	 * @since 0.3.0
+	 */
+	byte[] decode(ByteBuffer buffer, int frameLength);
+
+	/**
+	 * Encodes a payload into a frame.
+	 * The payload isn't copied, the returned buffers are meant for a gathering write.
+	 * Payloads longer than {@link #getMaxFrameLength()} are rejected, since the decoder of the peer would refuse them.
+	 *
+	 * @param data payload of the frame
+	 * @return buffers of the frame (e.g. header and payload)
+	 * @see ByteBuffer
+	 * @since 0.3.0
+	 */
+	ByteBuffer[] encode(byte... data);
+
+	/**
+	 * Encodes the frame of a payload, which is written separately (e.g. with {@link java.nio.channels.FileChannel#transferTo(long, long, java.nio.channels.WritableByteChannel)}).
+	 * Payloads longer than {@link #getMaxFrameLength()} are rejected.
+	 *
+	 * @param length of the payload
+	 * @return header and trailer of the frame, both buffers may be empty
+	 * @see ByteBuffer
+	 * @see FrameFile
+	 * @since 0.3.0
+	 */
+	ByteBuffer[] encodeFrame(int length);
+
+	/**
+	 * Returns the maximal length of a frame.
+	 *
+	 * @return maximal length of a frame in bytes
+	 * @since 0.3.0
+	 */
+	int getMaxFrameLength();
+}
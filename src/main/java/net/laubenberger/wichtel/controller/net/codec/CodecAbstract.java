@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2007-2013 by Stefan Laubenberger.
+ *
+ * "wichtel" is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License v3.0.
+ *
+ * "wichtel" is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * See the GNU Lesser General Public License for more details:
+ * -----------------------------------------------------------
+ * http://www.gnu.org/licenses
+ *
+ *
+ * This distribution is available at:
+ * ----------------------------------
+ * https://github.com/slaubenberger/wichtel/
+ *
+ *
+ * Contact information:
+ * --------------------
+ * Stefan Laubenberger
+ * Bullingerstrasse 53
+ * CH-8004 Zuerich
+ *
+ * http://www.laubenberger.net
+ * laubenberger@gmail.com
+ */
+
+package net.laubenberger.wichtel.controller.net.codec;
+
+import java.net.ProtocolException;
+import java.nio.ByteBuffer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.laubenberger.wichtel.helper.HelperLog;
+import net.laubenberger.wichtel.misc.exception.RuntimeExceptionIsNull;
+import net.laubenberger.wichtel.misc.exception.RuntimeExceptionMustBeGreater;
+import net.laubenberger.wichtel.misc.exception.RuntimeExceptionMustBeSmaller;
+import net.laubenberger.wichtel.misc.extendedObject.ExtendedObjectAbstract;
+
+
+/**
+ * Skeleton for codecs.
+ *
+ * @author Stefan Laubenberger
+ * @version 0.3.0, 2026-10-17
+ * @since 0.3.0
+ */
+public abstract class CodecAbstract extends ExtendedObjectAbstract implements Codec {
+	private static final Logger log = LoggerFactory.getLogger(CodecAbstract.class);
+
+	public static final int DEFAULT_MAX_FRAME_LENGTH = 64 * 1024 * 1024; //64MB
+
+	private final int maxFrameLength;
+
+	protected CodecAbstract(final int maxFrameLength) {
+		super();
+		if (log.isTraceEnabled()) log.trace(HelperLog.constructor(maxFrameLength));
+
+		if (0 >= maxFrameLength) {
+			throw new RuntimeExceptionMustBeGreater("maxFrameLength", maxFrameLength, 0); //$NON-NLS-1$
+		}
+
+		this.maxFrameLength = maxFrameLength;
+	}
+
+	protected CodecAbstract() {
+		this(DEFAULT_MAX_FRAME_LENGTH);
+		if (log.isTraceEnabled()) log.trace(HelperLog.constructor());
+	}
+
+	/**
+	 * Checks the length of a frame against {@link #getMaxFrameLength()}.
+	 *
+	 * @param frameLength to check
+	 * @throws ProtocolException if the frame is negative or too long
+	 * @since 0.3.0
+	 */
+	protected void checkFrameLength(final long frameLength) throws ProtocolException {
+		if (0L > frameLength || maxFrameLength < frameLength) {
+			throw new ProtocolException("Invalid frame length: " + frameLength + " (max. " + maxFrameLength + ')'); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+	}
+
+	/**
+	 * Checks the length of a payload to encode against {@link #getMaxFrameLength()}, so the decoder of the peer accepts the frame.
+	 *
+	 * @param length of the payload
+	 * @since 0.3.0
+	 */
+	protected void checkPayloadLength(final int length) {
+		if (0 > length) {
+			throw new RuntimeExceptionMustBeGreater("length", length, -1); //$NON-NLS-1$
+		}
+		if (maxFrameLength < length) {
+			throw new RuntimeExceptionMustBeSmaller("length", length, maxFrameLength); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * Copies the given number of bytes from the buffer into a new byte-array.
+	 *
+	 * @param buffer to read from
+	 * @param length of the payload
+	 * @return payload
+	 * @since 0.3.0
+	 */
+	protected static byte[] copy(final ByteBuffer buffer, final int length) {
+		final byte[] result = new byte[length];
+		buffer.get(result);
+		return result;
+	}
+
+
+	/*
+	 * Implemented methods
+	 */
+
+	@Override
+	public int getMaxFrameLength() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(maxFrameLength));
+		return maxFrameLength;
+	}
+
+	@Override
+	public ByteBuffer[] encode(final byte... data) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(data));
+		if (null == data) {
+			throw new RuntimeExceptionIsNull("data"); //$NON-NLS-1$
+		}
+		checkPayloadLength(data.length);
+
+		final ByteBuffer[] result = encode(ByteBuffer.wrap(data));
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(result));
+		return result;
+	}
+
+
+	/*
+	 * Abstract methods
+	 */
+
+	/**
+	 * Encodes a payload into a frame.
+	 *
+	 * @param payload of the frame
+	 * @return buffers of the frame
+	 * @since 0.3.0
+	 */
+	protected abstract ByteBuffer[] encode(ByteBuffer payload);
+}
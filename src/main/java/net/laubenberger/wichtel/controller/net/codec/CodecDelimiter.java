@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2007-2013 by Stefan Laubenberger.
+ *
+ * "wichtel" is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License v3.0.
+ *
+ * "wichtel" is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * See the GNU Lesser General Public License for more details:
+ * -----------------------------------------------------------
+ * http://www.gnu.org/licenses
+ *
+ *
+ * This distribution is available at:
+ * ----------------------------------
+ * https://github.com/slaubenberger/wichtel/
+ *
+ *
+ * Contact information:
+ * --------------------
+ * Stefan Laubenberger
+ * Bullingerstrasse 53
+ * CH-8004 Zuerich
+ *
+ * http://www.laubenberger.net
+ * laubenberger@gmail.com
+ */
+
+package net.laubenberger.wichtel.controller.net.codec;
+
+import java.net.ProtocolException;
+import java.nio.ByteBuffer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.laubenberger.wichtel.helper.HelperLog;
+
+
+/**
+ * Codec for frames terminated by a delimiter byte.
+ * <strong>Note:</strong> The codec isn't binary-safe, the payload must not contain the delimiter.
+ * The default delimiter {@link #DEFAULT_DELIMITER} is the wire format of the socket servers and clients.
+ *
+ * @author Stefan Laubenberger
+ * @version 0.3.0, 2026-10-17
+ * @since 0.3.0
+ */
+public class CodecDelimiter extends CodecAbstract {
+	private static final Logger log = LoggerFactory.getLogger(CodecDelimiter.class);
+
+	public static final byte DEFAULT_DELIMITER = (byte) -1;
+
+	private final byte delimiter;
+	private final ByteBuffer trailer;
+
+	public CodecDelimiter(final byte delimiter, final int maxFrameLength) {
+		super(maxFrameLength);
+		if (log.isTraceEnabled()) log.trace(HelperLog.constructor(delimiter, maxFrameLength));
+
+		this.delimiter = delimiter;
+		trailer = ByteBuffer.wrap(new byte[]{delimiter}).asReadOnlyBuffer();
+	}
+
+	public CodecDelimiter(final byte delimiter) {
+		this(delimiter, DEFAULT_MAX_FRAME_LENGTH);
+		if (log.isTraceEnabled()) log.trace(HelperLog.constructor(delimiter));
+	}
+
+	public CodecDelimiter() {
+		this(DEFAULT_DELIMITER);
+		if (log.isTraceEnabled()) log.trace(HelperLog.constructor());
+	}
+
+	/**
+	 * Returns the delimiter of the frames.
+	 *
+	 * @return delimiter
+	 * @since 0.3.0
+	 */
+	public byte getDelimiter() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(delimiter));
+		return delimiter;
+	}
+
+
+	/*
+	 * Implemented methods
+	 */
+
+	@Override
+	public int getFrameLength(final ByteBuffer buffer, final int scanned) throws ProtocolException {
+		final int position = buffer.position();
+
+		for (int ii = position + scanned; buffer.limit() > ii; ii++) {
+			if (delimiter == buffer.get(ii)) {
+				return ii - position + 1;
+			}
+		}
+		checkFrameLength(buffer.remaining());
+
+		return -1;
+	}
+
+	@Override
+	public byte[] decode(final ByteBuffer buffer, final int frameLength) {
+		final byte[] result = copy(buffer, frameLength - 1);
+		buffer.get(); //skip the delimiter
+
+		return result;
+	}
+
+	/**
+	 * Encodes the frame of a payload, which is written separately.
+	 * The payload must not contain the delimiter, so binary data (e.g. files) needs a length-prefixed codec like {@link CodecLength}.
+	 */
+	@Override
+	public ByteBuffer[] encodeFrame(final int length) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(length));
+		checkPayloadLength(length);
+
+		final ByteBuffer[] result = {ByteBuffer.allocate(0), trailer.duplicate()};
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(result));
+		return result;
+	}
+
+	@Override
+	protected ByteBuffer[] encode(final ByteBuffer payload) {
+		return new ByteBuffer[]{payload, trailer.duplicate()};
+	}
+}
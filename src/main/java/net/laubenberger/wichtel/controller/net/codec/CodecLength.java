@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2007-2013 by Stefan Laubenberger.
+ *
+ * "wichtel" is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License v3.0.
+ *
+ * "wichtel" is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * See the GNU Lesser General Public License for more details:
+ * -----------------------------------------------------------
+ * http://www.gnu.org/licenses
+ *
+ *
+ * This distribution is available at:
+ * ----------------------------------
+ * https://github.com/slaubenberger/wichtel/
+ *
+ *
+ * Contact information:
+ * --------------------
+ * Stefan Laubenberger
+ * Bullingerstrasse 53
+ * CH-8004 Zuerich
+ *
+ * http://www.laubenberger.net
+ * laubenberger@gmail.com
+ */
+
+package net.laubenberger.wichtel.controller.net.codec;
+
+import java.net.ProtocolException;
+import java.nio.ByteBuffer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.laubenberger.wichtel.helper.HelperLog;
+import net.laubenberger.wichtel.misc.exception.RuntimeExceptionMustBeSmaller;
+
+
+/**
+ * Codec for frames with a 4 byte length prefix (big-endian) in front of the payload.
+ * The codec is binary-safe.
+ *
+ * @author Stefan Laubenberger
+ * @version 0.3.0, 2026-10-17
+ * @since 0.3.0
+ */
+public class CodecLength extends CodecAbstract {
+	private static final Logger log = LoggerFactory.getLogger(CodecLength.class);
+
+	public static final int HEADER_LENGTH = 4;
+
+	public CodecLength(final int maxFrameLength) {
+		super(maxFrameLength);
+		if (log.isTraceEnabled()) log.trace(HelperLog.constructor(maxFrameLength));
+
+		if (Integer.MAX_VALUE - HEADER_LENGTH < maxFrameLength) { //the frame length including the header is an int
+			throw new RuntimeExceptionMustBeSmaller("maxFrameLength", maxFrameLength, Integer.MAX_VALUE - HEADER_LENGTH); //$NON-NLS-1$
+		}
+	}
+
+	public CodecLength() {
+		super();
+		if (log.isTraceEnabled()) log.trace(HelperLog.constructor());
+	}
+
+
+	/*
+	 * Implemented methods
+	 */
+
+	@Override
+	public int getFrameLength(final ByteBuffer buffer, final int scanned) throws ProtocolException {
+		if (HEADER_LENGTH > buffer.remaining()) {
+			return -1;
+		}
+
+		final int length = buffer.getInt(buffer.position());
+		checkFrameLength(length);
+
+		return HEADER_LENGTH + length;
+	}
+
+	@Override
+	public byte[] decode(final ByteBuffer buffer, final int frameLength) {
+		buffer.position(buffer.position() + HEADER_LENGTH);
+
+		return copy(buffer, frameLength - HEADER_LENGTH);
+	}
+
+	@Override
+	public ByteBuffer[] encodeFrame(final int length) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(length));
+		checkPayloadLength(length);
+
+		final ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+		header.putInt(0, length);
+		final ByteBuffer[] result = {header, ByteBuffer.allocate(0)};
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(result));
+		return result;
+	}
+
+	@Override
+	protected ByteBuffer[] encode(final ByteBuffer payload) {
+		final ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+		header.putInt(0, payload.remaining());
+
+		return new ByteBuffer[]{header, payload};
+	}
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2007-2013 by Stefan Laubenberger.
+ *
+ * "wichtel" is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License v3.0.
+ *
+ * "wichtel" is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * See the GNU Lesser General Public License for more details:
+ * -----------------------------------------------------------
+ * http://www.gnu.org/licenses
+ *
+ *
+ * This distribution is available at:
+ * ----------------------------------
+ * https://github.com/slaubenberger/wichtel/
+ *
+ *
+ * Contact information:
+ * --------------------
+ * Stefan Laubenberger
+ * Bullingerstrasse 53
+ * CH-8004 Zuerich
+ *
+ * http://www.laubenberger.net
+ * laubenberger@gmail.com
+ */
+
+package net.laubenberger.wichtel.controller.net.codec;
+
+import java.net.ProtocolException;
+import java.nio.ByteBuffer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.laubenberger.wichtel.helper.HelperLog;
+import net.laubenberger.wichtel.misc.exception.RuntimeExceptionMustBeSmaller;
+
+
+/**
+ * Codec for frames with a varint length prefix (unsigned LEB128, 1-5 bytes) in front of the payload.
+ * The codec is binary-safe and saves 3 bytes per small message compared to {@link CodecLength}.
+ *
+ * @author Stefan Laubenberger
+ * @version 0.3.0, 2026-10-17
+ * @since 0.3.0
+ */
+public class CodecVarint extends CodecAbstract {
+	private static final Logger log = LoggerFactory.getLogger(CodecVarint.class);
+
+	public static final int MAX_HEADER_LENGTH = 5;
+
+	public CodecVarint(final int maxFrameLength) {
+		super(maxFrameLength);
+		if (log.isTraceEnabled()) log.trace(HelperLog.constructor(maxFrameLength));
+
+		if (Integer.MAX_VALUE - MAX_HEADER_LENGTH < maxFrameLength) { //the frame length including the header is an int
+			throw new RuntimeExceptionMustBeSmaller("maxFrameLength", maxFrameLength, Integer.MAX_VALUE - MAX_HEADER_LENGTH); //$NON-NLS-1$
+		}
+	}
+
+	public CodecVarint() {
+		super();
+		if (log.isTraceEnabled()) log.trace(HelperLog.constructor());
+	}
+
+	/**
+	 * Returns the number of bytes needed to encode a value as varint.
+	 *
+	 * @param value to encode
+	 * @return number of bytes (1-5)
+	 * @since 0.3.0
+	 */
+	public static int getVarintLength(final int value) {
+		int result = 1;
+		int rest = value >>> 7;
+
+		while (0 != rest) {
+			result++;
+			rest >>>= 7;
+		}
+		return result;
+	}
+
+
+	/*
+	 * Private methods
+	 */
+
+	private static ByteBuffer encodeHeader(final int length) {
+		int value = length;
+		final ByteBuffer result = ByteBuffer.allocate(getVarintLength(value));
+
+		while (0 != (value & ~0x7f)) {
+			result.put((byte) ((value & 0x7f) | 0x80));
+			value >>>= 7;
+		}
+		result.put((byte) value);
+		result.flip();
+
+		return result;
+	}
+
+	/*
+	 * Implemented methods
+	 */
+
+	@Override
+	public int getFrameLength(final ByteBuffer buffer, final int scanned) throws ProtocolException {
+		final int position = buffer.position();
+		long length = 0L;
+
+		for (int ii = 0; MAX_HEADER_LENGTH > ii; ii++) {
+			if (ii >= buffer.remaining()) {
+				return -1;
+			}
+
+			final byte value = buffer.get(position + ii);
+			length |= (long) (value & 0x7f) << (7 * ii);
+
+			if (0 == (value & 0x80)) {
+				checkFrameLength(length);
+				return ii + 1 + (int) length;
+			}
+		}
+		throw new ProtocolException("Malformed varint header"); //$NON-NLS-1$
+	}
+
+	@Override
+	public byte[] decode(final ByteBuffer buffer, final int frameLength) {
+		int headerLength = 1;
+		while (0 != (buffer.get(buffer.position() + headerLength - 1) & 0x80)) {
+			headerLength++;
+		}
+		buffer.position(buffer.position() + headerLength);
+
+		return copy(buffer, frameLength - headerLength);
+	}
+
+	@Override
+	public ByteBuffer[] encodeFrame(final int length) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(length));
+		checkPayloadLength(length);
+
+		final ByteBuffer[] result = {encodeHeader(length), ByteBuffer.allocate(0)};
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(result));
+		return result;
+	}
+
+	@Override
+	protected ByteBuffer[] encode(final ByteBuffer payload) {
+		return new ByteBuffer[]{encodeHeader(payload.remaining()), payload};
+	}
+
+}
@@ -0,0 +1,360 @@
+/*
+ * Copyright (c) 2007-2013 by Stefan Laubenberger.
+ *
+ * "wichtel" is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License v3.0.
+ *
+ * "wichtel" is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * See the GNU Lesser General Public License for more details:
+ * -----------------------------------------------------------
+ * http://www.gnu.org/licenses
+ *
+ *
+ * This distribution is available at:
+ * ----------------------------------
+ * https://github.com/slaubenberger/wichtel/
+ *
+ *
+ * Contact information:
+ * --------------------
+ * Stefan Laubenberger
+ * Bullingerstrasse 53
+ * CH-8004 Zuerich
+ *
+ * http://www.laubenberger.net
+ * laubenberger@gmail.com
+ */
+
+package net.laubenberger.wichtel.controller.net.codec;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.ProtocolException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Collection;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.laubenberger.wichtel.helper.HelperLog;
+import net.laubenberger.wichtel.misc.BufferPool;
+import net.laubenberger.wichtel.misc.exception.RuntimeExceptionIsInvalid;
+import net.laubenberger.wichtel.misc.exception.RuntimeExceptionIsNull;
+import net.laubenberger.wichtel.misc.extendedObject.ExtendedObjectAbstract;
+
+
+/**
+ * Decodes the frames of one connection with a {@link Codec}.
+ * <p>
+ * Complete frames are decoded straight from the read buffer, so each payload is copied only once.
+ * Only the tail of a partial frame is kept in a pooled buffer until the rest arrives.
+ * <strong>Note:</strong> The decoder isn't thread-safe, use one instance per connection.
+ *
+ * @author Stefan Laubenberger
+ * @version 0.3.0, 2026-10-17
+ * @since 0.3.0
+ */
+public class FrameDecoder extends ExtendedObjectAbstract {
+	private static final Logger log = LoggerFactory.getLogger(FrameDecoder.class);
+
+	private final Codec codec;
+	private final BufferPool pool;
+
+	private ByteBuffer pending; //read mode: data between position and limit
+	private int scanned;
+	private int needed = -1;
+	private long bytesRead;
+
+	public FrameDecoder(final Codec codec, final BufferPool pool) {
+		super();
+		if (log.isTraceEnabled()) log.trace(HelperLog.constructor(codec, pool));
+
+		if (null == codec) {
+			throw new RuntimeExceptionIsNull("codec"); //$NON-NLS-1$
+		}
+		if (null == pool) {
+			throw new RuntimeExceptionIsNull("pool"); //$NON-NLS-1$
+		}
+
+		this.codec = codec;
+		this.pool = pool;
+	}
+
+	/**
+	 * Returns the codec of the decoder.
+	 *
+	 * @return codec of the decoder
+	 * @see Codec
+	 * @since 0.3.0
+	 */
+	public Codec getCodec() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(codec));
+		return codec;
+	}
+
+	/**
+	 * Returns the number of buffered bytes of an incomplete frame.
+	 *
+	 * @return number of buffered bytes
+	 * @since 0.3.0
+	 */
+	public int getPendingLength() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		final int result = null == pending ? 0 : pending.remaining();
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(result));
+		return result;
+	}
+
+	/**
+	 * Returns the number of bytes read from the streams or channels.
+	 *
+	 * @return number of read bytes
+	 * @since 0.3.0
+	 */
+	public long getBytesRead() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(bytesRead));
+		return bytesRead;
+	}
+
+	/**
+	 * Reads the next frame from a blocking {@link InputStream}.
+	 * The pool of the decoder must contain heap buffers.
+	 *
+	 * @param is {@link InputStream} to read
+	 * @return payload of the next frame or null if the end of the stream is reached
+	 * @throws IOException
+	 * @see InputStream
+	 * @since 0.3.0
+	 */
+	public byte[] read(final InputStream is) throws IOException {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(is));
+		if (null == is) {
+			throw new RuntimeExceptionIsNull("is"); //$NON-NLS-1$
+		}
+		if (pool.isDirect()) {
+			throw new RuntimeExceptionIsInvalid("pool", pool); //$NON-NLS-1$
+		}
+
+		byte[] result = null;
+
+		while (null == result) {
+			if (null != pending) {
+				result = next(pending);
+				releasePending();
+			}
+
+			if (null == result) {
+				final ByteBuffer buffer = prepare();
+				final int count = is.read(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+
+				if (0 < count) {
+					buffer.position(buffer.position() + count);
+					bytesRead += count;
+				}
+				buffer.flip();
+				pending = buffer;
+
+				if (-1 == count) {
+					break;
+				}
+			}
+		}
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(result));
+		return result;
+	}
+
+	/**
+	 * Reads the available data from a non-blocking {@link ReadableByteChannel} and adds all complete frames to the given {@link Collection}.
+	 * If no partial frame is pending, the data is read into the shared buffer (e.g. the buffer of a selector thread) and only the remaining tail is copied into a pooled buffer.
+	 *
+	 * @param channel {@link ReadableByteChannel} to read
+	 * @param shared  buffer for the read, it must not be used concurrently
+	 * @param frames  {@link Collection} for the decoded payloads
+	 * @return number of read bytes or -1 if the end of the stream is reached
+	 * @throws IOException
+	 * @see ReadableByteChannel
+	 * @see ByteBuffer
+	 * @since 0.3.0
+	 */
+	public int read(final ReadableByteChannel channel, final ByteBuffer shared, final Collection<byte[]> frames) throws IOException {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(channel, shared, frames));
+		if (null == channel) {
+			throw new RuntimeExceptionIsNull("channel"); //$NON-NLS-1$
+		}
+		if (null == shared) {
+			throw new RuntimeExceptionIsNull("shared"); //$NON-NLS-1$
+		}
+		if (null == frames) {
+			throw new RuntimeExceptionIsNull("frames"); //$NON-NLS-1$
+		}
+
+		final int result;
+
+		if (null == pending) {
+			shared.clear();
+			result = channel.read(shared);
+			shared.flip();
+
+			if (0 < result) {
+				decode(shared, frames);
+
+				if (shared.hasRemaining()) {
+					pending = pool.acquire(Math.max(needed, shared.remaining()));
+					pending.put(shared);
+					pending.flip();
+				}
+			}
+		} else {
+			final ByteBuffer buffer = prepare();
+			result = channel.read(buffer);
+			buffer.flip();
+			pending = buffer;
+
+			decode(pending, frames);
+			releasePending();
+		}
+
+		if (0 < result) {
+			bytesRead += result;
+		}
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(result));
+		return result;
+	}
+
+	/**
+	 * Decodes all frames of a self-contained buffer, e.g. a datagram with several records.
+	 * The buffer must end with a complete frame.
+	 *
+	 * @param codec  of the frames
+	 * @param buffer with the frames (between position and limit)
+	 * @param frames {@link Collection} for the decoded payloads
+	 * @return number of decoded frames
+	 * @throws ProtocolException if a frame is malformed or truncated
+	 * @see Codec
+	 * @see ByteBuffer
+	 * @since 0.3.0
+	 */
+	public static int decodeAll(final Codec codec, final ByteBuffer buffer, final Collection<byte[]> frames) throws ProtocolException {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(codec, buffer, frames));
+		if (null == codec) {
+			throw new RuntimeExceptionIsNull("codec"); //$NON-NLS-1$
+		}
+		if (null == buffer) {
+			throw new RuntimeExceptionIsNull("buffer"); //$NON-NLS-1$
+		}
+		if (null == frames) {
+			throw new RuntimeExceptionIsNull("frames"); //$NON-NLS-1$
+		}
+
+		int result = 0;
+
+		while (buffer.hasRemaining()) {
+			final int frameLength = codec.getFrameLength(buffer, 0);
+			if (0 > frameLength || buffer.remaining() < frameLength) {
+				throw new ProtocolException("Truncated frame"); //$NON-NLS-1$
+			}
+			frames.add(codec.decode(buffer, frameLength));
+			result++;
+		}
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(result));
+		return result;
+	}
+
+	/**
+	 * Releases the pending buffer to the pool and resets the decoder.
+	 *
+	 * @since 0.3.0
+	 */
+	public void release() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (null != pending) {
+			pool.release(pending);
+			pending = null;
+		}
+		scanned = 0;
+		needed = -1;
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+
+	/*
+	 * Private methods
+	 */
+
+	private void decode(final ByteBuffer buffer, final Collection<byte[]> frames) throws IOException {
+		byte[] frame = next(buffer);
+
+		while (null != frame) {
+			frames.add(frame);
+			frame = next(buffer);
+		}
+	}
+
+	private byte[] next(final ByteBuffer buffer) throws IOException {
+		if (!buffer.hasRemaining()) {
+			return null;
+		}
+
+		if (-1 == needed) {
+			needed = codec.getFrameLength(buffer, scanned);
+
+			if (-1 == needed) {
+				scanned = buffer.remaining();
+				return null;
+			}
+		}
+
+		if (needed > buffer.remaining()) {
+			return null;
+		}
+
+		final byte[] result = codec.decode(buffer, needed);
+		needed = -1;
+		scanned = 0;
+
+		return result;
+	}
+
+	private void releasePending() {
+		if (null != pending && !pending.hasRemaining()) {
+			pool.release(pending);
+			pending = null;
+		}
+	}
+
+	/**
+	 * Returns the pending buffer in write mode with free space.
+	 */
+	private ByteBuffer prepare() {
+		if (null == pending) {
+			return pool.acquire(needed);
+		}
+
+		if (pending.capacity() > pending.remaining() && (-1 == needed || pending.capacity() >= needed)) {
+			pending.compact();
+			return pending;
+		}
+
+		final ByteBuffer result = pool.acquire(needed > pending.capacity() ? needed : pending.capacity() << 1);
+		result.put(pending);
+		pool.release(pending);
+		pending = null;
+
+		return result;
+	}
+}
@@ -0,0 +1,255 @@
+/*
+ * Copyright (c) 2007-2013 by Stefan Laubenberger.
+ *
+ * "wichtel" is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License v3.0.
+ *
+ * "wichtel" is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * See the GNU Lesser General Public License for more details:
+ * -----------------------------------------------------------
+ * http://www.gnu.org/licenses
+ *
+ *
+ * This distribution is available at:
+ * ----------------------------------
+ * https://github.com/slaubenberger/wichtel/
+ *
+ *
+ * Contact information:
+ * --------------------
+ * Stefan Laubenberger
+ * Bullingerstrasse 53
+ * CH-8004 Zuerich
+ *
+ * http://www.laubenberger.net
+ * laubenberger@gmail.com
+ */
+
+package net.laubenberger.wichtel.controller.net.codec;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.laubenberger.wichtel.helper.HelperLog;
+import net.laubenberger.wichtel.misc.exception.RuntimeExceptionIsNull;
+import net.laubenberger.wichtel.misc.exception.RuntimeExceptionMustBeGreater;
+import net.laubenberger.wichtel.misc.exception.RuntimeExceptionMustBeSmaller;
+import net.laubenberger.wichtel.misc.extendedObject.ExtendedObjectAbstract;
+
+
+/**
+ * Range of a file, which is written as consecutive frames of at most {@link #getChunkLength()} bytes.
+ * <p>
+ * The payload is transferred with {@link FileChannel#transferTo(long, long, WritableByteChannel)}, so a socket channel receives the data without copying it through the heap (e.g. sendfile on Linux).
+ * Other channels (e.g. a TLS connection) are served by the fallback of the JDK, which copies small blocks.
+ * In both cases the memory doesn't depend on the size of the file.
+ * <p>
+ * {@link #write(WritableByteChannel)} can be called repeatedly on a non-blocking channel until {@link #isDone()}.
+ * The instance must be used by one thread at a time.
+ *
+ * @author Stefan Laubenberger
+ * @version 0.3.0, 2026-10-17
+ * @since 0.3.0
+ */
+public class FrameFile extends ExtendedObjectAbstract implements Closeable {
+	private static final Logger log = LoggerFactory.getLogger(FrameFile.class);
+
+	public static final int DEFAULT_CHUNK_LENGTH = 1024 * 1024; //1MB
+	private static final int MAX_OVERHEAD = 16; //header and trailer of the codecs
+
+	private final Codec codec;
+	private final FileChannel file;
+	private final long length;
+	private final int chunkLength;
+
+	private long position; //in the file
+	private long remaining; //in the range
+	private long chunkRemaining;
+	private ByteBuffer header;
+	private ByteBuffer trailer;
+	private long bytesWritten;
+	private long frames;
+
+	public FrameFile(final Codec codec, final File file, final long offset, final long length, final int chunkLength) throws IOException {
+		super();
+		if (log.isTraceEnabled()) log.trace(HelperLog.constructor(codec, file, offset, length, chunkLength));
+
+		if (null == codec) {
+			throw new RuntimeExceptionIsNull("codec"); //$NON-NLS-1$
+		}
+		if (null == file) {
+			throw new RuntimeExceptionIsNull("file"); //$NON-NLS-1$
+		}
+		if (0L > offset) {
+			throw new RuntimeExceptionMustBeGreater("offset", offset, 0); //$NON-NLS-1$
+		}
+		if (0L > length) {
+			throw new RuntimeExceptionMustBeGreater("length", length, 0); //$NON-NLS-1$
+		}
+		if (0 >= chunkLength) {
+			throw new RuntimeExceptionMustBeGreater("chunkLength", chunkLength, 0); //$NON-NLS-1$
+		}
+
+		this.codec = codec;
+		this.file = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+
+		final long size = this.file.size();
+		if (size < offset + length) {
+			this.file.close();
+			throw new RuntimeExceptionMustBeSmaller("offset + length", offset + length, size); //$NON-NLS-1$
+		}
+
+		this.length = length;
+		this.chunkLength = Math.max(1, Math.min(chunkLength, codec.getMaxFrameLength() - MAX_OVERHEAD));
+		position = offset;
+		remaining = length;
+	}
+
+	public FrameFile(final Codec codec, final File file, final long offset, final long length) throws IOException {
+		this(codec, file, offset, length, DEFAULT_CHUNK_LENGTH);
+		if (log.isTraceEnabled()) log.trace(HelperLog.constructor(codec, file, offset, length));
+	}
+
+	/**
+	 * Returns the length of the range.
+	 *
+	 * @return length in bytes
+	 * @since 0.3.0
+	 */
+	public long getLength() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(length));
+		return length;
+	}
+
+	/**
+	 * Returns the maximal payload of a frame.
+	 *
+	 * @return length in bytes
+	 * @since 0.3.0
+	 */
+	public int getChunkLength() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(chunkLength));
+		return chunkLength;
+	}
+
+	/**
+	 * Returns the number of written bytes, including headers and trailers.
+	 *
+	 * @return number of written bytes
+	 * @since 0.3.0
+	 */
+	public long getBytesWritten() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(bytesWritten));
+		return bytesWritten;
+	}
+
+	/**
+	 * Returns the number of completely written frames.
+	 *
+	 * @return number of frames
+	 * @since 0.3.0
+	 */
+	public long getFrames() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(frames));
+		return frames;
+	}
+
+	/**
+	 * Checks if the whole range is written.
+	 *
+	 * @return true/false
+	 * @since 0.3.0
+	 */
+	public boolean isDone() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		final boolean result = 0L == remaining && null == trailer;
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(result));
+		return result;
+	}
+
+	/**
+	 * Writes as much of the range as the channel accepts.
+	 *
+	 * @param channel to write
+	 * @return true if the whole range is written
+	 * @throws IOException
+	 * @see WritableByteChannel
+	 * @since 0.3.0
+	 */
+	public boolean write(final WritableByteChannel channel) throws IOException {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(channel));
+		if (null == channel) {
+			throw new RuntimeExceptionIsNull("channel"); //$NON-NLS-1$
+		}
+
+		boolean isBlocked = false;
+		while (!isBlocked && !isDone()) {
+			if (null == trailer) { //next frame
+				final ByteBuffer[] frame = codec.encodeFrame((int) Math.min(chunkLength, remaining));
+				header = frame[0];
+				trailer = frame[1];
+				chunkRemaining = Math.min(chunkLength, remaining);
+			}
+
+			if (header.hasRemaining()) {
+				bytesWritten += channel.write(header);
+				isBlocked = header.hasRemaining();
+			} else if (0L < chunkRemaining) {
+				final long count = file.transferTo(position, chunkRemaining, channel);
+				position += count;
+				chunkRemaining -= count;
+				remaining -= count;
+				bytesWritten += count;
+				isBlocked = 0L == count;
+			} else {
+				bytesWritten += channel.write(trailer);
+				if (trailer.hasRemaining()) {
+					isBlocked = true;
+				} else {
+					trailer = null;
+					frames++;
+				}
+			}
+		}
+
+		final boolean result = isDone();
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(result));
+		return result;
+	}
+
+
+	/*
+	 * Implemented methods
+	 */
+
+	@Override
+	public void close() throws IOException {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		file.close();
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+}
@@ -0,0 +1,414 @@
+/*
+ * Copyright (c) 2007-2013 by Stefan Laubenberger.
+ *
+ * "wichtel" is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License v3.0.
+ *
+ * "wichtel" is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * See the GNU Lesser General Public License for more details:
+ * -----------------------------------------------------------
+ * http://www.gnu.org/licenses
+ *
+ *
+ * This distribution is available at:
+ * ----------------------------------
+ * https://github.com/slaubenberger/wichtel/
+ *
+ *
+ * Contact information:
+ * --------------------
+ * Stefan Laubenberger
+ * Bullingerstrasse 53
+ * CH-8004 Zuerich
+ *
+ * http://www.laubenberger.net
+ * laubenberger@gmail.com
+ */
+
+package net.laubenberger.wichtel.controller.net.codec;
+
+import java.io.BufferedOutputStream;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Timer;
+import java.util.TimerTask;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.laubenberger.wichtel.helper.HelperLog;
+import net.laubenberger.wichtel.misc.BufferPool;
+import net.laubenberger.wichtel.misc.exception.RuntimeExceptionIsNull;
+import net.laubenberger.wichtel.misc.exception.RuntimeExceptionMustBeGreater;
+import net.laubenberger.wichtel.misc.extendedObject.ExtendedObjectAbstract;
+
+
+/**
+ * Writes encoded frames (e.g. from {@link Codec#encode(byte...)}) to a blocking {@link GatheringByteChannel} or {@link OutputStream}.
+ * <p>
+ * Without a flush window, every frame is written immediately.
+ * With a flush window, small frames are coalesced until the flush threshold is reached or the window expires, so many small messages need only one system call.
+ * On a channel, the buffers of the frames are collected and written with one gathering write, so header and payload aren't copied.
+ * <strong>Note:</strong> On a channel, the payload of a coalesced frame must not be changed until it is flushed.
+ * On a stream (e.g. a blocking {@link java.net.Socket} without a channel), the frames are copied into a buffer of {@link #DEFAULT_FLUSH_THRESHOLD} bytes instead, so there are no gathering writes.
+ * <p>
+ * The expired flush windows are flushed by a {@link Timer}, by default one per writer.
+ * A shared timer (e.g. one per server) saves the threads, but a flush blocked by a slow peer delays the other writers of the timer.
+ * If a timed flush fails, the {@link IOException} is thrown by every following write and flush, because the coalesced frames are lost.
+ * <p>
+ * The writer is thread-safe.
+ *
+ * @author Stefan Laubenberger
+ * @version 0.3.0, 2026-10-17
+ * @since 0.3.0
+ */
+public class FrameWriter extends ExtendedObjectAbstract implements Flushable {
+	private static final Logger log = LoggerFactory.getLogger(FrameWriter.class);
+
+	public static final int DEFAULT_FLUSH_THRESHOLD = BufferPool.DEFAULT_BUFFER_SIZE;
+
+	private final GatheringByteChannel channel;
+	private final OutputStream os;
+
+	private final List<ByteBuffer> pending = new ArrayList<>(); //only used with a channel
+	private int pendingLength;
+
+	private long flushWindow;
+	private int flushThreshold = DEFAULT_FLUSH_THRESHOLD;
+
+	private Timer timer;
+	private boolean isTimerOwner;
+	private TimerTask task;
+	private IOException failure; //of a timed flush
+
+	public FrameWriter(final GatheringByteChannel channel) {
+		super();
+		if (log.isTraceEnabled()) log.trace(HelperLog.constructor(channel));
+
+		if (null == channel) {
+			throw new RuntimeExceptionIsNull("channel"); //$NON-NLS-1$
+		}
+
+		this.channel = channel;
+		os = null;
+	}
+
+	public FrameWriter(final OutputStream os) {
+		super();
+		if (log.isTraceEnabled()) log.trace(HelperLog.constructor(os));
+
+		if (null == os) {
+			throw new RuntimeExceptionIsNull("os"); //$NON-NLS-1$
+		}
+
+		channel = null;
+		this.os = new BufferedOutputStream(os, DEFAULT_FLUSH_THRESHOLD);
+	}
+
+	/**
+	 * Returns the flush window.
+	 *
+	 * @return flush window in milliseconds, 0 if every frame is written immediately
+	 * @since 0.3.0
+	 */
+	public synchronized long getFlushWindow() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(flushWindow));
+		return flushWindow;
+	}
+
+	/**
+	 * Sets the flush window (default: 0).
+	 * Frames are coalesced for at most this time, 0 writes every frame immediately.
+	 *
+	 * @param flushWindow in milliseconds
+	 * @since 0.3.0
+	 */
+	public synchronized void setFlushWindow(final long flushWindow) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(flushWindow));
+		if (0L > flushWindow) {
+			throw new RuntimeExceptionMustBeGreater("flushWindow", flushWindow, 0); //$NON-NLS-1$
+		}
+
+		this.flushWindow = flushWindow;
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	/**
+	 * Returns the flush threshold.
+	 *
+	 * @return flush threshold in bytes
+	 * @since 0.3.0
+	 */
+	public synchronized int getFlushThreshold() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(flushThreshold));
+		return flushThreshold;
+	}
+
+	/**
+	 * Sets the flush threshold (default: {@link #DEFAULT_FLUSH_THRESHOLD}).
+	 * Coalesced frames are written as soon as they reach this size; on a stream, at most {@link #DEFAULT_FLUSH_THRESHOLD} bytes are buffered.
+	 *
+	 * @param flushThreshold in bytes
+	 * @since 0.3.0
+	 */
+	public synchronized void setFlushThreshold(final int flushThreshold) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(flushThreshold));
+		if (0 >= flushThreshold) {
+			throw new RuntimeExceptionMustBeGreater("flushThreshold", flushThreshold, 0); //$NON-NLS-1$
+		}
+
+		this.flushThreshold = flushThreshold;
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	/**
+	 * Returns the {@link Timer} for the flush window.
+	 *
+	 * @return {@link Timer} or null if the writer hasn't scheduled a flush yet
+	 * @see Timer
+	 * @since 0.3.0
+	 */
+	public synchronized Timer getTimer() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(timer));
+		return timer;
+	}
+
+	/**
+	 * Sets a shared {@link Timer} for the flush window (default: an own timer of the writer).
+	 * The caller owns the timer and cancels it after the writer is no longer used.
+	 *
+	 * @param timer for the flush window
+	 * @see Timer
+	 * @since 0.3.0
+	 */
+	public synchronized void setTimer(final Timer timer) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(timer));
+		if (null == timer) {
+			throw new RuntimeExceptionIsNull("timer"); //$NON-NLS-1$
+		}
+
+		final boolean isScheduled = null != task;
+		cancel();
+		this.timer = timer;
+
+		if (isScheduled) {
+			task = new TaskFlush();
+			timer.schedule(task, flushWindow);
+		}
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	/**
+	 * Cancels the scheduled flush and the own {@link Timer} of the writer, a shared timer isn't cancelled.
+	 * The pending frames stay pending until the next write or flush.
+	 *
+	 * @since 0.3.0
+	 */
+	public synchronized void cancel() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (null != task) {
+			task.cancel();
+			task = null;
+		}
+
+		if (isTimerOwner) {
+			timer.cancel();
+			timer = null;
+			isTimerOwner = false;
+		}
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	/**
+	 * Returns the number of coalesced bytes waiting to be flushed.
+	 *
+	 * @return number of pending bytes
+	 * @since 0.3.0
+	 */
+	public synchronized int getPendingLength() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(pendingLength));
+		return pendingLength;
+	}
+
+	/**
+	 * Writes an encoded frame, depending on the flush window immediately or coalesced with the following frames.
+	 *
+	 * @param frame buffers of the encoded frame
+	 * @throws IOException also if a timed flush has failed before
+	 * @see Codec#encode(byte...)
+	 * @since 0.3.0
+	 */
+	public synchronized void write(final ByteBuffer... frame) throws IOException {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(frame));
+		if (null == frame) {
+			throw new RuntimeExceptionIsNull("frame"); //$NON-NLS-1$
+		}
+
+		checkFailure();
+
+		for (final ByteBuffer buffer : frame) {
+			pendingLength += buffer.remaining();
+
+			if (null == channel) {
+				write(buffer);
+			} else {
+				pending.add(buffer);
+			}
+		}
+
+		if (0L == flushWindow || flushThreshold <= pendingLength) {
+			flush();
+		} else if (null == task) {
+			if (null == timer) {
+				timer = new Timer(FrameWriter.class.getSimpleName(), true);
+				isTimerOwner = true;
+			}
+			task = new TaskFlush();
+			try {
+				timer.schedule(task, flushWindow);
+			} catch (IllegalStateException ex) {
+				if (log.isDebugEnabled()) log.debug("The shared timer is cancelled, flushing immediately", ex); //$NON-NLS-1$
+				flush();
+			}
+		}
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	/**
+	 * Writes a {@link FrameFile} after the pending frames and blocks until the whole range is written.
+	 * On a socket channel the file is transferred without copying it through the heap, on a stream it is copied in small blocks.
+	 *
+	 * @param file range to write
+	 * @throws IOException
+	 * @see FrameFile
+	 * @since 0.3.0
+	 */
+	public synchronized void write(final FrameFile file) throws IOException {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(file));
+		if (null == file) {
+			throw new RuntimeExceptionIsNull("file"); //$NON-NLS-1$
+		}
+
+		flush();
+
+		final WritableByteChannel target = null == channel ? Channels.newChannel(os) : channel;
+		while (!file.write(target)) {
+			// blocking target, transfer until the range is written
+		}
+
+		if (null == channel) {
+			os.flush();
+		}
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+
+	/*
+	 * Private methods
+	 */
+
+	private void checkFailure() throws IOException {
+		if (null != failure) {
+			throw new IOException("A timed flush of the coalesced frames has failed", failure); //$NON-NLS-1$
+		}
+	}
+
+	private static boolean isPending(final ByteBuffer... buffers) {
+		for (int ii = buffers.length - 1; 0 <= ii; ii--) {
+			if (buffers[ii].hasRemaining()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private void write(final ByteBuffer buffer) throws IOException {
+		if (buffer.hasArray()) {
+			os.write(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+			buffer.position(buffer.limit());
+		} else {
+			final byte[] data = new byte[buffer.remaining()];
+			buffer.get(data);
+			os.write(data);
+		}
+	}
+
+
+	/*
+	 * Implemented methods
+	 */
+
+	@Override
+	public synchronized void flush() throws IOException {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (null != task) {
+			task.cancel();
+			task = null;
+		}
+
+		checkFailure();
+
+		try {
+			if (null == channel) {
+				os.flush();
+			} else if (!pending.isEmpty()) {
+				final ByteBuffer[] buffers = pending.toArray(new ByteBuffer[pending.size()]);
+				while (isPending(buffers)) {
+					channel.write(buffers);
+				}
+			}
+		} finally {
+			pending.clear();
+			pendingLength = 0;
+		}
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+
+	/*
+	 * Inner classes
+	 */
+
+	private class TaskFlush extends TimerTask {
+		@Override
+		public void run() {
+			synchronized (FrameWriter.this) {
+				if (this == task) {
+					try {
+						flush();
+					} catch (IOException ex) {
+						if (log.isDebugEnabled()) log.debug("Could not flush coalesced frames", ex); //$NON-NLS-1$
+						failure = ex; //thrown by the next write or flush
+					}
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2007-2013 by Stefan Laubenberger.
+ *
+ * "wichtel" is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License v3.0.
+ *
+ * "wichtel" is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * See the GNU Lesser General Public License for more details:
+ * -----------------------------------------------------------
+ * http://www.gnu.org/licenses
+ *
+ *
+ * This distribution is available at:
+ * ----------------------------------
+ * https://github.com/slaubenberger/wichtel/
+ *
+ *
+ * Contact information:
+ * --------------------
+ * Stefan Laubenberger
+ * Bullingerstrasse 53
+ * CH-8004 Zuerich
+ *
+ * http://www.laubenberger.net
+ * laubenberger@gmail.com
+ */
+
+package net.laubenberger.wichtel.controller.net.flow;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.laubenberger.wichtel.controller.net.client.Client;
+import net.laubenberger.wichtel.controller.net.client.ListenerClient;
+import net.laubenberger.wichtel.helper.HelperLog;
+import net.laubenberger.wichtel.misc.Event;
+import net.laubenberger.wichtel.misc.exception.RuntimeExceptionIsNull;
+import net.laubenberger.wichtel.model.net.FlowEventType;
+
+
+/**
+ * Publishes the connection events and messages of a {@link Client}.
+ * <p>
+ * While the publisher is saturated, reading is suspended on the client (see {@link Client#setReadSuspended(boolean)}), so a slow subscriber applies backpressure to the server via the socket buffers.
+ * The events are published on the reading thread of the client.
+ *
+ * @author Stefan Laubenberger
+ * @version 0.3.0, 2026-10-17
+ * @since 0.3.0
+ */
+public class ClientPublisher extends FlowPublisher<FlowEvent<Client>> implements ListenerClient {
+	private static final Logger log = LoggerFactory.getLogger(ClientPublisher.class);
+
+	private final Client client;
+
+	public ClientPublisher(final Client client, final int bufferSize) {
+		super(bufferSize);
+		if (log.isTraceEnabled()) log.trace(HelperLog.constructor(client, bufferSize));
+
+		if (null == client) {
+			throw new RuntimeExceptionIsNull("client"); //$NON-NLS-1$
+		}
+
+		this.client = client;
+		client.addListener(this);
+	}
+
+	public ClientPublisher(final Client client) {
+		this(client, DEFAULT_BUFFER_SIZE);
+		if (log.isTraceEnabled()) log.trace(HelperLog.constructor(client));
+	}
+
+	/**
+	 * Returns the {@link Client} of the publisher.
+	 *
+	 * @return {@link Client}
+	 * @see Client
+	 * @since 0.3.0
+	 */
+	public Client getClient() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(client));
+		return client;
+	}
+
+
+	/*
+	 * Overridden methods
+	 */
+
+	/**
+	 * Closes the publisher and detaches it from the {@link Client}.
+	 */
+	@Override
+	public void close() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		client.deleteListener(this);
+		super.close();
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	/**
+	 * Closes the publisher with an error and detaches it from the {@link Client}.
+	 */
+	@Override
+	public void closeExceptionally(final Throwable error) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(error));
+
+		client.deleteListener(this);
+		super.closeExceptionally(error);
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	@Override
+	protected void suspend() {
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodStart());
+
+		client.setReadSuspended(true);
+
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodExit());
+	}
+
+	@Override
+	protected void resume() {
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodStart());
+
+		client.setReadSuspended(false);
+
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodExit());
+	}
+
+
+	/*
+	 * Implemented methods
+	 */
+
+	@Override
+	public void clientStreamRead(final Event<Client> event) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(event));
+
+		offer(new FlowEvent<Client>(event.getSource(), FlowEventType.READ, event.getSource().getData()));
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	@Override
+	public void clientStarted(final Event<Client> event) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(event));
+
+		offer(new FlowEvent<Client>(event.getSource(), FlowEventType.STARTED));
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	@Override
+	public void clientStopped(final Event<Client> event) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(event));
+
+		offer(new FlowEvent<Client>(event.getSource(), FlowEventType.STOPPED));
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2007-2013 by Stefan Laubenberger.
+ *
+ * "wichtel" is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License v3.0.
+ *
+ * "wichtel" is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * See the GNU Lesser General Public License for more details:
+ * -----------------------------------------------------------
+ * http://www.gnu.org/licenses
+ *
+ *
+ * This distribution is available at:
+ * ----------------------------------
+ * https://github.com/slaubenberger/wichtel/
+ *
+ *
+ * Contact information:
+ * --------------------
+ * Stefan Laubenberger
+ * Bullingerstrasse 53
+ * CH-8004 Zuerich
+ *
+ * http://www.laubenberger.net
+ * laubenberger@gmail.com
+ */
+
+package net.laubenberger.wichtel.controller.net.flow;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.laubenberger.wichtel.helper.HelperArray;
+import net.laubenberger.wichtel.helper.HelperLog;
+import net.laubenberger.wichtel.misc.exception.RuntimeExceptionIsNull;
+import net.laubenberger.wichtel.misc.extendedObject.ExtendedObjectAbstract;
+import net.laubenberger.wichtel.model.net.FlowEventType;
+
+
+/**
+ * Event of a connection published by a {@link FlowPublisher}.
+ * <p>
+ * The events of a connection are published in order: {@link FlowEventType#STARTED}, the read messages and {@link FlowEventType#STOPPED}.
+ *
+ * @param <S> type of the connection
+ * @author Stefan Laubenberger
+ * @version 0.3.0, 2026-10-17
+ * @since 0.3.0
+ */
+public class FlowEvent<S> extends ExtendedObjectAbstract {
+	private static final Logger log = LoggerFactory.getLogger(FlowEvent.class);
+
+	private final S source;
+	private final FlowEventType type;
+	private final byte[] data;
+
+	public FlowEvent(final S source, final FlowEventType type, final byte... data) {
+		super();
+		if (log.isTraceEnabled()) log.trace(HelperLog.constructor(source, type, data));
+
+		if (null == source) {
+			throw new RuntimeExceptionIsNull("source"); //$NON-NLS-1$
+		}
+		if (null == type) {
+			throw new RuntimeExceptionIsNull("type"); //$NON-NLS-1$
+		}
+
+		this.source = source;
+		this.type = type;
+		this.data = null == data ? HelperArray.EMPTY_ARRAY_BYTE : data;
+	}
+
+	/**
+	 * Returns the connection of the event.
+	 *
+	 * @return connection
+	 * @since 0.3.0
+	 */
+	public S getSource() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(source));
+		return source;
+	}
+
+	/**
+	 * Returns the {@link FlowEventType} of the event.
+	 *
+	 * @return {@link FlowEventType}
+	 * @see FlowEventType
+	 * @since 0.3.0
+	 */
+	public FlowEventType getType() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(type));
+		return type;
+	}
+
+	/**
+	 * Returns the read message.
+	 *
+	 * @return message, empty if the event isn't of the type {@link FlowEventType#READ}
+	 * @since 0.3.0
+	 */
+	public byte[] getData() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(data));
+		return data;
+	}
+}
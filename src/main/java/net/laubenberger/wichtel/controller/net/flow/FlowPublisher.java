@@ -0,0 +1,446 @@
+/*
+ * Copyright (c) 2007-2013 by Stefan Laubenberger.
+ *
+ * "wichtel" is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License v3.0.
+ *
+ * "wichtel" is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * See the GNU Lesser General Public License for more details:
+ * -----------------------------------------------------------
+ * http://www.gnu.org/licenses
+ *
+ *
+ * This distribution is available at:
+ * ----------------------------------
+ * https://github.com/slaubenberger/wichtel/
+ *
+ *
+ * Contact information:
+ * --------------------
+ * Stefan Laubenberger
+ * Bullingerstrasse 53
+ * CH-8004 Zuerich
+ *
+ * http://www.laubenberger.net
+ * laubenberger@gmail.com
+ */
+
+package net.laubenberger.wichtel.controller.net.flow;
+
+import java.util.Collection;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.laubenberger.wichtel.helper.HelperLog;
+import net.laubenberger.wichtel.misc.exception.RuntimeExceptionIsNull;
+import net.laubenberger.wichtel.misc.exception.RuntimeExceptionMustBeGreater;
+import net.laubenberger.wichtel.misc.extendedObject.ExtendedObjectAbstract;
+
+
+/**
+ * {@link Flow.Publisher} with a bounded buffer per subscription.
+ * <p>
+ * A producer hands the items over with the non-blocking {@link #offer(Object)} or the blocking {@link #submit(Object)}, every subscriber receives them according to its demand.
+ * As soon as the buffer of a subscription is full, the publisher is saturated: {@link #suspend()} is called, so an adapter can stop reading its source, and {@link #submit(Object)} blocks.
+ * When all buffers have drained to half of their size, {@link #resume()} is called.
+ * Items offered while saturated are still buffered, therefore a source must be suspended promptly.
+ * <p>
+ * A subscriber is called on the thread offering an item or requesting more, but never concurrently.
+ * Items offered without subscribers are dropped.
+ *
+ * @param <T> type of the items
+ * @author Stefan Laubenberger
+ * @version 0.3.0, 2026-10-17
+ * @since 0.3.0
+ */
+public class FlowPublisher<T> extends ExtendedObjectAbstract implements Flow.Publisher<T> {
+	private static final Logger log = LoggerFactory.getLogger(FlowPublisher.class);
+
+	public static final int DEFAULT_BUFFER_SIZE = Flow.defaultBufferSize();
+
+	private final Collection<FlowSubscription> subscriptions = new CopyOnWriteArrayList<>();
+	private final Object lock = new Object();
+	private final int bufferSize;
+
+	private boolean isSaturated; //guarded by lock
+	private volatile boolean isClosed;
+	private volatile Throwable error;
+
+	public FlowPublisher(final int bufferSize) {
+		super();
+		if (log.isTraceEnabled()) log.trace(HelperLog.constructor(bufferSize));
+
+		if (0 >= bufferSize) {
+			throw new RuntimeExceptionMustBeGreater("bufferSize", bufferSize, 0); //$NON-NLS-1$
+		}
+
+		this.bufferSize = bufferSize;
+	}
+
+	public FlowPublisher() {
+		this(DEFAULT_BUFFER_SIZE);
+		if (log.isTraceEnabled()) log.trace(HelperLog.constructor());
+	}
+
+	/**
+	 * Returns the buffer size of a subscription.
+	 *
+	 * @return buffer size in items
+	 * @since 0.3.0
+	 */
+	public int getBufferSize() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(bufferSize));
+		return bufferSize;
+	}
+
+	/**
+	 * Returns the number of current subscribers.
+	 *
+	 * @return number of subscribers
+	 * @since 0.3.0
+	 */
+	public int getSubscriberCount() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		final int result = subscriptions.size();
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(result));
+		return result;
+	}
+
+	/**
+	 * Checks if the publisher is saturated, i.e. the buffer of a subscription is full.
+	 *
+	 * @return true/false
+	 * @since 0.3.0
+	 */
+	public boolean isSaturated() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		final boolean result;
+		synchronized (lock) {
+			result = isSaturated;
+		}
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(result));
+		return result;
+	}
+
+	/**
+	 * Checks if the publisher is closed.
+	 *
+	 * @return true/false
+	 * @since 0.3.0
+	 */
+	public boolean isClosed() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(isClosed));
+		return isClosed;
+	}
+
+	/**
+	 * Publishes an item without blocking; a closed publisher drops it.
+	 *
+	 * @param item to publish
+	 * @return true if the publisher isn't saturated and closed
+	 * @since 0.3.0
+	 */
+	public boolean offer(final T item) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(item));
+		if (null == item) {
+			throw new RuntimeExceptionIsNull("item"); //$NON-NLS-1$
+		}
+
+		boolean result = false;
+		if (!isClosed) {
+			for (final FlowSubscription subscription : subscriptions) {
+				subscription.add(item);
+			}
+			result = !updateState();
+		}
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(result));
+		return result;
+	}
+
+	/**
+	 * Publishes an item, blocks while the publisher is saturated; a closed publisher drops it.
+	 *
+	 * @param item to publish
+	 * @throws InterruptedException
+	 * @since 0.3.0
+	 */
+	public void submit(final T item) throws InterruptedException {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(item));
+		if (null == item) {
+			throw new RuntimeExceptionIsNull("item"); //$NON-NLS-1$
+		}
+
+		synchronized (lock) {
+			while (isSaturated && !isClosed) {
+				lock.wait();
+			}
+		}
+		offer(item);
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	/**
+	 * Closes the publisher, the subscribers are completed after the buffered items.
+	 *
+	 * @since 0.3.0
+	 */
+	public void close() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		terminate();
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	/**
+	 * Closes the publisher with an error, the subscribers receive it after the buffered items.
+	 *
+	 * @param error for the subscribers
+	 * @since 0.3.0
+	 */
+	public void closeExceptionally(final Throwable error) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(error));
+		if (null == error) {
+			throw new RuntimeExceptionIsNull("error"); //$NON-NLS-1$
+		}
+
+		this.error = error;
+		terminate();
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	/**
+	 * Suspends the source of the items, called when the publisher becomes saturated.
+	 * This method is called while the state of the publisher is locked and must not block; the default implementation does nothing.
+	 *
+	 * @since 0.3.0
+	 */
+	protected void suspend() {
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodStart());
+
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodExit());
+	}
+
+	/**
+	 * Resumes the source of the items, called when all buffers have drained to half of their size or the publisher is closed.
+	 * This method is called while the state of the publisher is locked and must not block; the default implementation does nothing.
+	 *
+	 * @since 0.3.0
+	 */
+	protected void resume() {
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodStart());
+
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodExit());
+	}
+
+
+	/*
+	 * Private methods
+	 */
+
+	private boolean updateState() { //returns true if saturated
+		synchronized (lock) {
+			boolean isFull = false;
+			boolean isDrained = true;
+			for (final FlowSubscription subscription : subscriptions) {
+				final int size = subscription.size.get();
+				if (bufferSize <= size) {
+					isFull = true;
+				}
+				if (bufferSize / 2 < size) {
+					isDrained = false;
+				}
+			}
+
+			if (!isSaturated && isFull) {
+				isSaturated = true;
+				suspend();
+			} else if (isSaturated && isDrained) {
+				isSaturated = false;
+				resume();
+				lock.notifyAll();
+			}
+			return isSaturated;
+		}
+	}
+
+	private void terminate() {
+		isClosed = true;
+
+		for (final FlowSubscription subscription : subscriptions) {
+			subscription.terminate();
+		}
+
+		synchronized (lock) {
+			if (isSaturated) { //nobody consumes the source anymore
+				isSaturated = false;
+				resume();
+			}
+			lock.notifyAll();
+		}
+	}
+
+
+	/*
+	 * Implemented methods
+	 */
+
+	@Override
+	public void subscribe(final Flow.Subscriber<? super T> subscriber) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(subscriber));
+		if (null == subscriber) {
+			throw new RuntimeExceptionIsNull("subscriber"); //$NON-NLS-1$
+		}
+
+		final FlowSubscription subscription = new FlowSubscription(subscriber);
+		subscriptions.add(subscription);
+		subscriber.onSubscribe(subscription);
+
+		if (isClosed) {
+			subscription.terminate();
+		}
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+
+	/*
+	 * Inner classes
+	 */
+
+	private final class FlowSubscription implements Flow.Subscription {
+		private final Flow.Subscriber<? super T> subscriber;
+
+		private final Queue<T> queue = new ConcurrentLinkedQueue<>();
+		private final AtomicInteger size = new AtomicInteger();
+		private final AtomicLong demand = new AtomicLong();
+		private final AtomicInteger wip = new AtomicInteger(); //serializes the calls of the subscriber
+
+		private volatile boolean isCancelled;
+		private volatile boolean isTerminated;
+		private volatile IllegalArgumentException invalidRequest;
+		private boolean isDone; //only used while draining
+
+		FlowSubscription(final Flow.Subscriber<? super T> subscriber) {
+			this.subscriber = subscriber;
+		}
+
+		void add(final T item) {
+			if (!isCancelled) {
+				queue.add(item);
+				size.incrementAndGet();
+				drain();
+			}
+		}
+
+		void terminate() {
+			isTerminated = true;
+			drain();
+		}
+
+		private void drain() {
+			if (0 != wip.getAndIncrement()) {
+				return; //the current drain continues
+			}
+
+			int missed = 1;
+			do {
+				if (!isDone) {
+					if (!isCancelled && null != invalidRequest) {
+						done();
+						subscriber.onError(invalidRequest);
+					} else if (!isCancelled) {
+						T item;
+						while (0L < demand.get() && !isCancelled && null != (item = queue.poll())) {
+							size.decrementAndGet();
+							if (Long.MAX_VALUE != demand.get()) {
+								demand.decrementAndGet();
+							}
+							try {
+								subscriber.onNext(item);
+							} catch (RuntimeException ex) {
+								log.warn("Subscriber failed, subscription cancelled", ex); //$NON-NLS-1$
+								isCancelled = true;
+							}
+						}
+
+						if (!isCancelled && isTerminated && queue.isEmpty()) {
+							done();
+							final Throwable error = FlowPublisher.this.error;
+							if (null == error) {
+								subscriber.onComplete();
+							} else {
+								subscriber.onError(error);
+							}
+						}
+					}
+
+					if (isCancelled) {
+						done();
+					}
+				}
+				missed = wip.addAndGet(-missed);
+			} while (0 != missed);
+		}
+
+		private void done() {
+			isDone = true;
+			subscriptions.remove(this);
+			while (null != queue.poll()) {
+				size.decrementAndGet();
+			}
+		}
+
+
+		/*
+		 * Implemented methods
+		 */
+
+		@Override
+		public void request(final long n) {
+			if (0L >= n) {
+				invalidRequest = new RuntimeExceptionMustBeGreater("n", n, 0); //$NON-NLS-1$
+			} else {
+				long current;
+				long next;
+				do {
+					current = demand.get();
+					next = current + n;
+					if (0L > next) {
+						next = Long.MAX_VALUE; //unbounded
+					}
+				} while (Long.MAX_VALUE != current && !demand.compareAndSet(current, next));
+			}
+			drain();
+			updateState();
+		}
+
+		@Override
+		public void cancel() {
+			isCancelled = true;
+			drain();
+			updateState();
+		}
+	}
+}
@@ -0,0 +1,203 @@
+/*
+ * Copyright (c) 2007-2013 by Stefan Laubenberger.
+ *
+ * "wichtel" is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License v3.0.
+ *
+ * "wichtel" is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * See the GNU Lesser General Public License for more details:
+ * -----------------------------------------------------------
+ * http://www.gnu.org/licenses
+ *
+ *
+ * This distribution is available at:
+ * ----------------------------------
+ * https://github.com/slaubenberger/wichtel/
+ *
+ *
+ * Contact information:
+ * --------------------
+ * Stefan Laubenberger
+ * Bullingerstrasse 53
+ * CH-8004 Zuerich
+ *
+ * http://www.laubenberger.net
+ * laubenberger@gmail.com
+ */
+
+package net.laubenberger.wichtel.controller.net.flow;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.laubenberger.wichtel.controller.net.server.ListenerServerThread;
+import net.laubenberger.wichtel.controller.net.server.Server;
+import net.laubenberger.wichtel.controller.net.server.ServerThread;
+import net.laubenberger.wichtel.helper.HelperLog;
+import net.laubenberger.wichtel.misc.Event;
+import net.laubenberger.wichtel.misc.exception.RuntimeExceptionIsNull;
+import net.laubenberger.wichtel.model.net.FlowEventType;
+
+
+/**
+ * Publishes the connection events and messages of all connections of a {@link Server}.
+ * <p>
+ * Only connections started after the creation of the publisher are published.
+ * While the publisher is saturated, reading is suspended on these connections (see {@link ServerThread#setReadSuspended(boolean)}), so a slow subscriber applies backpressure to the clients via the socket buffers.
+ * The publisher controls the read suspension of the connections; connections started while saturated are suspended immediately.
+ * The events are published on the threads of the connections, i.e. on the loop threads of a {@link net.laubenberger.wichtel.controller.net.server.ServerNioAbstract}.
+ *
+ * @author Stefan Laubenberger
+ * @version 0.3.0, 2026-10-17
+ * @since 0.3.0
+ */
+public class ServerPublisher extends FlowPublisher<FlowEvent<ServerThread>> implements ListenerServerThread {
+	private static final Logger log = LoggerFactory.getLogger(ServerPublisher.class);
+
+	private final Map<Long, ServerThread> serverThreads = new ConcurrentHashMap<>(); //connection id -> thread
+	private final Object lock = new Object();
+	private final Server server;
+
+	private boolean isReadSuspended; //guarded by lock
+
+	public ServerPublisher(final Server server, final int bufferSize) {
+		super(bufferSize);
+		if (log.isTraceEnabled()) log.trace(HelperLog.constructor(server, bufferSize));
+
+		if (null == server) {
+			throw new RuntimeExceptionIsNull("server"); //$NON-NLS-1$
+		}
+
+		this.server = server;
+		server.addServerThreadListener(this);
+	}
+
+	public ServerPublisher(final Server server) {
+		this(server, DEFAULT_BUFFER_SIZE);
+		if (log.isTraceEnabled()) log.trace(HelperLog.constructor(server));
+	}
+
+	/**
+	 * Returns the {@link Server} of the publisher.
+	 *
+	 * @return {@link Server}
+	 * @see Server
+	 * @since 0.3.0
+	 */
+	public Server getServer() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(server));
+		return server;
+	}
+
+
+	/*
+	 * Private methods
+	 */
+
+	private void setReadSuspended(final boolean isReadSuspended) {
+		synchronized (lock) {
+			this.isReadSuspended = isReadSuspended;
+			for (final ServerThread serverThread : serverThreads.values()) {
+				serverThread.setReadSuspended(isReadSuspended);
+			}
+		}
+	}
+
+
+	/*
+	 * Overridden methods
+	 */
+
+	/**
+	 * Closes the publisher and detaches it from the {@link Server}.
+	 */
+	@Override
+	public void close() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		server.deleteServerThreadListener(this);
+		super.close();
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	/**
+	 * Closes the publisher with an error and detaches it from the {@link Server}.
+	 */
+	@Override
+	public void closeExceptionally(final Throwable error) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(error));
+
+		server.deleteServerThreadListener(this);
+		super.closeExceptionally(error);
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	@Override
+	protected void suspend() {
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodStart());
+
+		setReadSuspended(true);
+
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodExit());
+	}
+
+	@Override
+	protected void resume() {
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodStart());
+
+		setReadSuspended(false);
+
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodExit());
+	}
+
+
+	/*
+	 * Implemented methods
+	 */
+
+	@Override
+	public void serverThreadStreamRead(final Event<ServerThread> event) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(event));
+
+		final ServerThread serverThread = event.getSource();
+		offer(new FlowEvent<ServerThread>(serverThread, FlowEventType.READ, serverThread.getData()));
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	@Override
+	public void serverThreadStarted(final Event<ServerThread> event) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(event));
+
+		final ServerThread serverThread = event.getSource();
+		synchronized (lock) {
+			serverThreads.put(serverThread.getConnectionId(), serverThread);
+			if (isReadSuspended) {
+				serverThread.setReadSuspended(true);
+			}
+		}
+		offer(new FlowEvent<ServerThread>(serverThread, FlowEventType.STARTED));
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	@Override
+	public void serverThreadStopped(final Event<ServerThread> event) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(event));
+
+		serverThreads.remove(event.getSource().getConnectionId());
+		offer(new FlowEvent<ServerThread>(event.getSource(), FlowEventType.STOPPED));
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+}
@@ -0,0 +1,258 @@
+/*
+ * Copyright (c) 2007-2013 by Stefan Laubenberger.
+ *
+ * "wichtel" is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License v3.0.
+ *
+ * "wichtel" is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * See the GNU Lesser General Public License for more details:
+ * -----------------------------------------------------------
+ * http://www.gnu.org/licenses
+ *
+ *
+ * This distribution is available at:
+ * ----------------------------------
+ * https://github.com/slaubenberger/wichtel/
+ *
+ *
+ * Contact information:
+ * --------------------
+ * Stefan Laubenberger
+ * Bullingerstrasse 53
+ * CH-8004 Zuerich
+ *
+ * http://www.laubenberger.net
+ * laubenberger@gmail.com
+ */
+
+package net.laubenberger.wichtel.controller.net.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongBinaryOperator;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.laubenberger.wichtel.helper.HelperLog;
+import net.laubenberger.wichtel.misc.exception.RuntimeExceptionMustBeGreater;
+import net.laubenberger.wichtel.misc.exception.RuntimeExceptionMustBeSmaller;
+import net.laubenberger.wichtel.misc.extendedObject.ExtendedObjectAbstract;
+
+
+/**
+ * Thread-safe, lock-free histogram for latencies in nanoseconds.
+ * <p>
+ * The values are counted in logarithmic buckets with 2^precision linear sub-buckets each, so a percentile is accurate to 2^-precision for any magnitude with a fixed memory footprint.
+ * The default precision of 3 bits (12.5%, 4kB) suits the connection metrics; benchmarks measuring tail latencies use a higher precision, e.g. 7 bits (0.8%, 58kB).
+ * Recording a value doesn't allocate and costs about as much as incrementing a counter.
+ *
+ * @author Stefan Laubenberger
+ * @version 0.3.0, 2026-10-17
+ * @since 0.3.0
+ */
+public class Histogram extends ExtendedObjectAbstract {
+	private static final Logger log = LoggerFactory.getLogger(Histogram.class);
+
+	public static final int DEFAULT_PRECISION = 3;
+	public static final int MAX_PRECISION = 10;
+
+	private static final LongBinaryOperator MAX = new LongBinaryOperator() {
+		@Override
+		public long applyAsLong(final long left, final long right) {
+			return Math.max(left, right);
+		}
+	};
+
+	private final int subBits;
+	private final int subBuckets;
+	private final AtomicLongArray buckets;
+	private final LongAdder count = new LongAdder();
+	private final LongAdder sum = new LongAdder();
+	private final LongAccumulator max = new LongAccumulator(MAX, 0L);
+
+	public Histogram(final int precision) {
+		super();
+		if (log.isTraceEnabled()) log.trace(HelperLog.constructor(precision));
+
+		if (0 >= precision) {
+			throw new RuntimeExceptionMustBeGreater("precision", precision, 0); //$NON-NLS-1$
+		}
+		if (MAX_PRECISION < precision) {
+			throw new RuntimeExceptionMustBeSmaller("precision", precision, MAX_PRECISION); //$NON-NLS-1$
+		}
+
+		subBits = precision;
+		subBuckets = 1 << precision;
+		buckets = new AtomicLongArray((64 - precision + 1) * subBuckets);
+	}
+
+	public Histogram() {
+		this(DEFAULT_PRECISION);
+		if (log.isTraceEnabled()) log.trace(HelperLog.constructor());
+	}
+
+	/**
+	 * Returns the precision of the histogram.
+	 *
+	 * @return number of bits for the linear sub-buckets
+	 * @since 0.3.0
+	 */
+	public int getPrecision() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(subBits));
+		return subBits;
+	}
+
+	/**
+	 * Records a value, negative values are counted as 0.
+	 *
+	 * @param value in nanoseconds
+	 * @since 0.3.0
+	 */
+	public void record(final long value) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(value));
+
+		final long result = Math.max(0L, value);
+
+		buckets.incrementAndGet(getIndex(result));
+		count.increment();
+		sum.add(result);
+		max.accumulate(result);
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	/**
+	 * Returns the number of recorded values.
+	 *
+	 * @return number of values
+	 * @since 0.3.0
+	 */
+	public long getCount() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		final long result = count.sum();
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(result));
+		return result;
+	}
+
+	/**
+	 * Returns the mean of the recorded values.
+	 *
+	 * @return mean in nanoseconds, 0 without values
+	 * @since 0.3.0
+	 */
+	public long getMean() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		final long count = this.count.sum();
+		final long result = 0L == count ? 0L : sum.sum() / count;
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(result));
+		return result;
+	}
+
+	/**
+	 * Returns the largest recorded value.
+	 *
+	 * @return maximum in nanoseconds, 0 without values
+	 * @since 0.3.0
+	 */
+	public long getMax() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		final long result = max.get();
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(result));
+		return result;
+	}
+
+	/**
+	 * Returns the value below which the given percentage of the recorded values falls (e.g. 99.9 for p999).
+	 *
+	 * @param percentile between 0 and 100
+	 * @return upper bound of the bucket in nanoseconds, 0 without values
+	 * @since 0.3.0
+	 */
+	public long getPercentile(final double percentile) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(percentile));
+		if (0.0D > percentile) {
+			throw new RuntimeExceptionMustBeGreater("percentile", percentile, 0); //$NON-NLS-1$
+		}
+		if (100.0D < percentile) {
+			throw new RuntimeExceptionMustBeSmaller("percentile", percentile, 100); //$NON-NLS-1$
+		}
+
+		final long[] counts = new long[buckets.length()];
+		long total = 0L;
+		for (int ii = 0; counts.length > ii; ii++) {
+			counts[ii] = buckets.get(ii);
+			total += counts[ii];
+		}
+
+		long result = 0L;
+		if (0L < total) {
+			final long rank = Math.max(1L, (long) Math.ceil(percentile / 100.0D * total));
+
+			long seen = 0L;
+			for (int ii = 0; counts.length > ii; ii++) {
+				seen += counts[ii];
+				if (seen >= rank) {
+					result = Math.min(getUpperBound(ii), max.get());
+					break;
+				}
+			}
+		}
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(result));
+		return result;
+	}
+
+	/**
+	 * Removes all recorded values.
+	 * Values recorded concurrently may be lost.
+	 *
+	 * @since 0.3.0
+	 */
+	public void reset() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		for (int ii = 0; buckets.length() > ii; ii++) {
+			buckets.set(ii, 0L);
+		}
+		count.reset();
+		sum.reset();
+		max.reset();
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+
+	/*
+	 * Private methods
+	 */
+
+	private int getIndex(final long value) {
+		if (subBuckets > value) {
+			return (int) value; //exact
+		}
+		final int magnitude = 63 - Long.numberOfLeadingZeros(value);
+		return (magnitude - subBits + 1 << subBits) | (int) (value >>> magnitude - subBits & subBuckets - 1);
+	}
+
+	private long getUpperBound(final int index) {
+		if (subBuckets > index) {
+			return index;
+		}
+		final int shift = (index >>> subBits) - 1;
+		final long lower = (long) (subBuckets | index & subBuckets - 1) << shift;
+		return lower + (1L << shift) - 1L;
+	}
+}
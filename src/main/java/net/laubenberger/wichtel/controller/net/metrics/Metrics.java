@@ -0,0 +1,479 @@
+/*
+ * Copyright (c) 2007-2013 by Stefan Laubenberger.
+ *
+ * "wichtel" is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License v3.0.
+ *
+ * "wichtel" is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * See the GNU Lesser General Public License for more details:
+ * -----------------------------------------------------------
+ * http://www.gnu.org/licenses
+ *
+ *
+ * This distribution is available at:
+ * ----------------------------------
+ * https://github.com/slaubenberger/wichtel/
+ *
+ *
+ * Contact information:
+ * --------------------
+ * Stefan Laubenberger
+ * Bullingerstrasse 53
+ * CH-8004 Zuerich
+ *
+ * http://www.laubenberger.net
+ * laubenberger@gmail.com
+ */
+
+package net.laubenberger.wichtel.controller.net.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.laubenberger.wichtel.helper.HelperLog;
+import net.laubenberger.wichtel.misc.exception.RuntimeExceptionIsEmpty;
+import net.laubenberger.wichtel.misc.exception.RuntimeExceptionIsNull;
+import net.laubenberger.wichtel.misc.extendedObject.ExtendedObjectAbstract;
+
+
+/**
+ * Thread-safe metrics of a connection, server or client.
+ * <p>
+ * The counters are {@link LongAdder}s and the latencies {@link Histogram}s, so recording from many threads doesn't contend.
+ * With a parent, every value is also recorded in the parent; e.g. the metrics of a server contain the sums of all its connections, even of the closed ones.
+ * The latencies are only recorded in the metrics without a parent, so the metrics of a connection stay a few counters and its latency percentiles are 0.
+ * The histograms are created with the first recorded latency.
+ * The current values are available as {@link #getSnapshot()} or through JMX after {@link #registerMBean(ObjectName)}.
+ *
+ * @author Stefan Laubenberger
+ * @version 0.3.0, 2026-10-17
+ * @since 0.3.0
+ */
+public class Metrics extends ExtendedObjectAbstract implements MetricsMXBean {
+	private static final Logger log = LoggerFactory.getLogger(Metrics.class);
+
+	public static final String JMX_DOMAIN = "net.laubenberger.wichtel"; //$NON-NLS-1$
+
+	private static final Histogram EMPTY = new Histogram(); //never recorded, for the getters of metrics without latencies
+
+	private final long created = System.nanoTime();
+
+	private final LongAdder bytesRead = new LongAdder();
+	private final LongAdder bytesWritten = new LongAdder();
+	private final LongAdder messagesRead = new LongAdder();
+	private final LongAdder messagesWritten = new LongAdder();
+	private final LongAdder exchanges = new LongAdder();
+	private final LongAdder connections = new LongAdder();
+	private volatile Histogram exchangeLatency; //created lazily, only without a parent
+	private volatile Histogram startLatency; //created lazily, only without a parent
+
+	private volatile Metrics parent;
+	private ObjectName name; //registered MBean
+
+	public Metrics() {
+		super();
+		if (log.isTraceEnabled()) log.trace(HelperLog.constructor());
+	}
+
+	/**
+	 * Returns the parent metrics.
+	 *
+	 * @return parent {@link Metrics} or null
+	 * @since 0.3.0
+	 */
+	public Metrics getParent() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(parent));
+		return parent;
+	}
+
+	/**
+	 * Sets the parent metrics, which receive all values recorded afterwards.
+	 *
+	 * @param parent {@link Metrics} or null
+	 * @since 0.3.0
+	 */
+	public void setParent(final Metrics parent) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(parent));
+
+		this.parent = parent;
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	/**
+	 * Returns the time since the metrics were created.
+	 *
+	 * @return time in nanoseconds
+	 * @since 0.3.0
+	 */
+	public long getAge() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		final long result = System.nanoTime() - created;
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(result));
+		return result;
+	}
+
+	/**
+	 * Records read data.
+	 *
+	 * @param bytes	 number of read bytes
+	 * @param messages number of read messages
+	 * @since 0.3.0
+	 */
+	public void recordRead(final long bytes, final long messages) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(bytes, messages));
+
+		bytesRead.add(bytes);
+		messagesRead.add(messages);
+
+		final Metrics parent = this.parent;
+		if (null != parent) {
+			parent.recordRead(bytes, messages);
+		}
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	/**
+	 * Records written data.
+	 *
+	 * @param bytes	 number of written bytes
+	 * @param messages number of written messages
+	 * @since 0.3.0
+	 */
+	public void recordWrite(final long bytes, final long messages) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(bytes, messages));
+
+		bytesWritten.add(bytes);
+		messagesWritten.add(messages);
+
+		final Metrics parent = this.parent;
+		if (null != parent) {
+			parent.recordWrite(bytes, messages);
+		}
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	/**
+	 * Records a written frame, e.g. from {@link net.laubenberger.wichtel.controller.net.codec.Codec#encode(byte...)}.
+	 * Call this method before the buffers are written.
+	 *
+	 * @param frame buffers of the frame
+	 * @since 0.3.0
+	 */
+	public void recordWrite(final ByteBuffer... frame) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(frame));
+		if (null == frame) {
+			throw new RuntimeExceptionIsNull("frame"); //$NON-NLS-1$
+		}
+
+		long bytes = 0L;
+		for (final ByteBuffer buffer : frame) {
+			bytes += buffer.remaining();
+		}
+		recordWrite(bytes, 1L);
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	/**
+	 * Records the latency of an exchange.
+	 * With a parent, only the parent records the latency.
+	 *
+	 * @param latency in nanoseconds
+	 * @since 0.3.0
+	 */
+	public void recordExchange(final long latency) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(latency));
+
+		exchanges.increment();
+
+		final Metrics parent = this.parent;
+		if (null == parent) {
+			getExchangeLatency().record(latency);
+		} else {
+			parent.recordExchange(latency);
+		}
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	/**
+	 * Records the start of a connection.
+	 * With a parent, only the parent records the latency.
+	 *
+	 * @param latency in nanoseconds until the connection is served
+	 * @since 0.3.0
+	 */
+	public void recordStart(final long latency) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(latency));
+
+		connections.increment();
+
+		final Metrics parent = this.parent;
+		if (null == parent) {
+			getStartLatency().record(latency);
+		} else {
+			parent.recordStart(latency);
+		}
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	/**
+	 * Returns the {@link Histogram} of the exchange latencies, e.g. for other percentiles.
+	 * With a parent, the histogram stays empty.
+	 *
+	 * @return {@link Histogram}
+	 * @see Histogram
+	 * @since 0.3.0
+	 */
+	public Histogram getExchangeLatency() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		Histogram result = exchangeLatency;
+		if (null == result) {
+			synchronized (this) {
+				result = exchangeLatency;
+				if (null == result) {
+					result = new Histogram();
+					exchangeLatency = result;
+				}
+			}
+		}
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(result));
+		return result;
+	}
+
+	/**
+	 * Returns the {@link Histogram} of the start latencies.
+	 * With a parent, the histogram stays empty.
+	 *
+	 * @return {@link Histogram}
+	 * @see Histogram
+	 * @since 0.3.0
+	 */
+	public Histogram getStartLatency() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		Histogram result = startLatency;
+		if (null == result) {
+			synchronized (this) {
+				result = startLatency;
+				if (null == result) {
+					result = new Histogram();
+					startLatency = result;
+				}
+			}
+		}
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(result));
+		return result;
+	}
+
+	/**
+	 * Returns an immutable snapshot of the current values.
+	 *
+	 * @return {@link MetricsSnapshot}
+	 * @see MetricsSnapshot
+	 * @since 0.3.0
+	 */
+	public MetricsSnapshot getSnapshot() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		final MetricsSnapshot result = new MetricsSnapshot(this);
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(result));
+		return result;
+	}
+
+	/**
+	 * Registers the metrics as MXBean in the platform {@link javax.management.MBeanServer}.
+	 * A previous registration of this instance is removed.
+	 *
+	 * @param name of the MXBean
+	 * @throws JMException
+	 * @see #createObjectName(String, String)
+	 * @since 0.3.0
+	 */
+	public synchronized void registerMBean(final ObjectName name) throws JMException {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(name));
+		if (null == name) {
+			throw new RuntimeExceptionIsNull("name"); //$NON-NLS-1$
+		}
+
+		unregisterMBean();
+
+		ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+		this.name = name;
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	/**
+	 * Removes the registration from the platform {@link javax.management.MBeanServer}, if any.
+	 *
+	 * @throws JMException
+	 * @since 0.3.0
+	 */
+	public synchronized void unregisterMBean() throws JMException {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (null != name) {
+			final ObjectName name = this.name;
+			this.name = null;
+			ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+		}
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	/**
+	 * Creates a JMX name in the {@link #JMX_DOMAIN}, e.g. "net.laubenberger.wichtel:type=Server,name=&quot;Server-8080&quot;".
+	 *
+	 * @param type of the MXBean
+	 * @param name of the MXBean
+	 * @return new {@link ObjectName}
+	 * @throws MalformedObjectNameException
+	 * @see ObjectName
+	 * @since 0.3.0
+	 */
+	public static ObjectName createObjectName(final String type, final String name) throws MalformedObjectNameException {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(type, name));
+		if (null == type) {
+			throw new RuntimeExceptionIsNull("type"); //$NON-NLS-1$
+		}
+		if (type.isEmpty()) {
+			throw new RuntimeExceptionIsEmpty("type"); //$NON-NLS-1$
+		}
+		if (null == name) {
+			throw new RuntimeExceptionIsNull("name"); //$NON-NLS-1$
+		}
+
+		final ObjectName result = new ObjectName(JMX_DOMAIN + ":type=" + type + ",name=" + ObjectName.quote(name)); //$NON-NLS-1$ //$NON-NLS-2$
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(result));
+		return result;
+	}
+
+
+	/*
+	 * Private methods
+	 */
+
+	private static double getRate(final long count, final long uptime) {
+		return 0L == uptime ? 0.0D : count * 1000.0D / uptime;
+	}
+
+	private static Histogram get(final Histogram histogram) {
+		return null == histogram ? EMPTY : histogram; //the getters don't create histograms
+	}
+
+
+	/*
+	 * Implemented methods
+	 */
+
+	@Override
+	public long getUptime() {
+		return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - created);
+	}
+
+	@Override
+	public long getBytesRead() {
+		return bytesRead.sum();
+	}
+
+	@Override
+	public long getBytesWritten() {
+		return bytesWritten.sum();
+	}
+
+	@Override
+	public long getMessagesRead() {
+		return messagesRead.sum();
+	}
+
+	@Override
+	public long getMessagesWritten() {
+		return messagesWritten.sum();
+	}
+
+	@Override
+	public double getMessagesReadRate() {
+		return getRate(messagesRead.sum(), getUptime());
+	}
+
+	@Override
+	public double getMessagesWrittenRate() {
+		return getRate(messagesWritten.sum(), getUptime());
+	}
+
+	@Override
+	public long getConnections() {
+		return connections.sum();
+	}
+
+	@Override
+	public long getExchanges() {
+		return exchanges.sum();
+	}
+
+	@Override
+	public long getExchangeLatencyMean() {
+		return get(exchangeLatency).getMean();
+	}
+
+	@Override
+	public long getExchangeLatencyP50() {
+		return get(exchangeLatency).getPercentile(50.0D);
+	}
+
+	@Override
+	public long getExchangeLatencyP99() {
+		return get(exchangeLatency).getPercentile(99.0D);
+	}
+
+	@Override
+	public long getExchangeLatencyP999() {
+		return get(exchangeLatency).getPercentile(99.9D);
+	}
+
+	@Override
+	public long getExchangeLatencyMax() {
+		return get(exchangeLatency).getMax();
+	}
+
+	@Override
+	public long getStartLatencyP50() {
+		return get(startLatency).getPercentile(50.0D);
+	}
+
+	@Override
+	public long getStartLatencyP99() {
+		return get(startLatency).getPercentile(99.0D);
+	}
+
+	@Override
+	public long getStartLatencyMax() {
+		return get(startLatency).getMax();
+	}
+}
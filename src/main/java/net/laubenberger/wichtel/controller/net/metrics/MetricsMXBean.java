@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2007-2013 by Stefan Laubenberger.
+ *
+ * "wichtel" is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License v3.0.
+ *
+ * "wichtel" is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * See the GNU Lesser General Public License for more details:
+ * -----------------------------------------------------------
+ * http://www.gnu.org/licenses
+ *
+ *
+ * This distribution is available at:
+ * ----------------------------------
+ * https://github.com/slaubenberger/wichtel/
+ *
+ *
+ * Contact information:
+ * --------------------
+ * Stefan Laubenberger
+ * Bullingerstrasse 53
+ * CH-8004 Zuerich
+ *
+ * http://www.laubenberger.net
+ * laubenberger@gmail.com
+ */
+
+package net.laubenberger.wichtel.controller.net.metrics;
+
+
+/**
+ * Defines the metrics of a connection or of all connections of a server or client.
+ * <p>
+ * The interface is a JMX MXBean and also the type of the snapshots.
+ * Latencies are in nanoseconds:
+ * <ul>
+ * <li>exchange latency: time to handle a message (server) or to receive the response to a request (client)</li>
+ * <li>start latency: time from accepting a connection until it is served (server) or to connect (client)</li>
+ * </ul>
+ *
+ * @author Stefan Laubenberger
+ * @version 0.3.0, 2026-10-17
+ * @since 0.3.0
+ */
+public interface MetricsMXBean {
+	/**
+	 * Returns the time since the metrics were created.
+	 *
+	 * @return uptime in milliseconds
+	 * @since 0.3.0
+	 */
+	long getUptime();
+
+	/**
+	 * Returns the number of read bytes.
+	 *
+	 * @return number of bytes
+	 * @since 0.3.0
+	 */
+	long getBytesRead();
+
+	/**
+	 * Returns the number of written bytes.
+	 *
+	 * @return number of bytes
+	 * @since 0.3.0
+	 */
+	long getBytesWritten();
+
+	/**
+	 * Returns the number of read messages.
+	 *
+	 * @return number of messages
+	 * @since 0.3.0
+	 */
+	long getMessagesRead();
+
+	/**
+	 * Returns the number of written messages.
+	 *
+	 * @return number of messages
+	 * @since 0.3.0
+	 */
+	long getMessagesWritten();
+
+	/**
+	 * Returns the average rate of read messages since the start.
+	 *
+	 * @return messages per second
+	 * @since 0.3.0
+	 */
+	double getMessagesReadRate();
+
+	/**
+	 * Returns the average rate of written messages since the start.
+	 *
+	 * @return messages per second
+	 * @since 0.3.0
+	 */
+	double getMessagesWrittenRate();
+
+	/**
+	 * Returns the number of started connections.
+	 *
+	 * @return number of connections
+	 * @since 0.3.0
+	 */
+	long getConnections();
+
+	/**
+	 * Returns the number of timed exchanges.
+	 *
+	 * @return number of exchanges
+	 * @since 0.3.0
+	 */
+	long getExchanges();
+
+	/**
+	 * Returns the mean exchange latency.
+	 *
+	 * @return latency in nanoseconds
+	 * @since 0.3.0
+	 */
+	long getExchangeLatencyMean();
+
+	/**
+	 * Returns the median exchange latency.
+	 *
+	 * @return latency in nanoseconds
+	 * @since 0.3.0
+	 */
+	long getExchangeLatencyP50();
+
+	/**
+	 * Returns the 99th percentile of the exchange latency.
+	 *
+	 * @return latency in nanoseconds
+	 * @since 0.3.0
+	 */
+	long getExchangeLatencyP99();
+
+	/**
+	 * Returns the 99.9th percentile of the exchange latency.
+	 *
+	 * @return latency in nanoseconds
+	 * @since 0.3.0
+	 */
+	long getExchangeLatencyP999();
+
+	/**
+	 * Returns the maximum exchange latency.
+	 *
+	 * @return latency in nanoseconds
+	 * @since 0.3.0
+	 */
+	long getExchangeLatencyMax();
+
+	/**
+	 * Returns the median start latency.
+	 *
+	 * @return latency in nanoseconds
+	 * @since 0.3.0
+	 */
+	long getStartLatencyP50();
+
+	/**
+	 * Returns the 99th percentile of the start latency.
+	 *
+	 * @return latency in nanoseconds
+	 * @since 0.3.0
+	 */
+	long getStartLatencyP99();
+
+	/**
+	 * Returns the maximum start latency.
+	 *
+	 * @return latency in nanoseconds
+	 * @since 0.3.0
+	 */
+	long getStartLatencyMax();
+}
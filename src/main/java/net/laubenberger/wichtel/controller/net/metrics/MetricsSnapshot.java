@@ -0,0 +1,203 @@
+/*
+ * Copyright (c) 2007-2013 by Stefan Laubenberger.
+ *
+ * "wichtel" is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License v3.0.
+ *
+ * "wichtel" is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * See the GNU Lesser General Public License for more details:
+ * -----------------------------------------------------------
+ * http://www.gnu.org/licenses
+ *
+ *
+ * This distribution is available at:
+ * ----------------------------------
+ * https://github.com/slaubenberger/wichtel/
+ *
+ *
+ * Contact information:
+ * --------------------
+ * Stefan Laubenberger
+ * Bullingerstrasse 53
+ * CH-8004 Zuerich
+ *
+ * http://www.laubenberger.net
+ * laubenberger@gmail.com
+ */
+
+package net.laubenberger.wichtel.controller.net.metrics;
+
+import java.io.Serializable;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.laubenberger.wichtel.helper.HelperLog;
+import net.laubenberger.wichtel.misc.exception.RuntimeExceptionIsNull;
+
+
+/**
+ * Immutable snapshot of {@link Metrics}.
+ * <p>
+ * Rates over an interval are calculated from two snapshots, e.g. (later.getMessagesRead() - earlier.getMessagesRead()) / (later.getUptime() - earlier.getUptime()).
+ *
+ * @author Stefan Laubenberger
+ * @version 0.3.0, 2026-10-17
+ * @since 0.3.0
+ */
+public class MetricsSnapshot implements MetricsMXBean, Serializable {
+	private static final long serialVersionUID = 5398246614358047326L;
+
+	private static final Logger log = LoggerFactory.getLogger(MetricsSnapshot.class);
+
+	private final long uptime;
+	private final long bytesRead;
+	private final long bytesWritten;
+	private final long messagesRead;
+	private final long messagesWritten;
+	private final double messagesReadRate;
+	private final double messagesWrittenRate;
+	private final long connections;
+	private final long exchanges;
+	private final long exchangeLatencyMean;
+	private final long exchangeLatencyP50;
+	private final long exchangeLatencyP99;
+	private final long exchangeLatencyP999;
+	private final long exchangeLatencyMax;
+	private final long startLatencyP50;
+	private final long startLatencyP99;
+	private final long startLatencyMax;
+
+	public MetricsSnapshot(final MetricsMXBean metrics) {
+		super();
+		if (log.isTraceEnabled()) log.trace(HelperLog.constructor(metrics));
+
+		if (null == metrics) {
+			throw new RuntimeExceptionIsNull("metrics"); //$NON-NLS-1$
+		}
+
+		uptime = metrics.getUptime();
+		bytesRead = metrics.getBytesRead();
+		bytesWritten = metrics.getBytesWritten();
+		messagesRead = metrics.getMessagesRead();
+		messagesWritten = metrics.getMessagesWritten();
+		messagesReadRate = metrics.getMessagesReadRate();
+		messagesWrittenRate = metrics.getMessagesWrittenRate();
+		connections = metrics.getConnections();
+		exchanges = metrics.getExchanges();
+		exchangeLatencyMean = metrics.getExchangeLatencyMean();
+		exchangeLatencyP50 = metrics.getExchangeLatencyP50();
+		exchangeLatencyP99 = metrics.getExchangeLatencyP99();
+		exchangeLatencyP999 = metrics.getExchangeLatencyP999();
+		exchangeLatencyMax = metrics.getExchangeLatencyMax();
+		startLatencyP50 = metrics.getStartLatencyP50();
+		startLatencyP99 = metrics.getStartLatencyP99();
+		startLatencyMax = metrics.getStartLatencyMax();
+	}
+
+
+	/*
+	 * Overridden methods
+	 */
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + "[uptime=" + uptime + ", bytesRead=" + bytesRead + ", bytesWritten=" + bytesWritten //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+				+ ", messagesRead=" + messagesRead + ", messagesWritten=" + messagesWritten + ", connections=" + connections //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+				+ ", exchanges=" + exchanges + ", exchangeLatencyP50=" + exchangeLatencyP50 + ", exchangeLatencyP99=" + exchangeLatencyP99 //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+				+ ", exchangeLatencyP999=" + exchangeLatencyP999 + ", exchangeLatencyMax=" + exchangeLatencyMax + ']'; //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+
+	/*
+	 * Implemented methods
+	 */
+
+	@Override
+	public long getUptime() {
+		return uptime;
+	}
+
+	@Override
+	public long getBytesRead() {
+		return bytesRead;
+	}
+
+	@Override
+	public long getBytesWritten() {
+		return bytesWritten;
+	}
+
+	@Override
+	public long getMessagesRead() {
+		return messagesRead;
+	}
+
+	@Override
+	public long getMessagesWritten() {
+		return messagesWritten;
+	}
+
+	@Override
+	public double getMessagesReadRate() {
+		return messagesReadRate;
+	}
+
+	@Override
+	public double getMessagesWrittenRate() {
+		return messagesWrittenRate;
+	}
+
+	@Override
+	public long getConnections() {
+		return connections;
+	}
+
+	@Override
+	public long getExchanges() {
+		return exchanges;
+	}
+
+	@Override
+	public long getExchangeLatencyMean() {
+		return exchangeLatencyMean;
+	}
+
+	@Override
+	public long getExchangeLatencyP50() {
+		return exchangeLatencyP50;
+	}
+
+	@Override
+	public long getExchangeLatencyP99() {
+		return exchangeLatencyP99;
+	}
+
+	@Override
+	public long getExchangeLatencyP999() {
+		return exchangeLatencyP999;
+	}
+
+	@Override
+	public long getExchangeLatencyMax() {
+		return exchangeLatencyMax;
+	}
+
+	@Override
+	public long getStartLatencyP50() {
+		return startLatencyP50;
+	}
+
+	@Override
+	public long getStartLatencyP99() {
+		return startLatencyP99;
+	}
+
+	@Override
+	public long getStartLatencyMax() {
+		return startLatencyMax;
+	}
+}
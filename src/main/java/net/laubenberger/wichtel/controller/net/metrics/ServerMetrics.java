@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2007-2013 by Stefan Laubenberger.
+ *
+ * "wichtel" is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License v3.0.
+ *
+ * "wichtel" is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * See the GNU Lesser General Public License for more details:
+ * -----------------------------------------------------------
+ * http://www.gnu.org/licenses
+ *
+ *
+ * This distribution is available at:
+ * ----------------------------------
+ * https://github.com/slaubenberger/wichtel/
+ *
+ *
+ * Contact information:
+ * --------------------
+ * Stefan Laubenberger
+ * Bullingerstrasse 53
+ * CH-8004 Zuerich
+ *
+ * http://www.laubenberger.net
+ * laubenberger@gmail.com
+ */
+
+package net.laubenberger.wichtel.controller.net.metrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.laubenberger.wichtel.helper.HelperLog;
+
+
+/**
+ * Metrics of a server.
+ * <p>
+ * The server is the parent of the {@link Metrics} of its connections and provides the state (e.g. {@link #getActiveConnections()}) by implementing the abstract methods.
+ *
+ * @author Stefan Laubenberger
+ * @version 0.3.0, 2026-10-17
+ * @since 0.3.0
+ */
+public abstract class ServerMetrics extends Metrics implements ServerMetricsMXBean {
+	private static final Logger log = LoggerFactory.getLogger(ServerMetrics.class);
+
+	protected ServerMetrics() {
+		super();
+		if (log.isTraceEnabled()) log.trace(HelperLog.constructor());
+	}
+
+
+	/*
+	 * Overridden methods
+	 */
+
+	@Override
+	public ServerMetricsSnapshot getSnapshot() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		final ServerMetricsSnapshot result = new ServerMetricsSnapshot(this);
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(result));
+		return result;
+	}
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2007-2013 by Stefan Laubenberger.
+ *
+ * "wichtel" is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License v3.0.
+ *
+ * "wichtel" is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * See the GNU Lesser General Public License for more details:
+ * -----------------------------------------------------------
+ * http://www.gnu.org/licenses
+ *
+ *
+ * This distribution is available at:
+ * ----------------------------------
+ * https://github.com/slaubenberger/wichtel/
+ *
+ *
+ * Contact information:
+ * --------------------
+ * Stefan Laubenberger
+ * Bullingerstrasse 53
+ * CH-8004 Zuerich
+ *
+ * http://www.laubenberger.net
+ * laubenberger@gmail.com
+ */
+
+package net.laubenberger.wichtel.controller.net.metrics;
+
+
+/**
+ * Defines the metrics of a server: the {@link MetricsMXBean} of all its connections and the state of the server.
+ *
+ * @author Stefan Laubenberger
+ * @version 0.3.0, 2026-10-17
+ * @since 0.3.0
+ */
+public interface ServerMetricsMXBean extends MetricsMXBean {
+	/**
+	 * Returns the number of open connections.
+	 *
+	 * @return number of connections
+	 * @since 0.3.0
+	 */
+	int getActiveConnections();
+
+	/**
+	 * Returns the number of accepted connections waiting for a free slot.
+	 *
+	 * @return number of connections
+	 * @since 0.3.0
+	 */
+	int getQueuedConnections();
+
+	/**
+	 * Returns the number of rejected connections.
+	 *
+	 * @return number of connections
+	 * @since 0.3.0
+	 */
+	long getRejectedConnections();
+
+	/**
+	 * Returns the number of connections waiting for a handler thread.
+	 *
+	 * @return queue depth of the handler executor
+	 * @since 0.3.0
+	 */
+	int getHandlerQueueSize();
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2007-2013 by Stefan Laubenberger.
+ *
+ * "wichtel" is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License v3.0.
+ *
+ * "wichtel" is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * See the GNU Lesser General Public License for more details:
+ * -----------------------------------------------------------
+ * http://www.gnu.org/licenses
+ *
+ *
+ * This distribution is available at:
+ * ----------------------------------
+ * https://github.com/slaubenberger/wichtel/
+ *
+ *
+ * Contact information:
+ * --------------------
+ * Stefan Laubenberger
+ * Bullingerstrasse 53
+ * CH-8004 Zuerich
+ *
+ * http://www.laubenberger.net
+ * laubenberger@gmail.com
+ */
+
+package net.laubenberger.wichtel.controller.net.metrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.laubenberger.wichtel.helper.HelperLog;
+
+
+/**
+ * Immutable snapshot of {@link ServerMetrics}.
+ *
+ * @author Stefan Laubenberger
+ * @version 0.3.0, 2026-10-17
+ * @since 0.3.0
+ */
+public class ServerMetricsSnapshot extends MetricsSnapshot implements ServerMetricsMXBean {
+	private static final long serialVersionUID = -2760718873413577127L;
+
+	private static final Logger log = LoggerFactory.getLogger(ServerMetricsSnapshot.class);
+
+	private final int activeConnections;
+	private final int queuedConnections;
+	private final long rejectedConnections;
+	private final int handlerQueueSize;
+
+	public ServerMetricsSnapshot(final ServerMetricsMXBean metrics) {
+		super(metrics);
+		if (log.isTraceEnabled()) log.trace(HelperLog.constructor(metrics));
+
+		activeConnections = metrics.getActiveConnections();
+		queuedConnections = metrics.getQueuedConnections();
+		rejectedConnections = metrics.getRejectedConnections();
+		handlerQueueSize = metrics.getHandlerQueueSize();
+	}
+
+
+	/*
+	 * Overridden methods
+	 */
+
+	@Override
+	public String toString() {
+		return super.toString() + "[activeConnections=" + activeConnections + ", queuedConnections=" + queuedConnections //$NON-NLS-1$ //$NON-NLS-2$
+				+ ", rejectedConnections=" + rejectedConnections + ", handlerQueueSize=" + handlerQueueSize + ']'; //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+
+	/*
+	 * Implemented methods
+	 */
+
+	@Override
+	public int getActiveConnections() {
+		return activeConnections;
+	}
+
+	@Override
+	public int getQueuedConnections() {
+		return queuedConnections;
+	}
+
+	@Override
+	public long getRejectedConnections() {
+		return rejectedConnections;
+	}
+
+	@Override
+	public int getHandlerQueueSize() {
+		return handlerQueueSize;
+	}
+}
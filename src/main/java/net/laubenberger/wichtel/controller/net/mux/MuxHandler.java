@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2007-2013 by Stefan Laubenberger.
+ *
+ * "wichtel" is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License v3.0.
+ *
+ * "wichtel" is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * See the GNU Lesser General Public License for more details:
+ * -----------------------------------------------------------
+ * http://www.gnu.org/licenses
+ *
+ *
+ * This distribution is available at:
+ * ----------------------------------
+ * https://github.com/slaubenberger/wichtel/
+ *
+ *
+ * Contact information:
+ * --------------------
+ * Stefan Laubenberger
+ * Bullingerstrasse 53
+ * CH-8004 Zuerich
+ *
+ * http://www.laubenberger.net
+ * laubenberger@gmail.com
+ */
+
+package net.laubenberger.wichtel.controller.net.mux;
+
+import net.laubenberger.wichtel.controller.net.server.ServerThread;
+
+
+/**
+ * Handles the requests of a multiplexed connection.
+ * The requests of one connection are handled concurrently, so implementations must be thread-safe.
+ *
+ * @author Stefan Laubenberger
+ * @version 0.3.0, 2026-10-17
+ * @since 0.3.0
+ */
+public interface MuxHandler {
+	/**
+	 * Handles a request and returns the response.
+	 * An exception is sent to the client as {@link net.laubenberger.wichtel.model.net.MuxType#ERROR}.
+	 *
+	 * @param serverThread receiving the request
+	 * @param request      payload of the request
+	 * @return payload of the response
+	 * @throws Exception
+	 * @see ServerThread
+	 * @since 0.3.0
+	 */
+	byte[] handle(ServerThread serverThread, byte[] request) throws Exception;
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright (c) 2007-2013 by Stefan Laubenberger.
+ *
+ * "wichtel" is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License v3.0.
+ *
+ * "wichtel" is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * See the GNU Lesser General Public License for more details:
+ * -----------------------------------------------------------
+ * http://www.gnu.org/licenses
+ *
+ *
+ * This distribution is available at:
+ * ----------------------------------
+ * https://github.com/slaubenberger/wichtel/
+ *
+ *
+ * Contact information:
+ * --------------------
+ * Stefan Laubenberger
+ * Bullingerstrasse 53
+ * CH-8004 Zuerich
+ *
+ * http://www.laubenberger.net
+ * laubenberger@gmail.com
+ */
+
+package net.laubenberger.wichtel.controller.net.mux;
+
+import java.net.ProtocolException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.laubenberger.wichtel.helper.HelperLog;
+import net.laubenberger.wichtel.misc.exception.RuntimeExceptionIsNull;
+import net.laubenberger.wichtel.misc.extendedObject.ExtendedObjectAbstract;
+import net.laubenberger.wichtel.model.net.MuxType;
+
+
+/**
+ * Message of a multiplexed connection.
+ * <p>
+ * Every message starts with a header of {@link #HEADER_LENGTH} bytes: the stream id (4 bytes, big-endian) and the {@link MuxType} (1 byte).
+ * The stream id assigns the responses to their requests, so many requests can be outstanding on the same connection and the server may answer them in any order.
+ * The message itself is framed by the {@link net.laubenberger.wichtel.controller.net.codec.Codec} of the connection; since the header is binary, a length-prefixed codec must be used.
+ *
+ * @author Stefan Laubenberger
+ * @version 0.3.0, 2026-10-17
+ * @since 0.3.0
+ */
+public class MuxMessage extends ExtendedObjectAbstract {
+	private static final Logger log = LoggerFactory.getLogger(MuxMessage.class);
+
+	public static final int HEADER_LENGTH = 5;
+
+	private static final MuxType[] TYPES = MuxType.values();
+
+	private final int streamId;
+	private final MuxType type;
+	private final byte[] payload;
+
+	public MuxMessage(final int streamId, final MuxType type, final byte... payload) {
+		super();
+		if (log.isTraceEnabled()) log.trace(HelperLog.constructor(streamId, type, payload));
+
+		if (null == type) {
+			throw new RuntimeExceptionIsNull("type"); //$NON-NLS-1$
+		}
+		if (null == payload) {
+			throw new RuntimeExceptionIsNull("payload"); //$NON-NLS-1$
+		}
+
+		this.streamId = streamId;
+		this.type = type;
+		this.payload = payload;
+	}
+
+	/**
+	 * Returns the stream id of the message.
+	 *
+	 * @return stream id
+	 * @since 0.3.0
+	 */
+	public int getStreamId() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(streamId));
+		return streamId;
+	}
+
+	/**
+	 * Returns the {@link MuxType} of the message.
+	 *
+	 * @return {@link MuxType}
+	 * @see MuxType
+	 * @since 0.3.0
+	 */
+	public MuxType getType() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(type));
+		return type;
+	}
+
+	/**
+	 * Returns the payload of the message.
+	 *
+	 * @return payload
+	 * @since 0.3.0
+	 */
+	public byte[] getPayload() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(payload));
+		return payload;
+	}
+
+	/**
+	 * Encodes the message with its header.
+	 *
+	 * @return encoded message
+	 * @since 0.3.0
+	 */
+	public byte[] encode() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		final byte[] result = encode(streamId, type, payload);
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(result));
+		return result;
+	}
+
+	/**
+	 * Encodes a message with its header.
+	 *
+	 * @param streamId of the message
+	 * @param type     of the message
+	 * @param payload  of the message
+	 * @return encoded message
+	 * @see MuxType
+	 * @since 0.3.0
+	 */
+	public static byte[] encode(final int streamId, final MuxType type, final byte... payload) { //$JUnit$
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(streamId, type, payload));
+		if (null == type) {
+			throw new RuntimeExceptionIsNull("type"); //$NON-NLS-1$
+		}
+		if (null == payload) {
+			throw new RuntimeExceptionIsNull("payload"); //$NON-NLS-1$
+		}
+
+		final byte[] result = new byte[HEADER_LENGTH + payload.length];
+		ByteBuffer.wrap(result).putInt(streamId).put((byte) type.ordinal()).put(payload);
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(result));
+		return result;
+	}
+
+	/**
+	 * Decodes a message with its header.
+	 *
+	 * @param data encoded message
+	 * @return decoded {@link MuxMessage}
+	 * @throws ProtocolException if the data isn't a valid message
+	 * @since 0.3.0
+	 */
+	public static MuxMessage decode(final byte... data) throws ProtocolException { //$JUnit$
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(data));
+		if (null == data) {
+			throw new RuntimeExceptionIsNull("data"); //$NON-NLS-1$
+		}
+		if (HEADER_LENGTH > data.length) {
+			throw new ProtocolException("Message too short: " + data.length); //$NON-NLS-1$
+		}
+
+		final int type = data[HEADER_LENGTH - 1];
+		if (0 > type || TYPES.length <= type) {
+			throw new ProtocolException("Invalid message type: " + type); //$NON-NLS-1$
+		}
+
+		final MuxMessage result = new MuxMessage(ByteBuffer.wrap(data).getInt(), TYPES[type], Arrays.copyOfRange(data, HEADER_LENGTH, data.length));
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(result));
+		return result;
+	}
+}
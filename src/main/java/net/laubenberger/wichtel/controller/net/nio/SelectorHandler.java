@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2007-2013 by Stefan Laubenberger.
+ *
+ * "wichtel" is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License v3.0.
+ *
+ * "wichtel" is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * See the GNU Lesser General Public License for more details:
+ * -----------------------------------------------------------
+ * http://www.gnu.org/licenses
+ *
+ *
+ * This distribution is available at:
+ * ----------------------------------
+ * https://github.com/slaubenberger/wichtel/
+ *
+ *
+ * Contact information:
+ * --------------------
+ * Stefan Laubenberger
+ * Bullingerstrasse 53
+ * CH-8004 Zuerich
+ *
+ * http://www.laubenberger.net
+ * laubenberger@gmail.com
+ */
+
+package net.laubenberger.wichtel.controller.net.nio;
+
+import java.io.IOException;
+import java.nio.channels.SelectionKey;
+
+
+/**
+ * Defines the callbacks for a channel registered on a {@link SelectorLoop}.
+ * All methods are called on the thread of the loop.
+ *
+ * @author Stefan Laubenberger
+ * @version 0.3.0, 2026-10-17
+ * @since 0.3.0
+ */
+public interface SelectorHandler {
+	/**
+	 * Informs the handler that its channel is registered on the loop.
+	 *
+	 * @param key of the registered channel
+	 * @see SelectionKey
+	 * @since 0.3.0
+	 */
+	void registered(SelectionKey key);
+
+	/**
+	 * Informs the handler that its channel is ready for at least one of the registered operations.
+	 *
+	 * @param key of the ready channel
+	 * @throws IOException
+	 * @see SelectionKey
+	 * @since 0.3.0
+	 */
+	void selected(SelectionKey key) throws IOException;
+
+	/**
+	 * Informs the handler that its channel is closed by the loop, e.g. after a failed {@link #selected(SelectionKey)} or when the loop stops.
+	 * The handler must release its resources; the loop cancels the key and closes the channel afterwards.
+	 *
+	 * @param key of the closed channel
+	 * @see SelectionKey
+	 * @since 0.3.0
+	 */
+	void closed(SelectionKey key);
+}
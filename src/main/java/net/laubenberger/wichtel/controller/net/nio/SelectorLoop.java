@@ -0,0 +1,418 @@
+/*
+ * Copyright (c) 2007-2013 by Stefan Laubenberger.
+ *
+ * "wichtel" is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License v3.0.
+ *
+ * "wichtel" is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * See the GNU Lesser General Public License for more details:
+ * -----------------------------------------------------------
+ * http://www.gnu.org/licenses
+ *
+ *
+ * This distribution is available at:
+ * ----------------------------------
+ * https://github.com/slaubenberger/wichtel/
+ *
+ *
+ * Contact information:
+ * --------------------
+ * Stefan Laubenberger
+ * Bullingerstrasse 53
+ * CH-8004 Zuerich
+ *
+ * http://www.laubenberger.net
+ * laubenberger@gmail.com
+ */
+
+package net.laubenberger.wichtel.controller.net.nio;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.laubenberger.wichtel.helper.HelperLog;
+import net.laubenberger.wichtel.misc.Constants;
+import net.laubenberger.wichtel.misc.exception.RuntimeExceptionIsNull;
+import net.laubenberger.wichtel.misc.exception.RuntimeExceptionMustBeGreater;
+import net.laubenberger.wichtel.misc.extendedObject.ExtendedObjectAbstract;
+
+
+/**
+ * Event loop with its own {@link Selector} and {@link Thread}.
+ * <p>
+ * Channels are registered together with a {@link SelectorHandler}, which is called on the loop thread whenever the channel is ready.
+ * Work for the loop can be submitted from any thread via {@link #execute(Runnable)}.
+ * One loop serves any number of non-blocking channels, so a few loops are enough for many thousand connections.
+ *
+ * @author Stefan Laubenberger
+ * @version 0.3.0, 2026-10-17
+ * @since 0.3.0
+ */
+public class SelectorLoop extends ExtendedObjectAbstract implements Runnable {
+	private static final Logger log = LoggerFactory.getLogger(SelectorLoop.class);
+
+	private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+	private final AtomicInteger channels = new AtomicInteger();
+
+	private final String name;
+	private final Selector selector;
+	private final ByteBuffer buffer; //shared read buffer, only used on the loop thread
+
+	private Thread thread;
+
+	private volatile boolean isRunning;
+
+	public SelectorLoop(final String name, final int bufferSize) throws IOException {
+		super();
+		if (log.isTraceEnabled()) log.trace(HelperLog.constructor(name, bufferSize));
+
+		if (null == name) {
+			throw new RuntimeExceptionIsNull("name"); //$NON-NLS-1$
+		}
+		if (0 >= bufferSize) {
+			throw new RuntimeExceptionMustBeGreater("bufferSize", bufferSize, 0); //$NON-NLS-1$
+		}
+
+		this.name = name;
+		selector = Selector.open();
+		buffer = ByteBuffer.allocateDirect(bufferSize);
+	}
+
+	public SelectorLoop(final String name) throws IOException {
+		this(name, Constants.DEFAULT_FILE_BUFFER_SIZE);
+		if (log.isTraceEnabled()) log.trace(HelperLog.constructor(name));
+	}
+
+	/**
+	 * Returns the current {@link Thread} of the loop.
+	 *
+	 * @return thread of the loop
+	 * @see Thread
+	 * @since 0.3.0
+	 */
+	public Thread getThread() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(thread));
+		return thread;
+	}
+
+	/**
+	 * Returns the name of the loop.
+	 *
+	 * @return name of the loop
+	 * @since 0.3.0
+	 */
+	public String getName() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(name));
+		return name;
+	}
+
+	/**
+	 * Returns the shared read {@link ByteBuffer} of the loop.
+	 * <strong>Note:</strong> The buffer may only be used on the loop thread and its content is only valid until the handler returns.
+	 *
+	 * @return shared read buffer
+	 * @see ByteBuffer
+	 * @since 0.3.0
+	 */
+	public ByteBuffer getBuffer() {
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodStart());
+
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodExit(buffer));
+		return buffer;
+	}
+
+	/**
+	 * Returns the number of channels registered on the loop.
+	 *
+	 * @return number of registered channels
+	 * @since 0.3.0
+	 */
+	public int getChannelCount() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		final int result = channels.get();
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(result));
+		return result;
+	}
+
+	/**
+	 * Checks if the current thread is the thread of the loop.
+	 *
+	 * @return true/false
+	 * @since 0.3.0
+	 */
+	public boolean isInLoop() {
+		return Thread.currentThread() == thread;
+	}
+
+	/**
+	 * Executes a task on the loop thread.
+	 *
+	 * @param task to execute
+	 * @since 0.3.0
+	 */
+	public void execute(final Runnable task) {
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodStart(task));
+		if (null == task) {
+			throw new RuntimeExceptionIsNull("task"); //$NON-NLS-1$
+		}
+
+		tasks.add(task);
+
+		if (!isInLoop()) {
+			selector.wakeup();
+		}
+
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodExit());
+	}
+
+	/**
+	 * Registers a {@link SelectableChannel} with the given interest operations on the loop.
+	 * The channel is switched to non-blocking mode.
+	 *
+	 * @param channel to register
+	 * @param ops	  interest operations (see {@link SelectionKey})
+	 * @param handler for the channel
+	 * @throws IOException
+	 * @see SelectableChannel
+	 * @see SelectorHandler
+	 * @since 0.3.0
+	 */
+	public void register(final SelectableChannel channel, final int ops, final SelectorHandler handler) throws IOException {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(channel, ops, handler));
+		if (null == channel) {
+			throw new RuntimeExceptionIsNull("channel"); //$NON-NLS-1$
+		}
+		if (null == handler) {
+			throw new RuntimeExceptionIsNull("handler"); //$NON-NLS-1$
+		}
+
+		channel.configureBlocking(false);
+		channels.incrementAndGet();
+
+		execute(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					handler.registered(channel.register(selector, ops, handler));
+				} catch (ClosedChannelException ex) {
+					channels.decrementAndGet();
+					if (log.isDebugEnabled()) log.debug("Channel closed before registration", ex); //$NON-NLS-1$
+				}
+			}
+		});
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	/**
+	 * Changes the interest operations of a {@link SelectionKey} on the loop thread.
+	 *
+	 * @param key of the channel
+	 * @param ops new interest operations (see {@link SelectionKey})
+	 * @see SelectionKey
+	 * @since 0.3.0
+	 */
+	public void setInterest(final SelectionKey key, final int ops) {
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodStart(key, ops));
+		if (null == key) {
+			throw new RuntimeExceptionIsNull("key"); //$NON-NLS-1$
+		}
+
+		if (isInLoop()) {
+			if (key.isValid()) {
+				key.interestOps(ops);
+			}
+		} else {
+			execute(new Runnable() {
+				@Override
+				public void run() {
+					if (key.isValid()) {
+						key.interestOps(ops);
+					}
+				}
+			});
+		}
+
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodExit());
+	}
+
+	/**
+	 * Cancels the {@link SelectionKey} and closes its channel.
+	 * The {@link SelectorHandler} of the key is informed once (see {@link SelectorHandler#closed(SelectionKey)}).
+	 *
+	 * @param key of the channel
+	 * @see SelectionKey
+	 * @since 0.3.0
+	 */
+	public void close(final SelectionKey key) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(key));
+		if (null == key) {
+			throw new RuntimeExceptionIsNull("key"); //$NON-NLS-1$
+		}
+
+		final SelectorHandler handler = (SelectorHandler) key.attach(null);
+		if (null != handler) {
+			channels.decrementAndGet();
+			try {
+				handler.closed(key);
+			} catch (RuntimeException ex) {
+				log.error("Handler failed to close on " + name, ex); //$NON-NLS-1$
+			}
+		}
+		key.cancel();
+
+		try {
+			key.channel().close();
+		} catch (IOException ex) {
+			if (log.isDebugEnabled()) log.debug("Could not close channel", ex); //$NON-NLS-1$
+		}
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	/**
+	 * Starts the loop thread.
+	 *
+	 * @since 0.3.0
+	 */
+	public void start() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		isRunning = true;
+
+		thread = new Thread(this, name);
+		thread.start();
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	/**
+	 * Stops the loop and closes all registered channels.
+	 *
+	 * @since 0.3.0
+	 */
+	public void stop() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		isRunning = false;
+		selector.wakeup();
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	/**
+	 * Returns the state of the loop.
+	 *
+	 * @return true/false
+	 * @since 0.3.0
+	 */
+	public boolean isRunning() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(isRunning));
+		return isRunning;
+	}
+
+
+	/*
+	 * Private methods
+	 */
+
+	private void runTasks() {
+		Runnable task;
+		while (null != (task = tasks.poll())) {
+			try {
+				task.run();
+			} catch (RuntimeException ex) {
+				log.error("Task failed on " + name, ex); //$NON-NLS-1$
+			}
+		}
+	}
+
+	private void dispatch(final SelectionKey key) {
+		final SelectorHandler handler = (SelectorHandler) key.attachment();
+
+		if (null == handler) {
+			return;
+		}
+
+		try {
+			handler.selected(key);
+		} catch (IOException ex) {
+			if (log.isDebugEnabled()) log.debug("Channel failed on " + name, ex); //$NON-NLS-1$
+			close(key);
+		} catch (RuntimeException ex) {
+			log.error("Handler failed on " + name, ex); //$NON-NLS-1$
+			close(key);
+		}
+	}
+
+	private void closeAll() {
+		runTasks();
+
+		for (final SelectionKey key : selector.keys()) {
+			close(key);
+		}
+
+		try {
+			selector.close();
+		} catch (IOException ex) {
+			log.error("Could not close selector", ex); //$NON-NLS-1$
+		}
+	}
+
+
+	/*
+	 * Implemented methods
+	 */
+
+	@Override
+	public void run() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		while (isRunning) {
+			try {
+				selector.select();
+			} catch (IOException ex) {
+				log.error("Could not select on " + name, ex); //$NON-NLS-1$
+				break;
+			}
+
+			runTasks();
+
+			final Iterator<SelectionKey> iter = selector.selectedKeys().iterator();
+			while (iter.hasNext()) {
+				final SelectionKey key = iter.next();
+				iter.remove();
+
+				if (key.isValid()) {
+					dispatch(key);
+				}
+			}
+		}
+
+		closeAll();
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+}
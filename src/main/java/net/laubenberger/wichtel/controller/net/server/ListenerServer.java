@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2007-2013 by Stefan Laubenberger.
+ *
+ * "wichtel" is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License v3.0.
+ *
+ * "wichtel" is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * See the GNU Lesser General Public License for more details:
+ * -----------------------------------------------------------
+ * http://www.gnu.org/licenses
+ *
+ *
+ * This distribution is available at:
+ * ----------------------------------
+ * https://github.com/slaubenberger/wichtel/
+ *
+ *
+ * Contact information:
+ * --------------------
+ * Stefan Laubenberger
+ * Bullingerstrasse 53
+ * CH-8004 Zuerich
+ *
+ * http://www.laubenberger.net
+ * laubenberger@gmail.com
+ */
+
+package net.laubenberger.wichtel.controller.net.server;
+
+import net.laubenberger.wichtel.misc.Event;
+import net.laubenberger.wichtel.misc.Listener;
+
+
+/**
+ * Listener for the socket server
+ *
+ * @author Stefan Laubenberger
+ * @version 0.3.0, 2026-10-17
+ * @since 0.3.0
+ */
+public interface ListenerServer extends Listener {
+	/**
+	 * Informs the listener that the server has stopped accepting connections and drains the open ones.
+	 *
+	 * @param event for the listener
+	 * @see Server#drain(long)
+	 * @since 0.3.0
+	 */
+	void serverDrainStarted(Event<Server> event);
+
+	/**
+	 * Informs the listener that a connection has finished while draining; {@link Server#getServerThreads()} contains the remaining connections.
+	 *
+	 * @param event for the listener
+	 * @see Server#drain(long)
+	 * @since 0.3.0
+	 */
+	void serverDrainProgress(Event<Server> event);
+
+	/**
+	 * Informs the listener that the server is drained; remaining connections have been closed after the deadline.
+	 *
+	 * @param event for the listener
+	 * @see Server#drain(long)
+	 * @since 0.3.0
+	 */
+	void serverDrainFinished(Event<Server> event);
+}
@@ -34,6 +34,8 @@ import java.io.IOException;
 import java.net.ServerSocket;
 import java.util.Collection;
 
+import net.laubenberger.wichtel.controller.net.metrics.ServerMetrics;
+import net.laubenberger.wichtel.misc.HolderListener;
 import net.laubenberger.wichtel.misc.extendedObject.ExtendedObject;
 
 
@@ -44,7 +46,7 @@ import net.laubenberger.wichtel.misc.extendedObject.ExtendedObject;
  * @version 0.1.0, 2013-07-31
  * @since 0.0.1
  */
-public interface Server extends ExtendedObject, Runnable {
+public interface Server extends ExtendedObject, Runnable, HolderListener<ListenerServer> {
 	/**
 	 * Returns the {@link ServerSocket} of the current server.
 	 *
@@ -111,6 +113,37 @@ public interface Server extends ExtendedObject, Runnable {
 	 */
 	void stop() throws IOException;
 
+	/**
+	 * Stop the server gracefully: no more connections are accepted, the open connections finish their current exchange and are closed afterwards.
+	 * Connections still open after the timeout are closed like in {@link #stop()}.
+	 * The progress is reported to the {@link ListenerServer}.
+	 *
+	 * @param timeout in ms to wait for the connections
+	 * @return number of connections closed after the timeout
+	 * @throws IOException
+	 * @see ServerThread#drain()
+	 * @since 0.3.0
+	 */
+	int drain(long timeout) throws IOException;
+
+	/**
+	 * Checks if the server is draining.
+	 *
+	 * @return true/false
+	 * @see #drain(long)
+	 * @since 0.3.0
+	 */
+	boolean isDraining();
+
+	/**
+	 * Returns the {@link ServerMetrics} of the server, which include the metrics of all connections.
+	 *
+	 * @return {@link ServerMetrics}
+	 * @see ServerMetrics
+	 * @since 0.3.0
+	 */
+	ServerMetrics getMetrics();
+
 	/**
 	 * Returns the state of the server.
 	 *
@@ -126,4 +159,24 @@ public interface Server extends ExtendedObject, Runnable {
 	 * @since 0.0.1
 	 */
 	Collection<ServerThread> getServerThreads();
+
+	/**
+	 * Adds a listener for the events of all connections.
+	 * The listener is added to every {@link ServerThread} started afterwards.
+	 *
+	 * @param listener for the connections
+	 * @see ListenerServerThread
+	 * @since 0.3.0
+	 */
+	void addServerThreadListener(ListenerServerThread listener);
+
+	/**
+	 * Deletes a listener for the events of all connections.
+	 * Connections started before keep informing the listener until they stop.
+	 *
+	 * @param listener for the connections
+	 * @see ListenerServerThread
+	 * @since 0.3.0
+	 */
+	void deleteServerThreadListener(ListenerServerThread listener);
 }   
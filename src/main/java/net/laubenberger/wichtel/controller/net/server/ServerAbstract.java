@@ -31,25 +31,58 @@
 package net.laubenberger.wichtel.controller.net.server;
 
 import java.io.IOException;
+import java.net.InetSocketAddress;
 import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.net.StandardSocketOptions;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Timer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.JMException;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import net.laubenberger.wichtel.controller.net.codec.FrameWriter;
+import net.laubenberger.wichtel.controller.net.metrics.Metrics;
+import net.laubenberger.wichtel.controller.net.metrics.ServerMetrics;
 import net.laubenberger.wichtel.helper.HelperLog;
 import net.laubenberger.wichtel.helper.HelperNumber;
+import net.laubenberger.wichtel.helper.HelperThread;
 import net.laubenberger.wichtel.misc.Event;
+import net.laubenberger.wichtel.misc.exception.RuntimeExceptionIsEmpty;
 import net.laubenberger.wichtel.misc.exception.RuntimeExceptionIsNull;
 import net.laubenberger.wichtel.misc.exception.RuntimeExceptionMustBeGreater;
 import net.laubenberger.wichtel.misc.exception.RuntimeExceptionMustBeSmaller;
 import net.laubenberger.wichtel.misc.extendedObject.ExtendedObjectAbstract;
+import net.laubenberger.wichtel.model.net.AcceptPolicy;
 
 
 /**
  * Skeleton for socket servers.
+ * <p>
+ * The accepted connections are kept in a thread-safe registry ordered by their connection id.
+ * With {@link #setMaxConnections(int)} the number of connections and handler threads is bounded; further connections are handled by the {@link AcceptPolicy}.
+ * For rolling restarts, {@link #drain(long)} stops accepting connections, lets the open connections finish their current exchange and closes them.
+ * <p>
+ * The server can listen on several addresses with several acceptor threads each; with {@link #setReusePort(boolean)} every acceptor gets its own socket and the kernel balances the incoming connections.
  *
  * @author Stefan Laubenberger
  * @version 0.1.0, 2013-07-31
@@ -58,69 +91,976 @@ import net.laubenberger.wichtel.misc.extendedObject.ExtendedObjectAbstract;
 public abstract class ServerAbstract extends ExtendedObjectAbstract implements Server, ListenerServerThread {
 	private static final Logger log = LoggerFactory.getLogger(ServerAbstract.class);
 	
+	public static final long MIN_ACCEPT_BACKOFF = 10L; //milliseconds
+	public static final long MAX_ACCEPT_BACKOFF = 1000L; //milliseconds
+
 	private Thread thread;
 
-	private final Collection<ServerThread> threads = new HashSet<>();
+	private final ConcurrentNavigableMap<Long, ServerThread> threads = new ConcurrentSkipListMap<>(); //connection id -> thread, oldest first
+	private final AtomicInteger connections = new AtomicInteger(); //size of the registry, the size of the map is O(n)
+	private final Queue<ServerThread> queue = new ConcurrentLinkedQueue<>(); //accepted, but not yet started connections
+	private final Object lock = new Object();
+	private final AtomicLong rejectedConnections = new AtomicLong();
+	private final Collection<ListenerServer> listeners = new CopyOnWriteArrayList<>();
+	private final Collection<ListenerServerThread> threadListeners = new CopyOnWriteArrayList<>();
+	private final Event<Server> event = new Event<Server>(this);
+
+//    private final Map<UUID, ServerThread> mapThread = new ConcurrentHashMap<UUID, ServerThread>();
+
+	private ServerSocket serverSocket;
+	private final List<ServerSocket> serverSockets = new CopyOnWriteArrayList<>();
+	private final List<Thread> acceptorThreads = new CopyOnWriteArrayList<>();
+	private final ThreadLocal<ServerSocket> acceptorSocket = new ThreadLocal<>();
+	private InetSocketAddress[] addresses; //null: all local addresses on the port
+	private int acceptorCount = 1;
+	private boolean isReusePort;
+	private int backlog; //0: default of the ServerSocket
+	private int port;
+	private int timeout; //ServerSocketSocket timeout in milliseconds
+
+	private Executor executor; //null: a new platform thread per connection
+	private ThreadPoolExecutor pool; //bounded executor if maxConnections is set
+	private boolean isVirtualThreads;
+
+	private int maxConnections; //0: unlimited
+	private int acceptQueueSize = Integer.MAX_VALUE;
+	private AcceptPolicy acceptPolicy = AcceptPolicy.REJECT;
+
+	private boolean isTcpNoDelay;
+	private int sendBufferSize; //0: OS default
+	private long flushWindow;
+	private int flushThreshold = FrameWriter.DEFAULT_FLUSH_THRESHOLD;
+	private Timer flushTimer; //shared by the connections of the server, created with the first flush window
+	private long idleTimeout;
+	private long readTimeout;
+	private long heartbeatInterval;
+
+	private volatile boolean isRunning;
+	private volatile boolean isDraining;
+
+	private boolean isMBeanEnabled;
+
+	private final ServerMetrics metrics = new ServerMetrics() {
+		@Override
+		public int getActiveConnections() {
+			return connections.get();
+		}
+
+		@Override
+		public int getQueuedConnections() {
+			return queue.size();
+		}
+
+		@Override
+		public long getRejectedConnections() {
+			return rejectedConnections.get();
+		}
+
+		@Override
+		public int getHandlerQueueSize() {
+			return ServerAbstract.this.getHandlerQueueSize();
+		}
+	};
+
+	protected ServerAbstract() {
+		super();
+		if (log.isTraceEnabled()) log.trace(HelperLog.constructor());
+	}
+
+	protected ServerAbstract(final int port, final int timeout) {
+		super();
+		if (log.isTraceEnabled()) log.trace(HelperLog.constructor(port, timeout));
+
+		setPort(port);
+		setTimeout(timeout);
+	}
+
+	protected ServerAbstract(final int port) {
+		this(port, 0);
+		if (log.isTraceEnabled()) log.trace(HelperLog.constructor(port));
+	}
+
+	/**
+	 * Returns the current {@link Thread} of the server.
+	 *
+	 * @return thread of the server
+	 * @see Thread
+	 * @since 0.0.1
+	 */
+	public Thread getThread() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+		
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(thread));
+		return thread;
+	}
+
+	/**
+	 * Sets the current {@link Thread} for the server.
+	 *
+	 * @param thread for the server
+	 * @see Thread
+	 * @since 0.0.1
+	 */
+	protected void setThread(final Thread thread) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(thread));
+		
+		if (null == thread) {
+			throw new RuntimeExceptionIsNull("thread"); //$NON-NLS-1$
+		}
+
+		this.thread = thread;
+		
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	/**
+	 * Returns the {@link Executor} for the server threads.
+	 *
+	 * @return {@link Executor} or null if every server thread gets a new platform thread
+	 * @see Executor
+	 * @since 0.3.0
+	 */
+	public Executor getExecutor() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+		
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(executor));
+		return executor;
+	}
+
+	/**
+	 * Sets the {@link Executor} for the server threads started with {@link #startServerThread(ServerThread)}.
+	 *
+	 * @param executor for the server threads
+	 * @see Executor
+	 * @since 0.3.0
+	 */
+	public void setExecutor(final Executor executor) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(executor));
+		
+		if (null == executor) {
+			throw new RuntimeExceptionIsNull("executor"); //$NON-NLS-1$
+		}
+
+		this.executor = executor;
+		isVirtualThreads = false;
+		
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	/**
+	 * Sets the {@link ThreadFactory} for the server threads started with {@link #startServerThread(ServerThread)}.
+	 * Every connection gets a new thread of the factory.
+	 *
+	 * @param factory for the server threads
+	 * @see ThreadFactory
+	 * @since 0.3.0
+	 */
+	public void setThreadFactory(final ThreadFactory factory) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(factory));
+		
+		setExecutor(HelperThread.createExecutor(factory));
+		
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	/**
+	 * Checks if the server threads run on virtual threads.
+	 *
+	 * @return true/false
+	 * @since 0.3.0
+	 */
+	public boolean isVirtualThreads() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+		
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(isVirtualThreads));
+		return isVirtualThreads;
+	}
+
+	/**
+	 * Enables or disables a virtual thread per connection for the server threads started with {@link #startServerThread(ServerThread)}.
+	 * Blocking handlers (e.g. JDBC or file I/O) can be written thread-per-connection without the memory cost of platform threads.
+	 * On VMs without virtual threads, platform daemon threads are used.
+	 *
+	 * @param isVirtualThreads true/false
+	 * @see HelperThread#createVirtualThreadFactory(String)
+	 * @since 0.3.0
+	 */
+	public void setVirtualThreads(final boolean isVirtualThreads) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(isVirtualThreads));
+		
+		executor = isVirtualThreads ? HelperThread.createExecutor(HelperThread.createVirtualThreadFactory(ServerThread.class.getSimpleName())) : null;
+		this.isVirtualThreads = isVirtualThreads;
+		
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	/**
+	 * Returns the maximal number of connections.
+	 *
+	 * @return maximal number of connections, 0 if unlimited
+	 * @since 0.3.0
+	 */
+	public int getMaxConnections() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+		
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(maxConnections));
+		return maxConnections;
+	}
+
+	/**
+	 * Sets the maximal number of connections (default: 0 = unlimited).
+	 * If no {@link Executor} is set, the server threads run on a pool with at most this number of threads.
+	 * Connections beyond the limit are handled by the {@link #getAcceptPolicy()}.
+	 *
+	 * @param maxConnections maximal number of connections, 0 if unlimited
+	 * @since 0.3.0
+	 */
+	public void setMaxConnections(final int maxConnections) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(maxConnections));
+		
+		if (0 > maxConnections) {
+			throw new RuntimeExceptionMustBeGreater("maxConnections", maxConnections, 0); //$NON-NLS-1$
+		}
+
+		synchronized (lock) {
+			this.maxConnections = maxConnections;
+
+			if (null != pool) {
+				if (0 == maxConnections) {
+					pool.shutdown();
+					pool = null;
+				} else if (pool.getMaximumPoolSize() < maxConnections) {
+					pool.setMaximumPoolSize(maxConnections);
+					pool.setCorePoolSize(maxConnections);
+				} else {
+					pool.setCorePoolSize(maxConnections);
+					pool.setMaximumPoolSize(maxConnections);
+				}
+			}
+		}
+		
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	/**
+	 * Returns the {@link AcceptPolicy} for connections beyond {@link #getMaxConnections()}.
+	 *
+	 * @return {@link AcceptPolicy}
+	 * @see AcceptPolicy
+	 * @since 0.3.0
+	 */
+	public AcceptPolicy getAcceptPolicy() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+		
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(acceptPolicy));
+		return acceptPolicy;
+	}
+
+	/**
+	 * Sets the {@link AcceptPolicy} for connections beyond {@link #getMaxConnections()} (default: {@link AcceptPolicy#REJECT}).
+	 *
+	 * @param acceptPolicy for the server
+	 * @see AcceptPolicy
+	 * @since 0.3.0
+	 */
+	public void setAcceptPolicy(final AcceptPolicy acceptPolicy) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(acceptPolicy));
+		
+		if (null == acceptPolicy) {
+			throw new RuntimeExceptionIsNull("acceptPolicy"); //$NON-NLS-1$
+		}
+
+		this.acceptPolicy = acceptPolicy;
+		
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	/**
+	 * Returns the maximal number of waiting connections for {@link AcceptPolicy#QUEUE}.
+	 *
+	 * @return maximal number of waiting connections
+	 * @since 0.3.0
+	 */
+	public int getAcceptQueueSize() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+		
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(acceptQueueSize));
+		return acceptQueueSize;
+	}
+
+	/**
+	 * Sets the maximal number of waiting connections for {@link AcceptPolicy#QUEUE} (default: unlimited).
+	 *
+	 * @param acceptQueueSize maximal number of waiting connections
+	 * @since 0.3.0
+	 */
+	public void setAcceptQueueSize(final int acceptQueueSize) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(acceptQueueSize));
+		
+		if (0 > acceptQueueSize) {
+			throw new RuntimeExceptionMustBeGreater("acceptQueueSize", acceptQueueSize, 0); //$NON-NLS-1$
+		}
+
+		this.acceptQueueSize = acceptQueueSize;
+		
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	/**
+	 * Checks if TCP_NODELAY is enabled on the accepted connections.
+	 *
+	 * @return true/false
+	 * @since 0.3.0
+	 */
+	public boolean isTcpNoDelay() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+		
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(isTcpNoDelay));
+		return isTcpNoDelay;
+	}
+
+	/**
+	 * Enables or disables TCP_NODELAY on the accepted connections (default: false, the setting of the OS).
+	 * Without Nagle's algorithm, small messages are sent without delay; combine it with a flush window to keep the number of packets low.
+	 * The value is used for new connections.
+	 *
+	 * @param isTcpNoDelay true/false
+	 * @since 0.3.0
+	 */
+	public void setTcpNoDelay(final boolean isTcpNoDelay) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(isTcpNoDelay));
+		
+		this.isTcpNoDelay = isTcpNoDelay;
+		
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	/**
+	 * Returns the size of the send buffer (SO_SNDBUF) of the accepted connections.
+	 *
+	 * @return size of the send buffer in bytes, 0 for the setting of the OS
+	 * @since 0.3.0
+	 */
+	public int getSendBufferSize() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+		
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(sendBufferSize));
+		return sendBufferSize;
+	}
+
+	/**
+	 * Sets the size of the send buffer (SO_SNDBUF) of the accepted connections (default: 0, the setting of the OS).
+	 * The value is used for new connections.
+	 *
+	 * @param sendBufferSize in bytes, 0 for the setting of the OS
+	 * @since 0.3.0
+	 */
+	public void setSendBufferSize(final int sendBufferSize) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(sendBufferSize));
+		
+		if (0 > sendBufferSize) {
+			throw new RuntimeExceptionMustBeGreater("sendBufferSize", sendBufferSize, 0); //$NON-NLS-1$
+		}
+
+		this.sendBufferSize = sendBufferSize;
+		
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	/**
+	 * Returns the flush window of the connections.
+	 *
+	 * @return flush window in milliseconds, 0 if every message is written immediately
+	 * @see ServerThread#getFlushWindow()
+	 * @since 0.3.0
+	 */
+	public long getFlushWindow() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+		
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(flushWindow));
+		return flushWindow;
+	}
+
+	/**
+	 * Sets the flush window of the connections (default: 0).
+	 * The value is used for new connections.
+	 *
+	 * @param flushWindow in milliseconds
+	 * @see ServerThread#setFlushWindow(long)
+	 * @since 0.3.0
+	 */
+	public void setFlushWindow(final long flushWindow) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(flushWindow));
+		
+		if (0L > flushWindow) {
+			throw new RuntimeExceptionMustBeGreater("flushWindow", flushWindow, 0); //$NON-NLS-1$
+		}
+
+		this.flushWindow = flushWindow;
+		
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	/**
+	 * Returns the flush threshold of the connections.
+	 *
+	 * @return flush threshold in bytes
+	 * @see ServerThread#getFlushThreshold()
+	 * @since 0.3.0
+	 */
+	public int getFlushThreshold() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+		
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(flushThreshold));
+		return flushThreshold;
+	}
+
+	/**
+	 * Sets the flush threshold of the connections (default: {@link FrameWriter#DEFAULT_FLUSH_THRESHOLD}).
+	 * The value is used for new connections.
+	 *
+	 * @param flushThreshold in bytes
+	 * @see ServerThread#setFlushThreshold(int)
+	 * @since 0.3.0
+	 */
+	public void setFlushThreshold(final int flushThreshold) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(flushThreshold));
+		
+		if (0 >= flushThreshold) {
+			throw new RuntimeExceptionMustBeGreater("flushThreshold", flushThreshold, 0); //$NON-NLS-1$
+		}
+
+		this.flushThreshold = flushThreshold;
+		
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	/**
+	 * Returns the idle timeout of the connections.
+	 *
+	 * @return idle timeout in milliseconds, 0 if disabled
+	 * @see ServerThread#getIdleTimeout()
+	 * @since 0.3.0
+	 */
+	public long getIdleTimeout() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+		
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(idleTimeout));
+		return idleTimeout;
+	}
+
+	/**
+	 * Sets the idle timeout of the connections (default: 0, disabled).
+	 * The value is used for new connections.
+	 *
+	 * @param idleTimeout in milliseconds
+	 * @see ServerThread#setIdleTimeout(long)
+	 * @since 0.3.0
+	 */
+	public void setIdleTimeout(final long idleTimeout) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(idleTimeout));
+		
+		if (0L > idleTimeout) {
+			throw new RuntimeExceptionMustBeGreater("idleTimeout", idleTimeout, 0); //$NON-NLS-1$
+		}
+
+		this.idleTimeout = idleTimeout;
+		
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	/**
+	 * Returns the read timeout of the connections.
+	 *
+	 * @return read timeout in milliseconds, 0 if disabled
+	 * @see ServerThread#getReadTimeout()
+	 * @since 0.3.0
+	 */
+	public long getReadTimeout() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+		
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(readTimeout));
+		return readTimeout;
+	}
+
+	/**
+	 * Sets the read timeout of the connections (default: 0, disabled).
+	 * The value is used for new connections.
+	 *
+	 * @param readTimeout in milliseconds
+	 * @see ServerThread#setReadTimeout(long)
+	 * @since 0.3.0
+	 */
+	public void setReadTimeout(final long readTimeout) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(readTimeout));
+		
+		if (0L > readTimeout) {
+			throw new RuntimeExceptionMustBeGreater("readTimeout", readTimeout, 0); //$NON-NLS-1$
+		}
+
+		this.readTimeout = readTimeout;
+		
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	/**
+	 * Returns the heartbeat interval of the connections.
+	 *
+	 * @return heartbeat interval in milliseconds, 0 if disabled
+	 * @see ServerThread#getHeartbeatInterval()
+	 * @since 0.3.0
+	 */
+	public long getHeartbeatInterval() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+		
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(heartbeatInterval));
+		return heartbeatInterval;
+	}
+
+	/**
+	 * Sets the heartbeat interval of the connections (default: 0, disabled).
+	 * The value is used for new connections; the clients must enable heartbeats as well.
+	 *
+	 * @param heartbeatInterval in milliseconds
+	 * @see ServerThread#setHeartbeatInterval(long)
+	 * @since 0.3.0
+	 */
+	public void setHeartbeatInterval(final long heartbeatInterval) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(heartbeatInterval));
+		
+		if (0L > heartbeatInterval) {
+			throw new RuntimeExceptionMustBeGreater("heartbeatInterval", heartbeatInterval, 0); //$NON-NLS-1$
+		}
+
+		this.heartbeatInterval = heartbeatInterval;
+		
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	/**
+	 * Returns the addresses of the server.
+	 *
+	 * @return addresses to bind, null if the server binds all local addresses on {@link #getPort()}
+	 * @since 0.3.0
+	 */
+	public InetSocketAddress[] getAddresses() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+		
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(addresses));
+		return addresses;
+	}
+
+	/**
+	 * Sets the addresses of the server (default: all local addresses on {@link #getPort()}).
+	 * The server listens on every address with {@link #getAcceptorCount()} acceptor threads.
+	 * The value is used on the next {@link #start()}.
+	 *
+	 * @param addresses to bind, e.g. several ports or interfaces
+	 * @see InetSocketAddress
+	 * @since 0.3.0
+	 */
+	public void setAddresses(final InetSocketAddress... addresses) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(addresses));
+		
+		if (null == addresses) {
+			throw new RuntimeExceptionIsNull("addresses"); //$NON-NLS-1$
+		}
+		if (0 == addresses.length) {
+			throw new RuntimeExceptionIsEmpty("addresses"); //$NON-NLS-1$
+		}
+
+		this.addresses = addresses.clone();
+		
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	/**
+	 * Returns the number of acceptor threads per address.
+	 *
+	 * @return number of acceptor threads
+	 * @since 0.3.0
+	 */
+	public int getAcceptorCount() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+		
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(acceptorCount));
+		return acceptorCount;
+	}
+
+	/**
+	 * Sets the number of acceptor threads per address (default: 1).
+	 * Every acceptor thread runs {@link #run()}, where {@link #getServerSocket()} returns the socket of the acceptor.
+	 * Without {@link #isReusePort()} the acceptors of an address share one {@link ServerSocket}.
+	 * The value is used on the next {@link #start()}.
+	 *
+	 * @param acceptorCount number of acceptor threads
+	 * @since 0.3.0
+	 */
+	public void setAcceptorCount(final int acceptorCount) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(acceptorCount));
+		
+		if (0 >= acceptorCount) {
+			throw new RuntimeExceptionMustBeGreater("acceptorCount", acceptorCount, 0); //$NON-NLS-1$
+		}
+
+		this.acceptorCount = acceptorCount;
+		
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	/**
+	 * Checks if every acceptor binds its own {@link ServerSocket} with SO_REUSEPORT.
+	 *
+	 * @return true/false
+	 * @since 0.3.0
+	 */
+	public boolean isReusePort() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+		
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(isReusePort));
+		return isReusePort;
+	}
+
+	/**
+	 * Enables or disables SO_REUSEPORT (default: false).
+	 * Every acceptor thread binds its own {@link ServerSocket} to the address and the kernel distributes the incoming connections over them (e.g. Linux 3.9 and later), so the accept throughput scales with the number of acceptors.
+	 * If the operating system doesn't support the option, the acceptors share one socket.
+	 * The value is used on the next {@link #start()}.
+	 *
+	 * @param isReusePort true/false
+	 * @see StandardSocketOptions#SO_REUSEPORT
+	 * @since 0.3.0
+	 */
+	public void setReusePort(final boolean isReusePort) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(isReusePort));
+		
+		this.isReusePort = isReusePort;
+		
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	/**
+	 * Returns the maximum length of the queue of incoming connections.
+	 *
+	 * @return backlog, 0 for the default of the {@link ServerSocket}
+	 * @since 0.3.0
+	 */
+	public int getBacklog() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+		
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(backlog));
+		return backlog;
+	}
+
+	/**
+	 * Sets the maximum length of the queue of incoming connections (default: 0, the default of the {@link ServerSocket}).
+	 * The value is used on the next {@link #start()}.
+	 *
+	 * @param backlog for the server
+	 * @since 0.3.0
+	 */
+	public void setBacklog(final int backlog) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(backlog));
+		
+		if (0 > backlog) {
+			throw new RuntimeExceptionMustBeGreater("backlog", backlog, 0); //$NON-NLS-1$
+		}
+
+		this.backlog = backlog;
+		
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	/**
+	 * Returns the bound {@link ServerSocket}s of the server, one per address or, with {@link #isReusePort()}, one per acceptor thread.
+	 *
+	 * @return bound server sockets
+	 * @see ServerSocket
+	 * @since 0.3.0
+	 */
+	public List<ServerSocket> getServerSockets() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+		
+		final List<ServerSocket> result = Collections.unmodifiableList(serverSockets);
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(result));
+		return result;
+	}
+
+	/**
+	 * Creates an unbound {@link ServerSocket} for an address of the server.
+	 * Override this method to use a customized socket (e.g. SSL or channel based).
+	 *
+	 * @return new unbound {@link ServerSocket}
+	 * @throws IOException
+	 * @see ServerSocket
+	 * @since 0.3.0
+	 */
+	protected ServerSocket createServerSocket() throws IOException {
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodStart());
+		
+		final ServerSocket result = new ServerSocket();
+		
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodExit(result));
+		return result;
+	}
+
+	/**
+	 * Binds the {@link ServerSocket}s for the addresses and starts the acceptor threads, which run {@link #run()}.
+	 * The server must be running before, otherwise the acceptors return immediately.
+	 *
+	 * @throws IOException
+	 * @see #setAddresses(InetSocketAddress...)
+	 * @see #setAcceptorCount(int)
+	 * @since 0.3.0
+	 */
+	protected void startAcceptors() throws IOException {
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodStart());
+		
+		final InetSocketAddress[] addresses = null == this.addresses ? new InetSocketAddress[]{new InetSocketAddress(port)} : this.addresses;
+		final List<ServerSocket> sockets = new ArrayList<>(); //one per acceptor
+
+		try {
+			for (final InetSocketAddress address : addresses) {
+				final ServerSocket socket = bind(address);
+				final boolean isShared = !isReusePort || !socket.supportedOptions().contains(StandardSocketOptions.SO_REUSEPORT) || !socket.getOption(StandardSocketOptions.SO_REUSEPORT);
 
-//    private final Map<UUID, ServerThread> mapThread = new ConcurrentHashMap<UUID, ServerThread>();
+				sockets.add(socket);
+				for (int ii = 1; acceptorCount > ii; ii++) {
+					sockets.add(isShared ? socket : bind(address));
+				}
+			}
+		} catch (IOException ex) {
+			for (final ServerSocket socket : sockets) {
+				socket.close();
+			}
+			throw ex;
+		}
 
-	private ServerSocket serverSocket;
-	private int port;
-	private int timeout; //ServerSocketSocket timeout in milliseconds
+		serverSockets.clear();
+		for (final ServerSocket socket : sockets) {
+			if (!serverSockets.contains(socket)) {
+				serverSockets.add(socket);
+			}
+		}
+		serverSocket = sockets.get(0);
 
-	private boolean isRunning;
+		acceptorThreads.clear();
+		for (int ii = 0; sockets.size() > ii; ii++) {
+			final ServerSocket socket = sockets.get(ii);
+			final Thread acceptor = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					acceptorSocket.set(socket);
+					ServerAbstract.this.run();
+				}
+			}, getClass().getSimpleName() + "-acceptor-" + ii); //$NON-NLS-1$
 
-	protected ServerAbstract() {
-		super();
-		if (log.isTraceEnabled()) log.trace(HelperLog.constructor());
+			acceptorThreads.add(acceptor);
+		}
+		thread = acceptorThreads.get(0);
+
+		for (final Thread acceptor : acceptorThreads) {
+			acceptor.start();
+		}
+		
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodExit());
 	}
 
-	protected ServerAbstract(final int port, final int timeout) {
-		super();
-		if (log.isTraceEnabled()) log.trace(HelperLog.constructor(port, timeout));
+	/**
+	 * Returns the number of connections waiting for a handler thread of the {@link #getExecutor()} or of the bounded pool.
+	 * Only a {@link ThreadPoolExecutor} reports its queue, otherwise the result is 0.
+	 *
+	 * @return number of waiting connections
+	 * @since 0.3.0
+	 */
+	public int getHandlerQueueSize() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+		
+		final Executor executor;
+		synchronized (lock) {
+			executor = null == this.executor ? pool : this.executor;
+		}
+		final int result = executor instanceof ThreadPoolExecutor ? ((ThreadPoolExecutor) executor).getQueue().size() : 0;
+		
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(result));
+		return result;
+	}
 
-		setPort(port);
-		setTimeout(timeout);
+	/**
+	 * Checks if the {@link #getMetrics()} of the server and its connections are registered as MXBeans while the server is running.
+	 *
+	 * @return true/false
+	 * @since 0.3.0
+	 */
+	public boolean isMBeanEnabled() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+		
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(isMBeanEnabled));
+		return isMBeanEnabled;
 	}
 
-	protected ServerAbstract(final int port) {
-		this(port, 0);
-		if (log.isTraceEnabled()) log.trace(HelperLog.constructor(port));
+	/**
+	 * Enables or disables the registration of the metrics as MXBeans while the server is running (default: false).
+	 * The server is registered as "net.laubenberger.wichtel:type=Server" and every connection as "net.laubenberger.wichtel:type=ServerThread".
+	 * The value is used on the next {@link #start()}.
+	 *
+	 * @param isMBeanEnabled true/false
+	 * @see ServerMetrics#registerMBean(javax.management.ObjectName)
+	 * @since 0.3.0
+	 */
+	public void setMBeanEnabled(final boolean isMBeanEnabled) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(isMBeanEnabled));
+		
+		this.isMBeanEnabled = isMBeanEnabled;
+		
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
 	}
 
 	/**
-	 * Returns the current {@link Thread} of the server.
+	 * Returns the number of waiting connections.
 	 *
-	 * @return thread of the server
-	 * @see Thread
-	 * @since 0.0.1
+	 * @return number of waiting connections
+	 * @since 0.3.0
 	 */
-	public Thread getThread() {
+	public int getQueuedConnections() {
 		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
 		
-		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(thread));
-		return thread;
+		final int result = queue.size();
+		
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(result));
+		return result;
 	}
 
 	/**
-	 * Sets the current {@link Thread} for the server.
+	 * Returns the number of connections closed by the {@link AcceptPolicy} since the creation of the server.
 	 *
-	 * @param thread for the server
-	 * @see Thread
-	 * @since 0.0.1
+	 * @return number of rejected connections
+	 * @since 0.3.0
 	 */
-	protected void setThread(final Thread thread) {
-		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(thread));
+	public long getRejectedConnections() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
 		
-		if (null == thread) {
-			throw new RuntimeExceptionIsNull("thread"); //$NON-NLS-1$
+		final long result = rejectedConnections.get();
+		
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(result));
+		return result;
+	}
+
+	/**
+	 * Returns the {@link ServerThread} of a connection.
+	 *
+	 * @param connectionId of the connection
+	 * @return {@link ServerThread} or null if the connection isn't open
+	 * @see ServerThread
+	 * @since 0.3.0
+	 */
+	public ServerThread getServerThread(final long connectionId) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(connectionId));
+		
+		final ServerThread result = threads.get(connectionId);
+		
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(result));
+		return result;
+	}
+
+	/**
+	 * Registers the server as listener of an accepted {@link ServerThread} and starts it on the {@link #getExecutor()}.
+	 * If the server has reached {@link #getMaxConnections()}, the {@link #getAcceptPolicy()} decides about the connection.
+	 * Implementations of {@link #run()} should use this method for every accepted connection.
+	 *
+	 * @param serverThread to start
+	 * @see ServerThread
+	 * @since 0.3.0
+	 */
+	protected void startServerThread(final ServerThread serverThread) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(serverThread));
+		
+		if (null == serverThread) {
+			throw new RuntimeExceptionIsNull("serverThread"); //$NON-NLS-1$
 		}
 
-		this.thread = thread;
+		ServerThread oldest = null;
+		boolean isAccepted = true;
+		boolean isQueued = false;
+
+		synchronized (lock) {
+			if (0 < maxConnections && maxConnections <= connections.get()) {
+				switch (acceptPolicy) {
+					case CLOSE_OLDEST:
+						final Map.Entry<Long, ServerThread> entry = threads.pollFirstEntry();
+						if (null != entry) {
+							connections.decrementAndGet();
+							oldest = entry.getValue();
+						}
+						break;
+					case QUEUE:
+						if (acceptQueueSize > queue.size()) {
+							queue.add(serverThread);
+							isQueued = true;
+						} else {
+							isAccepted = false;
+						}
+						break;
+					default:
+						isAccepted = false;
+						break;
+				}
+			}
+
+			if (isAccepted && !isQueued) {
+				register(serverThread); //reserve the slot before the thread is running
+			}
+		}
+
+		if (null != oldest) {
+			rejectedConnections.incrementAndGet();
+			stopServerThread(oldest);
+		}
+
+		if (isAccepted) {
+			if (!isQueued) {
+				start(serverThread);
+			}
+		} else {
+			rejectedConnections.incrementAndGet();
+			if (log.isDebugEnabled()) log.debug("Connection rejected: " + serverThread.getConnectionId()); //$NON-NLS-1$
+			stopServerThread(serverThread);
+		}
 		
 		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
 	}
 
+	/**
+	 * Pauses an acceptor after a failed accept, so a persistent failure (e.g. the process has run out of file descriptors) doesn't spin the acceptor.
+	 * The pause starts with {@link #MIN_ACCEPT_BACKOFF} and doubles with every consecutive failure up to {@link #MAX_ACCEPT_BACKOFF}.
+	 * Implementations of {@link #run()} should call this method after every failed accept and reset the failures after a successful one.
+	 *
+	 * @param failures number of consecutive failed accepts
+	 * @return false if the acceptor was interrupted during the pause
+	 * @since 0.3.0
+	 */
+	protected boolean backOffAccept(final int failures) {
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodStart(failures));
+
+		if (0 >= failures) {
+			throw new RuntimeExceptionMustBeGreater("failures", failures, 0); //$NON-NLS-1$
+		}
+
+		final long delay = Math.min(MIN_ACCEPT_BACKOFF << Math.min(failures - 1, 16), MAX_ACCEPT_BACKOFF);
+
+		boolean result = true;
+		try {
+			Thread.sleep(delay);
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt(); //server stopped
+			result = false;
+		}
+
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodExit(result));
+		return result;
+	}
+
 	protected void setRunning(final boolean isRunning) {
 		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(isRunning));
 		
@@ -134,12 +1074,23 @@ public abstract class ServerAbstract extends ExtendedObjectAbstract implements S
 	 * Implemented methods
 	 */
 
+	/**
+	 * Returns the {@link ServerSocket} of the current server.
+	 * On an acceptor thread, the socket of the acceptor is returned.
+	 *
+	 * @return {@link ServerSocket}
+	 * @see #getServerSockets()
+	 * @since 0.0.1
+	 */
 	@Override
 	public ServerSocket getServerSocket() {
 		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
 		
-		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(serverSocket));
-		return serverSocket;
+		final ServerSocket socket = acceptorSocket.get();
+		final ServerSocket result = null == socket ? serverSocket : socket;
+		
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(result));
+		return result;
 	}
 
 	@Override
@@ -213,24 +1164,32 @@ public abstract class ServerAbstract extends ExtendedObjectAbstract implements S
 	public Collection<ServerThread> getServerThreads() {
 		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
 		
-		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(threads));
-		return Collections.unmodifiableCollection(threads);
+		final Collection<ServerThread> result = Collections.unmodifiableCollection(threads.values());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(result));
+		return result;
 	}
 
 	@Override
 	public void start() throws IOException {
 		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
 		
-		serverSocket = new ServerSocket(port);
+		setRunning(true); //before the acceptors start, they loop while the server is running
 
-		if (0 < timeout) {
-			serverSocket.setSoTimeout(timeout);
+		try {
+			startAcceptors();
+		} catch (IOException ex) {
+			setRunning(false);
+			throw ex;
 		}
 
-		thread = new Thread(this);
-		thread.start();
-
-		isRunning = true;
+		if (isMBeanEnabled) { //after the bind, a failed start leaves no registration behind
+			try {
+				metrics.registerMBean(Metrics.createObjectName(Server.class.getSimpleName(), getName()));
+			} catch (JMException ex) {
+				log.warn("Could not register the metrics", ex); //$NON-NLS-1$
+			}
+		}
 		
 		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
 	}
@@ -241,14 +1200,28 @@ public abstract class ServerAbstract extends ExtendedObjectAbstract implements S
 		
 		isRunning = false;
 
-		if (null != serverSocket && !serverSocket.isClosed()) {
-			serverSocket.close();
+		closeServerSockets();
+
+		ServerThread waiting;
+		while (null != (waiting = queue.poll())) {
+			waiting.stop();
 		}
 
-		for (final ServerThread thread : threads) {
+		for (final ServerThread thread : threads.values()) {
 			thread.stop();
 		}
 
+		synchronized (lock) {
+			if (null != pool) {
+				pool.shutdown();
+				pool = null;
+			}
+			if (null != flushTimer) {
+				flushTimer.cancel(); //after the connections have flushed
+				flushTimer = null;
+			}
+		}
+
 		if (null != thread) {
 			if (thread.isAlive()) {
 				thread.interrupt();
@@ -256,6 +1229,139 @@ public abstract class ServerAbstract extends ExtendedObjectAbstract implements S
 //				thread = null;
 			}
 		}
+		for (final Thread acceptor : acceptorThreads) {
+			acceptor.interrupt();
+		}
+
+		try {
+			metrics.unregisterMBean();
+		} catch (JMException ex) {
+			log.warn("Could not unregister the metrics", ex); //$NON-NLS-1$
+		}
+		
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	@Override
+	public ServerMetrics getMetrics() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(metrics));
+		return metrics;
+	}
+
+	@Override
+	public int drain(final long timeout) throws IOException {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(timeout));
+		
+		if (0L > timeout) {
+			throw new RuntimeExceptionMustBeGreater("timeout", timeout, 0); //$NON-NLS-1$
+		}
+
+		isRunning = false;
+		isDraining = true;
+
+		for (final ListenerServer listener : listeners) {
+			listener.serverDrainStarted(event);
+		}
+
+		closeServerSockets();
+
+		ServerThread waiting;
+		while (null != (waiting = queue.poll())) {
+			waiting.stop(); //not started, nothing in progress
+		}
+
+		for (final ServerThread serverThread : threads.values()) {
+			serverThread.drain();
+		}
+
+		final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+		synchronized (lock) {
+			long remaining;
+			while (0 < connections.get() && 0L < (remaining = deadline - System.nanoTime())) {
+				try {
+					TimeUnit.NANOSECONDS.timedWait(lock, remaining);
+				} catch (InterruptedException ex) {
+					Thread.currentThread().interrupt();
+					break;
+				}
+			}
+		}
+
+		final int result = connections.get();
+		if (0 < result) {
+			log.warn("Closing " + result + " connections after the drain timeout of " + timeout + "ms"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		}
+
+		stop(); //closes the remaining connections
+
+		isDraining = false;
+
+		for (final ListenerServer listener : listeners) {
+			listener.serverDrainFinished(event);
+		}
+		
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(result));
+		return result;
+	}
+
+	@Override
+	public boolean isDraining() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(isDraining));
+		return isDraining;
+	}
+
+	@Override
+	public void addListener(final ListenerServer listener) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(listener));
+		
+		if (null == listener) {
+			throw new RuntimeExceptionIsNull("listener"); //$NON-NLS-1$
+		}
+
+		listeners.add(listener);
+		
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	@Override
+	public void deleteListener(final ListenerServer listener) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(listener));
+		
+		if (null == listener) {
+			throw new RuntimeExceptionIsNull("listener"); //$NON-NLS-1$
+		}
+
+		listeners.remove(listener);
+		
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	@Override
+	public void addServerThreadListener(final ListenerServerThread listener) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(listener));
+		
+		if (null == listener) {
+			throw new RuntimeExceptionIsNull("listener"); //$NON-NLS-1$
+		}
+
+		threadListeners.add(listener);
+		
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	@Override
+	public void deleteServerThreadListener(final ListenerServerThread listener) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(listener));
+		
+		if (null == listener) {
+			throw new RuntimeExceptionIsNull("listener"); //$NON-NLS-1$
+		}
+
+		threadListeners.remove(listener);
 		
 		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
 	}
@@ -276,7 +1382,7 @@ public abstract class ServerAbstract extends ExtendedObjectAbstract implements S
 			throw new RuntimeExceptionIsNull("event"); //$NON-NLS-1$
 		}
 
-		threads.add(event.getSource());
+		register(event.getSource());
 		
 		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
 	}
@@ -289,8 +1395,180 @@ public abstract class ServerAbstract extends ExtendedObjectAbstract implements S
 			throw new RuntimeExceptionIsNull("event"); //$NON-NLS-1$
 		}
 
-		threads.remove(event.getSource());
+		if (isMBeanEnabled) {
+			try {
+				event.getSource().getMetrics().unregisterMBean();
+			} catch (JMException ex) {
+				log.warn("Could not unregister the metrics of the connection", ex); //$NON-NLS-1$
+			}
+		}
+
+		if (unregister(event.getSource()) && isDraining) {
+			synchronized (lock) {
+				lock.notifyAll();
+			}
+
+			for (final ListenerServer listener : listeners) {
+				listener.serverDrainProgress(this.event);
+			}
+		}
+
+		startQueuedServerThread();
 		
 		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
 	}
+
+
+	/*
+	 * Private methods
+	 */
+
+	private ServerSocket bind(final InetSocketAddress address) throws IOException {
+		final ServerSocket result = createServerSocket();
+
+		try {
+			result.setReuseAddress(true);
+			if (isReusePort) {
+				if (result.supportedOptions().contains(StandardSocketOptions.SO_REUSEPORT)) {
+					result.setOption(StandardSocketOptions.SO_REUSEPORT, true);
+				} else {
+					log.warn("SO_REUSEPORT is not supported, the acceptors share the socket of " + address); //$NON-NLS-1$
+				}
+			}
+			if (0 < timeout) {
+				result.setSoTimeout(timeout);
+			}
+			result.bind(address, backlog);
+		} catch (IOException ex) {
+			result.close();
+			throw ex;
+		}
+		return result;
+	}
+
+	private void closeServerSockets() throws IOException {
+		for (final ServerSocket socket : serverSockets) {
+			if (!socket.isClosed()) {
+				socket.close();
+			}
+		}
+		if (null != serverSocket && !serverSocket.isClosed()) {
+			serverSocket.close();
+		}
+	}
+
+	private Timer getFlushTimer() {
+		synchronized (lock) {
+			if (null == flushTimer) {
+				flushTimer = new Timer(getClass().getSimpleName() + "-flush", true); //$NON-NLS-1$
+			}
+			return flushTimer;
+		}
+	}
+
+	private Executor getHandlerExecutor() {
+		if (null != executor) {
+			return executor;
+		}
+
+		synchronized (lock) {
+			if (0 < maxConnections && null == pool) {
+				pool = new ThreadPoolExecutor(maxConnections, maxConnections, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), HelperThread.createThreadFactory(ServerThread.class.getSimpleName(), false));
+				pool.allowCoreThreadTimeOut(true);
+			}
+			return pool;
+		}
+	}
+
+	private void register(final ServerThread serverThread) {
+		if (null == threads.put(serverThread.getConnectionId(), serverThread)) {
+			connections.incrementAndGet();
+		}
+	}
+
+	private boolean unregister(final ServerThread serverThread) {
+		final boolean result = null != threads.remove(serverThread.getConnectionId());
+		if (result) {
+			connections.decrementAndGet();
+		}
+		return result;
+	}
+
+	private void startQueuedServerThread() {
+		ServerThread serverThread = null;
+
+		synchronized (lock) {
+			if (isRunning && (0 == maxConnections || maxConnections > connections.get())) {
+				serverThread = queue.poll();
+
+				if (null != serverThread) {
+					register(serverThread);
+				}
+			}
+		}
+
+		if (null != serverThread) {
+			start(serverThread);
+		}
+	}
+
+	private void start(final ServerThread serverThread) {
+		configure(serverThread);
+		serverThread.addListener(this);
+		for (final ListenerServerThread listener : threadListeners) {
+			serverThread.addListener(listener);
+		}
+
+		final Executor executor = getHandlerExecutor();
+		if (null == executor) {
+			serverThread.start();
+		} else {
+			serverThread.start(executor);
+		}
+	}
+
+	private void configure(final ServerThread serverThread) {
+		final Socket socket = serverThread.getSocket();
+
+		try {
+			if (isTcpNoDelay) {
+				socket.setTcpNoDelay(true);
+			}
+			if (0 < sendBufferSize) {
+				socket.setSendBufferSize(sendBufferSize);
+			}
+		} catch (SocketException ex) {
+			if (log.isDebugEnabled()) log.debug("Could not configure the socket", ex); //$NON-NLS-1$
+		}
+
+		serverThread.setFlushWindow(flushWindow);
+		serverThread.setFlushThreshold(flushThreshold);
+		if (0L < flushWindow) {
+			serverThread.setFlushTimer(getFlushTimer());
+		}
+		serverThread.setIdleTimeout(idleTimeout);
+		serverThread.setReadTimeout(readTimeout);
+		serverThread.setHeartbeatInterval(heartbeatInterval);
+
+		serverThread.getMetrics().setParent(metrics);
+		if (isMBeanEnabled) {
+			try {
+				serverThread.getMetrics().registerMBean(Metrics.createObjectName(ServerThread.class.getSimpleName(), getName() + '-' + serverThread.getConnectionId()));
+			} catch (JMException ex) {
+				log.warn("Could not register the metrics of the connection", ex); //$NON-NLS-1$
+			}
+		}
+	}
+
+	private String getName() {
+		return getClass().getSimpleName() + '-' + port;
+	}
+
+	private static void stopServerThread(final ServerThread serverThread) {
+		try {
+			serverThread.stop();
+		} catch (IOException ex) {
+			if (log.isDebugEnabled()) log.debug("Could not stop the server thread", ex); //$NON-NLS-1$
+		}
+	}
 }
@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2007-2013 by Stefan Laubenberger.
+ *
+ * "wichtel" is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License v3.0.
+ *
+ * "wichtel" is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * See the GNU Lesser General Public License for more details:
+ * -----------------------------------------------------------
+ * http://www.gnu.org/licenses
+ *
+ *
+ * This distribution is available at:
+ * ----------------------------------
+ * https://github.com/slaubenberger/wichtel/
+ *
+ *
+ * Contact information:
+ * --------------------
+ * Stefan Laubenberger
+ * Bullingerstrasse 53
+ * CH-8004 Zuerich
+ *
+ * http://www.laubenberger.net
+ * laubenberger@gmail.com
+ */
+
+package net.laubenberger.wichtel.controller.net.server;
+
+import java.io.IOException;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.laubenberger.wichtel.controller.net.mux.MuxHandler;
+import net.laubenberger.wichtel.helper.HelperLog;
+import net.laubenberger.wichtel.helper.HelperThread;
+import net.laubenberger.wichtel.misc.Event;
+import net.laubenberger.wichtel.misc.exception.RuntimeExceptionIsNull;
+
+
+/**
+ * Server for multiplexed connections.
+ * <p>
+ * Every accepted connection is served by a {@link ServerThreadMuxImpl}, which hands the requests over to the {@link MuxHandler} on the request {@link Executor}.
+ * Clients (e.g. {@link net.laubenberger.wichtel.controller.net.client.ClientMuxImpl}) may send many requests without waiting for the responses.
+ *
+ * @author Stefan Laubenberger
+ * @version 0.3.0, 2026-10-17
+ * @since 0.3.0
+ */
+public class ServerMuxImpl extends ServerAbstract {
+	private static final Logger log = LoggerFactory.getLogger(ServerMuxImpl.class);
+
+	/**
+	 * Shared executor for the requests, it grows with the number of concurrent requests.
+	 */
+	public static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(HelperThread.createThreadFactory(MuxHandler.class.getSimpleName(), true));
+
+	private final MuxHandler handler;
+
+	private Executor requestExecutor = EXECUTOR;
+
+	public ServerMuxImpl(final int port, final MuxHandler handler) {
+		super(port);
+		if (log.isTraceEnabled()) log.trace(HelperLog.constructor(port, handler));
+
+		if (null == handler) {
+			throw new RuntimeExceptionIsNull("handler"); //$NON-NLS-1$
+		}
+
+		this.handler = handler;
+	}
+
+	/**
+	 * Returns the {@link MuxHandler} of the server.
+	 *
+	 * @return {@link MuxHandler}
+	 * @see MuxHandler
+	 * @since 0.3.0
+	 */
+	public MuxHandler getHandler() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(handler));
+		return handler;
+	}
+
+	/**
+	 * Returns the {@link Executor} for the requests.
+	 *
+	 * @return {@link Executor} for the requests
+	 * @see Executor
+	 * @since 0.3.0
+	 */
+	public Executor getRequestExecutor() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(requestExecutor));
+		return requestExecutor;
+	}
+
+	/**
+	 * Sets the {@link Executor} for the requests (default: {@link #EXECUTOR}).
+	 * Use e.g. an executor with virtual threads for blocking handlers.
+	 *
+	 * @param requestExecutor for the requests
+	 * @see Executor
+	 * @since 0.3.0
+	 */
+	public void setRequestExecutor(final Executor requestExecutor) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(requestExecutor));
+		if (null == requestExecutor) {
+			throw new RuntimeExceptionIsNull("requestExecutor"); //$NON-NLS-1$
+		}
+
+		this.requestExecutor = requestExecutor;
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+
+	/*
+	 * Implemented methods
+	 */
+
+	@Override
+	public void run() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		int failures = 0;
+
+		while (isRunning()) {
+			try {
+				final Socket socket = getServerSocket().accept();
+				failures = 0;
+
+				startServerThread(new ServerThreadMuxImpl(socket, handler, requestExecutor));
+			} catch (SocketException ex) {
+				break; //server stopped
+			} catch (IOException ex) {
+				if (isRunning()) {
+					log.error("Could not accept connection", ex); //$NON-NLS-1$
+				}
+				if (!backOffAccept(++failures)) {
+					break;
+				}
+			}
+		}
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	/**
+	 * The requests are handled by the {@link MuxHandler}.
+	 */
+	@Override
+	public void serverThreadStreamRead(final Event<ServerThread> event) {
+		//nothing to do
+	}
+}
@@ -0,0 +1,389 @@
+/*
+ * Copyright (c) 2007-2013 by Stefan Laubenberger.
+ *
+ * "wichtel" is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License v3.0.
+ *
+ * "wichtel" is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * See the GNU Lesser General Public License for more details:
+ * -----------------------------------------------------------
+ * http://www.gnu.org/licenses
+ *
+ *
+ * This distribution is available at:
+ * ----------------------------------
+ * https://github.com/slaubenberger/wichtel/
+ *
+ *
+ * Contact information:
+ * --------------------
+ * Stefan Laubenberger
+ * Bullingerstrasse 53
+ * CH-8004 Zuerich
+ *
+ * http://www.laubenberger.net
+ * laubenberger@gmail.com
+ */
+
+package net.laubenberger.wichtel.controller.net.server;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.laubenberger.wichtel.controller.net.codec.Codec;
+import net.laubenberger.wichtel.controller.net.codec.CodecDelimiter;
+import net.laubenberger.wichtel.controller.net.nio.SelectorLoop;
+import net.laubenberger.wichtel.helper.HelperEnvironment;
+import net.laubenberger.wichtel.helper.HelperLog;
+import net.laubenberger.wichtel.misc.exception.RuntimeExceptionIsNull;
+import net.laubenberger.wichtel.misc.exception.RuntimeExceptionMustBeGreater;
+import net.laubenberger.wichtel.model.net.BalancePolicy;
+
+
+/**
+ * Skeleton for non-blocking socket servers.
+ * <p>
+ * The server accepts connections on {@link ServerSocketChannel}s and distributes them over a fixed number of {@link SelectorLoop}s according to the {@link BalancePolicy}.
+ * With several acceptors (see {@link #setAcceptorCount(int)} and {@link #setReusePort(boolean)}), connections can be accepted in parallel.
+ * Every connection is served by a {@link ServerThreadNioImpl} without a thread of its own, so the number of threads doesn't grow with the number of connections.
+ * Implementations only have to handle {@link #serverThreadStreamRead(net.laubenberger.wichtel.misc.Event)}, which is called on the loop thread and must not block.
+ *
+ * @author Stefan Laubenberger
+ * @version 0.3.0, 2026-10-17
+ * @since 0.3.0
+ */
+public abstract class ServerNioAbstract extends ServerAbstract {
+	private static final Logger log = LoggerFactory.getLogger(ServerNioAbstract.class);
+
+	public static final int DEFAULT_BACKLOG = 1024;
+
+	private final AtomicInteger next = new AtomicInteger(); //round-robin index, shared by the acceptors
+
+	private SelectorLoop[] loops;
+
+	private int loopCount = HelperEnvironment.getAvailableProcessors();
+	private BalancePolicy balancePolicy = BalancePolicy.ROUND_ROBIN;
+	private Codec codec = new CodecDelimiter();
+	private long highWaterMark = ServerThreadNioImpl.DEFAULT_HIGH_WATER_MARK;
+
+	protected ServerNioAbstract() {
+		super();
+		if (log.isTraceEnabled()) log.trace(HelperLog.constructor());
+
+		setBacklog(DEFAULT_BACKLOG);
+	}
+
+	protected ServerNioAbstract(final int port) {
+		super(port);
+		if (log.isTraceEnabled()) log.trace(HelperLog.constructor(port));
+
+		setBacklog(DEFAULT_BACKLOG);
+	}
+
+	/**
+	 * Returns the {@link ServerSocketChannel} of the server; on an acceptor thread the channel of the acceptor.
+	 *
+	 * @return {@link ServerSocketChannel}
+	 * @see ServerSocketChannel
+	 * @see #getServerSocket()
+	 * @since 0.3.0
+	 */
+	public ServerSocketChannel getServerChannel() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		final ServerSocket socket = getServerSocket();
+		final ServerSocketChannel result = null == socket ? null : socket.getChannel();
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(result));
+		return result;
+	}
+
+	/**
+	 * Returns the number of {@link SelectorLoop}s.
+	 *
+	 * @return number of loops
+	 * @since 0.3.0
+	 */
+	public int getLoopCount() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(loopCount));
+		return loopCount;
+	}
+
+	/**
+	 * Sets the number of {@link SelectorLoop}s (default: number of processors).
+	 * The value is used on the next {@link #start()}.
+	 *
+	 * @param loopCount number of loops
+	 * @since 0.3.0
+	 */
+	public void setLoopCount(final int loopCount) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(loopCount));
+		if (0 >= loopCount) {
+			throw new RuntimeExceptionMustBeGreater("loopCount", loopCount, 0); //$NON-NLS-1$
+		}
+
+		this.loopCount = loopCount;
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	/**
+	 * Returns the {@link BalancePolicy} for the accepted connections.
+	 *
+	 * @return {@link BalancePolicy}
+	 * @see BalancePolicy
+	 * @since 0.3.0
+	 */
+	public BalancePolicy getBalancePolicy() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(balancePolicy));
+		return balancePolicy;
+	}
+
+	/**
+	 * Sets the {@link BalancePolicy} for the accepted connections (default: {@link BalancePolicy#ROUND_ROBIN}).
+	 * {@link BalancePolicy#LEAST_LOAD} evens out the loops when connections have different lifetimes.
+	 *
+	 * @param balancePolicy for the accepted connections
+	 * @see BalancePolicy
+	 * @since 0.3.0
+	 */
+	public void setBalancePolicy(final BalancePolicy balancePolicy) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(balancePolicy));
+		if (null == balancePolicy) {
+			throw new RuntimeExceptionIsNull("balancePolicy"); //$NON-NLS-1$
+		}
+
+		this.balancePolicy = balancePolicy;
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	/**
+	 * Returns the {@link Codec} of the connections.
+	 *
+	 * @return {@link Codec}
+	 * @see Codec
+	 * @since 0.3.0
+	 */
+	public Codec getCodec() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(codec));
+		return codec;
+	}
+
+	/**
+	 * Sets the {@link Codec} of the connections (default: {@link CodecDelimiter}).
+	 * The codec is shared by all connections accepted afterwards.
+	 *
+	 * @param codec for the connections
+	 * @see Codec
+	 * @since 0.3.0
+	 */
+	public void setCodec(final Codec codec) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(codec));
+		if (null == codec) {
+			throw new RuntimeExceptionIsNull("codec"); //$NON-NLS-1$
+		}
+
+		this.codec = codec;
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	/**
+	 * Returns the high water mark of the write queues of the connections.
+	 *
+	 * @return high water mark in bytes
+	 * @see ServerThreadNioImpl#getHighWaterMark()
+	 * @since 0.3.0
+	 */
+	public long getHighWaterMark() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(highWaterMark));
+		return highWaterMark;
+	}
+
+	/**
+	 * Sets the high water mark of the write queues of the connections accepted afterwards (default: {@link ServerThreadNioImpl#DEFAULT_HIGH_WATER_MARK}).
+	 *
+	 * @param highWaterMark in bytes
+	 * @see ServerThreadNioImpl#setHighWaterMark(long)
+	 * @since 0.3.0
+	 */
+	public void setHighWaterMark(final long highWaterMark) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(highWaterMark));
+		if (0L >= highWaterMark) {
+			throw new RuntimeExceptionMustBeGreater("highWaterMark", highWaterMark, 0); //$NON-NLS-1$
+		}
+
+		this.highWaterMark = highWaterMark;
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	/**
+	 * Creates the server thread for an accepted {@link SocketChannel}.
+	 * Override this method to use a customized {@link ServerThread}.
+	 *
+	 * @param channel accepted channel
+	 * @param loop	 serving the channel
+	 * @return new {@link ServerThread}
+	 * @throws IOException
+	 * @see SocketChannel
+	 * @see SelectorLoop
+	 * @since 0.3.0
+	 */
+	protected ServerThread createServerThread(final SocketChannel channel, final SelectorLoop loop) throws IOException {
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodStart(channel, loop));
+
+		final ServerThreadNioImpl result = new ServerThreadNioImpl(channel, loop);
+		result.setCodec(codec);
+		result.setHighWaterMark(highWaterMark);
+
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodExit(result));
+		return result;
+	}
+
+	/**
+	 * Returns the {@link SelectorLoop} for the next accepted connection according to the {@link #getBalancePolicy()}.
+	 * This method is called concurrently by the acceptors.
+	 *
+	 * @return next {@link SelectorLoop}
+	 * @see SelectorLoop
+	 * @since 0.3.0
+	 */
+	protected SelectorLoop nextLoop() {
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodStart());
+
+		SelectorLoop result;
+		if (BalancePolicy.LEAST_LOAD == balancePolicy) {
+			result = loops[0];
+			for (int ii = 1; loops.length > ii; ii++) {
+				if (loops[ii].getChannelCount() < result.getChannelCount()) {
+					result = loops[ii];
+				}
+			}
+		} else {
+			result = loops[(next.getAndIncrement() & Integer.MAX_VALUE) % loops.length];
+		}
+
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodExit(result));
+		return result;
+	}
+
+
+	/*
+	 * Overridden methods
+	 */
+
+	/**
+	 * Creates the socket of an unbound {@link ServerSocketChannel}.
+	 */
+	@Override
+	protected ServerSocket createServerSocket() throws IOException {
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodStart());
+
+		final ServerSocket result = ServerSocketChannel.open().socket();
+
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodExit(result));
+		return result;
+	}
+
+	@Override
+	public void start() throws IOException {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		loops = new SelectorLoop[loopCount];
+		for (int ii = 0; loops.length > ii; ii++) {
+			loops[ii] = new SelectorLoop(getClass().getSimpleName() + "-loop-" + ii); //$NON-NLS-1$
+			loops[ii].start();
+		}
+		next.set(0);
+
+		try {
+			super.start();
+		} catch (IOException ex) {
+			for (final SelectorLoop loop : loops) {
+				loop.stop();
+			}
+			throw ex;
+		}
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	@Override
+	public void stop() throws IOException {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		super.stop();
+
+		if (null != loops) {
+			for (final SelectorLoop loop : loops) {
+				loop.stop();
+			}
+		}
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+
+	/*
+	 * Implemented methods
+	 */
+
+	/**
+	 * Accepts connections on the {@link ServerSocketChannel} of the acceptor.
+	 * This method is called by every acceptor thread; after a failed accept, the acceptor backs off (see {@link #backOffAccept(int)}).
+	 */
+	@Override
+	public void run() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		final ServerSocketChannel serverChannel = getServerChannel();
+		int failures = 0;
+
+		while (isRunning()) {
+			try {
+				final SocketChannel channel = serverChannel.accept();
+				failures = 0;
+
+				final ServerThread serverThread;
+				try {
+					serverThread = createServerThread(channel, nextLoop());
+				} catch (IOException ex) {
+					channel.close();
+					throw ex;
+				}
+				startServerThread(serverThread);
+			} catch (ClosedChannelException ex) {
+				break; //server stopped
+			} catch (IOException ex) {
+				if (isRunning()) {
+					log.error("Could not accept connection", ex); //$NON-NLS-1$
+				}
+				if (!backOffAccept(++failures)) {
+					break;
+				}
+			}
+		}
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+}
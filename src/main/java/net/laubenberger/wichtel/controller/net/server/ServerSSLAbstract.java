@@ -33,9 +33,12 @@ package net.laubenberger.wichtel.controller.net.server;
 import java.io.IOException;
 import java.net.ServerSocket;
 
+import java.security.GeneralSecurityException;
+
 import javax.net.ServerSocketFactory;
 import javax.net.ssl.SSLServerSocketFactory;
 
+import net.laubenberger.wichtel.controller.net.ssl.SSLConfig;
 import net.laubenberger.wichtel.helper.HelperLog;
 
 import org.slf4j.Logger;
@@ -51,6 +54,8 @@ import org.slf4j.LoggerFactory;
  */
 public abstract class ServerSSLAbstract extends ServerAbstract {
 	private static final Logger log = LoggerFactory.getLogger(ServerSSLAbstract.class);
+
+	private SSLConfig sslConfig;
 	
 	protected ServerSSLAbstract() {
 		super();
@@ -67,29 +72,62 @@ public abstract class ServerSSLAbstract extends ServerAbstract {
 		if (log.isTraceEnabled()) log.trace(HelperLog.constructor(port));
 	}
 
+	/**
+	 * Returns the {@link SSLConfig} of the server.
+	 *
+	 * @return {@link SSLConfig} or null for the defaults of the VM
+	 * @see SSLConfig
+	 * @since 0.3.0
+	 */
+	public SSLConfig getSSLConfig() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(sslConfig));
+		return sslConfig;
+	}
+
+	/**
+	 * Sets the {@link SSLConfig} of the server (default: null, uses {@link SSLServerSocketFactory#getDefault()}).
+	 * The value is used on the next {@link #start()}.
+	 *
+	 * @param sslConfig for the server
+	 * @see SSLConfig
+	 * @since 0.3.0
+	 */
+	public void setSSLConfig(final SSLConfig sslConfig) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(sslConfig));
+
+		this.sslConfig = sslConfig;
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
 
 	/*
 	 * Overridden methods
 	 */
 
+	/**
+	 * Creates an unbound SSL server socket from the {@link #getSSLConfig()} or the default {@link SSLServerSocketFactory}.
+	 */
 	@Override
-	public void start() throws IOException {
-		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+	protected ServerSocket createServerSocket() throws IOException {
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodStart());
 		
-		setRunning(true);
-
-		final ServerSocketFactory sslFactory = SSLServerSocketFactory.getDefault();
-		final ServerSocket serverSocket = sslFactory.createServerSocket(getPort());
-
-		if (0 < getTimeout()) {
-			serverSocket.setSoTimeout(getTimeout());
+		final ServerSocketFactory sslFactory;
+		if (null == sslConfig) {
+			sslFactory = SSLServerSocketFactory.getDefault();
+		} else {
+			try {
+				sslFactory = sslConfig.getServerSocketFactory();
+			} catch (GeneralSecurityException ex) {
+				throw new IOException("Could not create the SSL context", ex); //$NON-NLS-1$
+			}
 		}
 
-		setServerSocket(serverSocket);
-
-		setThread(new Thread(this));
-		getThread().start();
+		final ServerSocket result = sslFactory.createServerSocket();
 		
-		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodExit(result));
+		return result;
 	}
 }
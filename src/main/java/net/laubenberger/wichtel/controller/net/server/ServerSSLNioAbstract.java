@@ -0,0 +1,188 @@
+/*
+ * Copyright (c) 2007-2013 by Stefan Laubenberger.
+ *
+ * "wichtel" is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License v3.0.
+ *
+ * "wichtel" is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * See the GNU Lesser General Public License for more details:
+ * -----------------------------------------------------------
+ * http://www.gnu.org/licenses
+ *
+ *
+ * This distribution is available at:
+ * ----------------------------------
+ * https://github.com/slaubenberger/wichtel/
+ *
+ *
+ * Contact information:
+ * --------------------
+ * Stefan Laubenberger
+ * Bullingerstrasse 53
+ * CH-8004 Zuerich
+ *
+ * http://www.laubenberger.net
+ * laubenberger@gmail.com
+ */
+
+package net.laubenberger.wichtel.controller.net.server;
+
+import java.io.IOException;
+import java.nio.channels.SocketChannel;
+import java.security.GeneralSecurityException;
+import java.util.concurrent.Executor;
+
+import javax.net.ssl.SSLEngine;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.laubenberger.wichtel.controller.net.nio.SelectorLoop;
+import net.laubenberger.wichtel.controller.net.ssl.SSLChannel;
+import net.laubenberger.wichtel.controller.net.ssl.SSLConfig;
+import net.laubenberger.wichtel.helper.HelperLog;
+import net.laubenberger.wichtel.misc.exception.RuntimeExceptionIsNull;
+
+
+/**
+ * Skeleton for non-blocking SSL secured socket servers.
+ * <p>
+ * The counterpart of {@link ServerSSLAbstract} for {@link ServerNioAbstract}: every accepted connection gets its own {@link SSLEngine} from the {@link SSLConfig} and is secured by an {@link SSLChannel} on its {@link SelectorLoop}.
+ * Delegated tasks of the handshake run on the task {@link Executor}, so the loops keep serving the other connections.
+ *
+ * @author Stefan Laubenberger
+ * @version 0.3.0, 2026-10-17
+ * @since 0.3.0
+ */
+public abstract class ServerSSLNioAbstract extends ServerNioAbstract {
+	private static final Logger log = LoggerFactory.getLogger(ServerSSLNioAbstract.class);
+
+	private SSLConfig sslConfig;
+	private Executor taskExecutor = SSLChannel.EXECUTOR;
+
+	protected ServerSSLNioAbstract() {
+		super();
+		if (log.isTraceEnabled()) log.trace(HelperLog.constructor());
+	}
+
+	protected ServerSSLNioAbstract(final int port) {
+		super(port);
+		if (log.isTraceEnabled()) log.trace(HelperLog.constructor(port));
+	}
+
+	protected ServerSSLNioAbstract(final int port, final SSLConfig sslConfig) {
+		this(port);
+		if (log.isTraceEnabled()) log.trace(HelperLog.constructor(port, sslConfig));
+
+		setSSLConfig(sslConfig);
+	}
+
+	/**
+	 * Returns the {@link SSLConfig} of the server.
+	 *
+	 * @return {@link SSLConfig}
+	 * @see SSLConfig
+	 * @since 0.3.0
+	 */
+	public SSLConfig getSSLConfig() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(sslConfig));
+		return sslConfig;
+	}
+
+	/**
+	 * Sets the {@link SSLConfig} of the server.
+	 *
+	 * @param sslConfig for the server
+	 * @see SSLConfig
+	 * @since 0.3.0
+	 */
+	public void setSSLConfig(final SSLConfig sslConfig) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(sslConfig));
+		if (null == sslConfig) {
+			throw new RuntimeExceptionIsNull("sslConfig"); //$NON-NLS-1$
+		}
+
+		this.sslConfig = sslConfig;
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	/**
+	 * Returns the {@link Executor} for the delegated tasks of the handshakes.
+	 *
+	 * @return {@link Executor} for the delegated tasks
+	 * @see Executor
+	 * @since 0.3.0
+	 */
+	public Executor getTaskExecutor() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(taskExecutor));
+		return taskExecutor;
+	}
+
+	/**
+	 * Sets the {@link Executor} for the delegated tasks of the handshakes (default: {@link SSLChannel#EXECUTOR}).
+	 *
+	 * @param taskExecutor for the delegated tasks
+	 * @see Executor
+	 * @since 0.3.0
+	 */
+	public void setTaskExecutor(final Executor taskExecutor) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(taskExecutor));
+		if (null == taskExecutor) {
+			throw new RuntimeExceptionIsNull("taskExecutor"); //$NON-NLS-1$
+		}
+
+		this.taskExecutor = taskExecutor;
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+
+	/*
+	 * Overridden methods
+	 */
+
+	@Override
+	protected ServerThread createServerThread(final SocketChannel channel, final SelectorLoop loop) throws IOException {
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodStart(channel, loop));
+
+		final SSLEngine engine;
+		try {
+			engine = sslConfig.createServerEngine();
+		} catch (GeneralSecurityException ex) {
+			throw new IOException("Could not create the SSL engine", ex); //$NON-NLS-1$
+		}
+
+		final ServerThreadNioImpl result = new ServerThreadNioImpl(channel, loop, engine, taskExecutor);
+		result.setCodec(getCodec());
+		result.setHighWaterMark(getHighWaterMark());
+
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodExit(result));
+		return result;
+	}
+
+	@Override
+	public void start() throws IOException {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+		if (null == sslConfig) {
+			throw new RuntimeExceptionIsNull("sslConfig"); //$NON-NLS-1$
+		}
+
+		try {
+			sslConfig.getContext(); //fail fast on invalid key material
+		} catch (GeneralSecurityException ex) {
+			throw new IOException("Could not create the SSL context", ex); //$NON-NLS-1$
+		}
+
+		super.start();
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+}
@@ -30,9 +30,14 @@
 
 package net.laubenberger.wichtel.controller.net.server;
 
+import java.io.File;
 import java.io.IOException;
 import java.net.Socket;
+import java.util.Timer;
+import java.util.concurrent.Executor;
 
+import net.laubenberger.wichtel.controller.net.codec.Codec;
+import net.laubenberger.wichtel.controller.net.metrics.Metrics;
 import net.laubenberger.wichtel.misc.HolderListener;
 import net.laubenberger.wichtel.misc.extendedObject.ExtendedObject;
 
@@ -89,6 +94,20 @@ public interface ServerThread extends ExtendedObject, Runnable, HolderListener<L
 	 */
 	void writeStream(byte... data) throws IOException;
 
+	/**
+	 * Sends a range of a file as consecutive messages of the {@link #getCodec()}.
+	 * On a socket channel the file is transferred by the operating system without copying it through the heap (zero-copy); on an SSL secured or stream based connection it is copied in small blocks.
+	 * <strong>Note:</strong> With a {@link net.laubenberger.wichtel.controller.net.codec.CodecDelimiter} the file must not contain the delimiter, use a length prefixed codec for binary files.
+	 *
+	 * @param file to send
+	 * @param offset of the range in bytes
+	 * @param length of the range in bytes
+	 * @throws IOException
+	 * @see net.laubenberger.wichtel.controller.net.codec.FrameFile
+	 * @since 0.3.0
+	 */
+	void sendFile(File file, long offset, long length) throws IOException;
+
 	/**
 	 * Stops the thread. And closes the open socket.
 	 *
@@ -104,6 +123,24 @@ public interface ServerThread extends ExtendedObject, Runnable, HolderListener<L
 	 */
 	void start();
 
+	/**
+	 * Starts the server thread on the given {@link Executor} (e.g. with virtual threads).
+	 * The executing thread is named with the connection id while the connection is served.
+	 *
+	 * @param executor for the server thread
+	 * @see Executor
+	 * @since 0.3.0
+	 */
+	void start(Executor executor);
+
+	/**
+	 * Returns the unique id of the connection.
+	 *
+	 * @return id of the connection
+	 * @since 0.3.0
+	 */
+	long getConnectionId();
+
 	/**
 	 * Returns the state of the thread.
 	 *
@@ -111,4 +148,179 @@ public interface ServerThread extends ExtendedObject, Runnable, HolderListener<L
 	 * @since 0.0.1
 	 */
 	boolean isRunning();
-}   
+
+	/**
+	 * Returns the {@link Codec} for the framing of the messages.
+	 *
+	 * @return {@link Codec}
+	 * @see Codec
+	 * @since 0.3.0
+	 */
+	Codec getCodec();
+
+	/**
+	 * Sets the {@link Codec} for the framing of the messages.
+	 *
+	 * @param codec for the framing
+	 * @see Codec
+	 * @since 0.3.0
+	 */
+	void setCodec(Codec codec);
+
+	/**
+	 * Returns the flush window for coalescing messages.
+	 *
+	 * @return flush window in milliseconds, 0 if every message is written immediately
+	 * @since 0.3.0
+	 */
+	long getFlushWindow();
+
+	/**
+	 * Sets the flush window for coalescing messages (default: 0).
+	 * Small messages are coalesced for at most this time or until they reach the flush threshold, 0 writes every message immediately.
+	 *
+	 * @param flushWindow in milliseconds
+	 * @see net.laubenberger.wichtel.controller.net.codec.FrameWriter
+	 * @since 0.3.0
+	 */
+	void setFlushWindow(long flushWindow);
+
+	/**
+	 * Returns the shared {@link Timer} that flushes the expired flush windows.
+	 *
+	 * @return {@link Timer} or null if the connection uses an own timer
+	 * @since 0.3.0
+	 */
+	Timer getFlushTimer();
+
+	/**
+	 * Sets a shared {@link Timer} that flushes the expired flush windows (e.g. one per server).
+	 * The caller owns the timer and cancels it after the connection has stopped.
+	 *
+	 * @param flushTimer for the flush window
+	 * @see net.laubenberger.wichtel.controller.net.codec.FrameWriter#setTimer(Timer)
+	 * @since 0.3.0
+	 */
+	void setFlushTimer(Timer flushTimer);
+
+	/**
+	 * Returns the flush threshold for coalescing messages.
+	 *
+	 * @return flush threshold in bytes
+	 * @since 0.3.0
+	 */
+	int getFlushThreshold();
+
+	/**
+	 * Sets the flush threshold for coalescing messages (default: {@link net.laubenberger.wichtel.controller.net.codec.FrameWriter#DEFAULT_FLUSH_THRESHOLD}).
+	 * Coalesced messages are written as soon as they reach this size.
+	 *
+	 * @param flushThreshold in bytes
+	 * @see net.laubenberger.wichtel.controller.net.codec.FrameWriter
+	 * @since 0.3.0
+	 */
+	void setFlushThreshold(int flushThreshold);
+
+	/**
+	 * Returns the idle timeout of the connection.
+	 *
+	 * @return idle timeout in milliseconds, 0 if disabled
+	 * @since 0.3.0
+	 */
+	long getIdleTimeout();
+
+	/**
+	 * Sets the idle timeout of the connection (default: 0, disabled).
+	 * The connection is stopped if no message was read or written during this time.
+	 *
+	 * @param idleTimeout in milliseconds
+	 * @see net.laubenberger.wichtel.controller.net.timer.Watchdog
+	 * @since 0.3.0
+	 */
+	void setIdleTimeout(long idleTimeout);
+
+	/**
+	 * Returns the read timeout of the connection.
+	 *
+	 * @return read timeout in milliseconds, 0 if disabled
+	 * @since 0.3.0
+	 */
+	long getReadTimeout();
+
+	/**
+	 * Sets the read timeout of the connection (default: 0, disabled).
+	 * The connection is stopped if a read doesn't return a complete message within this time: a blocking {@link #readStream()} from its call, a non-blocking connection from the first byte of a message.
+	 *
+	 * @param readTimeout in milliseconds
+	 * @see net.laubenberger.wichtel.controller.net.timer.Watchdog
+	 * @since 0.3.0
+	 */
+	void setReadTimeout(long readTimeout);
+
+	/**
+	 * Returns the heartbeat interval of the connection.
+	 *
+	 * @return heartbeat interval in milliseconds, 0 if disabled
+	 * @since 0.3.0
+	 */
+	long getHeartbeatInterval();
+
+	/**
+	 * Sets the heartbeat interval of the connection (default: 0, disabled).
+	 * An empty message is sent if no message was written during this time; received empty messages are treated as heartbeats and not passed on.
+	 * Both peers must enable heartbeats, an idle timeout of a few intervals on the peer detects a dead connection.
+	 *
+	 * @param heartbeatInterval in milliseconds
+	 * @see net.laubenberger.wichtel.controller.net.timer.Watchdog
+	 * @since 0.3.0
+	 */
+	void setHeartbeatInterval(long heartbeatInterval);
+
+	/**
+	 * Drains the thread: the current exchange is finished and the thread stops afterwards, an idle thread stops immediately.
+	 * An exchange starts when {@link #readStream()} returns a message and ends with the next call of {@link #readStream()}.
+	 *
+	 * @throws IOException
+	 * @see Server#drain(long)
+	 * @since 0.3.0
+	 */
+	void drain() throws IOException;
+
+	/**
+	 * Checks if the thread is draining.
+	 * Handlers can use it to inform the client about the shutdown in their last response.
+	 *
+	 * @return true/false
+	 * @see #drain()
+	 * @since 0.3.0
+	 */
+	boolean isDraining();
+
+	/**
+	 * Suspends or resumes reading from the connection (default: false).
+	 * A suspended connection doesn't read further messages, so a slow consumer applies backpressure to the peer via the socket buffers instead of queueing the messages.
+	 *
+	 * @param isReadSuspended true/false
+	 * @see net.laubenberger.wichtel.controller.net.flow.FlowPublisher
+	 * @since 0.3.0
+	 */
+	void setReadSuspended(boolean isReadSuspended);
+
+	/**
+	 * Checks if reading from the connection is suspended.
+	 *
+	 * @return true/false
+	 * @see #setReadSuspended(boolean)
+	 * @since 0.3.0
+	 */
+	boolean isReadSuspended();
+
+	/**
+	 * Returns the {@link Metrics} of the thread.
+	 *
+	 * @return {@link Metrics}
+	 * @see Metrics
+	 * @since 0.3.0
+	 */
+	Metrics getMetrics();
+}
@@ -30,20 +30,35 @@
 
 package net.laubenberger.wichtel.controller.net.server;
 
+import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
 import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.Timer;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import net.laubenberger.wichtel.helper.HelperArray;
-import net.laubenberger.wichtel.helper.HelperIO;
+import net.laubenberger.wichtel.controller.net.codec.Codec;
+import net.laubenberger.wichtel.controller.net.codec.CodecDelimiter;
+import net.laubenberger.wichtel.controller.net.codec.FrameDecoder;
+import net.laubenberger.wichtel.controller.net.codec.FrameFile;
+import net.laubenberger.wichtel.controller.net.codec.FrameWriter;
+import net.laubenberger.wichtel.controller.net.metrics.Metrics;
+import net.laubenberger.wichtel.controller.net.timer.ListenerWatchdog;
+import net.laubenberger.wichtel.controller.net.timer.Watchdog;
 import net.laubenberger.wichtel.helper.HelperLog;
+import net.laubenberger.wichtel.helper.HelperThread;
+import net.laubenberger.wichtel.misc.BufferPool;
 import net.laubenberger.wichtel.misc.Event;
 import net.laubenberger.wichtel.misc.exception.RuntimeExceptionIsNull;
+import net.laubenberger.wichtel.misc.exception.RuntimeExceptionMustBeGreater;
 import net.laubenberger.wichtel.misc.extendedObject.ExtendedObjectAbstract;
 
 
@@ -59,13 +74,87 @@ public abstract class ServerThreadAbstract extends ExtendedObjectAbstract implem
 	
 	private final Event<ServerThread> event = new Event<ServerThread>(this);
 
-	private Thread thread;
+	private static final AtomicLong CONNECTIONS = new AtomicLong();
+	private static final Executor EXECUTOR = HelperThread.createExecutor(HelperThread.createThreadFactory(ServerThread.class.getSimpleName(), false));
+
+	private final long connectionId = CONNECTIONS.incrementAndGet();
+
+	private final Runnable task = new Runnable() {
+		@Override
+		public void run() {
+			thread = Thread.currentThread();
+			metrics.recordStart(metrics.getAge()); //the metrics are created with the accepted connection
+			try {
+				ServerThreadAbstract.this.run();
+			} finally {
+				thread = null; //the thread may be reused by the executor
+			}
+		}
+	};
+
+	private final Watchdog watchdog = new Watchdog(new ListenerWatchdog() {
+		@Override
+		public void watchdogIdle(final Event<Watchdog> event) {
+			if (log.isDebugEnabled()) log.debug("Connection " + connectionId + " is idle"); //$NON-NLS-1$ //$NON-NLS-2$
+			EXECUTOR.execute(taskTimeout);
+		}
+
+		@Override
+		public void watchdogReadTimeout(final Event<Watchdog> event) {
+			if (log.isDebugEnabled()) log.debug("Read on connection " + connectionId + " timed out"); //$NON-NLS-1$ //$NON-NLS-2$
+			EXECUTOR.execute(taskTimeout);
+		}
+
+		@Override
+		public void watchdogHeartbeat(final Event<Watchdog> event) {
+			EXECUTOR.execute(taskHeartbeat); //a blocking write must not delay the timer
+		}
+	});
+
+	private final Runnable taskTimeout = new Runnable() {
+		@Override
+		public void run() {
+			try {
+				stop();
+			} catch (IOException ex) {
+				if (log.isDebugEnabled()) log.debug("Could not stop the connection", ex); //$NON-NLS-1$
+			}
+		}
+	};
+
+	private final Runnable taskHeartbeat = new Runnable() {
+		@Override
+		public void run() {
+			try {
+				writeStream(Watchdog.HEARTBEAT);
+			} catch (IOException ex) {
+				if (log.isDebugEnabled()) log.debug("Could not send the heartbeat", ex); //$NON-NLS-1$
+			}
+		}
+	};
+
+	private volatile Thread thread;
+
+	private final Metrics metrics = new Metrics();
 
 	private final Collection<ListenerServerThread> listeners = new HashSet<>();
 
 	private Socket socket;
 
-	private boolean isRunning;
+	private Codec codec = new CodecDelimiter();
+	private FrameDecoder decoder;
+	private volatile FrameWriter writer;
+	private long flushWindow;
+	private int flushThreshold = FrameWriter.DEFAULT_FLUSH_THRESHOLD;
+	private Timer flushTimer; //null: own timer of the writer
+
+	private volatile boolean isRunning;
+	private volatile boolean isBusy; //between a read message and the next read
+	private long busySince;
+	private volatile boolean isDraining;
+	private final AtomicBoolean isDrained = new AtomicBoolean();
+	private final Object readLock = new Object();
+	private volatile boolean isReadSuspended;
 
 
 	protected ServerThreadAbstract(final Socket socket) {
@@ -113,6 +202,78 @@ public abstract class ServerThreadAbstract extends ExtendedObjectAbstract implem
 	 * Private methods
 	 */
 
+	/**
+	 * Returns the {@link Watchdog} of the connection.
+	 *
+	 * @return {@link Watchdog}
+	 * @see Watchdog
+	 * @since 0.3.0
+	 */
+	protected Watchdog getWatchdog() {
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodStart());
+		
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodExit(watchdog));
+		return watchdog;
+	}
+
+	/**
+	 * Checks if a received message is a heartbeat, which must not be passed on.
+	 *
+	 * @param data received message
+	 * @return true if heartbeats are enabled and the message is empty
+	 * @see #setHeartbeatInterval(long)
+	 * @since 0.3.0
+	 */
+	protected boolean isHeartbeat(final byte... data) {
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodStart(data));
+		
+		final boolean result = 0L < watchdog.getHeartbeatInterval() && 0 == data.length;
+		
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodExit(result));
+		return result;
+	}
+
+	private void awaitResume() { //blocks the reading thread while reading is suspended
+		synchronized (readLock) {
+			while (isReadSuspended && isRunning) {
+				try {
+					readLock.wait();
+				} catch (InterruptedException ex) {
+					Thread.currentThread().interrupt(); //stopped
+					break;
+				}
+			}
+		}
+	}
+
+	private byte[] readMessage() throws IOException { //skips the heartbeats
+		byte[] result;
+		
+		watchdog.readStarted();
+		while (null != (result = decoder.read(socket.getInputStream()))) {
+			watchdog.readFinished();
+			if (!isHeartbeat(result)) {
+				break;
+			}
+			watchdog.readStarted();
+		}
+		return result;
+	}
+
+	private synchronized FrameWriter getWriter() throws IOException { //concurrent writers must share the same writer
+		if (null == writer) {
+			final SocketChannel channel = socket.getChannel();
+			final FrameWriter result = null != channel && channel.isBlocking() ? new FrameWriter(channel) : new FrameWriter(socket.getOutputStream());
+			result.setFlushWindow(flushWindow);
+			result.setFlushThreshold(flushThreshold);
+			if (null != flushTimer) {
+				result.setTimer(flushTimer);
+			}
+			writer = result;
+		}
+		return writer;
+	}
+
 	protected void fireStreamRead() {
 		if (log.isTraceEnabled()) log.trace(HelperLog.methodStart());
 		
@@ -123,10 +284,64 @@ public abstract class ServerThreadAbstract extends ExtendedObjectAbstract implem
 		if (log.isTraceEnabled()) log.trace(HelperLog.methodExit());
 	}
 
+	/**
+	 * Checks if the thread has no exchange in progress.
+	 * Override this method if the messages are handled asynchronously.
+	 *
+	 * @return true/false
+	 * @see #drain()
+	 * @since 0.3.0
+	 */
+	protected boolean isIdle() {
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodStart());
+		
+		final boolean result = !isBusy;
+		
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodExit(result));
+		return result;
+	}
+
+	/**
+	 * Stops a draining thread once it is idle.
+	 * Call this method if an exchange finishes outside of {@link #readStream()}.
+	 *
+	 * @return true if the thread was stopped
+	 * @throws IOException
+	 * @see #drain()
+	 * @since 0.3.0
+	 */
+	protected boolean stopIfDrained() throws IOException {
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodStart());
+		
+		final boolean result = isDraining && isIdle() && isDrained.compareAndSet(false, true);
+		if (result) {
+			stop();
+		}
+		
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodExit(result));
+		return result;
+	}
+
+	/**
+	 * Informs the thread that an exchange has finished in {@link #readStream()}; records the latency in the {@link #getMetrics()}.
+	 * Override this method if the exchanges are timed elsewhere (e.g. handled asynchronously).
+	 *
+	 * @param latency of the exchange in nanoseconds
+	 * @since 0.3.0
+	 */
+	protected void exchangeFinished(final long latency) {
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodStart(latency));
+		
+		metrics.recordExchange(latency);
+		
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodExit());
+	}
+
 	protected void fireStarted() {
 		if (log.isTraceEnabled()) log.trace(HelperLog.methodStart());
 		
 		isRunning = true;
+		watchdog.start();
 
 		for (final ListenerServerThread listener : listeners) {
 			listener.serverThreadStarted(event);
@@ -139,6 +354,10 @@ public abstract class ServerThreadAbstract extends ExtendedObjectAbstract implem
 		if (log.isTraceEnabled()) log.trace(HelperLog.methodStart());
 		
 		isRunning = false;
+		watchdog.stop();
+		synchronized (readLock) { //wakes a suspended reader
+			readLock.notifyAll();
+		}
 
 		for (final ListenerServerThread listener : listeners) {
 			listener.serverThreadStopped(event);
@@ -148,6 +367,21 @@ public abstract class ServerThreadAbstract extends ExtendedObjectAbstract implem
 	}
 
 
+	/*
+	 * Overridden methods
+	 */
+
+	@Override
+	public int hashCode() {
+		return System.identityHashCode(this); //every connection is unique, even if created in the same millisecond
+	}
+
+	@Override
+	public boolean equals(final Object obj) {
+		return this == obj;
+	}
+
+
 	/*
 	 * Implemented methods
 	 */
@@ -169,6 +403,8 @@ public abstract class ServerThreadAbstract extends ExtendedObjectAbstract implem
 		}
 
 		this.socket = socket;
+		decoder = null;
+		writer = null;
 		
 		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
 	}
@@ -177,20 +413,28 @@ public abstract class ServerThreadAbstract extends ExtendedObjectAbstract implem
 	public byte[] readStream() throws IOException {
 		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
 		
-		final InputStream is = socket.getInputStream();
-		byte[] result = HelperArray.EMPTY_ARRAY_BYTE;
-		byte input;
+		if (isBusy) {
+			isBusy = false; //the previous exchange is finished
+			exchangeFinished(System.nanoTime() - busySince);
+		}
 
-		do {
-			input = (byte) is.read();
+		awaitResume();
+		if (null == decoder) {
+			decoder = new FrameDecoder(codec, BufferPool.HEAP);
+		}
+		final long bytesRead = decoder.getBytesRead();
+		final byte[] result = stopIfDrained() ? null : readMessage();
 
-			if (-1 != input) {
-				result = HelperArray.concatenate(result, new byte[]{input});
-			}
-		} while (-1 != input);
+		metrics.recordRead(decoder.getBytesRead() - bytesRead, null == result ? 0L : 1L);
 
-		if (null == result) { //client lost
-			stop();
+		if (null == result) { //client lost or drained
+			decoder.release();
+			if (!isDrained.get()) {
+				stop();
+			}
+		} else {
+			busySince = System.nanoTime();
+			isBusy = true;
 		}
 		
 		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(result));
@@ -201,7 +445,32 @@ public abstract class ServerThreadAbstract extends ExtendedObjectAbstract implem
 	public void writeStream(final byte... data) throws IOException {
 		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(data));
 		
-		HelperIO.writeStream(socket.getOutputStream(), HelperArray.concatenate(data, new byte[]{(byte) -1}));
+		if (null == data) {
+			throw new RuntimeExceptionIsNull("data"); //$NON-NLS-1$
+		}
+
+		final ByteBuffer[] frame = codec.encode(data);
+		metrics.recordWrite(frame);
+		getWriter().write(frame); //header, payload and trailer in one packet
+		if (Watchdog.HEARTBEAT != data) {
+			watchdog.written();
+		}
+		
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	@Override
+	public void sendFile(final File file, final long offset, final long length) throws IOException {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(file, offset, length));
+		
+		final FrameFile frameFile = new FrameFile(codec, file, offset, length);
+		try {
+			getWriter().write(frameFile);
+			watchdog.written();
+		} finally {
+			frameFile.close();
+			metrics.recordWrite(frameFile.getBytesWritten(), frameFile.getFrames());
+		}
 		
 		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
 	}
@@ -211,26 +480,57 @@ public abstract class ServerThreadAbstract extends ExtendedObjectAbstract implem
 	public void start() {
 		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
 		
-//		if (null == thread) {
-		thread = new Thread(this);
-		thread.start();
-//		}
+		start(EXECUTOR);
+		
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	@Override
+	public void start(final Executor executor) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(executor));
+		
+		if (null == executor) {
+			throw new RuntimeExceptionIsNull("executor"); //$NON-NLS-1$
+		}
+
+		fireStarted(); //before the thread runs, so the connection is registered before it can stop
 
-		fireStarted();
+		HelperThread.execute(executor, task, ServerThread.class.getSimpleName() + '-' + connectionId);
 		
 		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
 	}
 
+	@Override
+	public long getConnectionId() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+		
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(connectionId));
+		return connectionId;
+	}
+
 	@Override
 	public void stop() throws IOException {
 		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
 		
 		fireStopped();
 
+		final FrameWriter writer = this.writer;
+		if (null != writer && null != socket && !socket.isClosed()) {
+			try {
+				writer.flush(); //coalesced messages
+			} catch (IOException ex) {
+				if (log.isDebugEnabled()) log.debug("Could not flush the coalesced messages", ex); //$NON-NLS-1$
+			}
+		}
+		if (null != writer) {
+			writer.cancel();
+		}
+
 		if (null != socket && !socket.isClosed()) {
 			socket.close();
 		}
 
+		final Thread thread = this.thread;
 		if (null != thread) {
 			if (thread.isAlive()) {
 				thread.interrupt();
@@ -242,6 +542,52 @@ public abstract class ServerThreadAbstract extends ExtendedObjectAbstract implem
 		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
 	}
 
+	@Override
+	public Metrics getMetrics() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+		
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(metrics));
+		return metrics;
+	}
+
+	@Override
+	public void drain() throws IOException {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+		
+		isDraining = true;
+		stopIfDrained();
+		
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	@Override
+	public boolean isDraining() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+		
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(isDraining));
+		return isDraining;
+	}
+
+	@Override
+	public void setReadSuspended(final boolean isReadSuspended) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(isReadSuspended));
+		
+		synchronized (readLock) {
+			this.isReadSuspended = isReadSuspended;
+			readLock.notifyAll();
+		}
+		
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	@Override
+	public boolean isReadSuspended() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+		
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(isReadSuspended));
+		return isReadSuspended;
+	}
+
 	@Override
 	public boolean isRunning() {
 		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
@@ -250,6 +596,162 @@ public abstract class ServerThreadAbstract extends ExtendedObjectAbstract implem
 		return isRunning;
 	}
 
+	@Override
+	public Codec getCodec() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+		
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(codec));
+		return codec;
+	}
+
+	@Override
+	public void setCodec(final Codec codec) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(codec));
+		
+		if (null == codec) {
+			throw new RuntimeExceptionIsNull("codec"); //$NON-NLS-1$
+		}
+
+		this.codec = codec;
+		decoder = null;
+		
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	@Override
+	public long getFlushWindow() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+		
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(flushWindow));
+		return flushWindow;
+	}
+
+	@Override
+	public void setFlushWindow(final long flushWindow) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(flushWindow));
+		
+		if (0L > flushWindow) {
+			throw new RuntimeExceptionMustBeGreater("flushWindow", flushWindow, 0); //$NON-NLS-1$
+		}
+
+		this.flushWindow = flushWindow;
+
+		final FrameWriter writer = this.writer;
+		if (null != writer) {
+			writer.setFlushWindow(flushWindow);
+		}
+		
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	@Override
+	public synchronized Timer getFlushTimer() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+		
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(flushTimer));
+		return flushTimer;
+	}
+
+	@Override
+	public synchronized void setFlushTimer(final Timer flushTimer) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(flushTimer));
+		
+		if (null == flushTimer) {
+			throw new RuntimeExceptionIsNull("flushTimer"); //$NON-NLS-1$
+		}
+
+		this.flushTimer = flushTimer;
+
+		if (null != writer) {
+			writer.setTimer(flushTimer);
+		}
+		
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	@Override
+	public int getFlushThreshold() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+		
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(flushThreshold));
+		return flushThreshold;
+	}
+
+	@Override
+	public void setFlushThreshold(final int flushThreshold) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(flushThreshold));
+		
+		if (0 >= flushThreshold) {
+			throw new RuntimeExceptionMustBeGreater("flushThreshold", flushThreshold, 0); //$NON-NLS-1$
+		}
+
+		this.flushThreshold = flushThreshold;
+
+		final FrameWriter writer = this.writer;
+		if (null != writer) {
+			writer.setFlushThreshold(flushThreshold);
+		}
+		
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	@Override
+	public long getIdleTimeout() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+		
+		final long result = watchdog.getIdleTimeout();
+		
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(result));
+		return result;
+	}
+
+	@Override
+	public void setIdleTimeout(final long idleTimeout) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(idleTimeout));
+		
+		watchdog.setIdleTimeout(idleTimeout);
+		
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	@Override
+	public long getReadTimeout() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+		
+		final long result = watchdog.getReadTimeout();
+		
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(result));
+		return result;
+	}
+
+	@Override
+	public void setReadTimeout(final long readTimeout) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(readTimeout));
+		
+		watchdog.setReadTimeout(readTimeout);
+		
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	@Override
+	public long getHeartbeatInterval() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+		
+		final long result = watchdog.getHeartbeatInterval();
+		
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(result));
+		return result;
+	}
+
+	@Override
+	public void setHeartbeatInterval(final long heartbeatInterval) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(heartbeatInterval));
+		
+		watchdog.setHeartbeatInterval(heartbeatInterval);
+		
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
 	@Override
 	public void addListener(final ListenerServerThread listener) {
 		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(listener));
@@ -0,0 +1,256 @@
+/*
+ * Copyright (c) 2007-2013 by Stefan Laubenberger.
+ *
+ * "wichtel" is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License v3.0.
+ *
+ * "wichtel" is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * See the GNU Lesser General Public License for more details:
+ * -----------------------------------------------------------
+ * http://www.gnu.org/licenses
+ *
+ *
+ * This distribution is available at:
+ * ----------------------------------
+ * https://github.com/slaubenberger/wichtel/
+ *
+ *
+ * Contact information:
+ * --------------------
+ * Stefan Laubenberger
+ * Bullingerstrasse 53
+ * CH-8004 Zuerich
+ *
+ * http://www.laubenberger.net
+ * laubenberger@gmail.com
+ */
+
+package net.laubenberger.wichtel.controller.net.server;
+
+import java.io.IOException;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.laubenberger.wichtel.controller.net.codec.CodecLength;
+import net.laubenberger.wichtel.controller.net.mux.MuxHandler;
+import net.laubenberger.wichtel.controller.net.mux.MuxMessage;
+import net.laubenberger.wichtel.helper.HelperLog;
+import net.laubenberger.wichtel.misc.exception.RuntimeExceptionIsNull;
+import net.laubenberger.wichtel.model.net.MuxType;
+
+
+/**
+ * Server thread for multiplexed connections.
+ * <p>
+ * The thread reads the requests and hands them over to the {@link MuxHandler} on an {@link Executor}, so the requests of one connection are handled concurrently.
+ * Every response is sent with the stream id of its request as soon as it is ready, regardless of the order of the requests.
+ * A request rejected by the {@link Executor} is answered with {@link MuxType#ERROR}, a response that can't be sent stops the connection.
+ * The connection uses a {@link CodecLength}, since the message header is binary.
+ *
+ * @author Stefan Laubenberger
+ * @version 0.3.0, 2026-10-17
+ * @since 0.3.0
+ */
+public class ServerThreadMuxImpl extends ServerThreadAbstract {
+	private static final Logger log = LoggerFactory.getLogger(ServerThreadMuxImpl.class);
+
+	private final MuxHandler handler;
+	private final Executor requestExecutor;
+
+	private final AtomicInteger pendingRequests = new AtomicInteger();
+
+	private volatile byte[] data;
+
+	public ServerThreadMuxImpl(final Socket socket, final MuxHandler handler, final Executor requestExecutor) {
+		super(socket);
+		if (log.isTraceEnabled()) log.trace(HelperLog.constructor(socket, handler, requestExecutor));
+
+		if (null == handler) {
+			throw new RuntimeExceptionIsNull("handler"); //$NON-NLS-1$
+		}
+		if (null == requestExecutor) {
+			throw new RuntimeExceptionIsNull("requestExecutor"); //$NON-NLS-1$
+		}
+
+		this.handler = handler;
+		this.requestExecutor = requestExecutor;
+		setCodec(new CodecLength());
+	}
+
+	/**
+	 * Returns the {@link MuxHandler} of the thread.
+	 *
+	 * @return {@link MuxHandler}
+	 * @see MuxHandler
+	 * @since 0.3.0
+	 */
+	public MuxHandler getHandler() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(handler));
+		return handler;
+	}
+
+	/**
+	 * Returns the number of requests in progress.
+	 *
+	 * @return number of pending requests
+	 * @since 0.3.0
+	 */
+	public int getPendingRequests() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		final int result = pendingRequests.get();
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(result));
+		return result;
+	}
+
+
+	/*
+	 * Private methods
+	 */
+
+	private void handle(final MuxMessage request, final long start) {
+		MuxMessage response;
+		try {
+			final byte[] result = handler.handle(this, request.getPayload());
+			response = new MuxMessage(request.getStreamId(), MuxType.RESPONSE, null == result ? new byte[0] : result);
+		} catch (Exception ex) {
+			if (log.isDebugEnabled()) log.debug("Request on stream " + request.getStreamId() + " failed", ex); //$NON-NLS-1$ //$NON-NLS-2$
+			response = new MuxMessage(request.getStreamId(), MuxType.ERROR, String.valueOf(ex.getMessage()).getBytes(StandardCharsets.UTF_8));
+		}
+
+		try {
+			writeStream(response.encode());
+		} catch (IOException ex) {
+			if (isRunning()) {
+				log.error("Could not send response on stream " + request.getStreamId(), ex); //$NON-NLS-1$
+				try {
+					stop();
+				} catch (IOException e) {
+					if (log.isDebugEnabled()) log.debug("Could not stop server thread", e); //$NON-NLS-1$
+				}
+			}
+		}
+
+		getMetrics().recordExchange(System.nanoTime() - start);
+
+		requestFinished();
+	}
+
+	private void reject(final MuxMessage request, final RejectedExecutionException ex) throws IOException {
+		if (log.isWarnEnabled()) log.warn("Request on stream " + request.getStreamId() + " rejected", ex); //$NON-NLS-1$ //$NON-NLS-2$
+
+		try {
+			writeStream(new MuxMessage(request.getStreamId(), MuxType.ERROR, "Request rejected".getBytes(StandardCharsets.UTF_8)).encode()); //$NON-NLS-1$
+		} finally {
+			requestFinished();
+		}
+	}
+
+	private void requestFinished() {
+		if (0 == pendingRequests.decrementAndGet()) {
+			try {
+				stopIfDrained();
+			} catch (IOException ex) {
+				if (log.isDebugEnabled()) log.debug("Could not stop server thread", ex); //$NON-NLS-1$
+			}
+		}
+	}
+
+
+	/*
+	 * Overridden methods
+	 */
+
+	/**
+	 * The requests are timed from their dispatch until the response is written, including the wait for the request executor.
+	 */
+	@Override
+	protected void exchangeFinished(final long latency) {
+		// nothing to do
+	}
+
+	/**
+	 * Checks if the thread has no exchange in progress.
+	 * While draining, the requests in progress are answered before the connection is closed.
+	 */
+	@Override
+	protected boolean isIdle() {
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodStart());
+
+		final boolean result = super.isIdle() && 0 == pendingRequests.get();
+
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodExit(result));
+		return result;
+	}
+
+
+	/*
+	 * Implemented methods
+	 */
+
+	@Override
+	public byte[] getData() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(data));
+		return data;
+	}
+
+	/**
+	 * Reads the requests and dispatches them to the {@link MuxHandler}.
+	 * This method is called by the thread of the connection.
+	 */
+	@Override
+	public void run() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		try {
+			byte[] data;
+			while (null != (data = readStream())) {
+				this.data = data;
+				fireStreamRead();
+
+				final MuxMessage request = MuxMessage.decode(data);
+				if (MuxType.REQUEST != request.getType()) {
+					throw new IOException("Unexpected " + request.getType() + " on stream " + request.getStreamId()); //$NON-NLS-1$ //$NON-NLS-2$
+				}
+
+				final long start = System.nanoTime();
+				try {
+					pendingRequests.incrementAndGet();
+					requestExecutor.execute(new Runnable() {
+						@Override
+						public void run() {
+							handle(request, start);
+						}
+					});
+				} catch (RejectedExecutionException ex) {
+					reject(request, ex);
+				}
+			}
+		} catch (IOException ex) {
+			if (isRunning()) {
+				log.error("Could not read request", ex); //$NON-NLS-1$
+				try {
+					stop();
+				} catch (IOException e) {
+					if (log.isDebugEnabled()) log.debug("Could not stop server thread", e); //$NON-NLS-1$
+				}
+			}
+		}
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+}
@@ -0,0 +1,712 @@
+/*
+ * Copyright (c) 2007-2013 by Stefan Laubenberger.
+ *
+ * "wichtel" is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License v3.0.
+ *
+ * "wichtel" is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * See the GNU Lesser General Public License for more details:
+ * -----------------------------------------------------------
+ * http://www.gnu.org/licenses
+ *
+ *
+ * This distribution is available at:
+ * ----------------------------------
+ * https://github.com/slaubenberger/wichtel/
+ *
+ *
+ * Contact information:
+ * --------------------
+ * Stefan Laubenberger
+ * Bullingerstrasse 53
+ * CH-8004 Zuerich
+ *
+ * http://www.laubenberger.net
+ * laubenberger@gmail.com
+ */
+
+package net.laubenberger.wichtel.controller.net.server;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.laubenberger.wichtel.controller.net.codec.FrameDecoder;
+import net.laubenberger.wichtel.controller.net.codec.FrameFile;
+import net.laubenberger.wichtel.controller.net.nio.SelectorHandler;
+import net.laubenberger.wichtel.controller.net.nio.SelectorLoop;
+import net.laubenberger.wichtel.controller.net.timer.Watchdog;
+import net.laubenberger.wichtel.controller.net.ssl.SSLChannel;
+import net.laubenberger.wichtel.helper.HelperLog;
+import net.laubenberger.wichtel.misc.BufferPool;
+import net.laubenberger.wichtel.misc.exception.RuntimeExceptionIsNull;
+import net.laubenberger.wichtel.misc.exception.RuntimeExceptionMustBeGreater;
+
+
+/**
+ * Non-blocking server thread for a {@link SocketChannel} served by a {@link SelectorLoop}.
+ * <p>
+ * The instance doesn't own a {@link Thread}: the loop reads the channel, splits the data with the {@link #getCodec()} into messages and informs the listeners via {@link ListenerServerThread#serverThreadStreamRead(net.laubenberger.wichtel.misc.Event)} on the loop thread.
+ * Writes are queued and flushed by the loop, so {@link #writeStream(byte...)} never blocks.
+ * All frames queued until the loop runs are coalesced into a single gathering write, therefore the flush window and threshold are not used.
+ * The wire format is the same as in {@link ServerThreadAbstract}.
+ * <p>
+ * If more than the high water mark (see {@link #setHighWaterMark(long)}) is queued, e.g. because the peer doesn't read its responses, the loop stops reading the channel until the queue is down to the half.
+ * So a peer can't fill the memory with requests; producers not driven by requests should check {@link #getQueuedLength()} before writing.
+ * <p>
+ * With an {@link SSLEngine}, the connection is secured by an {@link SSLChannel}; its delegated tasks run on a separate {@link Executor} and the loop continues afterwards.
+ *
+ * @author Stefan Laubenberger
+ * @version 0.3.0, 2026-10-17
+ * @since 0.3.0
+ */
+public class ServerThreadNioImpl extends ServerThreadAbstract implements SelectorHandler {
+	private static final Logger log = LoggerFactory.getLogger(ServerThreadNioImpl.class);
+
+	public static final long DEFAULT_HIGH_WATER_MARK = 4L * 1024L * 1024L;
+
+	private static final int MAX_GATHER = 1024; //buffers per write, below IOV_MAX of most systems
+
+	private final Queue<Object> queue = new ConcurrentLinkedQueue<>(); //encoded frames (ByteBuffer[]) and files (FrameFile)
+	private final AtomicBoolean isClosed = new AtomicBoolean();
+	private final AtomicBoolean isFlushScheduled = new AtomicBoolean();
+	private final List<ByteBuffer> gather = new ArrayList<>(); //only used on the loop thread
+	private final AtomicLong queuedLength = new AtomicLong(); //bytes of the queued frames, without files
+
+	private final Runnable taskFlush = new Runnable() {
+		@Override
+		public void run() {
+			isFlushScheduled.set(false);
+			flush();
+		}
+	};
+
+	private final Runnable taskRelease = new Runnable() {
+		@Override
+		public void run() {
+			if (null != decoder) {
+				decoder.release();
+			}
+			if (null != ssl) {
+				ssl.close();
+			}
+		}
+	};
+
+	private final Runnable taskDrain = new Runnable() {
+		@Override
+		public void run() {
+			final SelectionKey key = ServerThreadNioImpl.this.key;
+			if (null != key && key.isValid()) {
+				key.interestOps(key.interestOps() & ~SelectionKey.OP_READ); //no new exchanges
+			}
+			try {
+				ServerThreadNioImpl.super.drain();
+			} catch (IOException ex) {
+				if (log.isDebugEnabled()) log.debug("Could not drain server thread", ex); //$NON-NLS-1$
+			}
+		}
+	};
+
+	private final Runnable taskResume = new Runnable() {
+		@Override
+		public void run() {
+			if (!isClosed.get()) {
+				ServerThreadNioImpl.this.run();
+				flush();
+			}
+		}
+	};
+
+	private final Runnable taskInterest = new Runnable() {
+		@Override
+		public void run() {
+			final SelectionKey key = ServerThreadNioImpl.this.key;
+			if (null != key && key.isValid()) {
+				if (isReadSuspended() || isWritePaused) {
+					key.interestOps(key.interestOps() & ~SelectionKey.OP_READ);
+				} else if (!isDraining()) {
+					key.interestOps(key.interestOps() | SelectionKey.OP_READ);
+					loop.execute(taskResume); //data decrypted before the suspension isn't signalled by the selector, not reentrant while the listeners run
+				}
+			}
+		}
+	};
+
+	private final SocketChannel channel;
+	private final SelectorLoop loop;
+	private final SSLChannel ssl;
+
+	private volatile SelectionKey key;
+
+	private volatile long highWaterMark = DEFAULT_HIGH_WATER_MARK;
+	private boolean isWritePaused; //reading paused by the high water mark, only used on the loop thread
+
+	private final List<byte[]> frames = new ArrayList<>(); //only used on the loop thread
+	private FrameDecoder decoder;
+	private volatile byte[] data;
+
+	public ServerThreadNioImpl(final SocketChannel channel, final SelectorLoop loop) {
+		super(channel.socket());
+		if (log.isTraceEnabled()) log.trace(HelperLog.constructor(channel, loop));
+
+		if (null == loop) {
+			throw new RuntimeExceptionIsNull("loop"); //$NON-NLS-1$
+		}
+
+		this.channel = channel;
+		this.loop = loop;
+		ssl = null;
+	}
+
+	public ServerThreadNioImpl(final SocketChannel channel, final SelectorLoop loop, final SSLEngine engine, final Executor executor) throws SSLException {
+		super(channel.socket());
+		if (log.isTraceEnabled()) log.trace(HelperLog.constructor(channel, loop, engine, executor));
+
+		if (null == loop) {
+			throw new RuntimeExceptionIsNull("loop"); //$NON-NLS-1$
+		}
+
+		this.channel = channel;
+		this.loop = loop;
+		ssl = new SSLChannel(channel, engine, executor, new Runnable() {
+			@Override
+			public void run() {
+				loop.execute(taskResume);
+			}
+		});
+	}
+
+	/**
+	 * Returns the {@link SocketChannel} of the thread.
+	 *
+	 * @return {@link SocketChannel}
+	 * @see SocketChannel
+	 * @since 0.3.0
+	 */
+	public SocketChannel getChannel() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(channel));
+		return channel;
+	}
+
+	/**
+	 * Returns the {@link SelectorLoop} serving the thread.
+	 *
+	 * @return {@link SelectorLoop}
+	 * @see SelectorLoop
+	 * @since 0.3.0
+	 */
+	public SelectorLoop getLoop() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(loop));
+		return loop;
+	}
+
+	/**
+	 * Returns the {@link SSLChannel} of the thread.
+	 *
+	 * @return {@link SSLChannel} or null if the connection isn't secured
+	 * @see SSLChannel
+	 * @since 0.3.0
+	 */
+	public SSLChannel getSSLChannel() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(ssl));
+		return ssl;
+	}
+
+
+	/**
+	 * Returns the high water mark of the write queue.
+	 *
+	 * @return high water mark in bytes
+	 * @since 0.3.0
+	 */
+	public long getHighWaterMark() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(highWaterMark));
+		return highWaterMark;
+	}
+
+	/**
+	 * Sets the high water mark of the write queue (default: {@link #DEFAULT_HIGH_WATER_MARK}).
+	 * Above this size, the loop stops reading the channel until half of the queued bytes are written.
+	 *
+	 * @param highWaterMark in bytes
+	 * @since 0.3.0
+	 */
+	public void setHighWaterMark(final long highWaterMark) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(highWaterMark));
+		if (0L >= highWaterMark) {
+			throw new RuntimeExceptionMustBeGreater("highWaterMark", highWaterMark, 0); //$NON-NLS-1$
+		}
+
+		this.highWaterMark = highWaterMark;
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	/**
+	 * Returns the number of bytes of the queued messages; ranges of files aren't counted.
+	 *
+	 * @return number of queued bytes
+	 * @since 0.3.0
+	 */
+	public long getQueuedLength() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		final long result = queuedLength.get();
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(result));
+		return result;
+	}
+
+
+	/*
+	 * Private methods
+	 */
+
+	private void flush() {
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodStart());
+
+		final SelectionKey key = this.key;
+
+		if (null != key && key.isValid()) {
+			try {
+				final GatheringByteChannel output = null == ssl ? channel : ssl;
+
+				boolean isWritten = true;
+				while (isWritten && !queue.isEmpty()) {
+					final Object head = queue.peek();
+
+					if (head instanceof FrameFile) { //transferred directly from the file, continued on the next OP_WRITE
+						final FrameFile file = (FrameFile) head;
+						isWritten = file.write(output);
+						if (isWritten) {
+							queue.poll();
+							close(file);
+						}
+					} else {
+						gather.clear();
+						for (final Object element : queue) {
+							if (element instanceof FrameFile) {
+								break;
+							}
+							final ByteBuffer[] buffers = (ByteBuffer[]) element;
+							if (MAX_GATHER < gather.size() + buffers.length && !gather.isEmpty()) {
+								break;
+							}
+							for (final ByteBuffer buffer : buffers) {
+								gather.add(buffer);
+							}
+						}
+
+						queuedLength.addAndGet(-output.write(gather.toArray(new ByteBuffer[gather.size()])));
+
+						Object element;
+						while ((element = queue.peek()) instanceof ByteBuffer[] && isWritten((ByteBuffer[]) element)) {
+							queue.poll();
+						}
+						isWritten = !gather.get(gather.size() - 1).hasRemaining(); //otherwise the socket buffer is full or a handshake is in progress
+					}
+				}
+				gather.clear();
+
+				final boolean isPending = null == ssl ? !queue.isEmpty() : !ssl.flush();
+				if (key.isValid()) {
+					key.interestOps(isPending ? key.interestOps() | SelectionKey.OP_WRITE : key.interestOps() & ~SelectionKey.OP_WRITE);
+					checkHighWaterMark();
+				}
+				if (!isPending) {
+					stopIfDrained();
+				}
+			} catch (IOException ex) {
+				if (log.isDebugEnabled()) log.debug("Could not write to channel", ex); //$NON-NLS-1$
+				close();
+			}
+		}
+
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodExit());
+	}
+
+	private void checkHighWaterMark() {
+		final long length = queuedLength.get();
+
+		if (!isWritePaused && highWaterMark < length) {
+			if (log.isDebugEnabled()) log.debug("Reading paused, " + length + " bytes queued"); //$NON-NLS-1$ //$NON-NLS-2$
+			isWritePaused = true;
+			taskInterest.run();
+		} else if (isWritePaused && highWaterMark / 2L >= length) {
+			isWritePaused = false;
+			taskInterest.run();
+		}
+	}
+
+	private static long getLength(final ByteBuffer... buffers) {
+		long result = 0L;
+		for (final ByteBuffer buffer : buffers) {
+			result += buffer.remaining();
+		}
+		return result;
+	}
+
+	private static boolean isWritten(final ByteBuffer... buffers) {
+		for (final ByteBuffer buffer : buffers) {
+			if (buffer.hasRemaining()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private void close(final FrameFile file) {
+		getMetrics().recordWrite(file.getBytesWritten(), file.getFrames());
+		try {
+			file.close();
+		} catch (IOException ex) {
+			if (log.isDebugEnabled()) log.debug("Could not close file", ex); //$NON-NLS-1$
+		}
+	}
+
+	private void close() {
+		if (isClosed.compareAndSet(false, true)) {
+			fireStopped();
+
+			if (null != ssl && loop.isInLoop()) {
+				ssl.close(); //send close_notify before the channel is closed
+			}
+
+			final SelectionKey key = this.key;
+			if (null == key) {
+				try {
+					channel.close();
+				} catch (IOException ex) {
+					if (log.isDebugEnabled()) log.debug("Could not close channel", ex); //$NON-NLS-1$
+				}
+			} else {
+				loop.close(key);
+			}
+
+			Object element;
+			while (null != (element = queue.poll())) {
+				if (element instanceof FrameFile) {
+					close((FrameFile) element);
+				}
+			}
+			queuedLength.set(0L);
+
+			if (null != decoder || null != ssl) {
+				if (loop.isInLoop()) {
+					taskRelease.run();
+				} else {
+					loop.execute(taskRelease);
+				}
+			}
+		}
+	}
+
+
+	/*
+	 * Overridden methods
+	 */
+
+	@Override
+	public byte[] getData() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(data));
+		return data;
+	}
+
+	/**
+	 * Returns the last received message.
+	 * The channel is read by the {@link SelectorLoop}, so this method never blocks.
+	 *
+	 * @return last received message
+	 * @since 0.3.0
+	 */
+	@Override
+	public byte[] readStream() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(data));
+		return data;
+	}
+
+	/**
+	 * Queues a message, it is written by the {@link SelectorLoop} as soon as the channel is writable, so this method never blocks.
+	 * <strong>Note:</strong> The frame wraps the array without copying it, so it must not be changed after this call.
+	 *
+	 * @param data message to send
+	 * @since 0.3.0
+	 */
+	@Override
+	public void writeStream(final byte... data) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(data));
+		if (null == data) {
+			throw new RuntimeExceptionIsNull("data"); //$NON-NLS-1$
+		}
+
+		final ByteBuffer[] frame = getCodec().encode(data);
+		getMetrics().recordWrite(frame);
+		if (Watchdog.HEARTBEAT != data) {
+			getWatchdog().written();
+		}
+		queuedLength.addAndGet(getLength(frame));
+		queue.add(frame);
+
+		if (loop.isInLoop()) {
+			flush();
+		} else if (isFlushScheduled.compareAndSet(false, true)) {
+			loop.execute(taskFlush);
+		}
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	/**
+	 * Queues a range of a file, it is transferred by the {@link SelectorLoop} whenever the channel is writable, so this method never blocks.
+	 * Messages queued afterwards are sent after the whole range.
+	 *
+	 * @param file   to send
+	 * @param offset of the range in bytes
+	 * @param length of the range in bytes
+	 * @throws IOException
+	 * @since 0.3.0
+	 */
+	@Override
+	public void sendFile(final File file, final long offset, final long length) throws IOException {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(file, offset, length));
+
+		queue.add(new FrameFile(getCodec(), file, offset, length));
+		getWatchdog().written();
+
+		if (loop.isInLoop()) {
+			flush();
+		} else if (isFlushScheduled.compareAndSet(false, true)) {
+			loop.execute(taskFlush);
+		}
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	@Override
+	public void start() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		decoder = new FrameDecoder(getCodec(), BufferPool.DIRECT);
+		fireStarted();
+
+		try {
+			loop.register(channel, SelectionKey.OP_READ, this);
+		} catch (IOException ex) {
+			log.error("Could not register channel", ex); //$NON-NLS-1$
+			close();
+		}
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	/**
+	 * Starts the server thread on its {@link SelectorLoop}, the {@link Executor} isn't used.
+	 *
+	 * @param executor ignored
+	 * @since 0.3.0
+	 */
+	@Override
+	public void start(final Executor executor) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(executor));
+
+		start();
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	@Override
+	public void stop() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		close();
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	/**
+	 * Drains the thread on its {@link SelectorLoop}: no more messages are read and the connection is closed as soon as the queued messages are written.
+	 * Messages are handled on the loop thread, so an exchange is finished when its response is written.
+	 *
+	 * @since 0.3.0
+	 */
+	@Override
+	public void drain() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (loop.isInLoop()) {
+			taskDrain.run();
+		} else {
+			loop.execute(taskDrain);
+		}
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	/**
+	 * Suspends or resumes reading on the {@link SelectorLoop} by changing the interest in {@link SelectionKey#OP_READ}.
+	 * Messages already read from the channel are still delivered; a draining thread isn't resumed.
+	 *
+	 * @param isReadSuspended true/false
+	 * @since 0.3.0
+	 */
+	@Override
+	public void setReadSuspended(final boolean isReadSuspended) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(isReadSuspended));
+
+		super.setReadSuspended(isReadSuspended);
+
+		if (loop.isInLoop()) {
+			taskInterest.run();
+		} else {
+			loop.execute(taskInterest);
+		}
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	/**
+	 * Checks if all queued messages are written.
+	 * This method is called on the {@link SelectorLoop}.
+	 */
+	@Override
+	protected boolean isIdle() {
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodStart());
+
+		final boolean result = queue.isEmpty() && (null == ssl || !ssl.hasPendingOutput());
+
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodExit(result));
+		return result;
+	}
+
+
+	/*
+	 * Implemented methods
+	 */
+
+	/**
+	 * Reads the available data from the channel and informs the listeners about every complete message.
+	 * This method is called by the {@link SelectorLoop}.
+	 */
+	@Override
+	public void run() {
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodStart());
+
+		try {
+			final ReadableByteChannel input = null == ssl ? channel : ssl;
+
+			int read;
+			do {
+				read = decoder.read(input, loop.getBuffer(), frames);
+				getMetrics().recordRead(Math.max(0, read), frames.size());
+
+				for (final byte[] frame : frames) {
+					getWatchdog().readFinished();
+					if (isHeartbeat(frame)) {
+						continue;
+					}
+					data = frame;
+					final long start = System.nanoTime();
+					fireStreamRead();
+					getMetrics().recordExchange(System.nanoTime() - start); //the listeners handle the message on the loop
+				}
+				frames.clear();
+
+				if (0 < decoder.getPendingLength()) {
+					getWatchdog().readStarted(); //the read timeout begins with the first byte of a message
+				}
+			} while (null != ssl && 0 <= read && ssl.hasPendingInput() && !isReadSuspended() && !isWritePaused); //decrypted data isn't signalled by the selector
+
+			if (-1 == read) { //client lost
+				close();
+			} else if (null != ssl) {
+				flush(); //handshake messages and messages queued during the handshake
+			}
+		} catch (IOException ex) {
+			frames.clear();
+			if (log.isDebugEnabled()) log.debug("Could not read from channel", ex); //$NON-NLS-1$
+			close();
+		}
+
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodExit());
+	}
+
+	@Override
+	public void registered(final SelectionKey key) {
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodStart(key));
+
+		this.key = key;
+		getMetrics().recordStart(getMetrics().getAge());
+
+		if (isClosed.get()) {
+			loop.close(key);
+		} else {
+			if (isReadSuspended()) {
+				key.interestOps(key.interestOps() & ~SelectionKey.OP_READ);
+			}
+			if (null != ssl || !queue.isEmpty()) {
+				flush();
+			}
+		}
+
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodExit());
+	}
+
+	@Override
+	public void selected(final SelectionKey key) {
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodStart(key));
+
+		if (key.isReadable()) {
+			run();
+		}
+		if (key.isValid() && key.isWritable()) {
+			flush();
+		}
+
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodExit());
+	}
+
+	/**
+	 * Stops the connection if the loop closes the channel, e.g. after a listener has thrown an exception.
+	 */
+	@Override
+	public void closed(final SelectionKey key) {
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodStart(key));
+
+		close();
+
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodExit());
+	}
+}
@@ -0,0 +1,527 @@
+/*
+ * Copyright (c) 2007-2013 by Stefan Laubenberger.
+ *
+ * "wichtel" is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License v3.0.
+ *
+ * "wichtel" is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * See the GNU Lesser General Public License for more details:
+ * -----------------------------------------------------------
+ * http://www.gnu.org/licenses
+ *
+ *
+ * This distribution is available at:
+ * ----------------------------------
+ * https://github.com/slaubenberger/wichtel/
+ *
+ *
+ * Contact information:
+ * --------------------
+ * Stefan Laubenberger
+ * Bullingerstrasse 53
+ * CH-8004 Zuerich
+ *
+ * http://www.laubenberger.net
+ * laubenberger@gmail.com
+ */
+
+package net.laubenberger.wichtel.controller.net.ssl;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ByteChannel;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLEngineResult;
+import javax.net.ssl.SSLEngineResult.HandshakeStatus;
+import javax.net.ssl.SSLException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.laubenberger.wichtel.helper.HelperLog;
+import net.laubenberger.wichtel.helper.HelperThread;
+import net.laubenberger.wichtel.misc.BufferPool;
+import net.laubenberger.wichtel.misc.exception.RuntimeExceptionIsNull;
+import net.laubenberger.wichtel.misc.extendedObject.ExtendedObjectAbstract;
+
+
+/**
+ * Non-blocking TLS transport over a {@link SocketChannel} with an {@link SSLEngine}.
+ * <p>
+ * Reads unwrap the network data into application data and writes wrap the application data into TLS records; the handshake is driven by both.
+ * The network and application buffers are taken from a {@link BufferPool} and released on {@link #close()}.
+ * Delegated tasks of the engine (e.g. certificate validation) run on a separate {@link Executor}, so the handshake doesn't stall the I/O thread.
+ * After the tasks are done, the resume callback is called on the executor thread and the owner must continue reading and writing.
+ * <p>
+ * The channel isn't thread-safe, all methods must be called on the same thread (e.g. the thread of a {@link net.laubenberger.wichtel.controller.net.nio.SelectorLoop}).
+ *
+ * @author Stefan Laubenberger
+ * @version 0.3.0, 2026-10-17
+ * @since 0.3.0
+ */
+public class SSLChannel extends ExtendedObjectAbstract implements ByteChannel, GatheringByteChannel {
+	private static final Logger log = LoggerFactory.getLogger(SSLChannel.class);
+
+	public static final int DEFAULT_BUFFER_SIZE = 17 * 1024; //max. TLS record with header
+
+	/**
+	 * Shared pool with direct buffers for TLS records.
+	 */
+	public static final BufferPool POOL = new BufferPool(DEFAULT_BUFFER_SIZE, BufferPool.DEFAULT_MAX_BUFFERS, true);
+
+	/**
+	 * Shared executor for the delegated tasks of the engines.
+	 */
+	public static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(HelperThread.createThreadFactory(SSLChannel.class.getSimpleName(), true));
+
+	private static final ByteBuffer[] EMPTY = {ByteBuffer.allocate(0)};
+
+	private final AtomicBoolean isTaskRunning = new AtomicBoolean();
+
+	private final Runnable taskDelegated = new Runnable() {
+		@Override
+		public void run() {
+			try {
+				Runnable task;
+				while (null != (task = engine.getDelegatedTask())) {
+					task.run();
+				}
+			} finally {
+				isTaskRunning.set(false);
+				if (null != resume) {
+					resume.run();
+				}
+			}
+		}
+	};
+
+	private final SocketChannel channel;
+	private final SSLEngine engine;
+	private final Executor executor;
+	private final Runnable resume;
+
+	private ByteBuffer netIn;  //write mode
+	private ByteBuffer netOut; //read mode, contains the pending TLS records
+	private ByteBuffer appIn;  //read mode, contains the pending application data
+
+	private boolean isInboundDone;
+	private boolean isClosed;
+
+	public SSLChannel(final SocketChannel channel, final SSLEngine engine, final Executor executor, final Runnable resume) throws SSLException {
+		super();
+		if (log.isTraceEnabled()) log.trace(HelperLog.constructor(channel, engine, executor, resume));
+
+		if (null == channel) {
+			throw new RuntimeExceptionIsNull("channel"); //$NON-NLS-1$
+		}
+		if (null == engine) {
+			throw new RuntimeExceptionIsNull("engine"); //$NON-NLS-1$
+		}
+		if (null == executor) {
+			throw new RuntimeExceptionIsNull("executor"); //$NON-NLS-1$
+		}
+
+		this.channel = channel;
+		this.engine = engine;
+		this.executor = executor;
+		this.resume = resume;
+
+		final int packetSize = engine.getSession().getPacketBufferSize();
+		netIn = POOL.acquire(packetSize);
+		netOut = POOL.acquire(packetSize);
+		netOut.flip();
+		appIn = POOL.acquire(engine.getSession().getApplicationBufferSize());
+		appIn.flip();
+
+		engine.beginHandshake();
+	}
+
+	public SSLChannel(final SocketChannel channel, final SSLEngine engine) throws SSLException {
+		this(channel, engine, EXECUTOR, null);
+		if (log.isTraceEnabled()) log.trace(HelperLog.constructor(channel, engine));
+	}
+
+	/**
+	 * Returns the {@link SocketChannel} of the transport.
+	 *
+	 * @return {@link SocketChannel}
+	 * @see SocketChannel
+	 * @since 0.3.0
+	 */
+	public SocketChannel getChannel() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(channel));
+		return channel;
+	}
+
+	/**
+	 * Returns the {@link SSLEngine} of the transport.
+	 *
+	 * @return {@link SSLEngine}
+	 * @see SSLEngine
+	 * @since 0.3.0
+	 */
+	public SSLEngine getEngine() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(engine));
+		return engine;
+	}
+
+	/**
+	 * Checks if the handshake is still in progress.
+	 *
+	 * @return true/false
+	 * @since 0.3.0
+	 */
+	public boolean isHandshaking() {
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodStart());
+
+		final HandshakeStatus status = engine.getHandshakeStatus();
+		final boolean result = HandshakeStatus.NOT_HANDSHAKING != status && HandshakeStatus.FINISHED != status;
+
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodExit(result));
+		return result;
+	}
+
+	/**
+	 * Checks if TLS records are waiting to be written to the {@link SocketChannel}.
+	 * The owner must wait until the channel is writable and call {@link #flush()}.
+	 *
+	 * @return true/false
+	 * @since 0.3.0
+	 */
+	public boolean hasPendingOutput() {
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodStart());
+
+		final boolean result = netOut.hasRemaining();
+
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodExit(result));
+		return result;
+	}
+
+	/**
+	 * Checks if decrypted application data is waiting to be read.
+	 * The data won't be signalled by the selector again, so the owner must call {@link #read(ByteBuffer)} until this method returns false.
+	 *
+	 * @return true/false
+	 * @since 0.3.0
+	 */
+	public boolean hasPendingInput() {
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodStart());
+
+		final boolean result = appIn.hasRemaining();
+
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodExit(result));
+		return result;
+	}
+
+	/**
+	 * Writes the pending TLS records and continues the handshake.
+	 *
+	 * @return true if no TLS records are pending
+	 * @throws IOException
+	 * @since 0.3.0
+	 */
+	public boolean flush() throws IOException {
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodStart());
+
+		if (isHandshaking()) {
+			process();
+		}
+		final boolean result = write();
+
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodExit(result));
+		return result;
+	}
+
+
+	/*
+	 * Private methods
+	 */
+
+	private boolean write() throws IOException {
+		if (netOut.hasRemaining()) {
+			channel.write(netOut);
+		}
+		return !netOut.hasRemaining();
+	}
+
+	private int transfer(final ByteBuffer dst) {
+		final int length = Math.min(appIn.remaining(), dst.remaining());
+
+		if (0 < length) {
+			final int limit = appIn.limit();
+			appIn.limit(appIn.position() + length);
+			dst.put(appIn);
+			appIn.limit(limit);
+		}
+		return length;
+	}
+
+	private void process() throws IOException {
+		boolean isProgress = true;
+
+		while (isProgress && !isTaskRunning.get()) {
+			switch (engine.getHandshakeStatus()) {
+				case NEED_TASK:
+					isTaskRunning.set(true);
+					executor.execute(taskDelegated);
+					isProgress = false;
+					break;
+				case NEED_WRAP:
+					isProgress = wrap(EMPTY, 0, 1);
+					break;
+				default:
+					isProgress = !isInboundDone && unwrap();
+			}
+		}
+	}
+
+	private static long getRemaining(final ByteBuffer[] buffers, final int offset, final int length) {
+		long result = 0L;
+		for (int ii = offset; offset + length > ii; ii++) {
+			result += buffers[ii].remaining();
+		}
+		return result;
+	}
+
+	private boolean wrap(final ByteBuffer[] srcs, final int offset, final int length) throws IOException {
+		if (!write()) {
+			return false;
+		}
+
+		netOut.compact();
+		final SSLEngineResult result;
+		try {
+			result = engine.wrap(srcs, offset, length, netOut);
+		} finally {
+			netOut.flip();
+		}
+
+		switch (result.getStatus()) {
+			case BUFFER_OVERFLOW: {
+				final ByteBuffer buffer = enlarge(netOut, engine.getSession().getPacketBufferSize(), true);
+				final boolean isEnlarged = buffer != netOut;
+				netOut = buffer;
+				return isEnlarged;
+			}
+			case CLOSED:
+				write();
+				if (0 == result.bytesProduced()) {
+					throw new ClosedChannelException();
+				}
+				return false;
+			default:
+				return write() && (0 < result.bytesConsumed() || 0 < result.bytesProduced());
+		}
+	}
+
+	private boolean unwrap() throws IOException {
+		netIn.flip();
+		appIn.compact();
+		final SSLEngineResult result;
+		try {
+			result = engine.unwrap(netIn, appIn);
+		} finally {
+			appIn.flip();
+			netIn.compact();
+		}
+
+		switch (result.getStatus()) {
+			case BUFFER_UNDERFLOW:
+				netIn = enlarge(netIn, engine.getSession().getPacketBufferSize(), false);
+				return false;
+			case BUFFER_OVERFLOW: {
+				if (appIn.hasRemaining()) {
+					return false; //the owner has to read the pending data first
+				}
+				final ByteBuffer buffer = enlarge(appIn, engine.getSession().getApplicationBufferSize(), true);
+				final boolean isEnlarged = buffer != appIn;
+				appIn = buffer;
+				return isEnlarged;
+			}
+			case CLOSED:
+				isInboundDone = true;
+				return HandshakeStatus.NEED_WRAP == engine.getHandshakeStatus(); //answer with close_notify
+			default:
+				return 0 < result.bytesConsumed() || 0 < result.bytesProduced() || HandshakeStatus.NEED_UNWRAP != result.getHandshakeStatus();
+		}
+	}
+
+	private static ByteBuffer enlarge(final ByteBuffer buffer, final int capacity, final boolean isReadMode) {
+		if (buffer.capacity() >= capacity) {
+			return buffer;
+		}
+
+		final ByteBuffer result = POOL.acquire(capacity);
+		if (isReadMode) {
+			result.put(buffer);
+			result.flip();
+		} else {
+			buffer.flip();
+			result.put(buffer);
+		}
+		POOL.release(buffer);
+		return result;
+	}
+
+
+	/*
+	 * Implemented methods
+	 */
+
+	/**
+	 * Reads the available network data and returns the decrypted application data.
+	 *
+	 * @param dst buffer for the application data
+	 * @return number of bytes read, possibly 0 (e.g. during the handshake) or -1 if the peer closed the connection
+	 * @throws IOException
+	 * @since 0.3.0
+	 */
+	@Override
+	public int read(final ByteBuffer dst) throws IOException {
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodStart(dst));
+		if (null == dst) {
+			throw new RuntimeExceptionIsNull("dst"); //$NON-NLS-1$
+		}
+		if (isClosed) {
+			throw new ClosedChannelException();
+		}
+
+		int result = transfer(dst);
+
+		if (dst.hasRemaining() && !isInboundDone) {
+			final int read = channel.read(netIn);
+			process();
+			write();
+			result += transfer(dst);
+
+			if (-1 == read && 0 == result && !isInboundDone) {
+				isInboundDone = true;
+				try {
+					engine.closeInbound();
+				} catch (SSLException ex) {
+					if (log.isDebugEnabled()) log.debug("Connection closed without close_notify", ex); //$NON-NLS-1$
+				}
+			}
+		}
+
+		if (0 == result && isInboundDone && !appIn.hasRemaining()) {
+			result = -1;
+		}
+
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodExit(result));
+		return result;
+	}
+
+	@Override
+	public int write(final ByteBuffer src) throws IOException {
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodStart(src));
+
+		final int result = (int) write(new ByteBuffer[]{src}, 0, 1);
+
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodExit(result));
+		return result;
+	}
+
+	@Override
+	public long write(final ByteBuffer[] srcs) throws IOException {
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodStart(srcs));
+
+		final long result = write(srcs, 0, srcs.length);
+
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodExit(result));
+		return result;
+	}
+
+	/**
+	 * Encrypts and writes application data.
+	 * Nothing is written while the handshake is in progress or TLS records are pending (see {@link #hasPendingOutput()}).
+	 *
+	 * @param srcs   buffers with the application data
+	 * @param offset of the first buffer
+	 * @param length number of buffers
+	 * @return number of bytes consumed from the buffers
+	 * @throws IOException
+	 * @since 0.3.0
+	 */
+	@Override
+	public long write(final ByteBuffer[] srcs, final int offset, final int length) throws IOException {
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodStart(srcs, offset, length));
+		if (null == srcs) {
+			throw new RuntimeExceptionIsNull("srcs"); //$NON-NLS-1$
+		}
+		if (isClosed) {
+			throw new ClosedChannelException();
+		}
+
+		long result = 0L;
+
+		if (!flush() || isHandshaking()) {
+			if (log.isTraceEnabled()) log.trace(HelperLog.methodExit(result));
+			return result;
+		}
+
+		final long remaining = getRemaining(srcs, offset, length);
+		while (0L < getRemaining(srcs, offset, length) && wrap(srcs, offset, length)) {
+			//wrap as long as the records can be written
+		}
+		result = remaining - getRemaining(srcs, offset, length);
+
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodExit(result));
+		return result;
+	}
+
+	@Override
+	public boolean isOpen() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		final boolean result = !isClosed && channel.isOpen();
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(result));
+		return result;
+	}
+
+	/**
+	 * Sends a close_notify (if possible without blocking) and releases the buffers.
+	 * The {@link SocketChannel} isn't closed by this method.
+	 *
+	 * @since 0.3.0
+	 */
+	@Override
+	public void close() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (!isClosed) {
+			isClosed = true;
+
+			engine.closeOutbound();
+			try {
+				if (channel.isOpen() && !isTaskRunning.get()) {
+					wrap(EMPTY, 0, 1);
+				}
+			} catch (IOException ex) {
+				if (log.isDebugEnabled()) log.debug("Could not send close_notify", ex); //$NON-NLS-1$
+			}
+
+			POOL.release(netIn);
+			POOL.release(netOut);
+			POOL.release(appIn);
+		}
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+}
@@ -0,0 +1,837 @@
+/*
+ * Copyright (c) 2007-2013 by Stefan Laubenberger.
+ *
+ * "wichtel" is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License v3.0.
+ *
+ * "wichtel" is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * See the GNU Lesser General Public License for more details:
+ * -----------------------------------------------------------
+ * http://www.gnu.org/licenses
+ *
+ *
+ * This distribution is available at:
+ * ----------------------------------
+ * https://github.com/slaubenberger/wichtel/
+ *
+ *
+ * Contact information:
+ * --------------------
+ * Stefan Laubenberger
+ * Bullingerstrasse 53
+ * CH-8004 Zuerich
+ *
+ * http://www.laubenberger.net
+ * laubenberger@gmail.com
+ */
+
+package net.laubenberger.wichtel.controller.net.ssl;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyStore;
+import java.security.PrivateKey;
+import java.security.SecureRandom;
+import java.security.cert.CertificateException;
+import java.security.cert.X509Certificate;
+import java.util.Arrays;
+import java.util.Date;
+
+import javax.net.ssl.KeyManager;
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLParameters;
+import javax.net.ssl.SSLServerSocket;
+import javax.net.ssl.SSLServerSocketFactory;
+import javax.net.ssl.SSLSessionContext;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.SSLSocketFactory;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.TrustManagerFactory;
+import javax.net.ssl.X509ExtendedTrustManager;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.laubenberger.wichtel.helper.HelperArray;
+import net.laubenberger.wichtel.helper.HelperLog;
+import net.laubenberger.wichtel.misc.exception.RuntimeExceptionIsEmpty;
+import net.laubenberger.wichtel.misc.exception.RuntimeExceptionIsNull;
+import net.laubenberger.wichtel.misc.exception.RuntimeExceptionMustBeGreater;
+import net.laubenberger.wichtel.misc.extendedObject.ExtendedObjectAbstract;
+import net.laubenberger.wichtel.service.crypto.CertificateProvider;
+
+
+/**
+ * Configuration of an {@link SSLContext} for the SSL servers and clients.
+ * <p>
+ * The key material can be generated or read with a {@link CertificateProvider}.
+ * The {@link SSLContext} is created once and shared by all sockets and engines of the configuration, so its session cache allows abbreviated handshakes on reconnects.
+ * The socket factories apply the protocols, cipher suites and ALPN protocols to every created socket.
+ * <p>
+ * Stateless session tickets (RFC 5077) are a setting of the JDK for the whole VM and not of the configuration.
+ * Applications control them with the system properties "jdk.tls.server.enableSessionTicketExtension" and "jdk.tls.client.enableSessionTicketExtension" (JDK 13 and newer), which have to be set before the first TLS connection (e.g. on the command line).
+ *
+ * @author Stefan Laubenberger
+ * @version 0.3.0, 2026-10-17
+ * @since 0.3.0
+ */
+public class SSLConfig extends ExtendedObjectAbstract {
+	private static final Logger log = LoggerFactory.getLogger(SSLConfig.class);
+
+	public static final String PROTOCOL_TLS13 = "TLSv1.3"; //$NON-NLS-1$
+	public static final String PROTOCOL_TLS12 = "TLSv1.2"; //$NON-NLS-1$
+
+	public static final int DEFAULT_SESSION_CACHE_SIZE = 20480;
+	public static final int DEFAULT_SESSION_TIMEOUT = 86400; //24h
+
+	private static final String ALIAS = "wichtel"; //$NON-NLS-1$
+
+	private KeyManager[] keyManagers;
+	private TrustManager[] trustManagers;
+	private String[] protocols;
+	private String[] cipherSuites;
+	private String[] applicationProtocols;
+
+	private int sessionCacheSize = DEFAULT_SESSION_CACHE_SIZE;
+	private int sessionTimeout = DEFAULT_SESSION_TIMEOUT;
+	private boolean isNeedClientAuth;
+
+	private SSLContext context;
+
+	public SSLConfig() {
+		super();
+		if (log.isTraceEnabled()) log.trace(HelperLog.constructor());
+	}
+
+	/**
+	 * Sets the key material of the server (or client for client authentication).
+	 *
+	 * @param key   private key
+	 * @param chain certificate chain, starting with the certificate of the key
+	 * @throws GeneralSecurityException
+	 * @throws IOException
+	 * @see PrivateKey
+	 * @see X509Certificate
+	 * @since 0.3.0
+	 */
+	public synchronized void setKeyMaterial(final PrivateKey key, final X509Certificate... chain) throws GeneralSecurityException, IOException {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(key, chain));
+		if (null == key) {
+			throw new RuntimeExceptionIsNull("key"); //$NON-NLS-1$
+		}
+		if (null == chain) {
+			throw new RuntimeExceptionIsNull("chain"); //$NON-NLS-1$
+		}
+		if (!HelperArray.isValid(chain)) {
+			throw new RuntimeExceptionIsEmpty("chain"); //$NON-NLS-1$
+		}
+
+		final char[] password = Long.toHexString(new SecureRandom().nextLong()).toCharArray(); //only used in memory
+		final KeyStore keyStore = createKeyStore();
+		keyStore.setKeyEntry(ALIAS, key, password, chain);
+
+		setKeyStore(keyStore, password);
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	/**
+	 * Generates a self-signed certificate for a {@link KeyPair} with the {@link CertificateProvider} and uses it as key material.
+	 *
+	 * @param provider    {@link CertificateProvider} for the certificate
+	 * @param pair        {@link KeyPair} of the server
+	 * @param dn          of the certificate (e.g. "CN=localhost")
+	 * @param generalName of the certificate owner (e.g. yourmail@gmail.com)
+	 * @param start       date of the certificate
+	 * @param end         date of the certificate
+	 * @return generated {@link X509Certificate} (e.g. for the trust store of the clients)
+	 * @throws Exception
+	 * @see CertificateProvider#generateCertificate(KeyPair, String, String, String, Date, Date)
+	 * @since 0.3.0
+	 */
+	public X509Certificate setKeyMaterial(final CertificateProvider provider, final KeyPair pair, final String dn, final String generalName, final Date start, final Date end) throws Exception {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(provider, pair, dn, generalName, start, end));
+		if (null == provider) {
+			throw new RuntimeExceptionIsNull("provider"); //$NON-NLS-1$
+		}
+		if (null == pair) {
+			throw new RuntimeExceptionIsNull("pair"); //$NON-NLS-1$
+		}
+
+		final X509Certificate result = provider.generateCertificate(pair, dn, dn, generalName, start, end);
+		setKeyMaterial(pair.getPrivate(), result);
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(result));
+		return result;
+	}
+
+	/**
+	 * Sets the key material from a {@link KeyStore}.
+	 *
+	 * @param keyStore containing the keys
+	 * @param password of the keys
+	 * @throws GeneralSecurityException
+	 * @see KeyStore
+	 * @since 0.3.0
+	 */
+	public synchronized void setKeyStore(final KeyStore keyStore, final char... password) throws GeneralSecurityException {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(keyStore, password));
+		if (null == keyStore) {
+			throw new RuntimeExceptionIsNull("keyStore"); //$NON-NLS-1$
+		}
+
+		final KeyManagerFactory factory = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+		factory.init(keyStore, password);
+
+		setKeyManagers(factory.getKeyManagers());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	/**
+	 * Sets the {@link KeyManager}s (default: none, e.g. for clients without authentication).
+	 *
+	 * @param keyManagers for the {@link SSLContext}
+	 * @see KeyManager
+	 * @since 0.3.0
+	 */
+	public synchronized void setKeyManagers(final KeyManager... keyManagers) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(keyManagers));
+
+		this.keyManagers = keyManagers;
+		context = null;
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	/**
+	 * Sets the trusted certificates (e.g. self-signed server certificates).
+	 * A peer presenting exactly one of these certificates is trusted, even if it isn't a CA certificate like the ones generated by {@link CertificateProvider#generateCertificate(KeyPair, String, String, String, Date, Date)}.
+	 *
+	 * @param certificates to trust
+	 * @throws GeneralSecurityException
+	 * @throws IOException
+	 * @see X509Certificate
+	 * @since 0.3.0
+	 */
+	public synchronized void setTrustedCertificates(final X509Certificate... certificates) throws GeneralSecurityException, IOException {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(certificates));
+		if (null == certificates) {
+			throw new RuntimeExceptionIsNull("certificates"); //$NON-NLS-1$
+		}
+		if (!HelperArray.isValid(certificates)) {
+			throw new RuntimeExceptionIsEmpty("certificates"); //$NON-NLS-1$
+		}
+
+		final KeyStore keyStore = createKeyStore();
+		for (int ii = 0; certificates.length > ii; ii++) {
+			keyStore.setCertificateEntry(ALIAS + ii, certificates[ii]);
+		}
+
+		final TrustManagerFactory factory = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+		factory.init(keyStore);
+
+		X509ExtendedTrustManager trustManager = null;
+		for (final TrustManager tm : factory.getTrustManagers()) {
+			if (tm instanceof X509ExtendedTrustManager) {
+				trustManager = (X509ExtendedTrustManager) tm;
+				break;
+			}
+		}
+
+		setTrustManagers(null == trustManager ? factory.getTrustManagers() : new TrustManager[]{new TrustManagerPinned(trustManager, certificates.clone())});
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	/**
+	 * Reads the trusted certificates with the {@link CertificateProvider}.
+	 *
+	 * @param provider {@link CertificateProvider} to read the certificates
+	 * @param files    containing the certificates
+	 * @throws Exception
+	 * @see CertificateProvider#readCertificate(File)
+	 * @since 0.3.0
+	 */
+	public void setTrustedCertificates(final CertificateProvider provider, final File... files) throws Exception {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(provider, files));
+		if (null == provider) {
+			throw new RuntimeExceptionIsNull("provider"); //$NON-NLS-1$
+		}
+		if (null == files) {
+			throw new RuntimeExceptionIsNull("files"); //$NON-NLS-1$
+		}
+
+		final X509Certificate[] certificates = new X509Certificate[files.length];
+		for (int ii = 0; files.length > ii; ii++) {
+			certificates[ii] = provider.readCertificate(files[ii]);
+		}
+		setTrustedCertificates(certificates);
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	/**
+	 * Sets the {@link TrustManager}s (default: the trust store of the VM).
+	 *
+	 * @param trustManagers for the {@link SSLContext}
+	 * @see TrustManager
+	 * @since 0.3.0
+	 */
+	public synchronized void setTrustManagers(final TrustManager... trustManagers) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(trustManagers));
+
+		this.trustManagers = trustManagers;
+		context = null;
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	/**
+	 * Returns the enabled protocols.
+	 *
+	 * @return enabled protocols or null for the defaults of the VM
+	 * @since 0.3.0
+	 */
+	public synchronized String[] getProtocols() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(protocols));
+		return protocols;
+	}
+
+	/**
+	 * Sets the enabled protocols (e.g. {@link #PROTOCOL_TLS13}).
+	 *
+	 * @param protocols to enable or null for the defaults of the VM
+	 * @since 0.3.0
+	 */
+	public synchronized void setProtocols(final String... protocols) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(protocols));
+
+		this.protocols = protocols;
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	/**
+	 * Checks if only TLS 1.3 is enabled.
+	 *
+	 * @return true/false
+	 * @since 0.3.0
+	 */
+	public synchronized boolean isTls13Only() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		final boolean result = null != protocols && 1 == protocols.length && PROTOCOL_TLS13.equals(protocols[0]);
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(result));
+		return result;
+	}
+
+	/**
+	 * Enables only TLS 1.3, which needs one round-trip less for a full handshake.
+	 *
+	 * @param isTls13Only true/false
+	 * @since 0.3.0
+	 */
+	public synchronized void setTls13Only(final boolean isTls13Only) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(isTls13Only));
+
+		protocols = isTls13Only ? new String[]{PROTOCOL_TLS13} : null;
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	/**
+	 * Returns the enabled cipher suites.
+	 *
+	 * @return enabled cipher suites or null for the defaults of the VM
+	 * @since 0.3.0
+	 */
+	public synchronized String[] getCipherSuites() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(cipherSuites));
+		return cipherSuites;
+	}
+
+	/**
+	 * Sets the enabled cipher suites (e.g. "TLS_AES_128_GCM_SHA256").
+	 *
+	 * @param cipherSuites to enable or null for the defaults of the VM
+	 * @since 0.3.0
+	 */
+	public synchronized void setCipherSuites(final String... cipherSuites) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(cipherSuites));
+
+		this.cipherSuites = cipherSuites;
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	/**
+	 * Returns the application protocols for ALPN.
+	 *
+	 * @return application protocols or null if ALPN isn't used
+	 * @since 0.3.0
+	 */
+	public synchronized String[] getApplicationProtocols() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(applicationProtocols));
+		return applicationProtocols;
+	}
+
+	/**
+	 * Sets the application protocols for ALPN in order of preference (e.g. "h2", "http/1.1").
+	 *
+	 * @param applicationProtocols for ALPN or null if ALPN isn't used
+	 * @since 0.3.0
+	 */
+	public synchronized void setApplicationProtocols(final String... applicationProtocols) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(applicationProtocols));
+
+		this.applicationProtocols = applicationProtocols;
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	/**
+	 * Returns the size of the session cache.
+	 *
+	 * @return number of cached sessions, 0 for no limit
+	 * @since 0.3.0
+	 */
+	public synchronized int getSessionCacheSize() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(sessionCacheSize));
+		return sessionCacheSize;
+	}
+
+	/**
+	 * Sets the size of the session cache (default: {@link #DEFAULT_SESSION_CACHE_SIZE}).
+	 * Cached sessions allow abbreviated handshakes on reconnects.
+	 *
+	 * @param sessionCacheSize number of cached sessions, 0 for no limit
+	 * @since 0.3.0
+	 */
+	public synchronized void setSessionCacheSize(final int sessionCacheSize) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(sessionCacheSize));
+		if (0 > sessionCacheSize) {
+			throw new RuntimeExceptionMustBeGreater("sessionCacheSize", sessionCacheSize, 0); //$NON-NLS-1$
+		}
+
+		this.sessionCacheSize = sessionCacheSize;
+		if (null != context) {
+			configure(context);
+		}
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	/**
+	 * Returns the timeout of the cached sessions in seconds.
+	 *
+	 * @return session timeout in seconds, 0 for no limit
+	 * @since 0.3.0
+	 */
+	public synchronized int getSessionTimeout() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(sessionTimeout));
+		return sessionTimeout;
+	}
+
+	/**
+	 * Sets the timeout of the cached sessions (default: {@link #DEFAULT_SESSION_TIMEOUT}).
+	 *
+	 * @param sessionTimeout in seconds, 0 for no limit
+	 * @since 0.3.0
+	 */
+	public synchronized void setSessionTimeout(final int sessionTimeout) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(sessionTimeout));
+		if (0 > sessionTimeout) {
+			throw new RuntimeExceptionMustBeGreater("sessionTimeout", sessionTimeout, 0); //$NON-NLS-1$
+		}
+
+		this.sessionTimeout = sessionTimeout;
+		if (null != context) {
+			configure(context);
+		}
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	/**
+	 * Checks if the server requires client authentication.
+	 *
+	 * @return true/false
+	 * @since 0.3.0
+	 */
+	public synchronized boolean isNeedClientAuth() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(isNeedClientAuth));
+		return isNeedClientAuth;
+	}
+
+	/**
+	 * Enables or disables the client authentication on the server (default: false).
+	 *
+	 * @param isNeedClientAuth true/false
+	 * @since 0.3.0
+	 */
+	public synchronized void setNeedClientAuth(final boolean isNeedClientAuth) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(isNeedClientAuth));
+
+		this.isNeedClientAuth = isNeedClientAuth;
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	/**
+	 * Returns the {@link SSLContext} of the configuration.
+	 * The context is created on the first call and shared afterwards, changes of the key material create a new one.
+	 *
+	 * @return {@link SSLContext}
+	 * @throws GeneralSecurityException
+	 * @see SSLContext
+	 * @since 0.3.0
+	 */
+	public synchronized SSLContext getContext() throws GeneralSecurityException {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (null == context) {
+			final SSLContext result = SSLContext.getInstance("TLS"); //$NON-NLS-1$
+			result.init(keyManagers, trustManagers, null);
+			configure(result);
+
+			context = result;
+		}
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(context));
+		return context;
+	}
+
+	/**
+	 * Returns the {@link SSLParameters} of the configuration.
+	 *
+	 * @param isClient true for client sockets and engines
+	 * @return {@link SSLParameters}
+	 * @throws GeneralSecurityException
+	 * @see SSLParameters
+	 * @since 0.3.0
+	 */
+	public synchronized SSLParameters getParameters(final boolean isClient) throws GeneralSecurityException {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(isClient));
+
+		final SSLParameters result = getContext().getDefaultSSLParameters();
+
+		if (null != protocols) {
+			result.setProtocols(protocols);
+		}
+		if (null != cipherSuites) {
+			result.setCipherSuites(cipherSuites);
+		}
+		if (null != applicationProtocols) {
+			result.setApplicationProtocols(applicationProtocols);
+		}
+		if (!isClient) {
+			result.setNeedClientAuth(isNeedClientAuth);
+			result.setUseCipherSuitesOrder(true);
+		}
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(result));
+		return result;
+	}
+
+	/**
+	 * Creates a server {@link SSLEngine} with the parameters of the configuration.
+	 *
+	 * @return server {@link SSLEngine}
+	 * @throws GeneralSecurityException
+	 * @see SSLEngine
+	 * @since 0.3.0
+	 */
+	public SSLEngine createServerEngine() throws GeneralSecurityException {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		final SSLEngine result = getContext().createSSLEngine();
+		result.setUseClientMode(false);
+		result.setSSLParameters(getParameters(false));
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(result));
+		return result;
+	}
+
+	/**
+	 * Creates a client {@link SSLEngine} with the parameters of the configuration.
+	 * The host and port are used to resume cached sessions.
+	 *
+	 * @param host of the server
+	 * @param port of the server
+	 * @return client {@link SSLEngine}
+	 * @throws GeneralSecurityException
+	 * @see SSLEngine
+	 * @since 0.3.0
+	 */
+	public SSLEngine createClientEngine(final String host, final int port) throws GeneralSecurityException {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(host, port));
+
+		final SSLEngine result = getContext().createSSLEngine(host, port);
+		result.setUseClientMode(true);
+		result.setSSLParameters(getParameters(true));
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(result));
+		return result;
+	}
+
+	/**
+	 * Returns a {@link SSLServerSocketFactory} which applies the configuration to every {@link SSLServerSocket}.
+	 *
+	 * @return {@link SSLServerSocketFactory}
+	 * @throws GeneralSecurityException
+	 * @see SSLServerSocketFactory
+	 * @since 0.3.0
+	 */
+	public SSLServerSocketFactory getServerSocketFactory() throws GeneralSecurityException {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		final SSLServerSocketFactory result = new ServerSocketFactoryConfigured(getContext().getServerSocketFactory());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(result));
+		return result;
+	}
+
+	/**
+	 * Returns a {@link SSLSocketFactory} which applies the configuration to every {@link SSLSocket}.
+	 *
+	 * @return {@link SSLSocketFactory}
+	 * @throws GeneralSecurityException
+	 * @see SSLSocketFactory
+	 * @since 0.3.0
+	 */
+	public SSLSocketFactory getSocketFactory() throws GeneralSecurityException {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		final SSLSocketFactory result = new SocketFactoryConfigured(getContext().getSocketFactory());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(result));
+		return result;
+	}
+
+
+	/*
+	 * Private methods
+	 */
+
+	private static KeyStore createKeyStore() throws GeneralSecurityException, IOException {
+		final KeyStore result = KeyStore.getInstance(KeyStore.getDefaultType());
+		result.load(null, null);
+		return result;
+	}
+
+	private void configure(final SSLContext context) {
+		configure(context.getServerSessionContext());
+		configure(context.getClientSessionContext());
+	}
+
+	private void configure(final SSLSessionContext sessionContext) {
+		if (null != sessionContext) {
+			sessionContext.setSessionCacheSize(sessionCacheSize);
+			sessionContext.setSessionTimeout(sessionTimeout);
+		}
+	}
+
+	private <T extends ServerSocket> T configure(final T socket) throws IOException {
+		try {
+			((SSLServerSocket) socket).setSSLParameters(getParameters(false));
+		} catch (GeneralSecurityException ex) {
+			socket.close();
+			throw new IOException("Could not configure the server socket", ex); //$NON-NLS-1$
+		}
+		return socket;
+	}
+
+	private <T extends Socket> T configure(final T socket) throws IOException {
+		try {
+			((SSLSocket) socket).setSSLParameters(getParameters(true));
+		} catch (GeneralSecurityException ex) {
+			socket.close();
+			throw new IOException("Could not configure the socket", ex); //$NON-NLS-1$
+		}
+		return socket;
+	}
+
+
+	/*
+	 * Inner classes
+	 */
+
+	private static class TrustManagerPinned extends X509ExtendedTrustManager {
+		private final X509ExtendedTrustManager trustManager;
+		private final X509Certificate[] certificates;
+
+		TrustManagerPinned(final X509ExtendedTrustManager trustManager, final X509Certificate[] certificates) {
+			this.trustManager = trustManager;
+			this.certificates = certificates;
+		}
+
+		private boolean isPinned(final X509Certificate... chain) throws CertificateException {
+			if (null != chain && 0 < chain.length) {
+				for (final X509Certificate certificate : certificates) {
+					if (Arrays.equals(certificate.getEncoded(), chain[0].getEncoded())) {
+						chain[0].checkValidity();
+						return true;
+					}
+				}
+			}
+			return false;
+		}
+
+		@Override
+		public void checkClientTrusted(final X509Certificate[] chain, final String authType) throws CertificateException {
+			if (!isPinned(chain)) {
+				trustManager.checkClientTrusted(chain, authType);
+			}
+		}
+
+		@Override
+		public void checkServerTrusted(final X509Certificate[] chain, final String authType) throws CertificateException {
+			if (!isPinned(chain)) {
+				trustManager.checkServerTrusted(chain, authType);
+			}
+		}
+
+		@Override
+		public void checkClientTrusted(final X509Certificate[] chain, final String authType, final Socket socket) throws CertificateException {
+			if (!isPinned(chain)) {
+				trustManager.checkClientTrusted(chain, authType, socket);
+			}
+		}
+
+		@Override
+		public void checkServerTrusted(final X509Certificate[] chain, final String authType, final Socket socket) throws CertificateException {
+			if (!isPinned(chain)) {
+				trustManager.checkServerTrusted(chain, authType, socket);
+			}
+		}
+
+		@Override
+		public void checkClientTrusted(final X509Certificate[] chain, final String authType, final SSLEngine engine) throws CertificateException {
+			if (!isPinned(chain)) {
+				trustManager.checkClientTrusted(chain, authType, engine);
+			}
+		}
+
+		@Override
+		public void checkServerTrusted(final X509Certificate[] chain, final String authType, final SSLEngine engine) throws CertificateException {
+			if (!isPinned(chain)) {
+				trustManager.checkServerTrusted(chain, authType, engine);
+			}
+		}
+
+		@Override
+		public X509Certificate[] getAcceptedIssuers() {
+			return trustManager.getAcceptedIssuers();
+		}
+	}
+
+	private class ServerSocketFactoryConfigured extends SSLServerSocketFactory {
+		private final SSLServerSocketFactory factory;
+
+		ServerSocketFactoryConfigured(final SSLServerSocketFactory factory) {
+			this.factory = factory;
+		}
+
+		@Override
+		public String[] getDefaultCipherSuites() {
+			return factory.getDefaultCipherSuites();
+		}
+
+		@Override
+		public String[] getSupportedCipherSuites() {
+			return factory.getSupportedCipherSuites();
+		}
+
+		@Override
+		public ServerSocket createServerSocket() throws IOException {
+			return configure(factory.createServerSocket());
+		}
+
+		@Override
+		public ServerSocket createServerSocket(final int port) throws IOException {
+			return configure(factory.createServerSocket(port));
+		}
+
+		@Override
+		public ServerSocket createServerSocket(final int port, final int backlog) throws IOException {
+			return configure(factory.createServerSocket(port, backlog));
+		}
+
+		@Override
+		public ServerSocket createServerSocket(final int port, final int backlog, final InetAddress address) throws IOException {
+			return configure(factory.createServerSocket(port, backlog, address));
+		}
+	}
+
+	private class SocketFactoryConfigured extends SSLSocketFactory {
+		private final SSLSocketFactory factory;
+
+		SocketFactoryConfigured(final SSLSocketFactory factory) {
+			this.factory = factory;
+		}
+
+		@Override
+		public String[] getDefaultCipherSuites() {
+			return factory.getDefaultCipherSuites();
+		}
+
+		@Override
+		public String[] getSupportedCipherSuites() {
+			return factory.getSupportedCipherSuites();
+		}
+
+		@Override
+		public Socket createSocket() throws IOException {
+			return configure(factory.createSocket());
+		}
+
+		@Override
+		public Socket createSocket(final Socket socket, final String host, final int port, final boolean autoClose) throws IOException {
+			return configure(factory.createSocket(socket, host, port, autoClose));
+		}
+
+		@Override
+		public Socket createSocket(final String host, final int port) throws IOException {
+			return configure(factory.createSocket(host, port));
+		}
+
+		@Override
+		public Socket createSocket(final String host, final int port, final InetAddress localHost, final int localPort) throws IOException {
+			return configure(factory.createSocket(host, port, localHost, localPort));
+		}
+
+		@Override
+		public Socket createSocket(final InetAddress host, final int port) throws IOException {
+			return configure(factory.createSocket(host, port));
+		}
+
+		@Override
+		public Socket createSocket(final InetAddress address, final int port, final InetAddress localAddress, final int localPort) throws IOException {
+			return configure(factory.createSocket(address, port, localAddress, localPort));
+		}
+	}
+}
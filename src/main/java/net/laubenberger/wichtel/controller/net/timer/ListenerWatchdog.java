@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2007-2013 by Stefan Laubenberger.
+ *
+ * "wichtel" is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License v3.0.
+ *
+ * "wichtel" is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * See the GNU Lesser General Public License for more details:
+ * -----------------------------------------------------------
+ * http://www.gnu.org/licenses
+ *
+ *
+ * This distribution is available at:
+ * ----------------------------------
+ * https://github.com/slaubenberger/wichtel/
+ *
+ *
+ * Contact information:
+ * --------------------
+ * Stefan Laubenberger
+ * Bullingerstrasse 53
+ * CH-8004 Zuerich
+ *
+ * http://www.laubenberger.net
+ * laubenberger@gmail.com
+ */
+
+package net.laubenberger.wichtel.controller.net.timer;
+
+import net.laubenberger.wichtel.misc.Event;
+import net.laubenberger.wichtel.misc.Listener;
+
+
+/**
+ * Listener for the {@link Watchdog} of a connection.
+ * The methods are called on the thread of the {@link WheelTimer} and must not block.
+ *
+ * @author Stefan Laubenberger
+ * @version 0.3.0, 2026-10-17
+ * @since 0.3.0
+ */
+public interface ListenerWatchdog extends Listener {
+	/**
+	 * Informs the listener that no message was read or written during the idle timeout.
+	 *
+	 * @param event for the listener
+	 * @see Watchdog#setIdleTimeout(long)
+	 * @since 0.3.0
+	 */
+	void watchdogIdle(Event<Watchdog> event);
+
+	/**
+	 * Informs the listener that a started read hasn't finished within the read timeout.
+	 *
+	 * @param event for the listener
+	 * @see Watchdog#setReadTimeout(long)
+	 * @since 0.3.0
+	 */
+	void watchdogReadTimeout(Event<Watchdog> event);
+
+	/**
+	 * Informs the listener that no message was written during the heartbeat interval, the connection should send a heartbeat.
+	 *
+	 * @param event for the listener
+	 * @see Watchdog#setHeartbeatInterval(long)
+	 * @since 0.3.0
+	 */
+	void watchdogHeartbeat(Event<Watchdog> event);
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2007-2013 by Stefan Laubenberger.
+ *
+ * "wichtel" is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License v3.0.
+ *
+ * "wichtel" is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * See the GNU Lesser General Public License for more details:
+ * -----------------------------------------------------------
+ * http://www.gnu.org/licenses
+ *
+ *
+ * This distribution is available at:
+ * ----------------------------------
+ * https://github.com/slaubenberger/wichtel/
+ *
+ *
+ * Contact information:
+ * --------------------
+ * Stefan Laubenberger
+ * Bullingerstrasse 53
+ * CH-8004 Zuerich
+ *
+ * http://www.laubenberger.net
+ * laubenberger@gmail.com
+ */
+
+package net.laubenberger.wichtel.controller.net.timer;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.laubenberger.wichtel.helper.HelperLog;
+import net.laubenberger.wichtel.misc.extendedObject.ExtendedObjectAbstract;
+
+
+/**
+ * Handle of a task scheduled on a {@link WheelTimer}.
+ *
+ * @author Stefan Laubenberger
+ * @version 0.3.0, 2026-10-17
+ * @since 0.3.0
+ */
+public class Timeout extends ExtendedObjectAbstract {
+	private static final Logger log = LoggerFactory.getLogger(Timeout.class);
+
+	private static final int STATE_PENDING = 0;
+	private static final int STATE_CANCELLED = 1;
+	private static final int STATE_EXPIRED = 2;
+
+	private final WheelTimer timer;
+	private final Runnable task;
+	private final long deadline; //nanoseconds since the start of the timer
+
+	private final AtomicInteger state = new AtomicInteger(STATE_PENDING);
+
+	//only used on the thread of the timer
+	long remainingRounds;
+	Timeout next;
+	Timeout prev;
+	WheelTimer.Bucket bucket;
+
+	Timeout(final WheelTimer timer, final Runnable task, final long deadline) {
+		super();
+		if (log.isTraceEnabled()) log.trace(HelperLog.constructor(timer, task, deadline));
+
+		this.timer = timer;
+		this.task = task;
+		this.deadline = deadline;
+	}
+
+	/**
+	 * Returns the scheduled task.
+	 *
+	 * @return scheduled task
+	 * @since 0.3.0
+	 */
+	public Runnable getTask() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(task));
+		return task;
+	}
+
+	/**
+	 * Cancels the task if it hasn't run yet.
+	 *
+	 * @return true if the task was cancelled
+	 * @since 0.3.0
+	 */
+	public boolean cancel() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		final boolean result = state.compareAndSet(STATE_PENDING, STATE_CANCELLED);
+		if (result) {
+			timer.cancelled(this);
+		}
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(result));
+		return result;
+	}
+
+	/**
+	 * Checks if the task was cancelled.
+	 *
+	 * @return true/false
+	 * @since 0.3.0
+	 */
+	public boolean isCancelled() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		final boolean result = STATE_CANCELLED == state.get();
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(result));
+		return result;
+	}
+
+	/**
+	 * Checks if the task has run.
+	 *
+	 * @return true/false
+	 * @since 0.3.0
+	 */
+	public boolean isExpired() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		final boolean result = STATE_EXPIRED == state.get();
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(result));
+		return result;
+	}
+
+	long getDeadline() {
+		return deadline;
+	}
+
+	boolean expire() {
+		return state.compareAndSet(STATE_PENDING, STATE_EXPIRED);
+	}
+}
@@ -0,0 +1,366 @@
+/*
+ * Copyright (c) 2007-2013 by Stefan Laubenberger.
+ *
+ * "wichtel" is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License v3.0.
+ *
+ * "wichtel" is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * See the GNU Lesser General Public License for more details:
+ * -----------------------------------------------------------
+ * http://www.gnu.org/licenses
+ *
+ *
+ * This distribution is available at:
+ * ----------------------------------
+ * https://github.com/slaubenberger/wichtel/
+ *
+ *
+ * Contact information:
+ * --------------------
+ * Stefan Laubenberger
+ * Bullingerstrasse 53
+ * CH-8004 Zuerich
+ *
+ * http://www.laubenberger.net
+ * laubenberger@gmail.com
+ */
+
+package net.laubenberger.wichtel.controller.net.timer;
+
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.laubenberger.wichtel.helper.HelperLog;
+import net.laubenberger.wichtel.misc.Event;
+import net.laubenberger.wichtel.misc.exception.RuntimeExceptionIsNull;
+import net.laubenberger.wichtel.misc.exception.RuntimeExceptionMustBeGreater;
+import net.laubenberger.wichtel.misc.extendedObject.ExtendedObjectAbstract;
+
+
+/**
+ * Watches the activity of a connection on a {@link WheelTimer}.
+ * <p>
+ * The connection reports its reads and writes, the watchdog informs the {@link ListenerWatchdog} when
+ * <ul>
+ * <li>no message was read or written during the idle timeout</li>
+ * <li>a started read hasn't finished within the read timeout</li>
+ * <li>neither a message nor a heartbeat was written during the heartbeat interval</li>
+ * </ul>
+ * Reporting only stores a timestamp; the watchdog keeps one {@link Timeout} per connection and reschedules it for the next possible deadline, so busy connections don't touch the timer.
+ * A read which starts while no other deadline is pending is detected after one to two read timeouts.
+ *
+ * @author Stefan Laubenberger
+ * @version 0.3.0, 2026-10-17
+ * @since 0.3.0
+ */
+public class Watchdog extends ExtendedObjectAbstract {
+	private static final Logger log = LoggerFactory.getLogger(Watchdog.class);
+
+	/**
+	 * Heartbeat message of the connections (empty).
+	 */
+	public static final byte[] HEARTBEAT = {};
+
+	private final Event<Watchdog> event = new Event<Watchdog>(this);
+
+	private final Runnable taskCheck = new Runnable() {
+		@Override
+		public void run() {
+			check();
+		}
+	};
+
+	private final WheelTimer timer;
+	private final ListenerWatchdog listener;
+
+	private volatile long idleTimeout; //nanoseconds
+	private volatile long readTimeout; //nanoseconds
+	private volatile long heartbeatInterval; //nanoseconds
+
+	private volatile long lastRead;
+	private volatile long lastWrite;
+	private volatile long lastHeartbeat;
+	private volatile long readStart;
+	private volatile boolean isReading;
+
+	private Timeout timeout;
+	private boolean isRunning;
+
+	public Watchdog(final WheelTimer timer, final ListenerWatchdog listener) {
+		super();
+		if (log.isTraceEnabled()) log.trace(HelperLog.constructor(timer, listener));
+
+		if (null == timer) {
+			throw new RuntimeExceptionIsNull("timer"); //$NON-NLS-1$
+		}
+		if (null == listener) {
+			throw new RuntimeExceptionIsNull("listener"); //$NON-NLS-1$
+		}
+
+		this.timer = timer;
+		this.listener = listener;
+	}
+
+	public Watchdog(final ListenerWatchdog listener) {
+		this(WheelTimer.DEFAULT, listener);
+		if (log.isTraceEnabled()) log.trace(HelperLog.constructor(listener));
+	}
+
+	/**
+	 * Returns the idle timeout.
+	 *
+	 * @return idle timeout in milliseconds, 0 if disabled
+	 * @since 0.3.0
+	 */
+	public long getIdleTimeout() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		final long result = TimeUnit.NANOSECONDS.toMillis(idleTimeout);
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(result));
+		return result;
+	}
+
+	/**
+	 * Sets the idle timeout (default: 0, disabled).
+	 *
+	 * @param idleTimeout in milliseconds
+	 * @since 0.3.0
+	 */
+	public void setIdleTimeout(final long idleTimeout) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(idleTimeout));
+		if (0L > idleTimeout) {
+			throw new RuntimeExceptionMustBeGreater("idleTimeout", idleTimeout, 0); //$NON-NLS-1$
+		}
+
+		this.idleTimeout = TimeUnit.MILLISECONDS.toNanos(idleTimeout);
+		reschedule();
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	/**
+	 * Returns the read timeout.
+	 *
+	 * @return read timeout in milliseconds, 0 if disabled
+	 * @since 0.3.0
+	 */
+	public long getReadTimeout() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		final long result = TimeUnit.NANOSECONDS.toMillis(readTimeout);
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(result));
+		return result;
+	}
+
+	/**
+	 * Sets the read timeout (default: 0, disabled).
+	 *
+	 * @param readTimeout in milliseconds
+	 * @since 0.3.0
+	 */
+	public void setReadTimeout(final long readTimeout) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(readTimeout));
+		if (0L > readTimeout) {
+			throw new RuntimeExceptionMustBeGreater("readTimeout", readTimeout, 0); //$NON-NLS-1$
+		}
+
+		this.readTimeout = TimeUnit.MILLISECONDS.toNanos(readTimeout);
+		reschedule();
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	/**
+	 * Returns the heartbeat interval.
+	 *
+	 * @return heartbeat interval in milliseconds, 0 if disabled
+	 * @since 0.3.0
+	 */
+	public long getHeartbeatInterval() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		final long result = TimeUnit.NANOSECONDS.toMillis(heartbeatInterval);
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(result));
+		return result;
+	}
+
+	/**
+	 * Sets the heartbeat interval (default: 0, disabled).
+	 *
+	 * @param heartbeatInterval in milliseconds
+	 * @since 0.3.0
+	 */
+	public void setHeartbeatInterval(final long heartbeatInterval) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(heartbeatInterval));
+		if (0L > heartbeatInterval) {
+			throw new RuntimeExceptionMustBeGreater("heartbeatInterval", heartbeatInterval, 0); //$NON-NLS-1$
+		}
+
+		this.heartbeatInterval = TimeUnit.MILLISECONDS.toNanos(heartbeatInterval);
+		reschedule();
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	/**
+	 * Checks if the watchdog is running.
+	 *
+	 * @return true/false
+	 * @since 0.3.0
+	 */
+	public synchronized boolean isRunning() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(isRunning));
+		return isRunning;
+	}
+
+	/**
+	 * Starts the watchdog, the connection counts as active.
+	 *
+	 * @since 0.3.0
+	 */
+	public synchronized void start() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		final long now = System.nanoTime();
+		lastRead = now;
+		lastWrite = now;
+		lastHeartbeat = now;
+		isReading = false;
+		isRunning = true;
+		reschedule();
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	/**
+	 * Stops the watchdog.
+	 *
+	 * @since 0.3.0
+	 */
+	public synchronized void stop() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		isRunning = false;
+		if (null != timeout) {
+			timeout.cancel();
+			timeout = null;
+		}
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	/**
+	 * Reports the start of a read, the read timeout begins unless a read is already in progress.
+	 *
+	 * @since 0.3.0
+	 */
+	public void readStarted() {
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodStart());
+
+		if (!isReading) {
+			readStart = System.nanoTime();
+			isReading = true;
+		}
+
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodExit());
+	}
+
+	/**
+	 * Reports a completely read message.
+	 *
+	 * @since 0.3.0
+	 */
+	public void readFinished() {
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodStart());
+
+		isReading = false;
+		lastRead = System.nanoTime();
+
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodExit());
+	}
+
+	/**
+	 * Reports a written message.
+	 * Heartbeats must not be reported, otherwise they keep the connection from idling.
+	 *
+	 * @since 0.3.0
+	 */
+	public void written() {
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodStart());
+
+		lastWrite = System.nanoTime();
+
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodExit());
+	}
+
+
+	/*
+	 * Private methods
+	 */
+
+	private synchronized void reschedule() {
+		if (isRunning) {
+			if (null != timeout) {
+				timeout.cancel();
+				timeout = null;
+			}
+
+			final long delay = getNextDelay(System.nanoTime());
+			if (0L <= delay) {
+				timeout = timer.schedule(taskCheck, TimeUnit.NANOSECONDS.toMillis(delay));
+			}
+		}
+	}
+
+	private long getNextDelay(final long now) { //-1 if nothing is watched
+		long result = Long.MAX_VALUE;
+
+		if (0L < idleTimeout) {
+			result = Math.min(result, Math.max(lastRead, lastWrite) + idleTimeout - now);
+		}
+		if (0L < readTimeout) {
+			result = Math.min(result, isReading ? readStart + readTimeout - now : readTimeout);
+		}
+		if (0L < heartbeatInterval) {
+			result = Math.min(result, Math.max(lastWrite, lastHeartbeat) + heartbeatInterval - now);
+		}
+		return Long.MAX_VALUE == result ? -1L : Math.max(0L, result);
+	}
+
+	private void check() {
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodStart());
+
+		if (isRunning()) {
+			final long now = System.nanoTime();
+			final long idleTimeout = this.idleTimeout;
+			final long readTimeout = this.readTimeout;
+			final long heartbeatInterval = this.heartbeatInterval;
+
+			if (0L < idleTimeout && now - Math.max(lastRead, lastWrite) >= idleTimeout) {
+				stop();
+				listener.watchdogIdle(event);
+			} else if (0L < readTimeout && isReading && now - readStart >= readTimeout) {
+				stop();
+				listener.watchdogReadTimeout(event);
+			} else {
+				if (0L < heartbeatInterval && now - Math.max(lastWrite, lastHeartbeat) >= heartbeatInterval) {
+					lastHeartbeat = now;
+					listener.watchdogHeartbeat(event);
+				}
+				reschedule();
+			}
+		}
+
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodExit());
+	}
+}
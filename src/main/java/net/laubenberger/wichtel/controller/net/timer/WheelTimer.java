@@ -0,0 +1,329 @@
+/*
+ * Copyright (c) 2007-2013 by Stefan Laubenberger.
+ *
+ * "wichtel" is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License v3.0.
+ *
+ * "wichtel" is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * See the GNU Lesser General Public License for more details:
+ * -----------------------------------------------------------
+ * http://www.gnu.org/licenses
+ *
+ *
+ * This distribution is available at:
+ * ----------------------------------
+ * https://github.com/slaubenberger/wichtel/
+ *
+ *
+ * Contact information:
+ * --------------------
+ * Stefan Laubenberger
+ * Bullingerstrasse 53
+ * CH-8004 Zuerich
+ *
+ * http://www.laubenberger.net
+ * laubenberger@gmail.com
+ */
+
+package net.laubenberger.wichtel.controller.net.timer;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.laubenberger.wichtel.helper.HelperLog;
+import net.laubenberger.wichtel.misc.exception.RuntimeExceptionIsNull;
+import net.laubenberger.wichtel.misc.exception.RuntimeExceptionMustBeGreater;
+import net.laubenberger.wichtel.misc.extendedObject.ExtendedObjectAbstract;
+
+
+/**
+ * Hashed wheel timer for a large number of short-lived timeouts (e.g. idle timeouts of connections).
+ * <p>
+ * The timeouts are hashed by their deadline into the buckets of a wheel, which is advanced by one thread every tick.
+ * Scheduling and cancelling are O(1) and don't need a lock, so thousands of connections can share one timer instead of running one timer each.
+ * The precision is one tick; tasks run on the thread of the timer and must not block.
+ *
+ * @author Stefan Laubenberger
+ * @version 0.3.0, 2026-10-17
+ * @since 0.3.0
+ */
+public class WheelTimer extends ExtendedObjectAbstract implements Runnable {
+	private static final Logger log = LoggerFactory.getLogger(WheelTimer.class);
+
+	public static final long DEFAULT_TICK = 100L; //100ms
+	public static final int DEFAULT_WHEEL_SIZE = 512;
+
+	/**
+	 * Shared timer for the connections.
+	 */
+	public static final WheelTimer DEFAULT = new WheelTimer(WheelTimer.class.getSimpleName(), DEFAULT_TICK, DEFAULT_WHEEL_SIZE);
+
+	private final Queue<Timeout> timeouts = new ConcurrentLinkedQueue<>(); //scheduled, but not yet in a bucket
+	private final Queue<Timeout> cancelledTimeouts = new ConcurrentLinkedQueue<>();
+	private final AtomicInteger pending = new AtomicInteger();
+
+	private final String name;
+	private final long tick; //nanoseconds
+	private final Bucket[] wheel;
+	private final int mask;
+	private final long startTime;
+	private final Thread thread;
+
+	private volatile boolean isRunning = true;
+
+	public WheelTimer(final String name, final long tick, final int wheelSize) {
+		super();
+		if (log.isTraceEnabled()) log.trace(HelperLog.constructor(name, tick, wheelSize));
+
+		if (null == name) {
+			throw new RuntimeExceptionIsNull("name"); //$NON-NLS-1$
+		}
+		if (0L >= tick) {
+			throw new RuntimeExceptionMustBeGreater("tick", tick, 0); //$NON-NLS-1$
+		}
+		if (0 >= wheelSize) {
+			throw new RuntimeExceptionMustBeGreater("wheelSize", wheelSize, 0); //$NON-NLS-1$
+		}
+
+		this.name = name;
+		this.tick = TimeUnit.MILLISECONDS.toNanos(tick);
+
+		int size = 1;
+		while (wheelSize > size) { //power of two
+			size <<= 1;
+		}
+
+		wheel = new Bucket[size];
+		for (int ii = 0; wheel.length > ii; ii++) {
+			wheel[ii] = new Bucket();
+		}
+		mask = wheel.length - 1;
+
+		startTime = System.nanoTime();
+		thread = new Thread(this, name);
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Returns the name of the timer.
+	 *
+	 * @return name of the timer
+	 * @since 0.3.0
+	 */
+	public String getName() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(name));
+		return name;
+	}
+
+	/**
+	 * Returns the number of scheduled tasks, which haven't run or been cancelled yet.
+	 *
+	 * @return number of pending tasks
+	 * @since 0.3.0
+	 */
+	public int getPendingCount() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		final int result = pending.get();
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(result));
+		return result;
+	}
+
+	/**
+	 * Checks if the timer is running.
+	 *
+	 * @return true/false
+	 * @since 0.3.0
+	 */
+	public boolean isRunning() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(isRunning));
+		return isRunning;
+	}
+
+	/**
+	 * Schedules a task, it runs on the thread of the timer after the given delay (rounded up to the next tick).
+	 *
+	 * @param task  to run
+	 * @param delay in milliseconds
+	 * @return {@link Timeout} to cancel the task
+	 * @see Timeout
+	 * @since 0.3.0
+	 */
+	public Timeout schedule(final Runnable task, final long delay) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(task, delay));
+		if (null == task) {
+			throw new RuntimeExceptionIsNull("task"); //$NON-NLS-1$
+		}
+		if (0L > delay) {
+			throw new RuntimeExceptionMustBeGreater("delay", delay, 0); //$NON-NLS-1$
+		}
+		if (!isRunning) {
+			throw new IllegalStateException("Timer is stopped: " + name); //$NON-NLS-1$
+		}
+
+		final Timeout result = new Timeout(this, task, System.nanoTime() - startTime + TimeUnit.MILLISECONDS.toNanos(delay));
+		pending.incrementAndGet();
+		timeouts.add(result);
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(result));
+		return result;
+	}
+
+	/**
+	 * Stops the timer, the pending tasks won't run.
+	 * <strong>Note:</strong> {@link #DEFAULT} must not be stopped.
+	 *
+	 * @since 0.3.0
+	 */
+	public void stop() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		isRunning = false;
+		thread.interrupt();
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	void cancelled(final Timeout timeout) {
+		pending.decrementAndGet();
+		cancelledTimeouts.add(timeout);
+	}
+
+
+	/*
+	 * Private methods
+	 */
+
+	private void transferTimeouts(final long ticks) {
+		Timeout timeout;
+		while (null != (timeout = timeouts.poll())) {
+			if (!timeout.isCancelled()) {
+				final long calculated = timeout.getDeadline() / tick;
+				timeout.remainingRounds = (calculated - ticks) / wheel.length;
+				wheel[(int) (Math.max(calculated, ticks) & mask)].add(timeout); //deadlines in the past expire on the current tick
+			}
+		}
+	}
+
+	private void removeCancelled() {
+		Timeout timeout;
+		while (null != (timeout = cancelledTimeouts.poll())) {
+			if (null != timeout.bucket) {
+				timeout.bucket.remove(timeout);
+			}
+		}
+	}
+
+	private void expire(final Timeout timeout) {
+		if (timeout.expire()) {
+			pending.decrementAndGet();
+			try {
+				timeout.getTask().run();
+			} catch (Exception ex) {
+				log.warn("Task of the timer failed", ex); //$NON-NLS-1$
+			}
+		}
+	}
+
+
+	/*
+	 * Implemented methods
+	 */
+
+	@Override
+	public void run() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		long ticks = 0L;
+		while (isRunning) {
+			final long deadline = tick * (ticks + 1L);
+			final long sleep = deadline - (System.nanoTime() - startTime);
+
+			if (0L < sleep) {
+				try {
+					Thread.sleep(TimeUnit.NANOSECONDS.toMillis(sleep + 999999L)); //round up
+				} catch (InterruptedException ex) {
+					if (!isRunning) {
+						break;
+					}
+				}
+				continue;
+			}
+
+			removeCancelled();
+			transferTimeouts(ticks);
+
+			final Bucket bucket = wheel[(int) (ticks & mask)];
+			Timeout timeout = bucket.head;
+			while (null != timeout) {
+				final Timeout next = timeout.next;
+				if (0L >= timeout.remainingRounds) {
+					bucket.remove(timeout);
+					expire(timeout);
+				} else {
+					timeout.remainingRounds--;
+				}
+				timeout = next;
+			}
+			ticks++;
+		}
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+
+	/*
+	 * Inner classes
+	 */
+
+	static class Bucket { //doubly linked list, only used on the thread of the timer
+		Timeout head;
+		Timeout tail;
+
+		Bucket() {
+			super();
+		}
+
+		void add(final Timeout timeout) {
+			timeout.bucket = this;
+			timeout.prev = tail;
+			timeout.next = null;
+			if (null == tail) {
+				head = timeout;
+			} else {
+				tail.next = timeout;
+			}
+			tail = timeout;
+		}
+
+		void remove(final Timeout timeout) {
+			if (null == timeout.prev) {
+				head = timeout.next;
+			} else {
+				timeout.prev.next = timeout.next;
+			}
+			if (null == timeout.next) {
+				tail = timeout.prev;
+			} else {
+				timeout.next.prev = timeout.prev;
+			}
+			timeout.prev = null;
+			timeout.next = null;
+			timeout.bucket = null;
+		}
+	}
+}
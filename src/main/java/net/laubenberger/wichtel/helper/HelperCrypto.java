@@ -59,6 +59,7 @@ import org.slf4j.LoggerFactory;
  */
 public final class HelperCrypto {
 	public static final Provider DEFAULT_PROVIDER = new BouncyCastleProvider(); //BouncyCastle
+	public static final Provider JCE_PROVIDER = getJceProvider(); //JavaSE, AEAD ciphers with hardware acceleration
 
 	private static final Logger log = LoggerFactory.getLogger(HelperCrypto.class);
 	private static final char[] DEFAULT_RANDOMKEY_SEED = {'1', '2', '3', '4', '5', '6', '7', '8', '9', '0', 'A', 'B', 'C', 'D', 'E', 'F', 'G', 'H', 'I', 'J', 'K', 'L', 'M', 'N', 'O', 'P', 'Q', 'R', 'S', 'T', 'U', 'V', 'W', 'X', 'Y', 'Z'};
@@ -294,6 +295,12 @@ public final class HelperCrypto {
 	 * Private methods
 	 */
 
+	private static Provider getJceProvider() {
+		final Provider result = Security.getProvider("SunJCE"); //$NON-NLS-1$
+
+		return null == result ? DEFAULT_PROVIDER : result; //runtimes without SunJCE (e.g. FIPS configurations) fall back to BouncyCastle
+	}
+
 	private static Collection<String> getInformation(final Provider provider, final String id) {
 		if (log.isTraceEnabled()) log.trace(HelperLog.methodStart(provider, id));
 		if (null == provider) {
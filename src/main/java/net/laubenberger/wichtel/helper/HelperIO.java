@@ -51,6 +51,7 @@ import java.io.StringReader;
 import java.io.Writer;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -545,6 +546,42 @@ public final class HelperIO {
 		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
 	}
 
+	/**
+	 * Writes the remaining content of byte buffers to an {@link OutputStream} and flushes it once.
+	 * Heap buffers are written without an intermediate copy.
+	 * 
+	 * @param os
+	 *           {@link OutputStream} for writing
+	 * @param buffers
+	 *           byte buffers for the {@link OutputStream}
+	 * @throws IOException
+	 * @see OutputStream
+	 * @see ByteBuffer
+	 * @since 0.3.0
+	 */
+	public static void writeStream(final OutputStream os, final ByteBuffer... buffers) throws IOException {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(os, buffers));
+		if (null == os) {
+			throw new RuntimeExceptionIsNull("os"); //$NON-NLS-1$
+		}
+		if (null == buffers) {
+			throw new RuntimeExceptionIsNull("buffers"); //$NON-NLS-1$
+		}
+
+		for (final ByteBuffer buffer : buffers) {
+			if (buffer.hasArray()) {
+				os.write(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+				buffer.position(buffer.limit());
+			} else {
+				final byte[] data = new byte[buffer.remaining()];
+				buffer.get(data);
+				os.write(data);
+			}
+		}
+		os.flush();
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
 	/**
 	 * Reads an {@link InputStream} in a byte-array.
 	 * 
@@ -0,0 +1,230 @@
+/*
+ * Copyright (c) 2007-2013 by Stefan Laubenberger.
+ *
+ * "wichtel" is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License v3.0.
+ *
+ * "wichtel" is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * See the GNU Lesser General Public License for more details:
+ * -----------------------------------------------------------
+ * http://www.gnu.org/licenses
+ *
+ *
+ * This distribution is available at:
+ * ----------------------------------
+ * https://github.com/slaubenberger/wichtel/
+ *
+ *
+ * Contact information:
+ * --------------------
+ * Stefan Laubenberger
+ * Bullingerstrasse 53
+ * CH-8004 Zuerich
+ *
+ * http://www.laubenberger.net
+ * laubenberger@gmail.com
+ */
+
+package net.laubenberger.wichtel.helper;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+import net.laubenberger.wichtel.misc.exception.RuntimeExceptionIsNull;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Helper for threads (e.g. thread factories and executors for connection handlers)
+ * <p>
+ * Virtual threads are created via reflection, so the helper also runs on VMs without them. In this case platform threads are used.
+ *
+ * @author Stefan Laubenberger
+ * @version 0.3.0, 2026-10-17
+ * @since 0.3.0
+ */
+public final class HelperThread {
+	private static final Logger log = LoggerFactory.getLogger(HelperThread.class);
+
+	private static final Method METHOD_OF_VIRTUAL;
+	private static final Method METHOD_FACTORY;
+
+	static {
+		Method ofVirtual = null;
+		Method factory = null;
+
+		try {
+			ofVirtual = Thread.class.getMethod("ofVirtual"); //$NON-NLS-1$
+			factory = Class.forName("java.lang.Thread$Builder").getMethod("factory"); //$NON-NLS-1$ //$NON-NLS-2$
+		} catch (Exception ex) {
+			if (log.isDebugEnabled()) log.debug("Virtual threads are not supported by the VM", ex); //$NON-NLS-1$
+		}
+		METHOD_OF_VIRTUAL = ofVirtual;
+		METHOD_FACTORY = factory;
+	}
+
+	private HelperThread() {
+		//do nothing
+	}
+
+	/**
+	 * Checks if the VM supports virtual threads.
+	 *
+	 * @return true/false
+	 * @since 0.3.0
+	 */
+	public static boolean isVirtualThreadSupported() { //$JUnit$
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		final boolean result = null != METHOD_FACTORY;
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(result));
+		return result;
+	}
+
+	/**
+	 * Creates a {@link ThreadFactory} for platform threads named "prefix-number".
+	 *
+	 * @param prefix   for the thread names
+	 * @param isDaemon true/false
+	 * @return {@link ThreadFactory}
+	 * @see ThreadFactory
+	 * @since 0.3.0
+	 */
+	public static ThreadFactory createThreadFactory(final String prefix, final boolean isDaemon) { //$JUnit$
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(prefix, isDaemon));
+		if (null == prefix) {
+			throw new RuntimeExceptionIsNull("prefix"); //$NON-NLS-1$
+		}
+
+		final AtomicLong counter = new AtomicLong();
+
+		final ThreadFactory result = new ThreadFactory() {
+			@Override
+			public Thread newThread(final Runnable runnable) {
+				final Thread thread = new Thread(runnable, prefix + '-' + counter.incrementAndGet());
+				thread.setDaemon(isDaemon);
+				return thread;
+			}
+		};
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(result));
+		return result;
+	}
+
+	/**
+	 * Creates a {@link ThreadFactory} for virtual threads.
+	 * If the VM doesn't support virtual threads, a factory for platform daemon threads is returned.
+	 *
+	 * @param prefix for the thread names
+	 * @return {@link ThreadFactory}
+	 * @see ThreadFactory
+	 * @since 0.3.0
+	 */
+	public static ThreadFactory createVirtualThreadFactory(final String prefix) { //$JUnit$
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(prefix));
+		if (null == prefix) {
+			throw new RuntimeExceptionIsNull("prefix"); //$NON-NLS-1$
+		}
+
+		ThreadFactory result = null;
+
+		if (isVirtualThreadSupported()) {
+			try {
+				final ThreadFactory factory = (ThreadFactory) METHOD_FACTORY.invoke(METHOD_OF_VIRTUAL.invoke(null));
+				final AtomicLong counter = new AtomicLong();
+
+				result = new ThreadFactory() {
+					@Override
+					public Thread newThread(final Runnable runnable) {
+						final Thread thread = factory.newThread(runnable);
+						thread.setName(prefix + '-' + counter.incrementAndGet());
+						return thread;
+					}
+				};
+			} catch (Exception ex) {
+				log.warn("Could not create a virtual thread factory", ex); //$NON-NLS-1$
+			}
+		}
+
+		if (null == result) {
+			result = createThreadFactory(prefix, true);
+		}
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(result));
+		return result;
+	}
+
+	/**
+	 * Creates an {@link Executor} which starts a new thread of the given {@link ThreadFactory} for every task.
+	 *
+	 * @param factory for the threads
+	 * @return {@link Executor}
+	 * @see Executor
+	 * @see ThreadFactory
+	 * @since 0.3.0
+	 */
+	public static Executor createExecutor(final ThreadFactory factory) { //$JUnit$
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(factory));
+		if (null == factory) {
+			throw new RuntimeExceptionIsNull("factory"); //$NON-NLS-1$
+		}
+
+		final Executor result = new Executor() {
+			@Override
+			public void execute(final Runnable command) {
+				factory.newThread(command).start();
+			}
+		};
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(result));
+		return result;
+	}
+
+	/**
+	 * Runs a task on an {@link Executor} and names the executing thread for the duration of the task.
+	 * The original name is restored afterwards, so pooled threads can be used as well.
+	 *
+	 * @param executor for the task
+	 * @param task     to run
+	 * @param name     of the thread while the task is running
+	 * @see Executor
+	 * @since 0.3.0
+	 */
+	public static void execute(final Executor executor, final Runnable task, final String name) { //$JUnit$
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(executor, task, name));
+		if (null == executor) {
+			throw new RuntimeExceptionIsNull("executor"); //$NON-NLS-1$
+		}
+		if (null == task) {
+			throw new RuntimeExceptionIsNull("task"); //$NON-NLS-1$
+		}
+		if (null == name) {
+			throw new RuntimeExceptionIsNull("name"); //$NON-NLS-1$
+		}
+
+		executor.execute(new Runnable() {
+			@Override
+			public void run() {
+				final Thread thread = Thread.currentThread();
+				final String original = thread.getName();
+
+				thread.setName(name);
+				try {
+					task.run();
+				} finally {
+					thread.setName(original);
+				}
+			}
+		});
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+}
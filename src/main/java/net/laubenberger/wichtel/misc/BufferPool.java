@@ -0,0 +1,218 @@
+/*
+ * Copyright (c) 2007-2013 by Stefan Laubenberger.
+ *
+ * "wichtel" is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License v3.0.
+ *
+ * "wichtel" is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * See the GNU Lesser General Public License for more details:
+ * -----------------------------------------------------------
+ * http://www.gnu.org/licenses
+ *
+ *
+ * This distribution is available at:
+ * ----------------------------------
+ * https://github.com/slaubenberger/wichtel/
+ *
+ *
+ * Contact information:
+ * --------------------
+ * Stefan Laubenberger
+ * Bullingerstrasse 53
+ * CH-8004 Zuerich
+ *
+ * http://www.laubenberger.net
+ * laubenberger@gmail.com
+ */
+
+package net.laubenberger.wichtel.misc;
+
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.laubenberger.wichtel.helper.HelperLog;
+import net.laubenberger.wichtel.misc.exception.RuntimeExceptionMustBeGreater;
+import net.laubenberger.wichtel.misc.extendedObject.ExtendedObjectAbstract;
+
+
+/**
+ * Thread-safe pool of byte buffers with a fixed capacity.
+ * <p>
+ * Requests for a larger capacity are served with unpooled buffers of the exact size, which are dropped on release.
+ *
+ * @author Stefan Laubenberger
+ * @version 0.3.0, 2026-10-17
+ * @since 0.3.0
+ */
+public class BufferPool extends ExtendedObjectAbstract {
+	private static final Logger log = LoggerFactory.getLogger(BufferPool.class);
+
+	public static final int DEFAULT_BUFFER_SIZE = 8192; //8kB
+	public static final int DEFAULT_MAX_BUFFERS = 1024;
+
+	/**
+	 * Shared pool with heap buffers (backed by an array).
+	 */
+	public static final BufferPool HEAP = new BufferPool(DEFAULT_BUFFER_SIZE, DEFAULT_MAX_BUFFERS, false);
+
+	/**
+	 * Shared pool with direct buffers.
+	 */
+	public static final BufferPool DIRECT = new BufferPool(DEFAULT_BUFFER_SIZE, DEFAULT_MAX_BUFFERS, true);
+
+	private final Queue<ByteBuffer> buffers = new ConcurrentLinkedQueue<>();
+	private final AtomicInteger size = new AtomicInteger();
+
+	private final int bufferSize;
+	private final int maxBuffers;
+	private final boolean isDirect;
+
+	public BufferPool(final int bufferSize, final int maxBuffers, final boolean isDirect) {
+		super();
+		if (log.isTraceEnabled()) log.trace(HelperLog.constructor(bufferSize, maxBuffers, isDirect));
+
+		if (0 >= bufferSize) {
+			throw new RuntimeExceptionMustBeGreater("bufferSize", bufferSize, 0); //$NON-NLS-1$
+		}
+		if (0 > maxBuffers) {
+			throw new RuntimeExceptionMustBeGreater("maxBuffers", maxBuffers, -1); //$NON-NLS-1$
+		}
+
+		this.bufferSize = bufferSize;
+		this.maxBuffers = maxBuffers;
+		this.isDirect = isDirect;
+	}
+
+	/**
+	 * Returns the capacity of the pooled buffers.
+	 *
+	 * @return capacity of the pooled buffers
+	 * @since 0.3.0
+	 */
+	public int getBufferSize() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(bufferSize));
+		return bufferSize;
+	}
+
+	/**
+	 * Returns the maximal number of idle buffers kept by the pool.
+	 *
+	 * @return maximal number of idle buffers
+	 * @since 0.3.0
+	 */
+	public int getMaxBuffers() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(maxBuffers));
+		return maxBuffers;
+	}
+
+	/**
+	 * Returns the number of idle buffers in the pool.
+	 *
+	 * @return number of idle buffers
+	 * @since 0.3.0
+	 */
+	public int getSize() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		final int result = size.get();
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(result));
+		return result;
+	}
+
+	/**
+	 * Checks if the pool contains direct buffers.
+	 *
+	 * @return true/false
+	 * @since 0.3.0
+	 */
+	public boolean isDirect() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(isDirect));
+		return isDirect;
+	}
+
+	/**
+	 * Acquires a cleared buffer with the capacity of the pool.
+	 *
+	 * @return buffer
+	 * @see ByteBuffer
+	 * @since 0.3.0
+	 */
+	public ByteBuffer acquire() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		ByteBuffer result = buffers.poll();
+
+		if (null == result) {
+			result = allocate(bufferSize);
+		} else {
+			size.decrementAndGet();
+		}
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(result));
+		return result;
+	}
+
+	/**
+	 * Acquires a cleared buffer with at least the given capacity.
+	 *
+	 * @param capacity of the buffer
+	 * @return buffer
+	 * @see ByteBuffer
+	 * @since 0.3.0
+	 */
+	public ByteBuffer acquire(final int capacity) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(capacity));
+
+		final ByteBuffer result = bufferSize >= capacity ? acquire() : allocate(capacity);
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(result));
+		return result;
+	}
+
+	/**
+	 * Releases a buffer back to the pool.
+	 * The buffer must not be used afterwards.
+	 *
+	 * @param buffer to release
+	 * @see ByteBuffer
+	 * @since 0.3.0
+	 */
+	public void release(final ByteBuffer buffer) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(buffer));
+
+		if (null != buffer && bufferSize == buffer.capacity() && isDirect == buffer.isDirect() && !buffer.isReadOnly()) {
+			if (maxBuffers > size.getAndIncrement()) {
+				buffer.clear();
+				buffers.offer(buffer);
+			} else {
+				size.decrementAndGet();
+			}
+		}
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+
+	/*
+	 * Private methods
+	 */
+
+	private ByteBuffer allocate(final int capacity) {
+		return isDirect ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+	}
+}
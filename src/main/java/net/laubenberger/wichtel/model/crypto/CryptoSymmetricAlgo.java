@@ -35,6 +35,8 @@ import javax.xml.bind.annotation.XmlRootElement;
 
 /**
  * Symmetric crypto algorithms available in BouncyCastle
+ * <p>
+ * The AEAD algorithms ({@link #isAead()}) use a random nonce per message and authenticate the data; they need the JCE of JavaSE 11 or later (see {@link net.laubenberger.wichtel.helper.HelperCrypto#JCE_PROVIDER}).
  *
  * @author Stefan Laubenberger
  * @version 0.1.0, 2013-07-31
@@ -60,24 +62,52 @@ public enum CryptoSymmetricAlgo implements CryptoAlgo {
 	SKIPJACK("SKIPJACK", "SKIPJACK/CFB/NoPadding", 128, 8), //$NON-NLS-1$ //$NON-NLS-2$
 	TWOFISH("Twofish", "Twofish/CFB/NoPadding", 256, 16), //$NON-NLS-1$ //$NON-NLS-2$
 	TEA("TEA", "TEA/CFB/NoPadding", 128, 8), //$NON-NLS-1$ //$NON-NLS-2$
-	XTEA("XTEA", "XTEA/CFB/NoPadding", 128, 8); //$NON-NLS-1$ //$NON-NLS-2$
+	XTEA("XTEA", "XTEA/CFB/NoPadding", 128, 8), //$NON-NLS-1$ //$NON-NLS-2$
+	AES_GCM("AES", "AES/GCM/NoPadding", 256, 12, 16), //$NON-NLS-1$ //$NON-NLS-2$
+	CHACHA20_POLY1305("ChaCha20", "ChaCha20-Poly1305", 256, 12, 16); //$NON-NLS-1$ //$NON-NLS-2$
 
 	private final String algorithm;
 	private final String xform;
 	private final int defaultKeysize;
 	private final int ivSize;
+	private final int tagSize;
 
 	CryptoSymmetricAlgo(final String algorithm, final String xform, final int defaultKeysize, final int ivSize) {
+		this(algorithm, xform, defaultKeysize, ivSize, 0);
+	}
+
+	CryptoSymmetricAlgo(final String algorithm, final String xform, final int defaultKeysize, final int ivSize, final int tagSize) {
 		this.algorithm = algorithm;
 		this.xform = xform;
 		this.defaultKeysize = defaultKeysize;
 		this.ivSize = ivSize;
+		this.tagSize = tagSize;
 	}
 
 	public int getIvSize() {
 		return ivSize;
 	}
 
+	/**
+	 * Returns the size of the authentication tag.
+	 *
+	 * @return tag size in bytes, 0 if the algorithm isn't authenticated
+	 * @since 0.3.0
+	 */
+	public int getTagSize() {
+		return tagSize;
+	}
+
+	/**
+	 * Checks if the algorithm is an authenticated encryption with associated data (AEAD).
+	 *
+	 * @return true/false
+	 * @since 0.3.0
+	 */
+	public boolean isAead() {
+		return 0 < tagSize;
+	}
+
 	/*
 	 * Implemented methods
 	 */
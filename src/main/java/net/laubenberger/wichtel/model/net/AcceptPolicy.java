@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2007-2013 by Stefan Laubenberger.
+ *
+ * "wichtel" is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License v3.0.
+ *
+ * "wichtel" is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * See the GNU Lesser General Public License for more details:
+ * -----------------------------------------------------------
+ * http://www.gnu.org/licenses
+ *
+ *
+ * This distribution is available at:
+ * ----------------------------------
+ * https://github.com/slaubenberger/wichtel/
+ *
+ *
+ * Contact information:
+ * --------------------
+ * Stefan Laubenberger
+ * Bullingerstrasse 53
+ * CH-8004 Zuerich
+ *
+ * http://www.laubenberger.net
+ * laubenberger@gmail.com
+ */
+
+package net.laubenberger.wichtel.model.net;
+
+import javax.xml.bind.annotation.XmlRootElement;
+
+
+/**
+ * Policies for accepted connections if a server has reached its maximal number of connections
+ *
+ * @author Stefan Laubenberger
+ * @version 0.3.0, 2026-10-17
+ * @since 0.3.0
+ */
+@XmlRootElement(name = "acceptPolicy")
+public enum AcceptPolicy {
+	/**
+	 * Closes the new connection.
+	 */
+	REJECT,
+	/**
+	 * Keeps the new connection in a bounded queue until another connection is closed; closes it if the queue is full.
+	 */
+	QUEUE,
+	/**
+	 * Closes the oldest connection in favour of the new one.
+	 */
+	CLOSE_OLDEST
+}
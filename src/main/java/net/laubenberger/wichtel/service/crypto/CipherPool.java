@@ -0,0 +1,213 @@
+/*
+ * Copyright (c) 2007-2013 by Stefan Laubenberger.
+ *
+ * "wichtel" is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License v3.0.
+ *
+ * "wichtel" is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * See the GNU Lesser General Public License for more details:
+ * -----------------------------------------------------------
+ * http://www.gnu.org/licenses
+ *
+ *
+ * This distribution is available at:
+ * ----------------------------------
+ * https://github.com/slaubenberger/wichtel/
+ *
+ *
+ * Contact information:
+ * --------------------
+ * Stefan Laubenberger
+ * Bullingerstrasse 53
+ * CH-8004 Zuerich
+ *
+ * http://www.laubenberger.net
+ * laubenberger@gmail.com
+ */
+
+package net.laubenberger.wichtel.service.crypto;
+
+import java.security.NoSuchAlgorithmException;
+import java.security.Provider;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.crypto.Cipher;
+import javax.crypto.NoSuchPaddingException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.laubenberger.wichtel.helper.HelperLog;
+import net.laubenberger.wichtel.misc.exception.RuntimeExceptionIsNull;
+import net.laubenberger.wichtel.misc.exception.RuntimeExceptionMustBeGreater;
+import net.laubenberger.wichtel.misc.extendedObject.ExtendedObjectAbstract;
+
+
+/**
+ * Thread-safe pool of {@link Cipher} instances, keyed by transformation and {@link Provider}.
+ * <p>
+ * {@link Cipher#getInstance(String, Provider)} looks up the provider service on every call; the pool reuses the instances instead, so a cipher costs only its initialization.
+ * A borrowed cipher must be initialized before use and is used by a single thread until it is released.
+ * Up to {@link #getMaxCiphers()} idle ciphers are kept per key, further ones are dropped on release.
+ * A pooled cipher references the key of its last initialization until it is initialized again.
+ *
+ * @author Stefan Laubenberger
+ * @version 0.3.0, 2026-10-17
+ * @since 0.3.0
+ */
+public class CipherPool extends ExtendedObjectAbstract {
+	private static final Logger log = LoggerFactory.getLogger(CipherPool.class);
+
+	public static final int DEFAULT_MAX_CIPHERS = 64;
+
+	/**
+	 * Shared pool, used by {@link CryptoSymmetricImpl} by default.
+	 */
+	public static final CipherPool DEFAULT = new CipherPool(DEFAULT_MAX_CIPHERS);
+
+	private final ConcurrentMap<String, Idle> idles = new ConcurrentHashMap<>(); //provider:transformation -> idle ciphers
+
+	private final int maxCiphers;
+
+	public CipherPool(final int maxCiphers) {
+		super();
+		if (log.isTraceEnabled()) log.trace(HelperLog.constructor(maxCiphers));
+
+		if (0 > maxCiphers) {
+			throw new RuntimeExceptionMustBeGreater("maxCiphers", maxCiphers, -1); //$NON-NLS-1$
+		}
+
+		this.maxCiphers = maxCiphers;
+	}
+
+	/**
+	 * Returns the maximal number of idle ciphers kept per transformation and provider.
+	 *
+	 * @return maximal number of idle ciphers
+	 * @since 0.3.0
+	 */
+	public int getMaxCiphers() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(maxCiphers));
+		return maxCiphers;
+	}
+
+	/**
+	 * Returns the number of idle ciphers for a transformation and provider.
+	 *
+	 * @param transformation of the ciphers (e.g. "AES/CFB/NoPadding")
+	 * @param provider		 of the ciphers
+	 * @return number of idle ciphers
+	 * @since 0.3.0
+	 */
+	public int getSize(final String transformation, final Provider provider) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(transformation, provider));
+		if (null == transformation) {
+			throw new RuntimeExceptionIsNull("transformation"); //$NON-NLS-1$
+		}
+		if (null == provider) {
+			throw new RuntimeExceptionIsNull("provider"); //$NON-NLS-1$
+		}
+
+		final Idle idle = idles.get(getKey(transformation, provider));
+		final int result = null == idle ? 0 : idle.size.get();
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(result));
+		return result;
+	}
+
+	/**
+	 * Acquires an uninitialized {@link Cipher} for a transformation and provider.
+	 *
+	 * @param transformation of the cipher (e.g. "AES/CFB/NoPadding")
+	 * @param provider		 of the cipher
+	 * @return {@link Cipher}
+	 * @throws NoSuchAlgorithmException
+	 * @throws NoSuchPaddingException
+	 * @see Cipher
+	 * @since 0.3.0
+	 */
+	public Cipher acquire(final String transformation, final Provider provider) throws NoSuchAlgorithmException, NoSuchPaddingException {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(transformation, provider));
+		if (null == transformation) {
+			throw new RuntimeExceptionIsNull("transformation"); //$NON-NLS-1$
+		}
+		if (null == provider) {
+			throw new RuntimeExceptionIsNull("provider"); //$NON-NLS-1$
+		}
+
+		final Idle idle = idles.get(getKey(transformation, provider));
+		Cipher result = null == idle ? null : idle.ciphers.poll();
+
+		if (null == result) {
+			result = Cipher.getInstance(transformation, provider);
+		} else {
+			idle.size.decrementAndGet();
+		}
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(result));
+		return result;
+	}
+
+	/**
+	 * Releases a {@link Cipher} back to the pool.
+	 * The cipher must not be used afterwards.
+	 *
+	 * @param cipher to release
+	 * @see Cipher
+	 * @since 0.3.0
+	 */
+	public void release(final Cipher cipher) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(cipher));
+
+		if (null != cipher) {
+			final String key = getKey(cipher.getAlgorithm(), cipher.getProvider());
+			Idle idle = idles.get(key);
+			if (null == idle) {
+				final Idle created = new Idle();
+				idle = idles.putIfAbsent(key, created);
+				if (null == idle) {
+					idle = created;
+				}
+			}
+
+			if (maxCiphers > idle.size.getAndIncrement()) {
+				idle.ciphers.offer(cipher);
+			} else {
+				idle.size.decrementAndGet();
+			}
+		}
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+
+	/*
+	 * Private methods
+	 */
+
+	private static String getKey(final String transformation, final Provider provider) {
+		return provider.getName() + ':' + transformation;
+	}
+
+
+	/*
+	 * Inner classes
+	 */
+
+	private static class Idle {
+		final Queue<Cipher> ciphers = new ConcurrentLinkedQueue<>();
+		final AtomicInteger size = new AtomicInteger();
+
+		Idle() {
+		}
+	}
+}
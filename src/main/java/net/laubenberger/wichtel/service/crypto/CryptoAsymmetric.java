@@ -30,6 +30,8 @@
 
 package net.laubenberger.wichtel.service.crypto;
 
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.security.KeyPair;
 import java.security.PrivateKey;
 import java.security.PublicKey;
@@ -144,4 +146,56 @@ public interface CryptoAsymmetric extends Service { //$Example$
 	 */
 	byte[] decrypt(byte[] input, PrivateKey key, int keySize) throws Exception;
 
+	/**
+	 * Encrypt the data (byte-array) as an envelope for a given {@link PublicKey} (RSA or EC).
+	 * The data is encrypted with a random AES-GCM key, only this key is encrypted asymmetrically.
+	 *
+	 * @param input data to encrypt as a byte-array
+	 * @param key	of the recipient
+	 * @return envelope as a byte-array
+	 * @throws Exception
+	 * @see PublicKey
+	 * @since 0.3.0
+	 */
+	byte[] encryptEnvelope(byte[] input, PublicKey key) throws Exception;
+
+	/**
+	 * Decrypt an envelope (byte-array) with a given {@link PrivateKey} (RSA or EC).
+	 *
+	 * @param input envelope as a byte-array
+	 * @param key	of the recipient
+	 * @return decrypted byte-array
+	 * @throws Exception
+	 * @see PrivateKey
+	 * @since 0.3.0
+	 */
+	byte[] decryptEnvelope(byte[] input, PrivateKey key) throws Exception;
+
+	/**
+	 * Encrypt an {@link InputStream} as an envelope to an {@link OutputStream} for a given {@link PublicKey} (RSA or EC).
+	 *
+	 * @param is  {@link InputStream} to encrypt
+	 * @param os  {@link OutputStream} for the envelope
+	 * @param key of the recipient
+	 * @throws Exception
+	 * @see InputStream
+	 * @see OutputStream
+	 * @see PublicKey
+	 * @since 0.3.0
+	 */
+	void encryptEnvelope(InputStream is, OutputStream os, PublicKey key) throws Exception;
+
+	/**
+	 * Decrypt an envelope from an {@link InputStream} to an {@link OutputStream} with a given {@link PrivateKey} (RSA or EC).
+	 *
+	 * @param is  {@link InputStream} of the envelope
+	 * @param os  {@link OutputStream} for the decrypted data
+	 * @param key of the recipient
+	 * @throws Exception
+	 * @see InputStream
+	 * @see OutputStream
+	 * @see PrivateKey
+	 * @since 0.3.0
+	 */
+	void decryptEnvelope(InputStream is, OutputStream os, PrivateKey key) throws Exception;
 }
@@ -30,10 +30,18 @@
 
 package net.laubenberger.wichtel.service.crypto;
 
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
 import java.security.InvalidKeyException;
 import java.security.Key;
+import java.security.KeyFactory;
 import java.security.KeyPair;
 import java.security.KeyPairGenerator;
+import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.security.NoSuchProviderException;
 import java.security.PrivateKey;
@@ -41,21 +49,34 @@ import java.security.Provider;
 import java.security.PublicKey;
 import java.security.Signature;
 import java.security.SignatureException;
+import java.security.interfaces.ECPrivateKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAKey;
+import java.security.spec.MGF1ParameterSpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Arrays;
 
 import javax.crypto.BadPaddingException;
 import javax.crypto.Cipher;
 import javax.crypto.IllegalBlockSizeException;
+import javax.crypto.KeyAgreement;
 import javax.crypto.NoSuchPaddingException;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.OAEPParameterSpec;
+import javax.crypto.spec.PSource;
+import javax.crypto.spec.SecretKeySpec;
 
 import net.laubenberger.wichtel.helper.HelperArray;
 import net.laubenberger.wichtel.helper.HelperCrypto;
 import net.laubenberger.wichtel.helper.HelperEnvironment;
 import net.laubenberger.wichtel.helper.HelperLog;
+import net.laubenberger.wichtel.misc.Constants;
 import net.laubenberger.wichtel.misc.exception.RuntimeExceptionExceedsVmMemory;
 import net.laubenberger.wichtel.misc.exception.RuntimeExceptionIsEmpty;
 import net.laubenberger.wichtel.misc.exception.RuntimeExceptionIsNull;
 import net.laubenberger.wichtel.misc.exception.RuntimeExceptionMustBeGreater;
 import net.laubenberger.wichtel.model.crypto.CryptoAsymmetricAlgo;
+import net.laubenberger.wichtel.model.crypto.CryptoSymmetricAlgo;
 import net.laubenberger.wichtel.model.crypto.SignatureAlgo;
 import net.laubenberger.wichtel.service.ServiceAbstract;
 
@@ -64,6 +85,13 @@ import org.slf4j.LoggerFactory;
 
 /**
  * This is a class for asymmetric cryptology via RSA.
+ * <p>
+ * Large data should be encrypted as an envelope (hybrid encryption): the data is encrypted with a random AES-GCM key,
+ * which is wrapped with RSA-OAEP (SHA-256) or, for EC keys, derived via ECIES (ephemeral ECDH with a SHA-256 concat KDF).
+ * Layout of an envelope: version (byte), length of the encapsulated key (short), encapsulated key, AES-GCM data (nonce, ciphertext, tag).
+ * The header (version and encapsulated key) is authenticated as additional data of AES-GCM, so it cannot be modified or replaced.
+ * AES-GCM releases the data only after the tag is verified, therefore decrypting an envelope stream holds the whole payload in memory;
+ * large files should be encrypted with a {@link CryptoContainer} and a data key in an envelope.
  *
  * @author Stefan Laubenberger
  * @version 0.1.0, 2013-07-31
@@ -72,11 +100,17 @@ import org.slf4j.LoggerFactory;
 public class CryptoAsymmetricImpl extends ServiceAbstract implements CryptoAsymmetric {
 	private static final Logger log = LoggerFactory.getLogger(CryptoAsymmetricImpl.class);
 
+	private static final byte ENVELOPE_VERSION = 1;
+	private static final int HEADER_SIZE = 3; //version and length of the encapsulated key
+	private static final String XFORM_OAEP = "RSA/ECB/OAEPPadding"; //$NON-NLS-1$
+	private static final OAEPParameterSpec OAEP_SPEC = new OAEPParameterSpec("SHA-256", "MGF1", MGF1ParameterSpec.SHA256, PSource.PSpecified.DEFAULT); //$NON-NLS-1$ //$NON-NLS-2$
+
 	private final Provider provider;
 	private final CryptoAsymmetricAlgo algorithm;
 
 	private final Cipher cipher;
 	private final KeyPairGenerator kpg;
+	private final CryptoSymmetricImpl cryptoSymm;
 
 	public CryptoAsymmetricImpl(final Provider provider, final CryptoAsymmetricAlgo algorithm) throws NoSuchAlgorithmException, NoSuchPaddingException {
 		super();
@@ -94,6 +128,7 @@ public class CryptoAsymmetricImpl extends ServiceAbstract implements CryptoAsymm
 		
 		cipher = Cipher.getInstance(algorithm.getXform(), provider);
 		kpg = KeyPairGenerator.getInstance(algorithm.getAlgorithm(), provider);
+		cryptoSymm = new CryptoSymmetricImpl(CryptoSymmetricAlgo.AES_GCM);
 	}
 	
 	public CryptoAsymmetricImpl(final CryptoAsymmetricAlgo algorithm) throws NoSuchAlgorithmException, NoSuchPaddingException {
@@ -146,6 +181,100 @@ public class CryptoAsymmetricImpl extends ServiceAbstract implements CryptoAsymm
 		return result;
 	}
 
+	/**
+	 * Encapsulates a data key for a {@link PublicKey}.
+	 *
+	 * @param key of the recipient
+	 * @return encapsulated key and data key
+	 * @throws GeneralSecurityException
+	 * @since 0.3.0
+	 */
+	private Encapsulation encapsulate(final PublicKey key) throws GeneralSecurityException {
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodStart(key));
+
+		final Encapsulation result;
+		if (key instanceof RSAKey) {
+			final SecretKey dataKey = cryptoSymm.generateKey();
+			final Cipher oaep = CipherPool.DEFAULT.acquire(XFORM_OAEP, HelperCrypto.JCE_PROVIDER);
+			try {
+				oaep.init(Cipher.WRAP_MODE, key, OAEP_SPEC);
+				result = new Encapsulation(oaep.wrap(dataKey), dataKey);
+			} finally {
+				CipherPool.DEFAULT.release(oaep);
+			}
+		} else if (key instanceof ECPublicKey) {
+			final KeyPairGenerator ephemeralGenerator = KeyPairGenerator.getInstance("EC"); //$NON-NLS-1$
+			ephemeralGenerator.initialize(((ECPublicKey) key).getParams());
+			final KeyPair ephemeral = ephemeralGenerator.generateKeyPair();
+			final byte[] encapsulated = ephemeral.getPublic().getEncoded();
+			result = new Encapsulation(encapsulated, deriveKey(ephemeral.getPrivate(), key, encapsulated));
+		} else {
+			throw new IllegalArgumentException("key is neither an RSA nor an EC key: " + key.getAlgorithm()); //$NON-NLS-1$
+		}
+
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodExit(result));
+		return result;
+	}
+
+	/**
+	 * Decapsulates the data key with a {@link PrivateKey}.
+	 *
+	 * @param encapsulated key of the envelope
+	 * @param key			 of the recipient
+	 * @return data key
+	 * @throws GeneralSecurityException
+	 * @since 0.3.0
+	 */
+	private SecretKey decapsulate(final byte[] encapsulated, final PrivateKey key) throws GeneralSecurityException {
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodStart(encapsulated, key));
+
+		final SecretKey result;
+		if (key instanceof RSAKey) {
+			final Cipher oaep = CipherPool.DEFAULT.acquire(XFORM_OAEP, HelperCrypto.JCE_PROVIDER);
+			try {
+				oaep.init(Cipher.UNWRAP_MODE, key, OAEP_SPEC);
+				result = (SecretKey) oaep.unwrap(encapsulated, CryptoSymmetricAlgo.AES_GCM.getAlgorithm(), Cipher.SECRET_KEY);
+			} finally {
+				CipherPool.DEFAULT.release(oaep);
+			}
+		} else if (key instanceof ECPrivateKey) {
+			final PublicKey ephemeral = KeyFactory.getInstance("EC").generatePublic(new X509EncodedKeySpec(encapsulated)); //$NON-NLS-1$
+			result = deriveKey(key, ephemeral, encapsulated);
+		} else {
+			throw new IllegalArgumentException("key is neither an RSA nor an EC key: " + key.getAlgorithm()); //$NON-NLS-1$
+		}
+
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodExit(result));
+		return result;
+	}
+
+	/**
+	 * Derives the data key from an ECDH agreement (concat KDF of NIST SP 800-56A with SHA-256, the ephemeral public key as other info).
+	 *
+	 * @param privateKey   for the agreement
+	 * @param publicKey	of the other party
+	 * @param encapsulated ephemeral public key
+	 * @return data key
+	 * @throws GeneralSecurityException
+	 * @since 0.3.0
+	 */
+	private static SecretKey deriveKey(final PrivateKey privateKey, final PublicKey publicKey, final byte[] encapsulated) throws GeneralSecurityException {
+		final KeyAgreement agreement = KeyAgreement.getInstance("ECDH"); //$NON-NLS-1$
+		agreement.init(privateKey);
+		agreement.doPhase(publicKey, true);
+
+		final MessageDigest md = MessageDigest.getInstance("SHA-256"); //$NON-NLS-1$
+		md.update(new byte[]{0, 0, 0, 1}); //counter
+		md.update(agreement.generateSecret());
+		md.update(encapsulated);
+
+		return new SecretKeySpec(md.digest(), CryptoSymmetricAlgo.AES_GCM.getAlgorithm());
+	}
+
+	private static byte[] createHeader(final byte[] encapsulated) {
+		return ByteBuffer.allocate(HEADER_SIZE + encapsulated.length).put(ENVELOPE_VERSION).putShort((short) encapsulated.length).put(encapsulated).array();
+	}
+
 
 	/*
 	 * Implemented methods
@@ -394,4 +523,123 @@ public class CryptoAsymmetricImpl extends ServiceAbstract implements CryptoAsymm
 		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(result));
 		return result;
 	}
+
+	@Override
+	public byte[] encryptEnvelope(final byte[] input, final PublicKey key) throws GeneralSecurityException { //$JUnit$
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(input, key));
+		if (null == input) {
+			throw new RuntimeExceptionIsNull("input"); //$NON-NLS-1$
+		}
+		if (!HelperArray.isValid(input)) {
+			throw new RuntimeExceptionIsEmpty("input"); //$NON-NLS-1$
+		}
+		if (null == key) {
+			throw new RuntimeExceptionIsNull("key"); //$NON-NLS-1$
+		}
+
+		final Encapsulation encapsulation = encapsulate(key);
+		final byte[] header = createHeader(encapsulation.encapsulated);
+		final CryptoSymmetricAlgo algo = CryptoSymmetricAlgo.AES_GCM;
+
+		final ByteBuffer buffer = ByteBuffer.allocate(header.length + algo.getIvSize() + input.length + algo.getTagSize());
+		buffer.put(header);
+		cryptoSymm.encrypt(ByteBuffer.wrap(input), buffer, encapsulation.dataKey, header);
+		final byte[] result = buffer.array();
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(result));
+		return result;
+	}
+
+	@Override
+	public byte[] decryptEnvelope(final byte[] input, final PrivateKey key) throws GeneralSecurityException { //$JUnit$
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(input, key));
+		if (null == input) {
+			throw new RuntimeExceptionIsNull("input"); //$NON-NLS-1$
+		}
+		if (!HelperArray.isValid(input)) {
+			throw new RuntimeExceptionIsEmpty("input"); //$NON-NLS-1$
+		}
+		if (null == key) {
+			throw new RuntimeExceptionIsNull("key"); //$NON-NLS-1$
+		}
+
+		final ByteBuffer buffer = ByteBuffer.wrap(input);
+		if (HEADER_SIZE > buffer.remaining() || ENVELOPE_VERSION != buffer.get()) {
+			throw new IllegalArgumentException("input is not an envelope"); //$NON-NLS-1$
+		}
+		final byte[] encapsulated = new byte[buffer.getShort() & 0xffff];
+		if (encapsulated.length > buffer.remaining()) {
+			throw new IllegalArgumentException("input is not an envelope"); //$NON-NLS-1$
+		}
+		buffer.get(encapsulated);
+		final byte[] header = Arrays.copyOf(input, buffer.position());
+
+		final ByteBuffer output = ByteBuffer.allocate(Math.max(0, buffer.remaining() - CryptoSymmetricAlgo.AES_GCM.getIvSize() - CryptoSymmetricAlgo.AES_GCM.getTagSize()));
+		cryptoSymm.decrypt(buffer, output, decapsulate(encapsulated, key), header);
+		final byte[] result = output.array();
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(result));
+		return result;
+	}
+
+	@Override
+	public void encryptEnvelope(final InputStream is, final OutputStream os, final PublicKey key) throws GeneralSecurityException, IOException { //$JUnit$
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(is, os, key));
+		if (null == is) {
+			throw new RuntimeExceptionIsNull("is"); //$NON-NLS-1$
+		}
+		if (null == os) {
+			throw new RuntimeExceptionIsNull("os"); //$NON-NLS-1$
+		}
+		if (null == key) {
+			throw new RuntimeExceptionIsNull("key"); //$NON-NLS-1$
+		}
+
+		final Encapsulation encapsulation = encapsulate(key);
+		final byte[] header = createHeader(encapsulation.encapsulated);
+		os.write(header);
+		cryptoSymm.encrypt(is, os, encapsulation.dataKey, Constants.DEFAULT_FILE_BUFFER_SIZE, header);
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	@Override
+	public void decryptEnvelope(final InputStream is, final OutputStream os, final PrivateKey key) throws GeneralSecurityException, IOException { //$JUnit$
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(is, os, key));
+		if (null == is) {
+			throw new RuntimeExceptionIsNull("is"); //$NON-NLS-1$
+		}
+		if (null == os) {
+			throw new RuntimeExceptionIsNull("os"); //$NON-NLS-1$
+		}
+		if (null == key) {
+			throw new RuntimeExceptionIsNull("key"); //$NON-NLS-1$
+		}
+
+		final DataInputStream dis = new DataInputStream(is); //not closed, the stream is read on
+		if (ENVELOPE_VERSION != dis.readByte()) {
+			throw new IOException("Stream is not an envelope"); //$NON-NLS-1$
+		}
+		final byte[] encapsulated = new byte[dis.readUnsignedShort()];
+		dis.readFully(encapsulated);
+
+		cryptoSymm.decrypt(is, os, decapsulate(encapsulated, key), Constants.DEFAULT_FILE_BUFFER_SIZE, createHeader(encapsulated));
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+
+	/*
+	 * Inner classes
+	 */
+
+	private static class Encapsulation {
+		final byte[] encapsulated;
+		final SecretKey dataKey;
+
+		Encapsulation(final byte[] encapsulated, final SecretKey dataKey) {
+			this.encapsulated = encapsulated;
+			this.dataKey = dataKey;
+		}
+	}
 }
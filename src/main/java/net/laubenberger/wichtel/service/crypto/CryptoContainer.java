@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2007-2013 by Stefan Laubenberger.
+ *
+ * "wichtel" is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License v3.0.
+ *
+ * "wichtel" is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * See the GNU Lesser General Public License for more details:
+ * -----------------------------------------------------------
+ * http://www.gnu.org/licenses
+ *
+ *
+ * This distribution is available at:
+ * ----------------------------------
+ * https://github.com/slaubenberger/wichtel/
+ *
+ *
+ * Contact information:
+ * --------------------
+ * Stefan Laubenberger
+ * Bullingerstrasse 53
+ * CH-8004 Zuerich
+ *
+ * http://www.laubenberger.net
+ * laubenberger@gmail.com
+ */
+
+package net.laubenberger.wichtel.service.crypto;
+
+import java.io.File;
+import java.security.Key;
+
+import net.laubenberger.wichtel.service.Service;
+
+
+/**
+ * This is an interface for encrypted file containers.
+ * <p>
+ * A container splits a file into segments, which are encrypted independently with an AEAD algorithm.
+ * An index header holds the nonces of all segments, so every segment can be decrypted on its own.
+ *
+ * @author Stefan Laubenberger
+ * @version 0.3.0, 2026-10-17
+ * @since 0.3.0
+ */
+public interface CryptoContainer extends Service {
+
+	/**
+	 * Encrypt an input {@link File} to a container {@link File} with a given {@link Key}.
+	 *
+	 * @param input  {@link File} to encrypt
+	 * @param output container {@link File} for the encrypted data
+	 * @param key	 for the encryption
+	 * @throws Exception
+	 * @see File
+	 * @see Key
+	 * @since 0.3.0
+	 */
+	void encrypt(File input, File output, Key key) throws Exception;
+
+	/**
+	 * Decrypt a container {@link File} to an output {@link File} with a given {@link Key}.
+	 *
+	 * @param input  container {@link File} to decrypt
+	 * @param output {@link File} for the decrypted data
+	 * @param key	 for the decryption
+	 * @throws Exception
+	 * @see File
+	 * @see Key
+	 * @since 0.3.0
+	 */
+	void decrypt(File input, File output, Key key) throws Exception;
+
+	/**
+	 * Decrypt a single segment of a container {@link File} with a given {@link Key}.
+	 *
+	 * @param input	container {@link File} to decrypt
+	 * @param key	  for the decryption
+	 * @param segment index of the segment
+	 * @return decrypted segment as byte-array
+	 * @throws Exception
+	 * @see File
+	 * @see Key
+	 * @since 0.3.0
+	 */
+	byte[] decrypt(File input, Key key, int segment) throws Exception;
+
+	/**
+	 * Returns the number of segments of a container {@link File}.
+	 *
+	 * @param input container {@link File}
+	 * @return number of segments
+	 * @throws Exception
+	 * @see File
+	 * @since 0.3.0
+	 */
+	int getSegmentCount(File input) throws Exception;
+}
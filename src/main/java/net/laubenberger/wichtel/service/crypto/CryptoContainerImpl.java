@@ -0,0 +1,586 @@
+/*
+ * Copyright (c) 2007-2013 by Stefan Laubenberger.
+ *
+ * "wichtel" is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License v3.0.
+ *
+ * "wichtel" is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * See the GNU Lesser General Public License for more details:
+ * -----------------------------------------------------------
+ * http://www.gnu.org/licenses
+ *
+ *
+ * This distribution is available at:
+ * ----------------------------------
+ * https://github.com/slaubenberger/wichtel/
+ *
+ *
+ * Contact information:
+ * --------------------
+ * Stefan Laubenberger
+ * Bullingerstrasse 53
+ * CH-8004 Zuerich
+ *
+ * http://www.laubenberger.net
+ * laubenberger@gmail.com
+ */
+
+package net.laubenberger.wichtel.service.crypto;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.security.GeneralSecurityException;
+import java.security.InvalidAlgorithmParameterException;
+import java.security.InvalidKeyException;
+import java.security.Key;
+import java.security.NoSuchAlgorithmException;
+import java.security.Provider;
+import java.security.SecureRandom;
+import java.security.spec.AlgorithmParameterSpec;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.crypto.Cipher;
+import javax.crypto.NoSuchPaddingException;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.IvParameterSpec;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.laubenberger.wichtel.helper.HelperCrypto;
+import net.laubenberger.wichtel.helper.HelperLog;
+import net.laubenberger.wichtel.helper.HelperObject;
+import net.laubenberger.wichtel.misc.BufferPool;
+import net.laubenberger.wichtel.misc.exception.RuntimeExceptionIsEquals;
+import net.laubenberger.wichtel.misc.exception.RuntimeExceptionIsNull;
+import net.laubenberger.wichtel.misc.exception.RuntimeExceptionMustBeGreater;
+import net.laubenberger.wichtel.misc.exception.RuntimeExceptionMustBeSmaller;
+import net.laubenberger.wichtel.model.crypto.CryptoSymmetricAlgo;
+import net.laubenberger.wichtel.service.ServiceAbstract;
+
+
+/**
+ * Encrypted file container with segments, which are encrypted and decrypted in parallel on a {@link ForkJoinPool}.
+ * <p>
+ * Layout of a container:
+ * <ul>
+ * <li>header: magic "WCC1", segment size (int), length of the plain data (long), number of segments (int)</li>
+ * <li>index: the random nonce of every segment</li>
+ * <li>segments: the encrypted segments with their authentication tags, all but the last with the full segment size</li>
+ * </ul>
+ * Every segment authenticates the header and its own index as additional data, so segments can neither be swapped nor cut off.
+ * A container has at least one segment (empty for empty data), so the header is always authenticated with the key.
+ * The segments are read and written with positional I/O into pooled direct buffers, therefore files larger than 2GB are supported.
+ * With random nonces, a key should not encrypt more than 2^32 segments.
+ * <p>
+ * If the decryption fails (e.g. for a modified segment), the output file is incomplete.
+ *
+ * @author Stefan Laubenberger
+ * @version 0.3.0, 2026-10-17
+ * @since 0.3.0
+ */
+public class CryptoContainerImpl extends ServiceAbstract implements CryptoContainer {
+	private static final Logger log = LoggerFactory.getLogger(CryptoContainerImpl.class);
+
+	public static final int DEFAULT_SEGMENT_SIZE = 1024 * 1024; //1MB
+
+	private static final int MAGIC = 0x57434331; //WCC1
+	private static final int HEADER_SIZE = 20;
+
+	private static final SecureRandom RANDOM = new SecureRandom();
+
+	private final CryptoSymmetricAlgo algorithm;
+	private final Provider provider;
+	private final CipherPool pool;
+	private final ForkJoinPool forkJoinPool;
+
+	private int segmentSize = DEFAULT_SEGMENT_SIZE;
+
+	public CryptoContainerImpl(final CryptoSymmetricAlgo algorithm, final Provider provider, final CipherPool pool, final ForkJoinPool forkJoinPool) throws NoSuchAlgorithmException, NoSuchPaddingException {
+		super();
+		if (log.isTraceEnabled()) log.trace(HelperLog.constructor(algorithm, provider, pool, forkJoinPool));
+
+		if (null == algorithm) {
+			throw new RuntimeExceptionIsNull("algorithm"); //$NON-NLS-1$
+		}
+		if (!algorithm.isAead()) {
+			throw new IllegalArgumentException("algorithm is not an AEAD algorithm: " + algorithm); //$NON-NLS-1$
+		}
+		if (null == provider) {
+			throw new RuntimeExceptionIsNull("provider"); //$NON-NLS-1$
+		}
+		if (null == pool) {
+			throw new RuntimeExceptionIsNull("pool"); //$NON-NLS-1$
+		}
+		if (null == forkJoinPool) {
+			throw new RuntimeExceptionIsNull("forkJoinPool"); //$NON-NLS-1$
+		}
+
+		this.algorithm = algorithm;
+		this.provider = provider;
+		this.pool = pool;
+		this.forkJoinPool = forkJoinPool;
+
+		pool.release(pool.acquire(algorithm.getXform(), provider)); //fails early for unknown transformations
+	}
+
+	public CryptoContainerImpl(final CryptoSymmetricAlgo algorithm) throws NoSuchAlgorithmException, NoSuchPaddingException {
+		this(algorithm, HelperCrypto.JCE_PROVIDER, CipherPool.DEFAULT, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Returns the {@link ForkJoinPool} for the segments.
+	 *
+	 * @return {@link ForkJoinPool}
+	 * @see ForkJoinPool
+	 * @since 0.3.0
+	 */
+	public ForkJoinPool getForkJoinPool() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(forkJoinPool));
+		return forkJoinPool;
+	}
+
+	/**
+	 * Returns the segment size for new containers.
+	 *
+	 * @return segment size in bytes
+	 * @since 0.3.0
+	 */
+	public int getSegmentSize() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(segmentSize));
+		return segmentSize;
+	}
+
+	/**
+	 * Sets the segment size for new containers (default: {@link #DEFAULT_SEGMENT_SIZE}).
+	 * Containers are always decrypted with the segment size of their header.
+	 *
+	 * @param segmentSize in bytes
+	 * @since 0.3.0
+	 */
+	public void setSegmentSize(final int segmentSize) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(segmentSize));
+		if (0 >= segmentSize) {
+			throw new RuntimeExceptionMustBeGreater("segmentSize", segmentSize, 0); //$NON-NLS-1$
+		}
+		if (Integer.MAX_VALUE - algorithm.getTagSize() < segmentSize) {
+			throw new RuntimeExceptionMustBeSmaller("segmentSize", segmentSize, Integer.MAX_VALUE - algorithm.getTagSize()); //$NON-NLS-1$
+		}
+
+		this.segmentSize = segmentSize;
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+
+	/*
+	 * Private methods
+	 */
+
+	private Cipher acquireCipher() {
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodStart());
+
+		final Cipher result;
+		try {
+			result = pool.acquire(algorithm.getXform(), provider);
+		} catch (NoSuchAlgorithmException | NoSuchPaddingException ex) {
+			throw new IllegalStateException("Transformation not available anymore: " + algorithm.getXform(), ex); //$NON-NLS-1$
+		}
+
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodExit(result));
+		return result;
+	}
+
+	private AlgorithmParameterSpec prepareParameters(final byte[] nonce) {
+		return CryptoSymmetricAlgo.AES_GCM == algorithm ? new GCMParameterSpec(algorithm.getTagSize() * 8, nonce) : new IvParameterSpec(nonce);
+	}
+
+	//same workaround as CryptoSymmetricImpl: the JDK's nonce-reuse check also rejects decrypting with the nonce the pooled cipher encrypted last
+	private void initDecrypt(final Cipher cipher, final Key key, final byte[] nonce) throws InvalidKeyException, InvalidAlgorithmParameterException {
+		try {
+			cipher.init(Cipher.DECRYPT_MODE, key, prepareParameters(nonce));
+		} catch (InvalidKeyException ex) {
+			//the JCE rejects the key and nonce of the previous initialization also for decryption (ChaCha20-Poly1305), which happens if the pooled cipher encrypted the segment
+			final byte[] other = new byte[algorithm.getIvSize()];
+			RANDOM.nextBytes(other);
+			cipher.init(Cipher.ENCRYPT_MODE, key, prepareParameters(other));
+			cipher.init(Cipher.DECRYPT_MODE, key, prepareParameters(nonce));
+		}
+	}
+
+	private void encryptSegment(final FileChannel in, final FileChannel out, final ByteBuffer buffer, final Key key, final Header header, final int segment) throws GeneralSecurityException, IOException {
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodStart(in, out, buffer, key, header, segment));
+
+		buffer.limit(header.getLength(segment));
+		readFully(in, buffer, (long) segment * header.segmentSize);
+		buffer.flip();
+
+		final ByteBuffer src = buffer.duplicate();
+		buffer.clear();
+
+		final Cipher cipher = acquireCipher();
+		try {
+			cipher.init(Cipher.ENCRYPT_MODE, key, prepareParameters(header.getNonce(segment)));
+			cipher.updateAAD(header.getAad(segment));
+			cipher.doFinal(src, buffer); //in place
+		} finally {
+			pool.release(cipher);
+		}
+
+		buffer.flip();
+		writeFully(out, buffer, header.getOffset(segment));
+
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodExit());
+	}
+
+	private void decryptSegment(final FileChannel in, final ByteBuffer buffer, final Key key, final Header header, final int segment) throws GeneralSecurityException, IOException {
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodStart(in, buffer, key, header, segment));
+
+		buffer.limit(header.getLength(segment) + algorithm.getTagSize());
+		readFully(in, buffer, header.getOffset(segment));
+		buffer.flip();
+
+		final ByteBuffer src = buffer.duplicate();
+		buffer.clear();
+
+		final Cipher cipher = acquireCipher();
+		try {
+			initDecrypt(cipher, key, header.getNonce(segment));
+			cipher.updateAAD(header.getAad(segment));
+			cipher.doFinal(src, buffer); //in place
+		} finally {
+			pool.release(cipher);
+		}
+
+		buffer.flip();
+
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodExit());
+	}
+
+	private BufferPool createBuffers(final Header header) {
+		//one buffer per worker holds a segment with its tag
+		return new BufferPool((int) Math.min(header.segmentSize, header.length) + algorithm.getTagSize(), forkJoinPool.getParallelism(), true);
+	}
+
+	private long getContainerSize(final int segmentCount, final long length) {
+		return HEADER_SIZE + (long) segmentCount * (algorithm.getIvSize() + algorithm.getTagSize()) + length;
+	}
+
+	private void invoke(final int segmentCount, final SegmentTask task) throws GeneralSecurityException, IOException {
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodStart(segmentCount, task));
+
+		final AtomicReference<Exception> error = new AtomicReference<>(); //first failed segment, the ForkJoinPool would wrap it
+		final List<Callable<Void>> tasks = new ArrayList<>(segmentCount);
+		for (int ii = 0; segmentCount > ii; ii++) {
+			final int segment = ii;
+			tasks.add(new Callable<Void>() {
+				@Override
+				public Void call() {
+					if (null == error.get()) {
+						try {
+							task.run(segment);
+						} catch (Exception ex) {
+							error.compareAndSet(null, ex);
+						}
+					}
+					return null;
+				}
+			});
+		}
+
+		for (final Future<Void> future : forkJoinPool.invokeAll(tasks)) {
+			try {
+				future.get();
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("Interrupted while waiting for the segments"); //$NON-NLS-1$
+			} catch (ExecutionException ex) {
+				throw new IllegalStateException(ex.getCause());
+			}
+		}
+
+		final Exception ex = error.get();
+		if (ex instanceof GeneralSecurityException) {
+			throw (GeneralSecurityException) ex;
+		}
+		if (ex instanceof IOException) {
+			throw (IOException) ex;
+		}
+		if (null != ex) {
+			throw (RuntimeException) ex;
+		}
+
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodExit());
+	}
+
+	private Header readHeader(final FileChannel in, final File file) throws IOException {
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodStart(in, file));
+
+		final ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE);
+		readFully(in, buffer, 0L);
+		buffer.flip();
+
+		if (MAGIC != buffer.getInt()) {
+			throw new IOException("Not a container: " + file); //$NON-NLS-1$
+		}
+		final int segmentSize = buffer.getInt();
+		final long length = buffer.getLong();
+		final int segmentCount = buffer.getInt();
+
+		//validate everything against the file size before the index is allocated, a crafted header must not exhaust the memory
+		final long size = in.size();
+		if (0 >= segmentSize || Integer.MAX_VALUE - algorithm.getTagSize() < segmentSize || 0L > length || size < length
+				|| 0 >= segmentCount || Integer.MAX_VALUE / algorithm.getIvSize() < segmentCount || countSegments(segmentSize, length) != segmentCount) {
+			throw new IOException("Invalid container header: " + file); //$NON-NLS-1$
+		}
+		if (size != getContainerSize(segmentCount, length)) {
+			throw new IOException("Invalid container size: " + file); //$NON-NLS-1$
+		}
+
+		final ByteBuffer nonces = ByteBuffer.allocate(segmentCount * algorithm.getIvSize());
+		readFully(in, nonces, HEADER_SIZE);
+
+		final Header result = new Header(segmentSize, length, segmentCount, nonces.array());
+
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodExit(result));
+		return result;
+	}
+
+	private static void readFully(final FileChannel in, final ByteBuffer buffer, final long position) throws IOException {
+		long offset = position;
+		while (buffer.hasRemaining()) {
+			final int read = in.read(buffer, offset);
+			if (0 > read) {
+				throw new EOFException("Container is incomplete"); //$NON-NLS-1$
+			}
+			offset += read;
+		}
+	}
+
+	private static void writeFully(final FileChannel out, final ByteBuffer buffer, final long position) throws IOException {
+		long offset = position;
+		while (buffer.hasRemaining()) {
+			offset += out.write(buffer, offset);
+		}
+	}
+
+	private static long countSegments(final int segmentSize, final long length) {
+		return Math.max(1L, (length + segmentSize - 1L) / segmentSize); //empty data has one empty segment
+	}
+
+
+	/*
+	 * Implemented methods
+	 */
+
+	@Override
+	public void encrypt(final File input, final File output, final Key key) throws GeneralSecurityException, IOException {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(input, output, key));
+		if (null == input) {
+			throw new RuntimeExceptionIsNull("input"); //$NON-NLS-1$
+		}
+		if (null == output) {
+			throw new RuntimeExceptionIsNull("output"); //$NON-NLS-1$
+		}
+		if (HelperObject.isEquals(input, output)) {
+			throw new RuntimeExceptionIsEquals("input", "output"); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		if (null == key) {
+			throw new RuntimeExceptionIsNull("key"); //$NON-NLS-1$
+		}
+
+		try (RandomAccessFile rafIn = new RandomAccessFile(input, "r"); //$NON-NLS-1$
+			RandomAccessFile rafOut = new RandomAccessFile(output, "rw")) { //$NON-NLS-1$
+			final FileChannel in = rafIn.getChannel();
+			final FileChannel out = rafOut.getChannel();
+
+			final int segmentSize = this.segmentSize;
+			final long length = in.size();
+			final long segmentCount = countSegments(segmentSize, length);
+			if (Integer.MAX_VALUE / algorithm.getIvSize() < segmentCount) {
+				throw new IllegalArgumentException("input has too many segments: " + segmentCount); //$NON-NLS-1$
+			}
+
+			final byte[] nonces = new byte[(int) segmentCount * algorithm.getIvSize()];
+			RANDOM.nextBytes(nonces);
+			final Header header = new Header(segmentSize, length, (int) segmentCount, nonces);
+
+			rafOut.setLength(0L);
+			rafOut.setLength(getContainerSize(header.segmentCount, length));
+			final ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + nonces.length);
+			buffer.put(header.prefix).put(nonces).flip();
+			writeFully(out, buffer, 0L);
+
+			final BufferPool buffers = createBuffers(header);
+			invoke(header.segmentCount, new SegmentTask() {
+				@Override
+				public void run(final int segment) throws GeneralSecurityException, IOException {
+					final ByteBuffer segmentBuffer = buffers.acquire();
+					try {
+						encryptSegment(in, out, segmentBuffer, key, header, segment);
+					} finally {
+						buffers.release(segmentBuffer);
+					}
+				}
+			});
+		}
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	@Override
+	public void decrypt(final File input, final File output, final Key key) throws GeneralSecurityException, IOException {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(input, output, key));
+		if (null == input) {
+			throw new RuntimeExceptionIsNull("input"); //$NON-NLS-1$
+		}
+		if (null == output) {
+			throw new RuntimeExceptionIsNull("output"); //$NON-NLS-1$
+		}
+		if (HelperObject.isEquals(input, output)) {
+			throw new RuntimeExceptionIsEquals("input", "output"); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		if (null == key) {
+			throw new RuntimeExceptionIsNull("key"); //$NON-NLS-1$
+		}
+
+		try (RandomAccessFile rafIn = new RandomAccessFile(input, "r"); //$NON-NLS-1$
+			RandomAccessFile rafOut = new RandomAccessFile(output, "rw")) { //$NON-NLS-1$
+			final FileChannel in = rafIn.getChannel();
+			final FileChannel out = rafOut.getChannel();
+			final Header header = readHeader(in, input);
+
+			rafOut.setLength(0L);
+			rafOut.setLength(header.length);
+
+			final BufferPool buffers = createBuffers(header);
+			invoke(header.segmentCount, new SegmentTask() {
+				@Override
+				public void run(final int segment) throws GeneralSecurityException, IOException {
+					final ByteBuffer segmentBuffer = buffers.acquire();
+					try {
+						decryptSegment(in, segmentBuffer, key, header, segment);
+						writeFully(out, segmentBuffer, (long) segment * header.segmentSize);
+					} finally {
+						buffers.release(segmentBuffer);
+					}
+				}
+			});
+		}
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	@Override
+	public byte[] decrypt(final File input, final Key key, final int segment) throws GeneralSecurityException, IOException {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(input, key, segment));
+		if (null == input) {
+			throw new RuntimeExceptionIsNull("input"); //$NON-NLS-1$
+		}
+		if (null == key) {
+			throw new RuntimeExceptionIsNull("key"); //$NON-NLS-1$
+		}
+		if (0 > segment) {
+			throw new RuntimeExceptionMustBeGreater("segment", segment, -1); //$NON-NLS-1$
+		}
+
+		final byte[] result;
+		try (RandomAccessFile raf = new RandomAccessFile(input, "r")) { //$NON-NLS-1$
+			final FileChannel in = raf.getChannel();
+			final Header header = readHeader(in, input);
+			if (header.segmentCount <= segment) {
+				throw new RuntimeExceptionMustBeSmaller("segment", segment, header.segmentCount); //$NON-NLS-1$
+			}
+
+			final ByteBuffer buffer = ByteBuffer.allocate(header.getLength(segment) + algorithm.getTagSize());
+			decryptSegment(in, buffer, key, header, segment);
+			result = new byte[buffer.remaining()];
+			buffer.get(result);
+		}
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(result));
+		return result;
+	}
+
+	@Override
+	public int getSegmentCount(final File input) throws IOException {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(input));
+		if (null == input) {
+			throw new RuntimeExceptionIsNull("input"); //$NON-NLS-1$
+		}
+
+		final int result;
+		try (RandomAccessFile raf = new RandomAccessFile(input, "r")) { //$NON-NLS-1$
+			result = readHeader(raf.getChannel(), input).segmentCount;
+		}
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(result));
+		return result;
+	}
+
+
+	/*
+	 * Inner classes
+	 */
+
+	private interface SegmentTask {
+		void run(int segment) throws GeneralSecurityException, IOException;
+	}
+
+	private class Header {
+		final int segmentSize;
+		final long length;
+		final int segmentCount;
+		final byte[] nonces;
+		final byte[] prefix;
+
+		Header(final int segmentSize, final long length, final int segmentCount, final byte[] nonces) {
+			this.segmentSize = segmentSize;
+			this.length = length;
+			this.segmentCount = segmentCount;
+			this.nonces = nonces;
+
+			prefix = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(segmentSize).putLong(length).putInt(segmentCount).array();
+		}
+
+		int getLength(final int segment) {
+			return (int) Math.min(segmentSize, length - (long) segment * segmentSize);
+		}
+
+		long getOffset(final int segment) {
+			return HEADER_SIZE + (long) nonces.length + (long) segment * (segmentSize + algorithm.getTagSize());
+		}
+
+		byte[] getNonce(final int segment) {
+			return Arrays.copyOfRange(nonces, segment * algorithm.getIvSize(), (segment + 1) * algorithm.getIvSize());
+		}
+
+		byte[] getAad(final int segment) {
+			return ByteBuffer.allocate(HEADER_SIZE + Integer.BYTES).put(prefix).putInt(segment).array();
+		}
+
+		@Override
+		public String toString() {
+			return "Header[segmentSize=" + segmentSize + ", length=" + length + ", segmentCount=" + segmentCount + ']'; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		}
+	}
+}
@@ -33,6 +33,9 @@ package net.laubenberger.wichtel.service.crypto;
 import java.io.File;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
 import java.security.Key;
 
 import javax.crypto.SecretKey;
@@ -112,6 +115,152 @@ public interface CryptoSymmetric extends Service { //$Example$
 	 */
 	byte[] decrypt(byte[] input, Key key) throws Exception;
 
+	/**
+	 * Encrypt the data (byte-array) with a given {@link Key}, additional authenticated data (AAD) and the implementations algorithm.
+	 * AEAD algorithms prepend the random nonce to the encrypted data.
+	 *
+	 * @param input data to encrypt as a byte-array
+	 * @param key	for the encryption
+	 * @param aad	additional authenticated data, which isn't encrypted (may be null)
+	 * @return encrypted byte-array
+	 * @throws Exception
+	 * @see Key
+	 * @since 0.3.0
+	 */
+	byte[] encrypt(byte[] input, Key key, byte[] aad) throws Exception;
+
+	/**
+	 * Decrypt the data with a given {@link Key}, additional authenticated data (AAD) and the implementations algorithm.
+	 * AEAD algorithms fail if the data or the AAD was modified.
+	 *
+	 * @param input encrypted data as a byte-array
+	 * @param key	for the decryption
+	 * @param aad	additional authenticated data of the encryption (may be null)
+	 * @return decrypted byte-array
+	 * @throws Exception
+	 * @see Key
+	 * @since 0.3.0
+	 */
+	byte[] decrypt(byte[] input, Key key, byte[] aad) throws Exception;
+
+	/**
+	 * Encrypt the remaining bytes of a {@link ByteBuffer} into another {@link ByteBuffer} with a given {@link Key} and the implementations algorithm.
+	 * The positions of both buffers are advanced; nothing is allocated for the data, so direct buffers stay direct.
+	 *
+	 * @param src {@link ByteBuffer} to encrypt
+	 * @param dst {@link ByteBuffer} for the encrypted data
+	 * @param key for the encryption
+	 * @return number of bytes written to dst
+	 * @throws Exception
+	 * @see ByteBuffer
+	 * @see Key
+	 * @since 0.3.0
+	 */
+	int encrypt(ByteBuffer src, ByteBuffer dst, Key key) throws Exception;
+
+	/**
+	 * Encrypt the remaining bytes of a {@link ByteBuffer} into another {@link ByteBuffer} with a given {@link Key}, additional authenticated data (AAD) and the implementations algorithm.
+	 *
+	 * @param src {@link ByteBuffer} to encrypt
+	 * @param dst {@link ByteBuffer} for the encrypted data
+	 * @param key for the encryption
+	 * @param aad additional authenticated data, which isn't encrypted (may be null)
+	 * @return number of bytes written to dst
+	 * @throws Exception
+	 * @see ByteBuffer
+	 * @see Key
+	 * @since 0.3.0
+	 */
+	int encrypt(ByteBuffer src, ByteBuffer dst, Key key, byte[] aad) throws Exception;
+
+	/**
+	 * Decrypt the remaining bytes of a {@link ByteBuffer} into another {@link ByteBuffer} with a given {@link Key} and the implementations algorithm.
+	 * The positions of both buffers are advanced; nothing is allocated for the data, so direct buffers stay direct.
+	 *
+	 * @param src {@link ByteBuffer} to decrypt
+	 * @param dst {@link ByteBuffer} for the decrypted data
+	 * @param key for the decryption
+	 * @return number of bytes written to dst
+	 * @throws Exception
+	 * @see ByteBuffer
+	 * @see Key
+	 * @since 0.3.0
+	 */
+	int decrypt(ByteBuffer src, ByteBuffer dst, Key key) throws Exception;
+
+	/**
+	 * Decrypt the remaining bytes of a {@link ByteBuffer} into another {@link ByteBuffer} with a given {@link Key}, additional authenticated data (AAD) and the implementations algorithm.
+	 *
+	 * @param src {@link ByteBuffer} to decrypt
+	 * @param dst {@link ByteBuffer} for the decrypted data
+	 * @param key for the decryption
+	 * @param aad additional authenticated data of the encryption (may be null)
+	 * @return number of bytes written to dst
+	 * @throws Exception
+	 * @see ByteBuffer
+	 * @see Key
+	 * @since 0.3.0
+	 */
+	int decrypt(ByteBuffer src, ByteBuffer dst, Key key, byte[] aad) throws Exception;
+
+	/**
+	 * Encrypt a {@link ReadableByteChannel} to a {@link WritableByteChannel} with a given {@link Key} and the implementations algorithm.
+	 *
+	 * @param src {@link ReadableByteChannel} to encrypt
+	 * @param dst {@link WritableByteChannel} for the encrypted data
+	 * @param key for the encryption
+	 * @throws Exception
+	 * @see ReadableByteChannel
+	 * @see WritableByteChannel
+	 * @see Key
+	 * @since 0.3.0
+	 */
+	void encrypt(ReadableByteChannel src, WritableByteChannel dst, Key key) throws Exception;
+
+	/**
+	 * Encrypt a {@link ReadableByteChannel} to a {@link WritableByteChannel} with a given {@link Key} and the implementations algorithm.
+	 *
+	 * @param src		  {@link ReadableByteChannel} to encrypt
+	 * @param dst		  {@link WritableByteChannel} for the encrypted data
+	 * @param key		  for the encryption
+	 * @param bufferSize in bytes
+	 * @throws Exception
+	 * @see ReadableByteChannel
+	 * @see WritableByteChannel
+	 * @see Key
+	 * @since 0.3.0
+	 */
+	void encrypt(ReadableByteChannel src, WritableByteChannel dst, Key key, int bufferSize) throws Exception;
+
+	/**
+	 * Decrypt a {@link ReadableByteChannel} to a {@link WritableByteChannel} with a given {@link Key} and the implementations algorithm.
+	 *
+	 * @param src {@link ReadableByteChannel} to decrypt
+	 * @param dst {@link WritableByteChannel} for the decrypted data
+	 * @param key for the decryption
+	 * @throws Exception
+	 * @see ReadableByteChannel
+	 * @see WritableByteChannel
+	 * @see Key
+	 * @since 0.3.0
+	 */
+	void decrypt(ReadableByteChannel src, WritableByteChannel dst, Key key) throws Exception;
+
+	/**
+	 * Decrypt a {@link ReadableByteChannel} to a {@link WritableByteChannel} with a given {@link Key} and the implementations algorithm.
+	 *
+	 * @param src		  {@link ReadableByteChannel} to decrypt
+	 * @param dst		  {@link WritableByteChannel} for the decrypted data
+	 * @param key		  for the decryption
+	 * @param bufferSize in bytes
+	 * @throws Exception
+	 * @see ReadableByteChannel
+	 * @see WritableByteChannel
+	 * @see Key
+	 * @since 0.3.0
+	 */
+	void decrypt(ReadableByteChannel src, WritableByteChannel dst, Key key, int bufferSize) throws Exception;
+
 	/**
 	 * Encrypt an {@link InputStream} to an {@link OutputStream} with a given {@link Key} and the implementations algorithm.
 	 *
@@ -141,6 +290,22 @@ public interface CryptoSymmetric extends Service { //$Example$
 	 */
 	void encrypt(InputStream is, OutputStream os, Key key, int bufferSize) throws Exception;
 
+	/**
+	 * Encrypt an {@link InputStream} to an {@link OutputStream} with a given {@link Key}, additional authenticated data (AAD) and the implementations algorithm.
+	 *
+	 * @param is			{@link InputStream} to encrypt
+	 * @param os			{@link OutputStream} for the encrypted data
+	 * @param key		  for the encryption
+	 * @param bufferSize in bytes
+	 * @param aad		  additional authenticated data, which isn't encrypted (may be null)
+	 * @throws Exception
+	 * @see InputStream
+	 * @see OutputStream
+	 * @see Key
+	 * @since 0.3.0
+	 */
+	void encrypt(InputStream is, OutputStream os, Key key, int bufferSize, byte[] aad) throws Exception;
+
 	/**
 	 * Decrypt an {@link InputStream} to an {@link OutputStream} with a given {@link Key} and the implementations algorithm.
 	 *
@@ -170,6 +335,23 @@ public interface CryptoSymmetric extends Service { //$Example$
 	 */
 	void decrypt(InputStream is, OutputStream os, Key key, int bufferSize) throws Exception;
 
+	/**
+	 * Decrypt an {@link InputStream} to an {@link OutputStream} with a given {@link Key}, additional authenticated data (AAD) and the implementations algorithm.
+	 * AEAD algorithms release the data only after the tag is verified, so the whole stream is held in memory.
+	 *
+	 * @param is			{@link InputStream} to decrypt
+	 * @param os			{@link OutputStream} for the decrypted data
+	 * @param key		  for the decryption
+	 * @param bufferSize in bytes
+	 * @param aad		  additional authenticated data of the encryption (may be null)
+	 * @throws Exception
+	 * @see InputStream
+	 * @see OutputStream
+	 * @see Key
+	 * @since 0.3.0
+	 */
+	void decrypt(InputStream is, OutputStream os, Key key, int bufferSize, byte[] aad) throws Exception;
+
 	/**
 	 * Encrypt an input {@link File} to an output {@link File} with a given {@link Key} and the implementations algorithm.
 	 *
@@ -32,17 +32,23 @@ package net.laubenberger.wichtel.service.crypto;
 
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
+import java.io.EOFException;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.security.GeneralSecurityException;
 import java.security.InvalidAlgorithmParameterException;
 import java.security.InvalidKeyException;
 import java.security.Key;
 import java.security.NoSuchAlgorithmException;
 import java.security.Provider;
+import java.security.SecureRandom;
 import java.security.spec.AlgorithmParameterSpec;
 import java.util.Arrays;
 
@@ -53,7 +59,9 @@ import javax.crypto.CipherOutputStream;
 import javax.crypto.IllegalBlockSizeException;
 import javax.crypto.KeyGenerator;
 import javax.crypto.NoSuchPaddingException;
+import javax.crypto.ShortBufferException;
 import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
 import javax.crypto.spec.IvParameterSpec;
 import javax.crypto.spec.SecretKeySpec;
 
@@ -62,6 +70,7 @@ import net.laubenberger.wichtel.helper.HelperCrypto;
 import net.laubenberger.wichtel.helper.HelperEnvironment;
 import net.laubenberger.wichtel.helper.HelperLog;
 import net.laubenberger.wichtel.helper.HelperObject;
+import net.laubenberger.wichtel.misc.BufferPool;
 import net.laubenberger.wichtel.misc.Constants;
 import net.laubenberger.wichtel.misc.exception.RuntimeExceptionExceedsVmMemory;
 import net.laubenberger.wichtel.misc.exception.RuntimeExceptionIsEmpty;
@@ -78,6 +87,15 @@ import org.slf4j.LoggerFactory;
 
 /**
  * This is a class for symmetric cryptology via AES.
+ * <p>
+ * The service is thread-safe: every operation borrows an initialized {@link Cipher} from a {@link CipherPool} and returns it afterwards, so one instance can be shared by all threads.
+ * The stream and file methods hold their cipher until the stream is completely processed.
+ * <p>
+ * AEAD algorithms (see {@link CryptoSymmetricAlgo#isAead()}) encrypt every message with a random nonce, which is prepended to the encrypted data, and support additional authenticated data (AAD).
+ * The other algorithms use a fixed IV for compatibility with existing data.
+ * <p>
+ * The {@link ByteBuffer} methods work directly on the given buffers; the channel methods use direct buffers of {@link BufferPool#DIRECT}, which also hold the tag of AEAD algorithms.
+ * AEAD decryption of a channel reads the whole message into one growing buffer and decrypts it in place, because the data must not be released before it is authenticated.
  *
  * @author Stefan Laubenberger
  * @version 0.1.0, 2013-07-31
@@ -86,15 +104,18 @@ import org.slf4j.LoggerFactory;
 public class CryptoSymmetricImpl extends ServiceAbstract implements CryptoSymmetric {
 	private static final Logger log = LoggerFactory.getLogger(CryptoSymmetricImpl.class);
 
+	private static final SecureRandom RANDOM = new SecureRandom();
+
 	private final CryptoSymmetricAlgo algorithm;
+	private final Provider provider;
+	private final CipherPool pool;
 
-	private final Cipher cipher;
 	private final KeyGenerator kg;
 	private final HashCodeGenerator hcg;
 
-	public CryptoSymmetricImpl(final Provider provider, final CryptoSymmetricAlgo algorithm) throws NoSuchAlgorithmException, NoSuchPaddingException {
+	public CryptoSymmetricImpl(final Provider provider, final CryptoSymmetricAlgo algorithm, final CipherPool pool) throws NoSuchAlgorithmException, NoSuchPaddingException {
 		super();
-		if (log.isTraceEnabled()) log.trace(HelperLog.constructor(provider, algorithm));
+		if (log.isTraceEnabled()) log.trace(HelperLog.constructor(provider, algorithm, pool));
 
 		if (null == provider) {
 			throw new RuntimeExceptionIsNull("provider"); //$NON-NLS-1$
@@ -102,22 +123,194 @@ public class CryptoSymmetricImpl extends ServiceAbstract implements CryptoSymmet
 		if (null == algorithm) {
 			throw new RuntimeExceptionIsNull("algorithm"); //$NON-NLS-1$
 		}
+		if (null == pool) {
+			throw new RuntimeExceptionIsNull("pool"); //$NON-NLS-1$
+		}
 
 		this.algorithm = algorithm;
-		
-		cipher = Cipher.getInstance(algorithm.getXform(), provider);
+		this.provider = provider;
+		this.pool = pool;
+
+		pool.release(pool.acquire(algorithm.getXform(), provider)); //fails early for unknown transformations
 		kg = KeyGenerator.getInstance(algorithm.getAlgorithm(), provider);
 		hcg = new HashCodeGeneratorImpl(HashCodeAlgo.SHA512);
 	}
+
+	public CryptoSymmetricImpl(final Provider provider, final CryptoSymmetricAlgo algorithm) throws NoSuchAlgorithmException, NoSuchPaddingException {
+		this(provider, algorithm, CipherPool.DEFAULT);
+	}
 	
+	public CryptoSymmetricImpl(final CryptoSymmetricAlgo algorithm, final CipherPool pool) throws NoSuchAlgorithmException, NoSuchPaddingException {
+		this(getDefaultProvider(algorithm), algorithm, pool);
+	}
+
 	public CryptoSymmetricImpl(final CryptoSymmetricAlgo algorithm) throws NoSuchAlgorithmException, NoSuchPaddingException {
-		this(HelperCrypto.DEFAULT_PROVIDER, algorithm);
+		this(algorithm, CipherPool.DEFAULT);
+	}
+
+	/**
+	 * Returns the {@link Provider} of the service.
+	 *
+	 * @return {@link Provider}
+	 * @see Provider
+	 * @since 0.3.0
+	 */
+	public Provider getProvider() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(provider));
+		return provider;
+	}
+
+	/**
+	 * Returns the {@link CipherPool} of the service.
+	 *
+	 * @return {@link CipherPool}
+	 * @see CipherPool
+	 * @since 0.3.0
+	 */
+	public CipherPool getCipherPool() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(pool));
+		return pool;
 	}
 	
 	
 	/*
 	 * Private methods
 	 */
+
+	private Cipher acquireCipher() {
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodStart());
+
+		final Cipher result;
+		try {
+			result = pool.acquire(algorithm.getXform(), provider);
+		} catch (NoSuchAlgorithmException | NoSuchPaddingException ex) {
+			throw new IllegalStateException("Transformation not available anymore: " + algorithm.getXform(), ex); //$NON-NLS-1$
+		}
+
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodExit(result));
+		return result;
+	}
+
+	private static Provider getDefaultProvider(final CryptoSymmetricAlgo algorithm) {
+		if (null == algorithm) {
+			throw new RuntimeExceptionIsNull("algorithm"); //$NON-NLS-1$
+		}
+
+		return algorithm.isAead() ? HelperCrypto.JCE_PROVIDER : HelperCrypto.DEFAULT_PROVIDER; //BouncyCastle 1.46 has neither AAD nor ChaCha20-Poly1305
+	}
+
+	private byte[] prepareNonce() {
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodStart());
+
+		final byte[] result = new byte[algorithm.getIvSize()];
+		RANDOM.nextBytes(result);
+
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodExit(result));
+		return result;
+	}
+
+	private AlgorithmParameterSpec prepareParameters(final byte[] nonce) {
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodStart(nonce));
+
+		final AlgorithmParameterSpec result = CryptoSymmetricAlgo.AES_GCM == algorithm ? new GCMParameterSpec(algorithm.getTagSize() * 8, nonce) : new IvParameterSpec(nonce);
+
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodExit(result));
+		return result;
+	}
+
+	/*
+	 * SunJCE's ChaCha20-Poly1305 refuses any init with the key and nonce of its previous init (ChaCha20Cipher.checkKeyAndNonce),
+	 * even for DECRYPT_MODE. A pooled cipher that just encrypted a message must therefore be reset before it can decrypt it.
+	 */
+	private void initDecrypt(final Cipher cipher, final Key key, final byte[] nonce) throws InvalidKeyException, InvalidAlgorithmParameterException {
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodStart(cipher, key, nonce));
+
+		try {
+			cipher.init(Cipher.DECRYPT_MODE, key, prepareParameters(nonce));
+		} catch (InvalidKeyException ex) {
+			//the JCE rejects the key and nonce of the previous initialization also for decryption (ChaCha20-Poly1305), which happens if the pooled cipher encrypted the input
+			cipher.init(Cipher.ENCRYPT_MODE, key, prepareParameters(prepareNonce()));
+			cipher.init(Cipher.DECRYPT_MODE, key, prepareParameters(nonce));
+		}
+
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodExit());
+	}
+
+	private void transform(final Cipher cipher, final ReadableByteChannel src, final WritableByteChannel dst, final int bufferSize) throws GeneralSecurityException, IOException {
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodStart(cipher, src, dst, bufferSize));
+
+		final ByteBuffer out = BufferPool.DIRECT.acquire(bufferSize);
+		//the output buffer holds the read data plus a partial block and the tag, so both buffers stay pooled and update never needs more space
+		final int size = Math.min(bufferSize, out.capacity() - cipher.getBlockSize() - algorithm.getTagSize());
+		final ByteBuffer in = BufferPool.DIRECT.acquire(size);
+		try {
+			in.limit(size);
+			boolean isEnd = false;
+			while (!isEnd) {
+				isEnd = 0 > src.read(in);
+				in.flip();
+
+				if (isEnd) {
+					cipher.doFinal(in, out);
+				} else {
+					cipher.update(in, out);
+				}
+				out.flip();
+				writeFully(dst, out);
+				out.clear();
+				in.clear();
+				in.limit(size);
+			}
+		} finally {
+			BufferPool.DIRECT.release(in);
+			BufferPool.DIRECT.release(out);
+		}
+
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodExit());
+	}
+
+	private static void decryptAead(final Cipher cipher, final ReadableByteChannel src, final WritableByteChannel dst, final int bufferSize) throws GeneralSecurityException, IOException {
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodStart(cipher, src, dst, bufferSize));
+
+		//the JCE buffers the whole message until the tag is verified and demands an output buffer for all of it on every update, so the message is collected in a doubling buffer and decrypted in place
+		ByteBuffer buffer = BufferPool.DIRECT.acquire(bufferSize);
+		try {
+			while (0 <= src.read(buffer)) {
+				if (!buffer.hasRemaining()) {
+					if (Integer.MAX_VALUE / 2 < buffer.capacity()) {
+						throw new RuntimeExceptionExceedsVmMemory("buffer", 2L * buffer.capacity()); //$NON-NLS-1$
+					}
+					final ByteBuffer larger = BufferPool.DIRECT.acquire(2 * buffer.capacity());
+					buffer.flip();
+					larger.put(buffer);
+					BufferPool.DIRECT.release(buffer);
+					buffer = larger;
+				}
+			}
+			buffer.flip();
+
+			final ByteBuffer in = buffer.duplicate();
+			buffer.clear();
+			cipher.doFinal(in, buffer);
+			buffer.flip();
+			writeFully(dst, buffer);
+		} finally {
+			BufferPool.DIRECT.release(buffer);
+		}
+
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodExit());
+	}
+
+	private static void writeFully(final WritableByteChannel dst, final ByteBuffer buffer) throws IOException {
+		while (buffer.hasRemaining()) {
+			dst.write(buffer);
+		}
+	}
+
 	private AlgorithmParameterSpec prepareIv() {
 		if (log.isTraceEnabled()) log.trace(HelperLog.methodStart());
 
@@ -166,9 +359,11 @@ public class CryptoSymmetricImpl extends ServiceAbstract implements CryptoSymmet
 		}
 
 		// Generate a key
-		kg.init(keySize);
-
-		final SecretKey result = kg.generateKey();
+		final SecretKey result;
+		synchronized (kg) {
+			kg.init(keySize);
+			result = kg.generateKey();
+		}
 
 		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(result));
 		return result;
@@ -203,7 +398,11 @@ public class CryptoSymmetricImpl extends ServiceAbstract implements CryptoSymmet
 			throw new IllegalArgumentException("keySize is not a multiple of 8"); //$NON-NLS-1$
 		}
 
-		final SecretKey result = new SecretKeySpec(Arrays.copyOfRange(hcg.getHash(password), 0, keySize / 8), algorithm.getAlgorithm());
+		final byte[] hash;
+		synchronized (hcg) {
+			hash = hcg.getHash(password);
+		}
+		final SecretKey result = new SecretKeySpec(Arrays.copyOfRange(hash, 0, keySize / 8), algorithm.getAlgorithm());
 
 		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(result));
 		return result;
@@ -212,6 +411,26 @@ public class CryptoSymmetricImpl extends ServiceAbstract implements CryptoSymmet
 	@Override
 	public byte[] encrypt(final byte[] input, final Key key) throws IllegalBlockSizeException, BadPaddingException, InvalidKeyException, InvalidAlgorithmParameterException { //$JUnit$
 		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(input, key));
+
+		final byte[] result = encrypt(input, key, null);
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(result));
+		return result;
+	}
+
+	@Override
+	public byte[] decrypt(final byte[] input, final Key key) throws InvalidKeyException, InvalidAlgorithmParameterException, IllegalBlockSizeException, BadPaddingException { //$JUnit$
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(input, key));
+
+		final byte[] result = decrypt(input, key, null);
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(result));
+		return result;
+	}
+
+	@Override
+	public byte[] encrypt(final byte[] input, final Key key, final byte[] aad) throws IllegalBlockSizeException, BadPaddingException, InvalidKeyException, InvalidAlgorithmParameterException { //$JUnit$
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(input, key, aad));
 		if (null == input) {
 			throw new RuntimeExceptionIsNull("input"); //$NON-NLS-1$
 		}
@@ -225,17 +444,44 @@ public class CryptoSymmetricImpl extends ServiceAbstract implements CryptoSymmet
 			throw new RuntimeExceptionExceedsVmMemory("input", input.length * 2); //$NON-NLS-1$
 		}
 
-//		cipher.init(Cipher.ENCRYPT_MODE, key, new IvParameterSpec(cipher.getIV()));
-		cipher.init(Cipher.ENCRYPT_MODE, key, prepareIv());
-		final byte[] result = cipher.doFinal(input);
+		if (null != aad && !algorithm.isAead()) {
+			throw new IllegalArgumentException("aad needs an AEAD algorithm"); //$NON-NLS-1$
+		}
+
+		final Cipher cipher = acquireCipher();
+		byte[] result;
+		try {
+			if (algorithm.isAead()) {
+				final byte[] nonce = prepareNonce();
+				cipher.init(Cipher.ENCRYPT_MODE, key, prepareParameters(nonce));
+				if (null != aad) {
+					cipher.updateAAD(aad);
+				}
+
+				result = new byte[nonce.length + cipher.getOutputSize(input.length)];
+				System.arraycopy(nonce, 0, result, 0, nonce.length);
+				final int length = nonce.length + cipher.doFinal(input, 0, input.length, result, nonce.length);
+				if (result.length != length) {
+					result = Arrays.copyOf(result, length);
+				}
+			} else {
+//				cipher.init(Cipher.ENCRYPT_MODE, key, new IvParameterSpec(cipher.getIV()));
+				cipher.init(Cipher.ENCRYPT_MODE, key, prepareIv());
+				result = cipher.doFinal(input);
+			}
+		} catch (ShortBufferException ex) {
+			throw new IllegalStateException("Output size of the cipher is too small", ex); //$NON-NLS-1$
+		} finally {
+			pool.release(cipher);
+		}
 
 		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(result));
 		return result;
 	}
 
 	@Override
-	public byte[] decrypt(final byte[] input, final Key key) throws InvalidKeyException, InvalidAlgorithmParameterException, IllegalBlockSizeException, BadPaddingException { //$JUnit$
-		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(input, key));
+	public byte[] decrypt(final byte[] input, final Key key, final byte[] aad) throws InvalidKeyException, InvalidAlgorithmParameterException, IllegalBlockSizeException, BadPaddingException { //$JUnit$
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(input, key, aad));
 		if (null == input) {
 			throw new RuntimeExceptionIsNull("input"); //$NON-NLS-1$
 		}
@@ -249,14 +495,241 @@ public class CryptoSymmetricImpl extends ServiceAbstract implements CryptoSymmet
 			throw new RuntimeExceptionExceedsVmMemory("input", input.length * 2); //$NON-NLS-1$
 		}
 
-//		cipher.init(Cipher.DECRYPT_MODE, key, new IvParameterSpec(cipher.getIV()));
-		cipher.init(Cipher.DECRYPT_MODE, key, prepareIv());
-		final byte[] result = cipher.doFinal(input);
+		if (null != aad && !algorithm.isAead()) {
+			throw new IllegalArgumentException("aad needs an AEAD algorithm"); //$NON-NLS-1$
+		}
+		final int overhead = algorithm.getIvSize() + algorithm.getTagSize();
+		if (algorithm.isAead() && overhead > input.length) {
+			throw new RuntimeExceptionMustBeGreater("input", input.length, overhead - 1); //$NON-NLS-1$
+		}
+
+		final Cipher cipher = acquireCipher();
+		final byte[] result;
+		try {
+			if (algorithm.isAead()) {
+				initDecrypt(cipher, key, Arrays.copyOf(input, algorithm.getIvSize())); //not cipher.init, the pooled cipher may still hold this key and nonce
+				if (null != aad) {
+					cipher.updateAAD(aad);
+				}
+				result = cipher.doFinal(input, algorithm.getIvSize(), input.length - algorithm.getIvSize());
+			} else {
+//				cipher.init(Cipher.DECRYPT_MODE, key, new IvParameterSpec(cipher.getIV()));
+				cipher.init(Cipher.DECRYPT_MODE, key, prepareIv());
+				result = cipher.doFinal(input);
+			}
+		} finally {
+			pool.release(cipher);
+		}
 
 		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(result));
 		return result;
 	}
 
+	@Override
+	public int encrypt(final ByteBuffer src, final ByteBuffer dst, final Key key) throws GeneralSecurityException { //$JUnit$
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(src, dst, key));
+
+		final int result = encrypt(src, dst, key, null);
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(result));
+		return result;
+	}
+
+	@Override
+	public int encrypt(final ByteBuffer src, final ByteBuffer dst, final Key key, final byte[] aad) throws GeneralSecurityException { //$JUnit$
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(src, dst, key, aad));
+		if (null == src) {
+			throw new RuntimeExceptionIsNull("src"); //$NON-NLS-1$
+		}
+		if (null == dst) {
+			throw new RuntimeExceptionIsNull("dst"); //$NON-NLS-1$
+		}
+		if (src == dst) {
+			throw new RuntimeExceptionIsEquals("src", "dst"); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		if (null == key) {
+			throw new RuntimeExceptionIsNull("key"); //$NON-NLS-1$
+		}
+		if (null != aad && !algorithm.isAead()) {
+			throw new IllegalArgumentException("aad needs an AEAD algorithm"); //$NON-NLS-1$
+		}
+
+		final Cipher cipher = acquireCipher();
+		final int result;
+		try {
+			if (algorithm.isAead()) {
+				final byte[] nonce = prepareNonce();
+				cipher.init(Cipher.ENCRYPT_MODE, key, prepareParameters(nonce));
+				if (null != aad) {
+					cipher.updateAAD(aad);
+				}
+				if (nonce.length + cipher.getOutputSize(src.remaining()) > dst.remaining()) {
+					throw new ShortBufferException("dst is too small: " + dst.remaining()); //$NON-NLS-1$
+				}
+				dst.put(nonce);
+				result = nonce.length + cipher.doFinal(src, dst);
+			} else {
+				cipher.init(Cipher.ENCRYPT_MODE, key, prepareIv());
+				result = cipher.doFinal(src, dst);
+			}
+		} finally {
+			pool.release(cipher);
+		}
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(result));
+		return result;
+	}
+
+	@Override
+	public int decrypt(final ByteBuffer src, final ByteBuffer dst, final Key key) throws GeneralSecurityException { //$JUnit$
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(src, dst, key));
+
+		final int result = decrypt(src, dst, key, null);
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(result));
+		return result;
+	}
+
+	@Override
+	public int decrypt(final ByteBuffer src, final ByteBuffer dst, final Key key, final byte[] aad) throws GeneralSecurityException { //$JUnit$
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(src, dst, key, aad));
+		if (null == src) {
+			throw new RuntimeExceptionIsNull("src"); //$NON-NLS-1$
+		}
+		if (null == dst) {
+			throw new RuntimeExceptionIsNull("dst"); //$NON-NLS-1$
+		}
+		if (src == dst) {
+			throw new RuntimeExceptionIsEquals("src", "dst"); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		if (null == key) {
+			throw new RuntimeExceptionIsNull("key"); //$NON-NLS-1$
+		}
+		if (null != aad && !algorithm.isAead()) {
+			throw new IllegalArgumentException("aad needs an AEAD algorithm"); //$NON-NLS-1$
+		}
+		final int overhead = algorithm.getIvSize() + algorithm.getTagSize();
+		if (algorithm.isAead() && overhead > src.remaining()) {
+			throw new RuntimeExceptionMustBeGreater("src", src.remaining(), overhead - 1); //$NON-NLS-1$
+		}
+
+		final Cipher cipher = acquireCipher();
+		final int result;
+		try {
+			if (algorithm.isAead()) {
+				final byte[] nonce = new byte[algorithm.getIvSize()];
+				src.get(nonce);
+				try {
+					initDecrypt(cipher, key, nonce);
+					if (null != aad) {
+						cipher.updateAAD(aad);
+					}
+					result = cipher.doFinal(src, dst);
+				} catch (ShortBufferException ex) {
+					src.position(src.position() - nonce.length);
+					throw ex;
+				}
+			} else {
+				cipher.init(Cipher.DECRYPT_MODE, key, prepareIv());
+				result = cipher.doFinal(src, dst);
+			}
+		} finally {
+			pool.release(cipher);
+		}
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(result));
+		return result;
+	}
+
+	@Override
+	public void encrypt(final ReadableByteChannel src, final WritableByteChannel dst, final Key key) throws GeneralSecurityException, IOException {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(src, dst, key));
+
+		encrypt(src, dst, key, BufferPool.DIRECT.getBufferSize());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	@Override
+	public void encrypt(final ReadableByteChannel src, final WritableByteChannel dst, final Key key, final int bufferSize) throws GeneralSecurityException, IOException { //$JUnit$
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(src, dst, key, bufferSize));
+		if (null == src) {
+			throw new RuntimeExceptionIsNull("src"); //$NON-NLS-1$
+		}
+		if (null == dst) {
+			throw new RuntimeExceptionIsNull("dst"); //$NON-NLS-1$
+		}
+		if (null == key) {
+			throw new RuntimeExceptionIsNull("key"); //$NON-NLS-1$
+		}
+		if (1 > bufferSize) {
+			throw new RuntimeExceptionMustBeGreater("bufferSize", bufferSize, 1); //$NON-NLS-1$
+		}
+
+		final Cipher cipher = acquireCipher();
+		try {
+			if (algorithm.isAead()) {
+				final byte[] nonce = prepareNonce();
+				cipher.init(Cipher.ENCRYPT_MODE, key, prepareParameters(nonce));
+				writeFully(dst, ByteBuffer.wrap(nonce));
+			} else {
+				cipher.init(Cipher.ENCRYPT_MODE, key, prepareIv());
+			}
+			transform(cipher, src, dst, bufferSize);
+		} finally {
+			pool.release(cipher);
+		}
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	@Override
+	public void decrypt(final ReadableByteChannel src, final WritableByteChannel dst, final Key key) throws GeneralSecurityException, IOException {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(src, dst, key));
+
+		decrypt(src, dst, key, BufferPool.DIRECT.getBufferSize());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	@Override
+	public void decrypt(final ReadableByteChannel src, final WritableByteChannel dst, final Key key, final int bufferSize) throws GeneralSecurityException, IOException { //$JUnit$
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(src, dst, key, bufferSize));
+		if (null == src) {
+			throw new RuntimeExceptionIsNull("src"); //$NON-NLS-1$
+		}
+		if (null == dst) {
+			throw new RuntimeExceptionIsNull("dst"); //$NON-NLS-1$
+		}
+		if (null == key) {
+			throw new RuntimeExceptionIsNull("key"); //$NON-NLS-1$
+		}
+		if (1 > bufferSize) {
+			throw new RuntimeExceptionMustBeGreater("bufferSize", bufferSize, 1); //$NON-NLS-1$
+		}
+
+		final Cipher cipher = acquireCipher();
+		try {
+			if (algorithm.isAead()) {
+				final ByteBuffer nonce = ByteBuffer.allocate(algorithm.getIvSize());
+				while (nonce.hasRemaining()) {
+					if (0 > src.read(nonce)) {
+						throw new EOFException("Nonce is incomplete"); //$NON-NLS-1$
+					}
+				}
+				initDecrypt(cipher, key, nonce.array());
+				decryptAead(cipher, src, dst, bufferSize);
+			} else {
+				cipher.init(Cipher.DECRYPT_MODE, key, prepareIv());
+				transform(cipher, src, dst, bufferSize);
+			}
+		} finally {
+			pool.release(cipher);
+		}
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
 	@Override
 	public void encrypt(final InputStream is, final OutputStream os, final Key key) throws InvalidKeyException, InvalidAlgorithmParameterException, IOException {
 		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(is, os, key));
@@ -267,8 +740,17 @@ public class CryptoSymmetricImpl extends ServiceAbstract implements CryptoSymmet
 	}
 
 	@Override
-	public void encrypt(final InputStream is, OutputStream os, final Key key, final int bufferSize) throws InvalidKeyException, InvalidAlgorithmParameterException, IOException {
+	public void encrypt(final InputStream is, final OutputStream os, final Key key, final int bufferSize) throws InvalidKeyException, InvalidAlgorithmParameterException, IOException {
 		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(is, os, key, bufferSize));
+
+		encrypt(is, os, key, bufferSize, null);
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	@Override
+	public void encrypt(final InputStream is, OutputStream os, final Key key, final int bufferSize, final byte[] aad) throws InvalidKeyException, InvalidAlgorithmParameterException, IOException {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(is, os, key, bufferSize, aad));
 		if (null == is) {
 			throw new RuntimeExceptionIsNull("is"); //$NON-NLS-1$
 		}
@@ -284,20 +766,37 @@ public class CryptoSymmetricImpl extends ServiceAbstract implements CryptoSymmet
 		if (bufferSize > HelperEnvironment.getMemoryFree()) {
 			throw new RuntimeExceptionExceedsVmMemory("bufferSize", bufferSize); //$NON-NLS-1$
 		}
+		if (null != aad && !algorithm.isAead()) {
+			throw new IllegalArgumentException("aad needs an AEAD algorithm"); //$NON-NLS-1$
+		}
 
 		final byte[] buffer = new byte[bufferSize];
 
-//		cipher.init(Cipher.ENCRYPT_MODE, key, new IvParameterSpec(cipher.getIV()));
-		cipher.init(Cipher.ENCRYPT_MODE, key, prepareIv());
-		os = new CipherOutputStream(os, cipher);
-
+		final Cipher cipher = acquireCipher();
 		try {
-			int offset;
-			while (0 <= (offset = is.read(buffer))) {
-				os.write(buffer, 0, offset);
+			if (algorithm.isAead()) {
+				final byte[] nonce = prepareNonce();
+				cipher.init(Cipher.ENCRYPT_MODE, key, prepareParameters(nonce));
+				if (null != aad) {
+					cipher.updateAAD(aad);
+				}
+				os.write(nonce);
+			} else {
+//				cipher.init(Cipher.ENCRYPT_MODE, key, new IvParameterSpec(cipher.getIV()));
+				cipher.init(Cipher.ENCRYPT_MODE, key, prepareIv());
+			}
+			os = new CipherOutputStream(os, cipher);
+
+			try {
+				int offset;
+				while (0 <= (offset = is.read(buffer))) {
+					os.write(buffer, 0, offset);
+				}
+			} finally {
+				os.close();
 			}
 		} finally {
-			os.close();
+			pool.release(cipher);
 		}
 		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
 	}
@@ -314,6 +813,15 @@ public class CryptoSymmetricImpl extends ServiceAbstract implements CryptoSymmet
 	@Override
 	public void decrypt(final InputStream is, final OutputStream os, final Key key, final int bufferSize) throws InvalidKeyException, InvalidAlgorithmParameterException, IOException {
 		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(is, os, key, bufferSize));
+
+		decrypt(is, os, key, bufferSize, null);
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	@Override
+	public void decrypt(final InputStream is, final OutputStream os, final Key key, final int bufferSize, final byte[] aad) throws InvalidKeyException, InvalidAlgorithmParameterException, IOException {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(is, os, key, bufferSize, aad));
 		if (null == is) {
 			throw new RuntimeExceptionIsNull("is"); //$NON-NLS-1$
 		}
@@ -329,17 +837,38 @@ public class CryptoSymmetricImpl extends ServiceAbstract implements CryptoSymmet
 		if (bufferSize > HelperEnvironment.getMemoryFree()) {
 			throw new RuntimeExceptionExceedsVmMemory("bufferSize", bufferSize); //$NON-NLS-1$
 		}
+		if (null != aad && !algorithm.isAead()) {
+			throw new IllegalArgumentException("aad needs an AEAD algorithm"); //$NON-NLS-1$
+		}
 
 		final byte[] buffer = new byte[bufferSize];
 
+		final Cipher cipher = acquireCipher();
 		try (CipherInputStream cis = new CipherInputStream(is, cipher)) {
-//			cipher.init(Cipher.DECRYPT_MODE, key, new IvParameterSpec(cipher.getIV()));
-			cipher.init(Cipher.DECRYPT_MODE, key, prepareIv());
+			if (algorithm.isAead()) {
+				final byte[] nonce = new byte[algorithm.getIvSize()];
+				for (int offset = 0; nonce.length > offset; ) {
+					final int read = is.read(nonce, offset, nonce.length - offset);
+					if (0 > read) {
+						throw new EOFException("Nonce is incomplete"); //$NON-NLS-1$
+					}
+					offset += read;
+				}
+				initDecrypt(cipher, key, nonce);
+				if (null != aad) {
+					cipher.updateAAD(aad);
+				}
+			} else {
+//				cipher.init(Cipher.DECRYPT_MODE, key, new IvParameterSpec(cipher.getIV()));
+				cipher.init(Cipher.DECRYPT_MODE, key, prepareIv());
+			}
 
 			int offset;
 			while (0 <= (offset = cis.read(buffer))) {
 				os.write(buffer, 0, offset);
 			}
+		} finally {
+			pool.release(cipher);
 		}
 		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
 	}
@@ -0,0 +1,213 @@
+/*
+ * Copyright (c) 2007-2013 by Stefan Laubenberger.
+ *
+ * "wichtel" is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License v3.0.
+ *
+ * "wichtel" is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * See the GNU Lesser General Public License for more details:
+ * -----------------------------------------------------------
+ * http://www.gnu.org/licenses
+ *
+ *
+ * This distribution is available at:
+ * ----------------------------------
+ * https://github.com/slaubenberger/wichtel/
+ *
+ *
+ * Contact information:
+ * --------------------
+ * Stefan Laubenberger
+ * Bullingerstrasse 53
+ * CH-8004 Zuerich
+ *
+ * http://www.laubenberger.net
+ * laubenberger@gmail.com
+ */
+
+package net.laubenberger.wichtel.service.monitor;
+
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.laubenberger.wichtel.helper.HelperLog;
+import net.laubenberger.wichtel.misc.BufferPool;
+import net.laubenberger.wichtel.misc.exception.RuntimeExceptionIsNull;
+import net.laubenberger.wichtel.misc.extendedObject.ExtendedObjectAbstract;
+
+
+/**
+ * Reference-counted lease on the pooled buffer of a received datagram.
+ * <p>
+ * The monitor holds one reference while it informs the {@link ListenerDatagramBuffer}s and releases it afterwards.
+ * A listener which keeps the datagram beyond the call must {@link #retain()} the lease and {@link #release()} it when done; the buffer returns to its pool with the last release.
+ * The buffer is never written while a reference is held, so it can be decoded in place without copies.
+ *
+ * @author Stefan Laubenberger
+ * @version 0.3.0, 2026-10-17
+ * @since 0.3.0
+ */
+public class DatagramLease extends ExtendedObjectAbstract {
+	private static final Logger log = LoggerFactory.getLogger(DatagramLease.class);
+
+	private final AtomicInteger references = new AtomicInteger(1);
+
+	private final ByteBuffer buffer;
+	private final BufferPool pool;
+	private final SocketAddress address;
+	private final int port;
+
+	/**
+	 * Creates a lease with one reference.
+	 *
+	 * @param buffer  of the datagram, positioned for reading
+	 * @param pool    of the buffer, null if the buffer isn't pooled
+	 * @param address of the sender
+	 * @param port    on which the datagram was received
+	 */
+	public DatagramLease(final ByteBuffer buffer, final BufferPool pool, final SocketAddress address, final int port) {
+		super();
+		if (log.isTraceEnabled()) log.trace(HelperLog.constructor(buffer, pool, address, port));
+
+		if (null == buffer) {
+			throw new RuntimeExceptionIsNull("buffer"); //$NON-NLS-1$
+		}
+
+		this.buffer = buffer;
+		this.pool = pool;
+		this.address = address;
+		this.port = port;
+	}
+
+	/**
+	 * Returns a read-only view of the datagram.
+	 * Every call returns an independent view, so several consumers can read the datagram concurrently.
+	 *
+	 * @return read-only buffer with the datagram between position and limit
+	 * @throws IllegalStateException if the lease is released
+	 * @see ByteBuffer
+	 * @since 0.3.0
+	 */
+	public ByteBuffer getBuffer() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+		if (0 >= references.get()) {
+			throw new IllegalStateException("Lease is released"); //$NON-NLS-1$
+		}
+
+		final ByteBuffer result = buffer.asReadOnlyBuffer();
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(result));
+		return result;
+	}
+
+	/**
+	 * Returns the length of the datagram.
+	 *
+	 * @return length in bytes
+	 * @since 0.3.0
+	 */
+	public int getLength() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		final int result = buffer.remaining();
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(result));
+		return result;
+	}
+
+	/**
+	 * Returns the address of the sender.
+	 *
+	 * @return address of the sender
+	 * @see SocketAddress
+	 * @since 0.3.0
+	 */
+	public SocketAddress getAddress() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(address));
+		return address;
+	}
+
+	/**
+	 * Returns the local port on which the datagram was received.
+	 *
+	 * @return local port
+	 * @since 0.3.0
+	 */
+	public int getPort() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(port));
+		return port;
+	}
+
+	/**
+	 * Returns the number of references to the lease.
+	 *
+	 * @return number of references, 0 if released
+	 * @since 0.3.0
+	 */
+	public int getReferenceCount() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		final int result = references.get();
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(result));
+		return result;
+	}
+
+	/**
+	 * Adds a reference to the lease.
+	 *
+	 * @return this lease
+	 * @throws IllegalStateException if the lease is released
+	 * @since 0.3.0
+	 */
+	public DatagramLease retain() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		int count;
+		do {
+			count = references.get();
+			if (0 >= count) {
+				throw new IllegalStateException("Lease is released"); //$NON-NLS-1$
+			}
+		} while (!references.compareAndSet(count, count + 1));
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(this));
+		return this;
+	}
+
+	/**
+	 * Removes a reference from the lease; the last release returns the buffer to its pool.
+	 *
+	 * @return true if this was the last reference
+	 * @throws IllegalStateException if the lease is already released
+	 * @since 0.3.0
+	 */
+	public boolean release() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		final int count = references.decrementAndGet();
+		if (0 > count) {
+			references.incrementAndGet();
+			throw new IllegalStateException("Lease is already released"); //$NON-NLS-1$
+		}
+
+		final boolean result = 0 == count;
+		if (result && null != pool) {
+			pool.release(buffer);
+		}
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(result));
+		return result;
+	}
+}
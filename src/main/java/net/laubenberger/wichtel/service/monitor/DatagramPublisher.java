@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2007-2013 by Stefan Laubenberger.
+ *
+ * "wichtel" is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License v3.0.
+ *
+ * "wichtel" is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * See the GNU Lesser General Public License for more details:
+ * -----------------------------------------------------------
+ * http://www.gnu.org/licenses
+ *
+ *
+ * This distribution is available at:
+ * ----------------------------------
+ * https://github.com/slaubenberger/wichtel/
+ *
+ *
+ * Contact information:
+ * --------------------
+ * Stefan Laubenberger
+ * Bullingerstrasse 53
+ * CH-8004 Zuerich
+ *
+ * http://www.laubenberger.net
+ * laubenberger@gmail.com
+ */
+
+package net.laubenberger.wichtel.service.monitor;
+
+import java.net.DatagramPacket;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.laubenberger.wichtel.controller.net.flow.FlowPublisher;
+import net.laubenberger.wichtel.helper.HelperLog;
+import net.laubenberger.wichtel.misc.Event;
+import net.laubenberger.wichtel.misc.exception.RuntimeExceptionIsNull;
+
+
+/**
+ * Publishes the {@link DatagramPacket}s received by a {@link MonitorDatagram}.
+ * <p>
+ * Datagrams have no flow control, so the publisher blocks the dispatching of the monitor while it is saturated.
+ * The ring of the monitor fills up and the monitor drops further datagrams (see {@link MonitorDatagram#getDroppedCount()}) instead of queueing them without bound; other listeners of the monitor are delayed as well.
+ * Closing the publisher releases a blocked dispatching.
+ *
+ * @author Stefan Laubenberger
+ * @version 0.3.0, 2026-10-17
+ * @since 0.3.0
+ */
+public class DatagramPublisher extends FlowPublisher<DatagramPacket> implements ListenerDatagram {
+	private static final Logger log = LoggerFactory.getLogger(DatagramPublisher.class);
+
+	private final MonitorDatagram monitor;
+
+	public DatagramPublisher(final MonitorDatagram monitor, final int bufferSize) {
+		super(bufferSize);
+		if (log.isTraceEnabled()) log.trace(HelperLog.constructor(monitor, bufferSize));
+
+		if (null == monitor) {
+			throw new RuntimeExceptionIsNull("monitor"); //$NON-NLS-1$
+		}
+
+		this.monitor = monitor;
+		monitor.addListener(this);
+	}
+
+	public DatagramPublisher(final MonitorDatagram monitor) {
+		this(monitor, DEFAULT_BUFFER_SIZE);
+		if (log.isTraceEnabled()) log.trace(HelperLog.constructor(monitor));
+	}
+
+	/**
+	 * Returns the {@link MonitorDatagram} of the publisher.
+	 *
+	 * @return {@link MonitorDatagram}
+	 * @see MonitorDatagram
+	 * @since 0.3.0
+	 */
+	public MonitorDatagram getMonitor() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(monitor));
+		return monitor;
+	}
+
+
+	/*
+	 * Overridden methods
+	 */
+
+	/**
+	 * Closes the publisher and detaches it from the {@link MonitorDatagram}.
+	 */
+	@Override
+	public void close() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		monitor.deleteListener(this);
+		super.close();
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	/**
+	 * Closes the publisher with an error and detaches it from the {@link MonitorDatagram}.
+	 */
+	@Override
+	public void closeExceptionally(final Throwable error) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(error));
+
+		monitor.deleteListener(this);
+		super.closeExceptionally(error);
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+
+	/*
+	 * Implemented methods
+	 */
+
+	@Override
+	public void monitorStarted(final Event<MonitorDatagram> event) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(event));
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	@Override
+	public void monitorStopped(final Event<MonitorDatagram> event) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(event));
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	@Override
+	public void packetReceived(final Event<MonitorDatagram> event) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(event));
+
+		try {
+			submit(event.getSource().getPacket());
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			log.warn("Publishing interrupted, datagram dropped", ex); //$NON-NLS-1$
+		}
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+}
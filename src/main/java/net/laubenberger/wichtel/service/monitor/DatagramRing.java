@@ -0,0 +1,248 @@
+/*
+ * Copyright (c) 2007-2013 by Stefan Laubenberger.
+ *
+ * "wichtel" is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License v3.0.
+ *
+ * "wichtel" is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * See the GNU Lesser General Public License for more details:
+ * -----------------------------------------------------------
+ * http://www.gnu.org/licenses
+ *
+ *
+ * This distribution is available at:
+ * ----------------------------------
+ * https://github.com/slaubenberger/wichtel/
+ *
+ *
+ * Contact information:
+ * --------------------
+ * Stefan Laubenberger
+ * Bullingerstrasse 53
+ * CH-8004 Zuerich
+ *
+ * http://www.laubenberger.net
+ * laubenberger@gmail.com
+ */
+
+package net.laubenberger.wichtel.service.monitor;
+
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.laubenberger.wichtel.helper.HelperLog;
+import net.laubenberger.wichtel.misc.exception.RuntimeExceptionIsNull;
+import net.laubenberger.wichtel.misc.exception.RuntimeExceptionMustBeGreater;
+import net.laubenberger.wichtel.misc.exception.RuntimeExceptionMustBeSmaller;
+import net.laubenberger.wichtel.misc.extendedObject.ExtendedObjectAbstract;
+
+
+/**
+ * Bounded ring of received datagrams between one receiving and one dispatching thread.
+ * <p>
+ * Every slot holds the buffer of a datagram (positioned for reading), the address of its sender and the local port it was received on.
+ * The ring doesn't copy or allocate; the buffers are handed over as they are and usually come from a pool.
+ * Only one thread may call {@link #offer(ByteBuffer, SocketAddress)} and only one thread may read and {@link #remove()} the datagrams.
+ *
+ * @author Stefan Laubenberger
+ * @version 0.3.0, 2026-10-17
+ * @since 0.3.0
+ */
+public class DatagramRing extends ExtendedObjectAbstract {
+	private static final Logger log = LoggerFactory.getLogger(DatagramRing.class);
+
+	private final AtomicLong head = new AtomicLong(); //next slot to read, written by the consumer
+	private final AtomicLong tail = new AtomicLong(); //next slot to fill, written by the producer
+
+	private final ByteBuffer[] buffers;
+	private final SocketAddress[] addresses;
+	private final int[] ports;
+	private final int mask;
+
+	/**
+	 * Creates a ring with at least the given capacity (rounded up to a power of two).
+	 *
+	 * @param capacity of the ring
+	 */
+	public DatagramRing(final int capacity) {
+		super();
+		if (log.isTraceEnabled()) log.trace(HelperLog.constructor(capacity));
+
+		if (0 >= capacity) {
+			throw new RuntimeExceptionMustBeGreater("capacity", capacity, 0); //$NON-NLS-1$
+		}
+		if (1 << 30 < capacity) {
+			throw new RuntimeExceptionMustBeSmaller("capacity", capacity, 1 << 30); //$NON-NLS-1$
+		}
+
+		final int size = 1 == Integer.bitCount(capacity) ? capacity : Integer.highestOneBit(capacity) << 1;
+		buffers = new ByteBuffer[size];
+		addresses = new SocketAddress[size];
+		ports = new int[size];
+		mask = size - 1;
+	}
+
+	/**
+	 * Returns the capacity of the ring.
+	 *
+	 * @return capacity
+	 * @since 0.3.0
+	 */
+	public int getCapacity() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		final int result = buffers.length;
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(result));
+		return result;
+	}
+
+	/**
+	 * Returns the number of datagrams in the ring.
+	 *
+	 * @return number of datagrams
+	 * @since 0.3.0
+	 */
+	public int getSize() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		final int result = (int) (tail.get() - head.get());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(result));
+		return result;
+	}
+
+	/**
+	 * Checks if the ring contains no datagrams.
+	 *
+	 * @return true/false
+	 * @since 0.3.0
+	 */
+	public boolean isEmpty() {
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodStart());
+
+		final boolean result = head.get() == tail.get();
+
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodExit(result));
+		return result;
+	}
+
+	/**
+	 * Adds a datagram to the ring.
+	 * This method must only be called by the receiving thread.
+	 *
+	 * @param buffer  of the datagram, positioned for reading
+	 * @param address of the sender
+	 * @param port    on which the datagram was received
+	 * @return true if the datagram was added, false if the ring is full
+	 * @see ByteBuffer
+	 * @see SocketAddress
+	 * @since 0.3.0
+	 */
+	public boolean offer(final ByteBuffer buffer, final SocketAddress address, final int port) {
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodStart(buffer, address, port));
+		if (null == buffer) {
+			throw new RuntimeExceptionIsNull("buffer"); //$NON-NLS-1$
+		}
+
+		final long index = tail.get();
+		final boolean result = index - head.get() < buffers.length;
+
+		if (result) {
+			final int slot = (int) index & mask;
+			buffers[slot] = buffer;
+			addresses[slot] = address;
+			ports[slot] = port;
+			tail.lazySet(index + 1L); //publishes the slot
+		}
+
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodExit(result));
+		return result;
+	}
+
+	/**
+	 * Returns the buffer of the oldest datagram without removing it.
+	 * This method must only be called by the dispatching thread.
+	 *
+	 * @return buffer of the oldest datagram or null if the ring is empty
+	 * @see ByteBuffer
+	 * @since 0.3.0
+	 */
+	public ByteBuffer getBuffer() {
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodStart());
+
+		final long index = head.get();
+		final ByteBuffer result = index == tail.get() ? null : buffers[(int) index & mask];
+
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodExit(result));
+		return result;
+	}
+
+	/**
+	 * Returns the sender address of the oldest datagram without removing it.
+	 * This method must only be called by the dispatching thread.
+	 *
+	 * @return sender address of the oldest datagram or null if the ring is empty
+	 * @see SocketAddress
+	 * @since 0.3.0
+	 */
+	public SocketAddress getAddress() {
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodStart());
+
+		final long index = head.get();
+		final SocketAddress result = index == tail.get() ? null : addresses[(int) index & mask];
+
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodExit(result));
+		return result;
+	}
+
+	/**
+	 * Returns the local port of the oldest datagram without removing it.
+	 * This method must only be called by the dispatching thread.
+	 *
+	 * @return local port of the oldest datagram or 0 if the ring is empty
+	 * @since 0.3.0
+	 */
+	public int getPort() {
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodStart());
+
+		final long index = head.get();
+		final int result = index == tail.get() ? 0 : ports[(int) index & mask];
+
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodExit(result));
+		return result;
+	}
+
+	/**
+	 * Removes the oldest datagram and frees its slot for the receiving thread.
+	 * This method must only be called by the dispatching thread.
+	 *
+	 * @return buffer of the removed datagram or null if the ring is empty
+	 * @see ByteBuffer
+	 * @since 0.3.0
+	 */
+	public ByteBuffer remove() {
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodStart());
+
+		final long index = head.get();
+		ByteBuffer result = null;
+
+		if (index != tail.get()) {
+			final int slot = (int) index & mask;
+			result = buffers[slot];
+			buffers[slot] = null;
+			addresses[slot] = null;
+			head.lazySet(index + 1L); //frees the slot
+		}
+
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodExit(result));
+		return result;
+	}
+}
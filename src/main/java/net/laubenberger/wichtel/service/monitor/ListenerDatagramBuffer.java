@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2007-2013 by Stefan Laubenberger.
+ *
+ * "wichtel" is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License v3.0.
+ *
+ * "wichtel" is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * See the GNU Lesser General Public License for more details:
+ * -----------------------------------------------------------
+ * http://www.gnu.org/licenses
+ *
+ *
+ * This distribution is available at:
+ * ----------------------------------
+ * https://github.com/slaubenberger/wichtel/
+ *
+ *
+ * Contact information:
+ * --------------------
+ * Stefan Laubenberger
+ * Bullingerstrasse 53
+ * CH-8004 Zuerich
+ *
+ * http://www.laubenberger.net
+ * laubenberger@gmail.com
+ */
+
+package net.laubenberger.wichtel.service.monitor;
+
+import java.nio.ByteBuffer;
+
+import net.laubenberger.wichtel.misc.Event;
+import net.laubenberger.wichtel.misc.Listener;
+
+/**
+ * Listener for the received datagrams without copies.
+ * <p>
+ * The listener gets a {@link DatagramLease} on the pooled buffer of the datagram instead of a {@link java.net.DatagramPacket}.
+ *
+ * @author Stefan Laubenberger
+ * @version 0.3.0, 2026-10-17
+ * @since 0.3.0
+ */
+public interface ListenerDatagramBuffer extends Listener {
+	/**
+	 * Informs the listener that a datagram was received.
+	 * The lease is valid during the call; to keep the datagram, {@link DatagramLease#retain()} it and {@link DatagramLease#release()} it later.
+	 *
+	 * @param event for the listener
+	 * @param lease on the datagram, see {@link DatagramLease#getBuffer()} for a read-only {@link ByteBuffer}
+	 * @see DatagramLease
+	 * @since 0.3.0
+	 */
+	void datagramReceived(Event<MonitorDatagram> event, DatagramLease lease);
+}
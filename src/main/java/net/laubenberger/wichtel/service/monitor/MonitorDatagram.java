@@ -30,9 +30,14 @@
 
 package net.laubenberger.wichtel.service.monitor;
 
+import java.io.IOException;
 import java.net.DatagramPacket;
+import java.net.InetAddress;
+import java.net.NetworkInterface;
 import java.net.Socket;
+import java.util.Collection;
 
+import net.laubenberger.wichtel.helper.HelperNet;
 import net.laubenberger.wichtel.misc.HolderListener;
 
 
@@ -60,6 +65,73 @@ public interface MonitorDatagram extends Monitor, Runnable, HolderListener<Liste
 	 */
 	void setPort(int port);
 
+	/**
+	 * Returns all ports of the monitor.
+	 *
+	 * @return ports
+	 * @since 0.3.0
+	 */
+	int[] getPorts();
+
+	/**
+	 * Sets the ports (0 - 65535) of the monitor, one socket is bound per port.
+	 * The ports are used on the next {@link #start()}.
+	 *
+	 * @param ports of the monitor
+	 * @since 0.3.0
+	 */
+	void setPorts(int... ports);
+
+	/**
+	 * Returns the receive buffer size of the sockets.
+	 *
+	 * @return receive buffer size in bytes, 0 for the system default
+	 * @since 0.3.0
+	 */
+	int getReceiveBufferSize();
+
+	/**
+	 * Sets the receive buffer size (SO_RCVBUF) of the sockets (default: 0, system default).
+	 * A larger buffer absorbs bursts; the operating system may limit the size.
+	 * The value is used on the next {@link #start()}.
+	 *
+	 * @param receiveBufferSize in bytes
+	 * @since 0.3.0
+	 */
+	void setReceiveBufferSize(int receiveBufferSize);
+
+	/**
+	 * Returns the joined multicast groups.
+	 *
+	 * @return {@link Collection} containing the multicast groups
+	 * @see InetAddress
+	 * @since 0.3.0
+	 */
+	Collection<InetAddress> getGroups();
+
+	/**
+	 * Joins a multicast group on all ports.
+	 * Without interfaces, the group is joined on every running multicast interface (see {@link HelperNet#getNetworkInterfaces()}).
+	 * The group is joined immediately if the monitor is running, otherwise on the next {@link #start()}.
+	 *
+	 * @param group      multicast address
+	 * @param interfaces to receive the group on
+	 * @throws IOException
+	 * @see InetAddress
+	 * @see NetworkInterface
+	 * @since 0.3.0
+	 */
+	void joinGroup(InetAddress group, NetworkInterface... interfaces) throws IOException;
+
+	/**
+	 * Leaves a multicast group on all ports and interfaces.
+	 *
+	 * @param group multicast address
+	 * @see InetAddress
+	 * @since 0.3.0
+	 */
+	void leaveGroup(InetAddress group);
+
 	/**
 	 * Returns the current {@link DatagramPacket}.
 	 *
@@ -68,4 +140,46 @@ public interface MonitorDatagram extends Monitor, Runnable, HolderListener<Liste
 	 * @since 0.0.1
 	 */
 	DatagramPacket getPacket();
+
+	/**
+	 * Returns the local port on which the current {@link DatagramPacket} was received.
+	 *
+	 * @return local port of the current packet
+	 * @since 0.3.0
+	 */
+	int getPacketPort();
+
+	/**
+	 * Adds a listener which receives the datagrams without copies.
+	 *
+	 * @param listener to add
+	 * @see ListenerDatagramBuffer
+	 * @since 0.3.0
+	 */
+	void addBufferListener(ListenerDatagramBuffer listener);
+
+	/**
+	 * Removes a listener which receives the datagrams without copies.
+	 *
+	 * @param listener to remove
+	 * @see ListenerDatagramBuffer
+	 * @since 0.3.0
+	 */
+	void deleteBufferListener(ListenerDatagramBuffer listener);
+
+	/**
+	 * Returns the number of received packets, including the dropped ones.
+	 *
+	 * @return number of received packets
+	 * @since 0.3.0
+	 */
+	long getReceivedCount();
+
+	/**
+	 * Returns the number of packets dropped because the listeners couldn't keep up.
+	 *
+	 * @return number of dropped packets
+	 * @since 0.3.0
+	 */
+	long getDroppedCount();
 }
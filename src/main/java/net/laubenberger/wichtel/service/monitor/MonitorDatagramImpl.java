@@ -32,14 +32,41 @@ package net.laubenberger.wichtel.service.monitor;
 
 import java.io.IOException;
 import java.net.DatagramPacket;
-import java.net.DatagramSocket;
-import java.net.SocketException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.NetworkInterface;
+import java.net.SocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.MembershipKey;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 import net.laubenberger.wichtel.helper.HelperLog;
+import net.laubenberger.wichtel.helper.HelperNet;
 import net.laubenberger.wichtel.helper.HelperNumber;
+import net.laubenberger.wichtel.helper.HelperThread;
+import net.laubenberger.wichtel.misc.BufferPool;
 import net.laubenberger.wichtel.misc.Event;
+import net.laubenberger.wichtel.misc.exception.RuntimeExceptionIsEmpty;
+import net.laubenberger.wichtel.misc.exception.RuntimeExceptionIsInvalid;
 import net.laubenberger.wichtel.misc.exception.RuntimeExceptionIsNull;
 import net.laubenberger.wichtel.misc.exception.RuntimeExceptionMustBeGreater;
 import net.laubenberger.wichtel.misc.exception.RuntimeExceptionMustBeSmaller;
@@ -50,6 +77,13 @@ import org.slf4j.LoggerFactory;
 
 /**
  * Monitor implementation to analyse network packets (UDP) on a given port.
+ * <p>
+ * The monitor can listen on several ports and join multicast groups (see {@link #joinGroup(InetAddress, NetworkInterface...)}); one thread receives from all sockets.
+ * The monitor thread drains the {@link DatagramChannel} in batches into a {@link DatagramRing} of pooled buffers and never waits for the listeners.
+ * The listeners are informed on an {@link Executor}, one packet after the other; {@link #getPacket()} returns a copy which the listeners may keep.
+ * A {@link ListenerDatagramBuffer} gets the pooled buffer itself through a {@link DatagramLease}, the packet is only copied for the {@link ListenerDatagram}s.
+ * Datagrams arriving while the ring is full are dropped and counted (see {@link #getDroppedCount()}), datagrams longer than {@link #getPacketLength()} are truncated.
+ * A full ring holds {@link #getRingSize()} buffers of {@link #getPacketLength()} bytes (32MB with the defaults); the buffers are only allocated under load.
  *
  * @author Stefan Laubenberger
  * @version 0.1.0, 2013-07-31
@@ -57,19 +91,53 @@ import org.slf4j.LoggerFactory;
  */
 public class MonitorDatagramImpl extends ServiceAbstract implements MonitorDatagram {
 	private static final Logger log = LoggerFactory.getLogger(MonitorDatagramImpl.class);
+
+	/**
+	 * Shared executor for the listeners.
+	 */
+	public static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(HelperThread.createThreadFactory(MonitorDatagram.class.getSimpleName(), true));
+
+	public static final int DEFAULT_PACKET_LENGTH = Short.MAX_VALUE; //32kB as before the batched receive, smaller buffers would truncate larger datagrams
+	public static final int DEFAULT_RING_SIZE = 1024;
+	public static final int DEFAULT_BATCH_SIZE = 64;
+	public static final int MAX_PACKET_LENGTH = 65507; //maximal UDP payload over IPv4
 	
 	private final Event<MonitorDatagram> event = new Event<MonitorDatagram>(this);
 
+	private final Runnable taskDispatch = new Runnable() {
+		@Override
+		public void run() {
+			dispatch();
+		}
+	};
+
+	private final AtomicBoolean isDispatching = new AtomicBoolean();
+	private final AtomicLong receivedCount = new AtomicLong();
+	private final AtomicLong droppedCount = new AtomicLong();
+
 	private Thread thread;
 
-	private final Collection<ListenerDatagram> listeners = new HashSet<>();
+	private final Collection<ListenerDatagram> listeners = new CopyOnWriteArraySet<>();
+	private final Collection<ListenerDatagramBuffer> bufferListeners = new CopyOnWriteArraySet<>();
+
+	private final Map<InetAddress, NetworkInterface[]> groups = new LinkedHashMap<>(); //empty array: all multicast interfaces
+	private final List<DatagramChannel> channels = new CopyOnWriteArrayList<>();
+	private final List<MembershipKey> memberships = new CopyOnWriteArrayList<>();
 
-	private int port;
-	private DatagramSocket socket;
-	final byte[] buffer = new byte[Short.MAX_VALUE];
-	final DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+	private int[] ports = {};
+	private int receiveBufferSize;
+	private Executor executor = EXECUTOR;
+	private int packetLength = DEFAULT_PACKET_LENGTH;
+	private int ringSize = DEFAULT_RING_SIZE;
+	private int batchSize = DEFAULT_BATCH_SIZE;
 
-	private boolean isRunning;
+	private Selector selector;
+	private BufferPool pool;
+	private DatagramRing ring;
+	private volatile DatagramPacket packet;
+	private volatile int packetPort;
+
+	private volatile boolean isRunning;
 
 
 	public MonitorDatagramImpl() {
@@ -96,11 +164,320 @@ public class MonitorDatagramImpl extends ServiceAbstract implements MonitorDatag
 		return thread;
 	}
 
+	/**
+	 * Returns the {@link Executor} for the listeners.
+	 *
+	 * @return {@link Executor} for the listeners
+	 * @see Executor
+	 * @since 0.3.0
+	 */
+	public Executor getExecutor() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(executor));
+		return executor;
+	}
+
+	/**
+	 * Sets the {@link Executor} for the listeners (default: {@link #EXECUTOR}).
+	 * The monitor runs at most one task at a time on the executor, so the packets are delivered in order.
+	 *
+	 * @param executor for the listeners
+	 * @see Executor
+	 * @since 0.3.0
+	 */
+	public void setExecutor(final Executor executor) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(executor));
+		if (null == executor) {
+			throw new RuntimeExceptionIsNull("executor"); //$NON-NLS-1$
+		}
+
+		this.executor = executor;
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	/**
+	 * Returns the maximal length of a received packet.
+	 *
+	 * @return maximal packet length in bytes
+	 * @since 0.3.0
+	 */
+	public int getPacketLength() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(packetLength));
+		return packetLength;
+	}
+
+	/**
+	 * Sets the maximal length of a received packet (default: {@link #DEFAULT_PACKET_LENGTH}), longer packets are truncated.
+	 * The value is used on the next {@link #start()}.
+	 *
+	 * @param packetLength in bytes (1 - {@link #MAX_PACKET_LENGTH})
+	 * @since 0.3.0
+	 */
+	public void setPacketLength(final int packetLength) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(packetLength));
+		if (0 >= packetLength) {
+			throw new RuntimeExceptionMustBeGreater("packetLength", packetLength, 0); //$NON-NLS-1$
+		}
+		if (MAX_PACKET_LENGTH < packetLength) {
+			throw new RuntimeExceptionMustBeSmaller("packetLength", packetLength, MAX_PACKET_LENGTH); //$NON-NLS-1$
+		}
+
+		this.packetLength = packetLength;
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	/**
+	 * Returns the number of packets the ring can buffer for the listeners.
+	 *
+	 * @return ring size
+	 * @since 0.3.0
+	 */
+	public int getRingSize() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(ringSize));
+		return ringSize;
+	}
+
+	/**
+	 * Sets the number of packets the ring can buffer for the listeners (default: {@link #DEFAULT_RING_SIZE}).
+	 * The size is rounded up to a power of two and used on the next {@link #start()}.
+	 *
+	 * @param ringSize number of packets
+	 * @see DatagramRing
+	 * @since 0.3.0
+	 */
+	public void setRingSize(final int ringSize) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(ringSize));
+		if (0 >= ringSize) {
+			throw new RuntimeExceptionMustBeGreater("ringSize", ringSize, 0); //$NON-NLS-1$
+		}
+
+		this.ringSize = ringSize;
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	/**
+	 * Returns the maximal number of packets received in one batch.
+	 *
+	 * @return batch size
+	 * @since 0.3.0
+	 */
+	public int getBatchSize() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(batchSize));
+		return batchSize;
+	}
+
+	/**
+	 * Sets the maximal number of packets received in one batch (default: {@link #DEFAULT_BATCH_SIZE}).
+	 * The listeners are scheduled once per batch.
+	 *
+	 * @param batchSize number of packets
+	 * @since 0.3.0
+	 */
+	public void setBatchSize(final int batchSize) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(batchSize));
+		if (0 >= batchSize) {
+			throw new RuntimeExceptionMustBeGreater("batchSize", batchSize, 0); //$NON-NLS-1$
+		}
+
+		this.batchSize = batchSize;
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
 
 	/*
 	 * Private methods
 	 */
 
+	private void schedule() {
+		if (isDispatching.compareAndSet(false, true)) {
+			try {
+				executor.execute(taskDispatch);
+			} catch (RejectedExecutionException ex) {
+				isDispatching.set(false);
+				log.error("Could not dispatch datagrams", ex); //$NON-NLS-1$
+			}
+		}
+	}
+
+	private void dispatch() {
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodStart());
+
+		final DatagramRing ring = this.ring;
+		final BufferPool pool = this.pool;
+
+		do {
+			ByteBuffer buffer;
+			while (null != (buffer = ring.getBuffer())) {
+				final SocketAddress address = ring.getAddress();
+				final int port = ring.getPort();
+				ring.remove();
+
+				if (isRunning && !listeners.isEmpty()) {
+					final byte[] data = new byte[buffer.remaining()];
+					buffer.duplicate().get(data); //keeps the buffer positioned for the lease
+
+					packet = new DatagramPacket(data, data.length, address);
+					packetPort = port;
+					try {
+						firePacketReceived();
+					} catch (RuntimeException ex) {
+						log.error("Listener failed on packet from " + address, ex); //$NON-NLS-1$
+					}
+				}
+
+				if (isRunning && !bufferListeners.isEmpty()) {
+					final DatagramLease lease = new DatagramLease(buffer, pool, address, port);
+					try {
+						fireDatagramReceived(lease);
+					} catch (RuntimeException ex) {
+						log.error("Listener failed on datagram from " + address, ex); //$NON-NLS-1$
+					}
+					lease.release(); //the buffer returns to the pool unless a listener retained the lease
+				} else {
+					pool.release(buffer);
+				}
+			}
+			isDispatching.set(false);
+		} while (!ring.isEmpty() && isDispatching.compareAndSet(false, true));
+
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodExit());
+	}
+
+	private void receive() throws IOException {
+		final DatagramRing ring = this.ring;
+		final BufferPool pool = this.pool;
+
+		ByteBuffer buffer = pool.acquire();
+		boolean isDrained = true;
+		try {
+			while (selector.isOpen()) {
+				if (isDrained) { //all sockets were drained, wait for the next packet
+					selector.select();
+				} else {
+					selector.selectNow();
+				}
+				isDrained = true;
+
+				int count = 0;
+				for (final Iterator<SelectionKey> iter = selector.selectedKeys().iterator(); iter.hasNext(); ) {
+					final SelectionKey key = iter.next();
+					final DatagramChannel channel = (DatagramChannel) key.channel();
+					final int port = (Integer) key.attachment();
+
+					int received = 0;
+					SocketAddress address;
+					while (batchSize > received && null != (address = channel.receive(buffer))) {
+						received++;
+						buffer.flip();
+
+						if (ring.offer(buffer, address, port)) {
+							buffer = pool.acquire();
+						} else {
+							droppedCount.incrementAndGet();
+							buffer.clear();
+						}
+					}
+
+					if (batchSize == received) {
+						isDrained = false; //keeps the key selected for the next batch
+					} else {
+						iter.remove();
+					}
+					count += received;
+				}
+
+				if (0 < count) {
+					receivedCount.addAndGet(count);
+					schedule();
+				}
+			}
+		} finally {
+			pool.release(buffer);
+		}
+	}
+
+	private DatagramChannel open(final int port, final boolean isMulticast) throws IOException {
+		final DatagramChannel result = DatagramChannel.open();
+		try {
+			if (isMulticast) {
+				result.setOption(StandardSocketOptions.SO_REUSEADDR, Boolean.TRUE); //several monitors may share the group
+			}
+			if (0 < receiveBufferSize) {
+				result.setOption(StandardSocketOptions.SO_RCVBUF, receiveBufferSize);
+				final int size = result.getOption(StandardSocketOptions.SO_RCVBUF);
+				if (receiveBufferSize > size) {
+					log.warn("Receive buffer of port " + port + " is limited to " + size + " bytes (requested: " + receiveBufferSize + ')'); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+				}
+			}
+			result.bind(new InetSocketAddress(port));
+			result.configureBlocking(false);
+		} catch (IOException ex) {
+			result.close();
+			throw ex;
+		}
+		return result;
+	}
+
+	private void join(final InetAddress group, final NetworkInterface... interfaces) throws IOException {
+		if (0 == interfaces.length) {
+			int count = 0;
+			for (final NetworkInterface ni : HelperNet.getNetworkInterfaces()) {
+				if (ni.isUp() && ni.supportsMulticast()) {
+					try {
+						join(group, ni);
+						count++;
+					} catch (IOException ex) {
+						if (log.isDebugEnabled()) log.debug("Could not join group " + group + " on " + ni.getName(), ex); //$NON-NLS-1$ //$NON-NLS-2$
+					}
+				}
+			}
+			if (0 == count) {
+				throw new IOException("Could not join group " + group + " on any interface"); //$NON-NLS-1$ //$NON-NLS-2$
+			}
+		} else {
+			for (final NetworkInterface ni : interfaces) {
+				for (final DatagramChannel channel : channels) {
+					memberships.add(channel.join(group, ni));
+				}
+			}
+		}
+	}
+
+	private void close() {
+		try {
+			if (null != selector) {
+				selector.close(); //wakes up the monitor thread
+			}
+			for (final DatagramChannel channel : channels) {
+				channel.close(); //drops the memberships
+			}
+		} catch (IOException ex) {
+			if (log.isDebugEnabled()) log.debug("Could not close channel", ex); //$NON-NLS-1$
+		}
+		channels.clear();
+		memberships.clear();
+	}
+
+	private static void checkPort(final int port) {
+		if (0 >= port) {
+			throw new RuntimeExceptionMustBeGreater("port", port, 0); //$NON-NLS-1$
+		}
+		if (HelperNumber.NUMBER_65536.intValue() <= port) {
+			throw new RuntimeExceptionMustBeSmaller("port", port, 65535); //$NON-NLS-1$
+		}
+	}
+
 	protected void firePacketReceived() {
 		if (log.isTraceEnabled()) log.trace(HelperLog.methodStart());
 		
@@ -111,6 +488,16 @@ public class MonitorDatagramImpl extends ServiceAbstract implements MonitorDatag
 		if (log.isTraceEnabled()) log.trace(HelperLog.methodExit());
 	}
 
+	protected void fireDatagramReceived(final DatagramLease lease) {
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodStart(lease));
+
+		for (final ListenerDatagramBuffer listener : bufferListeners) {
+			listener.datagramReceived(event, lease);
+		}
+
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodExit());
+	}
+
 	protected void fireStarted() {
 		if (log.isTraceEnabled()) log.trace(HelperLog.methodStart());
 		
@@ -140,16 +527,18 @@ public class MonitorDatagramImpl extends ServiceAbstract implements MonitorDatag
 	 * Implemented methods
 	 */
 	
+	/**
+	 * Receives the datagrams into the ring.
+	 * This method is called by the thread of the monitor.
+	 */
 	@Override
 	public void run() {
 		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
 		
 		try {
-			while (!thread.isInterrupted()) {
-				socket.receive(packet);
-				
-				firePacketReceived();
-			}
+			receive();
+		} catch (ClosedChannelException | ClosedSelectorException ex) {
+			if (log.isDebugEnabled()) log.debug("Monitor stopped", ex); //$NON-NLS-1$
 		} catch (IOException ex) {
 			log.error("Could not receive datagrams", ex); //$NON-NLS-1$
 		}
@@ -157,6 +546,10 @@ public class MonitorDatagramImpl extends ServiceAbstract implements MonitorDatag
 		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
 	}
 
+	/**
+	 * Returns the packet currently delivered to the listeners.
+	 * The packet is a copy and may be kept by the listeners.
+	 */
 	@Override
 	public DatagramPacket getPacket() {
 		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
@@ -165,41 +558,186 @@ public class MonitorDatagramImpl extends ServiceAbstract implements MonitorDatag
 		return packet;
 	}
 
+	@Override
+	public long getReceivedCount() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		final long result = receivedCount.get();
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(result));
+		return result;
+	}
+
+	@Override
+	public long getDroppedCount() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		final long result = droppedCount.get();
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(result));
+		return result;
+	}
+
+	@Override
+	public int getPacketPort() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(packetPort));
+		return packetPort;
+	}
+
 	@Override
 	public int getPort() {
 		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
 		
-		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(port));
-		return port;
+		final int result = 0 == ports.length ? 0 : ports[0];
+		
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(result));
+		return result;
 	}
 
 	@Override
 	public void setPort(final int port) {
 		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(port));
 		
-		if (0 >= port) {
-			throw new RuntimeExceptionMustBeGreater("port", port, 0); //$NON-NLS-1$
+		checkPort(port);
+
+		ports = new int[]{port};
+		
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	@Override
+	public int[] getPorts() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		final int[] result = ports.clone();
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(result));
+		return result;
+	}
+
+	@Override
+	public void setPorts(final int... ports) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(ports));
+		if (null == ports) {
+			throw new RuntimeExceptionIsNull("ports"); //$NON-NLS-1$
 		}
-		if (HelperNumber.NUMBER_65536.intValue() <= port) {
-			throw new RuntimeExceptionMustBeSmaller("port", port, 65535); //$NON-NLS-1$
+		if (0 == ports.length) {
+			throw new RuntimeExceptionIsEmpty("ports"); //$NON-NLS-1$
 		}
 
-		this.port = port;
-		
+		for (final int port : ports) {
+			checkPort(port);
+		}
+
+		this.ports = ports.clone();
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	@Override
+	public int getReceiveBufferSize() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(receiveBufferSize));
+		return receiveBufferSize;
+	}
+
+	@Override
+	public void setReceiveBufferSize(final int receiveBufferSize) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(receiveBufferSize));
+		if (0 > receiveBufferSize) {
+			throw new RuntimeExceptionMustBeGreater("receiveBufferSize", receiveBufferSize, -1); //$NON-NLS-1$
+		}
+
+		this.receiveBufferSize = receiveBufferSize;
+
 		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
 	}
 
 	@Override
-	public void start() {
+	public synchronized Collection<InetAddress> getGroups() {
 		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		final Collection<InetAddress> result = new ArrayList<>(groups.keySet());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(result));
+		return result;
+	}
+
+	@Override
+	public synchronized void joinGroup(final InetAddress group, final NetworkInterface... interfaces) throws IOException {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(group, interfaces));
+		if (null == group) {
+			throw new RuntimeExceptionIsNull("group"); //$NON-NLS-1$
+		}
+		if (!group.isMulticastAddress()) {
+			throw new RuntimeExceptionIsInvalid("group", group); //$NON-NLS-1$
+		}
+		if (null == interfaces) {
+			throw new RuntimeExceptionIsNull("interfaces"); //$NON-NLS-1$
+		}
+
+		if (groups.containsKey(group)) {
+			leaveGroup(group);
+		}
+		groups.put(group, interfaces.clone());
+
+		if (!channels.isEmpty()) {
+			join(group, interfaces);
+		}
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	@Override
+	public synchronized void leaveGroup(final InetAddress group) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(group));
+		if (null == group) {
+			throw new RuntimeExceptionIsNull("group"); //$NON-NLS-1$
+		}
+
+		groups.remove(group);
+
+		for (final MembershipKey membership : memberships) {
+			if (membership.group().equals(group)) {
+				membership.drop();
+				memberships.remove(membership);
+			}
+		}
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	@Override
+	public synchronized void start() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+		if (0 == ports.length) {
+			throw new RuntimeExceptionIsEmpty("ports"); //$NON-NLS-1$
+		}
 		
+		ring = new DatagramRing(ringSize);
+		pool = new BufferPool(packetLength, ring.getCapacity() + 1, false);
+
 		try {
-			socket = new DatagramSocket(port);
-		} catch (SocketException e) {
-			throw new RuntimeException(e); //TODO improve this!
+			selector = Selector.open();
+
+			for (final int port : ports) {
+				final DatagramChannel channel = open(port, !groups.isEmpty());
+				channels.add(channel);
+				channel.register(selector, SelectionKey.OP_READ, port);
+			}
+
+			for (final Map.Entry<InetAddress, NetworkInterface[]> entry : groups.entrySet()) {
+				join(entry.getKey(), entry.getValue());
+			}
+		} catch (IOException ex) {
+			close();
+			throw new RuntimeException(ex); //TODO improve this!
 		}
 
-		thread = new Thread(this);
+		thread = new Thread(this, getClass().getSimpleName() + '-' + getPort());
 		thread.start();
 
 		fireStarted();
@@ -208,14 +746,12 @@ public class MonitorDatagramImpl extends ServiceAbstract implements MonitorDatag
 	}
 
 	@Override
-	public void stop() {
+	public synchronized void stop() {
 		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
 		
 		fireStopped();
 
-		if (null != socket && !socket.isClosed()) {
-			socket.close();
-		}
+		close();
 
 		if (null != thread) {
 			if (thread.isAlive()) {
@@ -261,4 +797,28 @@ public class MonitorDatagramImpl extends ServiceAbstract implements MonitorDatag
 		
 		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
 	}
+
+	@Override
+	public void addBufferListener(final ListenerDatagramBuffer listener) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(listener));
+		if (null == listener) {
+			throw new RuntimeExceptionIsNull("listener"); //$NON-NLS-1$
+		}
+
+		bufferListeners.add(listener);
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	@Override
+	public void deleteBufferListener(final ListenerDatagramBuffer listener) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(listener));
+		if (null == listener) {
+			throw new RuntimeExceptionIsNull("listener"); //$NON-NLS-1$
+		}
+
+		bufferListeners.remove(listener);
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
 }
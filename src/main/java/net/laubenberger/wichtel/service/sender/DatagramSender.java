@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2007-2013 by Stefan Laubenberger.
+ *
+ * "wichtel" is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License v3.0.
+ *
+ * "wichtel" is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * See the GNU Lesser General Public License for more details:
+ * -----------------------------------------------------------
+ * http://www.gnu.org/licenses
+ *
+ *
+ * This distribution is available at:
+ * ----------------------------------
+ * https://github.com/slaubenberger/wichtel/
+ *
+ *
+ * Contact information:
+ * --------------------
+ * Stefan Laubenberger
+ * Bullingerstrasse 53
+ * CH-8004 Zuerich
+ *
+ * http://www.laubenberger.net
+ * laubenberger@gmail.com
+ */
+
+package net.laubenberger.wichtel.service.sender;
+
+import java.net.InetSocketAddress;
+
+import net.laubenberger.wichtel.controller.net.codec.Codec;
+import net.laubenberger.wichtel.service.Service;
+import net.laubenberger.wichtel.service.monitor.MonitorDatagram;
+
+
+/**
+ * Defines the methods for the implementation of the datagram sender.
+ * <p>
+ * The sender packs several records as frames of a {@link Codec} into one datagram, the receiver (e.g. a {@link MonitorDatagram}) splits them again.
+ *
+ * @author Stefan Laubenberger
+ * @version 0.3.0, 2026-10-17
+ * @since 0.3.0
+ */
+public interface DatagramSender extends Service, Runnable {
+	/**
+	 * Returns the target address of the datagrams.
+	 *
+	 * @return target address
+	 * @see InetSocketAddress
+	 * @since 0.3.0
+	 */
+	InetSocketAddress getTarget();
+
+	/**
+	 * Returns the {@link Codec} for the records.
+	 *
+	 * @return {@link Codec} for the records
+	 * @see Codec
+	 * @since 0.3.0
+	 */
+	Codec getCodec();
+
+	/**
+	 * Sets the {@link Codec} for the records.
+	 * The codec is used on the next {@link #start()}.
+	 *
+	 * @param codec for the records
+	 * @see Codec
+	 * @since 0.3.0
+	 */
+	void setCodec(Codec codec);
+
+	/**
+	 * Returns the maximal length of a datagram.
+	 *
+	 * @return maximal datagram length in bytes
+	 * @since 0.3.0
+	 */
+	int getMaxDatagramLength();
+
+	/**
+	 * Sets the maximal length of a datagram; it should fit into the MTU of the network to avoid fragmentation.
+	 * The value is used on the next {@link #start()}.
+	 *
+	 * @param maxDatagramLength in bytes
+	 * @since 0.3.0
+	 */
+	void setMaxDatagramLength(int maxDatagramLength);
+
+	/**
+	 * Returns how long a partly filled datagram waits for more records.
+	 *
+	 * @return linger in milliseconds
+	 * @since 0.3.0
+	 */
+	long getLinger();
+
+	/**
+	 * Sets how long a partly filled datagram waits for more records (0: send as soon as the queue is empty).
+	 *
+	 * @param linger in milliseconds
+	 * @since 0.3.0
+	 */
+	void setLinger(long linger);
+
+	/**
+	 * Returns the maximal number of datagrams per second.
+	 *
+	 * @return rate in datagrams per second, 0 if unlimited
+	 * @since 0.3.0
+	 */
+	int getRate();
+
+	/**
+	 * Sets the maximal number of datagrams per second (0: unlimited).
+	 * Pacing keeps bursts from overflowing the receive buffer of the receiver.
+	 *
+	 * @param rate in datagrams per second
+	 * @since 0.3.0
+	 */
+	void setRate(int rate);
+
+	/**
+	 * Queues a record for sending; the method doesn't block.
+	 *
+	 * @param record to send
+	 * @return true if the record was queued, false if it was dropped because the queue is full or the sender isn't running
+	 * @since 0.3.0
+	 */
+	boolean send(byte... record);
+
+	/**
+	 * Returns the number of sent records.
+	 *
+	 * @return number of sent records
+	 * @since 0.3.0
+	 */
+	long getRecordCount();
+
+	/**
+	 * Returns the number of sent datagrams.
+	 *
+	 * @return number of sent datagrams
+	 * @since 0.3.0
+	 */
+	long getDatagramCount();
+
+	/**
+	 * Returns the number of dropped records.
+	 *
+	 * @return number of dropped records
+	 * @since 0.3.0
+	 */
+	long getDroppedCount();
+
+	/**
+	 * Starts the sender.
+	 *
+	 * @since 0.3.0
+	 */
+	void start();
+
+	/**
+	 * Stops the sender after the queued records are sent.
+	 *
+	 * @since 0.3.0
+	 */
+	void stop();
+
+	/**
+	 * Returns the state of the sender.
+	 *
+	 * @return true/false
+	 * @since 0.3.0
+	 */
+	boolean isRunning();
+}
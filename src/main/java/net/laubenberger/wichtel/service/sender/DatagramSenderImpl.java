@@ -0,0 +1,479 @@
+/*
+ * Copyright (c) 2007-2013 by Stefan Laubenberger.
+ *
+ * "wichtel" is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License v3.0.
+ *
+ * "wichtel" is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * See the GNU Lesser General Public License for more details:
+ * -----------------------------------------------------------
+ * http://www.gnu.org/licenses
+ *
+ *
+ * This distribution is available at:
+ * ----------------------------------
+ * https://github.com/slaubenberger/wichtel/
+ *
+ *
+ * Contact information:
+ * --------------------
+ * Stefan Laubenberger
+ * Bullingerstrasse 53
+ * CH-8004 Zuerich
+ *
+ * http://www.laubenberger.net
+ * laubenberger@gmail.com
+ */
+
+package net.laubenberger.wichtel.service.sender;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.PortUnreachableException;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import net.laubenberger.wichtel.controller.net.codec.Codec;
+import net.laubenberger.wichtel.controller.net.codec.CodecVarint;
+import net.laubenberger.wichtel.helper.HelperLog;
+import net.laubenberger.wichtel.misc.exception.RuntimeExceptionIsNull;
+import net.laubenberger.wichtel.misc.exception.RuntimeExceptionMustBeGreater;
+import net.laubenberger.wichtel.misc.exception.RuntimeExceptionMustBeSmaller;
+import net.laubenberger.wichtel.service.ServiceAbstract;
+import net.laubenberger.wichtel.service.monitor.MonitorDatagramImpl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Datagram sender implementation, the counterpart of the {@link MonitorDatagramImpl}.
+ * <p>
+ * {@link #send(byte...)} only queues the record; the thread of the sender packs the queued records into one reused direct buffer and sends it with a single write on a connected {@link DatagramChannel}.
+ * A datagram is sent when the next record doesn't fit or when no record arrived during the linger; the rate limits the datagrams per second.
+ * Records which don't fit into an empty datagram are dropped.
+ *
+ * @author Stefan Laubenberger
+ * @version 0.3.0, 2026-10-17
+ * @since 0.3.0
+ */
+public class DatagramSenderImpl extends ServiceAbstract implements DatagramSender {
+	private static final Logger log = LoggerFactory.getLogger(DatagramSenderImpl.class);
+
+	public static final int DEFAULT_MAX_DATAGRAM_LENGTH = 1472; //Ethernet MTU minus IPv4 and UDP header
+	public static final int MAX_DATAGRAM_LENGTH = 65507; //maximal UDP payload over IPv4
+	public static final int DEFAULT_QUEUE_SIZE = 8192;
+	public static final long DEFAULT_LINGER = 1L; //1ms
+
+	private static final long POLL_TIMEOUT = 100L; //ms, checks the running state
+
+	private final AtomicLong recordCount = new AtomicLong();
+	private final AtomicLong datagramCount = new AtomicLong();
+	private final AtomicLong droppedCount = new AtomicLong();
+
+	private final InetSocketAddress target;
+
+	private Codec codec = new CodecVarint();
+	private int maxDatagramLength = DEFAULT_MAX_DATAGRAM_LENGTH;
+	private int queueSize = DEFAULT_QUEUE_SIZE;
+	private volatile long linger = TimeUnit.MILLISECONDS.toNanos(DEFAULT_LINGER);
+	private volatile long interval; //nanoseconds between two datagrams, 0 if unlimited
+
+	private Thread thread;
+	private DatagramChannel channel;
+	private volatile BlockingQueue<byte[]> queue;
+
+	private volatile boolean isRunning;
+
+	public DatagramSenderImpl(final InetSocketAddress target) {
+		super();
+		if (log.isTraceEnabled()) log.trace(HelperLog.constructor(target));
+
+		if (null == target) {
+			throw new RuntimeExceptionIsNull("target"); //$NON-NLS-1$
+		}
+
+		this.target = target;
+	}
+
+	public DatagramSenderImpl(final String host, final int port) {
+		this(new InetSocketAddress(host, port));
+		if (log.isTraceEnabled()) log.trace(HelperLog.constructor(host, port));
+	}
+
+	/**
+	 * Returns the current {@link Thread} of the sender.
+	 *
+	 * @return thread of the sender
+	 * @since 0.3.0
+	 */
+	public Thread getThread() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(thread));
+		return thread;
+	}
+
+	/**
+	 * Returns the maximal number of queued records.
+	 *
+	 * @return queue size
+	 * @since 0.3.0
+	 */
+	public int getQueueSize() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(queueSize));
+		return queueSize;
+	}
+
+	/**
+	 * Sets the maximal number of queued records (default: {@link #DEFAULT_QUEUE_SIZE}), further records are dropped.
+	 * The value is used on the next {@link #start()}.
+	 *
+	 * @param queueSize number of records
+	 * @since 0.3.0
+	 */
+	public void setQueueSize(final int queueSize) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(queueSize));
+		if (0 >= queueSize) {
+			throw new RuntimeExceptionMustBeGreater("queueSize", queueSize, 0); //$NON-NLS-1$
+		}
+
+		this.queueSize = queueSize;
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+
+	/*
+	 * Private methods
+	 */
+
+	private void sendAll() throws IOException {
+		final BlockingQueue<byte[]> queue = this.queue;
+		final ByteBuffer buffer = ByteBuffer.allocateDirect(maxDatagramLength);
+
+		byte[] record = null;
+		long next = System.nanoTime(); //earliest time for the next datagram
+
+		while (isRunning || null != record || !queue.isEmpty()) {
+			if (null == record) {
+				try {
+					record = queue.poll(POLL_TIMEOUT, TimeUnit.MILLISECONDS);
+				} catch (InterruptedException ex) {
+					record = queue.poll();
+				}
+				if (null == record) {
+					continue;
+				}
+			}
+
+			buffer.clear();
+			int records = 0;
+			final long deadline = System.nanoTime() + linger;
+
+			while (null != record && put(buffer, record)) {
+				records++;
+				record = queue.poll();
+
+				if (null == record && isRunning) {
+					final long wait = deadline - System.nanoTime();
+					if (0L < wait) {
+						try {
+							record = queue.poll(wait, TimeUnit.NANOSECONDS);
+						} catch (InterruptedException ex) {
+							record = queue.poll();
+						}
+					}
+				}
+			}
+
+			if (0 == records) { //the record doesn't fit into an empty datagram
+				log.warn("Record with " + record.length + " bytes exceeds the maximal datagram length " + maxDatagramLength); //$NON-NLS-1$ //$NON-NLS-2$
+				droppedCount.incrementAndGet();
+				record = null;
+			} else {
+				next = pace(next);
+				buffer.flip();
+				try {
+					channel.write(buffer);
+					recordCount.addAndGet(records);
+					datagramCount.incrementAndGet();
+				} catch (PortUnreachableException ex) { //the receiver isn't running (yet)
+					if (log.isDebugEnabled()) log.debug("Target " + target + " is unreachable", ex); //$NON-NLS-1$ //$NON-NLS-2$
+					droppedCount.addAndGet(records);
+				}
+			}
+		}
+	}
+
+	private boolean put(final ByteBuffer buffer, final byte[] record) {
+		final ByteBuffer[] frame = codec.encode(record);
+
+		int length = 0;
+		for (final ByteBuffer part : frame) {
+			length += part.remaining();
+		}
+
+		final boolean result = buffer.remaining() >= length;
+		if (result) {
+			for (final ByteBuffer part : frame) {
+				buffer.put(part);
+			}
+		}
+		return result;
+	}
+
+	private long pace(final long next) {
+		final long interval = this.interval;
+
+		if (0L == interval) {
+			return next;
+		}
+
+		long now = System.nanoTime();
+		while (next > now) {
+			LockSupport.parkNanos(next - now);
+			now = System.nanoTime();
+		}
+		return Math.max(next, now - interval) + interval; //no catch-up bursts after a pause
+	}
+
+
+	/*
+	 * Implemented methods
+	 */
+
+	/**
+	 * Packs and sends the queued records.
+	 * This method is called by the thread of the sender.
+	 */
+	@Override
+	public void run() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		try {
+			sendAll();
+		} catch (IOException ex) {
+			log.error("Could not send datagrams to " + target, ex); //$NON-NLS-1$
+			isRunning = false;
+		}
+
+		try {
+			channel.close();
+		} catch (IOException ex) {
+			if (log.isDebugEnabled()) log.debug("Could not close channel", ex); //$NON-NLS-1$
+		}
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	@Override
+	public InetSocketAddress getTarget() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(target));
+		return target;
+	}
+
+	@Override
+	public Codec getCodec() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(codec));
+		return codec;
+	}
+
+	@Override
+	public void setCodec(final Codec codec) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(codec));
+		if (null == codec) {
+			throw new RuntimeExceptionIsNull("codec"); //$NON-NLS-1$
+		}
+
+		this.codec = codec;
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	@Override
+	public int getMaxDatagramLength() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(maxDatagramLength));
+		return maxDatagramLength;
+	}
+
+	/**
+	 * Sets the maximal length of a datagram (default: {@link #DEFAULT_MAX_DATAGRAM_LENGTH}).
+	 */
+	@Override
+	public void setMaxDatagramLength(final int maxDatagramLength) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(maxDatagramLength));
+		if (0 >= maxDatagramLength) {
+			throw new RuntimeExceptionMustBeGreater("maxDatagramLength", maxDatagramLength, 0); //$NON-NLS-1$
+		}
+		if (MAX_DATAGRAM_LENGTH < maxDatagramLength) {
+			throw new RuntimeExceptionMustBeSmaller("maxDatagramLength", maxDatagramLength, MAX_DATAGRAM_LENGTH); //$NON-NLS-1$
+		}
+
+		this.maxDatagramLength = maxDatagramLength;
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	@Override
+	public long getLinger() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		final long result = TimeUnit.NANOSECONDS.toMillis(linger);
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(result));
+		return result;
+	}
+
+	/**
+	 * Sets how long a partly filled datagram waits for more records (default: {@link #DEFAULT_LINGER}).
+	 */
+	@Override
+	public void setLinger(final long linger) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(linger));
+		if (0L > linger) {
+			throw new RuntimeExceptionMustBeGreater("linger", linger, -1); //$NON-NLS-1$
+		}
+
+		this.linger = TimeUnit.MILLISECONDS.toNanos(linger);
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	@Override
+	public int getRate() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		final int result = 0L == interval ? 0 : (int) (TimeUnit.SECONDS.toNanos(1L) / interval);
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(result));
+		return result;
+	}
+
+	@Override
+	public void setRate(final int rate) {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart(rate));
+		if (0 > rate) {
+			throw new RuntimeExceptionMustBeGreater("rate", rate, -1); //$NON-NLS-1$
+		}
+
+		interval = 0 == rate ? 0L : TimeUnit.SECONDS.toNanos(1L) / rate;
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	@Override
+	public boolean send(final byte... record) {
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodStart(record));
+		if (null == record) {
+			throw new RuntimeExceptionIsNull("record"); //$NON-NLS-1$
+		}
+
+		final BlockingQueue<byte[]> queue = this.queue;
+		final boolean result = isRunning && queue.offer(record);
+
+		if (!result) {
+			droppedCount.incrementAndGet();
+		}
+
+		if (log.isTraceEnabled()) log.trace(HelperLog.methodExit(result));
+		return result;
+	}
+
+	@Override
+	public long getRecordCount() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		final long result = recordCount.get();
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(result));
+		return result;
+	}
+
+	@Override
+	public long getDatagramCount() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		final long result = datagramCount.get();
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(result));
+		return result;
+	}
+
+	@Override
+	public long getDroppedCount() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		final long result = droppedCount.get();
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(result));
+		return result;
+	}
+
+	@Override
+	public synchronized void start() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (!isRunning) {
+			try {
+				channel = DatagramChannel.open();
+				channel.connect(target); //avoids the address check on every send
+			} catch (IOException ex) {
+				throw new RuntimeException(ex); //TODO improve this!
+			}
+
+			queue = new ArrayBlockingQueue<>(queueSize);
+			isRunning = true;
+
+			thread = new Thread(this, getClass().getSimpleName() + '-' + target);
+			thread.start();
+		}
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	/**
+	 * Stops the sender and waits until the queued records are sent.
+	 */
+	@Override
+	public synchronized void stop() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		isRunning = false;
+
+		if (null != thread) {
+			//no interrupt, it would close the channel; the thread notices the stop after its next poll
+			try {
+				thread.join();
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+			thread = null;
+		}
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit());
+	}
+
+	@Override
+	public boolean isRunning() {
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodStart());
+
+		if (log.isDebugEnabled()) log.debug(HelperLog.methodExit(isRunning));
+		return isRunning;
+	}
+}
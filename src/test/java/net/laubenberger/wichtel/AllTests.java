@@ -33,6 +33,17 @@ package net.laubenberger.wichtel;
 import java.text.DateFormat;
 import java.util.Date;
 
+import net.laubenberger.wichtel.controller.net.client.ClientPoolTest;
+import net.laubenberger.wichtel.controller.net.codec.CodecTest;
+import net.laubenberger.wichtel.controller.net.flow.FlowTest;
+import net.laubenberger.wichtel.controller.net.metrics.MetricsTest;
+import net.laubenberger.wichtel.controller.net.server.ServerNioTest;
+import net.laubenberger.wichtel.controller.net.server.ServerTest;
+import net.laubenberger.wichtel.controller.net.ssl.SSLChannelTest;
+import net.laubenberger.wichtel.controller.net.ssl.SSLConfigTest;
+import net.laubenberger.wichtel.controller.net.timer.TimerTest;
+import net.laubenberger.wichtel.controller.net.mux.MuxMessageTest;
+import net.laubenberger.wichtel.controller.net.mux.MuxTest;
 import net.laubenberger.wichtel.helper.HelperArrayTest;
 import net.laubenberger.wichtel.helper.HelperCollection;
 import net.laubenberger.wichtel.helper.HelperCollectionTest;
@@ -53,6 +64,7 @@ import net.laubenberger.wichtel.helper.HelperPdfTest;
 import net.laubenberger.wichtel.helper.HelperScreenTest;
 import net.laubenberger.wichtel.helper.HelperSoundTest;
 import net.laubenberger.wichtel.helper.HelperStringTest;
+import net.laubenberger.wichtel.helper.HelperThreadTest;
 import net.laubenberger.wichtel.helper.HelperTimeTest;
 import net.laubenberger.wichtel.helper.HelperXmlTest;
 import net.laubenberger.wichtel.helper.encoder.EncoderBase64Test;
@@ -72,8 +84,11 @@ import net.laubenberger.wichtel.model.unit.UnitVolumeTest;
 import net.laubenberger.wichtel.model.unit.UnitWeightTest;
 import net.laubenberger.wichtel.service.crypto.CertificateProviderTest;
 import net.laubenberger.wichtel.service.crypto.CryptoAsymmetricTest;
+import net.laubenberger.wichtel.service.crypto.CryptoContainerTest;
 import net.laubenberger.wichtel.service.crypto.CryptoSymmetricTest;
 import net.laubenberger.wichtel.service.crypto.ScramblerTest;
+import net.laubenberger.wichtel.service.monitor.MonitorDatagramTest;
+import net.laubenberger.wichtel.service.sender.DatagramSenderTest;
 import net.laubenberger.wichtel.view.swing.factory.FormatFactory;
 
 import org.junit.runner.JUnitCore;
@@ -132,6 +147,17 @@ public class AllTests implements Runnable {
 				LauncherFileTest.class,
 				LauncherMailTest.class,
 				LauncherProcessTest.class,
+				CodecTest.class,
+				MuxMessageTest.class,
+				MuxTest.class,
+				MetricsTest.class,
+				TimerTest.class,
+				FlowTest.class,
+				ClientPoolTest.class,
+				SSLConfigTest.class,
+				SSLChannelTest.class,
+				ServerTest.class,
+				ServerNioTest.class,
 				HelperArrayTest.class,
 				HelperCollectionTest.class,
 				HelperCompressTest.class,
@@ -152,6 +178,7 @@ public class AllTests implements Runnable {
 				HelperSoundTest.class,
 				HelperStringTest.class,
 //				HelperSwingTest.class, //TODO create JUnit test
+				HelperThreadTest.class,
 				HelperTimeTest.class,
 				HelperXmlTest.class,
 				ContextTest.class,
@@ -164,7 +191,10 @@ public class AllTests implements Runnable {
 				CertificateProviderTest.class,
 				CryptoAsymmetricTest.class, //TODO JUnit tests not complete!
 				CryptoSymmetricTest.class,  //TODO JUnit tests not complete!
-				ScramblerTest.class  //TODO JUnit tests not complete!
+				CryptoContainerTest.class,
+				ScramblerTest.class,  //TODO JUnit tests not complete!
+				MonitorDatagramTest.class,
+				DatagramSenderTest.class
 		);
 
 		System.out.println("** Test run completed **"); //$NON-NLS-1$
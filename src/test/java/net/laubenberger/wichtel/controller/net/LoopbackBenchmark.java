@@ -0,0 +1,429 @@
+/*
+ * Copyright (c) 2007-2013 by Stefan Laubenberger.
+ *
+ * "wichtel" is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License v3.0.
+ *
+ * "wichtel" is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * See the GNU Lesser General Public License for more details:
+ * -----------------------------------------------------------
+ * http://www.gnu.org/licenses
+ *
+ *
+ * This distribution is available at:
+ * ----------------------------------
+ * https://github.com/slaubenberger/wichtel/
+ *
+ *
+ * Contact information:
+ * --------------------
+ * Stefan Laubenberger
+ * Bullingerstrasse 53
+ * CH-8004 Zuerich
+ *
+ * http://www.laubenberger.net
+ * laubenberger@gmail.com
+ */
+
+package net.laubenberger.wichtel.controller.net;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.ByteBuffer;
+import java.security.KeyPairGenerator;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import javax.net.SocketFactory;
+
+import net.laubenberger.wichtel.controller.net.client.Client;
+import net.laubenberger.wichtel.controller.net.client.ClientAbstract;
+import net.laubenberger.wichtel.controller.net.client.ClientPool;
+import net.laubenberger.wichtel.controller.net.client.ClientPooled;
+import net.laubenberger.wichtel.controller.net.client.ClientSSLAbstract;
+import net.laubenberger.wichtel.controller.net.codec.Codec;
+import net.laubenberger.wichtel.controller.net.codec.CodecLength;
+import net.laubenberger.wichtel.controller.net.metrics.Histogram;
+import net.laubenberger.wichtel.controller.net.server.ServerAbstract;
+import net.laubenberger.wichtel.controller.net.server.ServerNioAbstract;
+import net.laubenberger.wichtel.controller.net.server.ServerSSLAbstract;
+import net.laubenberger.wichtel.controller.net.server.ServerSSLNioAbstract;
+import net.laubenberger.wichtel.controller.net.server.ServerThread;
+import net.laubenberger.wichtel.controller.net.server.ServerThreadAbstract;
+import net.laubenberger.wichtel.controller.net.ssl.SSLConfig;
+import net.laubenberger.wichtel.misc.Event;
+import net.laubenberger.wichtel.service.crypto.CertificateProviderImpl;
+
+
+/**
+ * Loopback load generator and latency benchmark for the socket servers and clients.
+ * <p>
+ * N clients send messages of a given size to an echo server, either closed-loop (one outstanding message per client) or open-loop at a fixed total rate.
+ * Every message carries its intended send time and the latency is measured from this time until the echo arrives, so a stalling server can't hide its queueing delay (coordinated omission).
+ * The latencies are recorded in a {@link Histogram} with a precision of 2^-7; after a warm-up the benchmark prints msgs/s and p50/p99/p999/max.
+ * <p>
+ * Transports:
+ * <ul>
+ * <li>blocking: thread per connection on both sides, the baseline</li>
+ * <li>virtual: like blocking, but the server uses a virtual thread per connection</li>
+ * <li>nio: {@link ServerNioAbstract} with blocking clients</li>
+ * <li>pooled: blocking server, request/response over connections borrowed from a {@link ClientPool}</li>
+ * </ul>
+ * Usage: LoopbackBenchmark [transport] [clients] [message size] [rate msgs/s, 0 = closed-loop] [seconds] [tls] [port]
+ *
+ * @author Stefan Laubenberger
+ * @version 0.3.0, 2026-10-17
+ */
+public class LoopbackBenchmark {
+	private static final Codec CODEC = new CodecLength();
+	private static final String HOST = "localhost"; //$NON-NLS-1$
+	private static final long WARMUP = TimeUnit.SECONDS.toNanos(2L);
+
+	private static final Histogram latencies = new Histogram(7);
+	private static final AtomicLong received = new AtomicLong();
+	private static volatile boolean isMeasuring;
+
+	public static void main(final String[] args) throws Exception {
+		final String transport = 0 < args.length ? args[0] : "blocking"; //$NON-NLS-1$
+		final int clients = 1 < args.length ? Integer.parseInt(args[1]) : 8;
+		final int size = 2 < args.length ? Math.max(Long.BYTES, Integer.parseInt(args[2])) : 64;
+		final int rate = 3 < args.length ? Integer.parseInt(args[3]) : 0;
+		final int seconds = 4 < args.length ? Integer.parseInt(args[4]) : 10;
+		final boolean isTls = 5 < args.length && Boolean.parseBoolean(args[5]);
+		final int port = 6 < args.length ? Integer.parseInt(args[6]) : 40280;
+
+		final SSLConfig sslConfig = isTls ? createSSLConfig() : null;
+		final ServerAbstract server = createServer(transport, port, sslConfig);
+		server.start();
+
+		try {
+			final long end = System.nanoTime() + WARMUP + TimeUnit.SECONDS.toNanos(seconds);
+			final List<Thread> threads = new ArrayList<>();
+			final List<Client> connections = new ArrayList<>();
+			final ClientPool pool = "pooled".equals(transport) ? createPool(clients, sslConfig) : null; //$NON-NLS-1$
+
+			for (int ii = 0; clients > ii; ii++) {
+				final Runnable sender;
+				if (null == pool) {
+					final Semaphore window = 0 == rate ? new Semaphore(1) : null; //closed-loop: one outstanding message
+					final Client client = createClient(port, sslConfig, window);
+					client.start();
+					connections.add(client);
+					sender = createSender(client, window, size, rate, clients, end);
+				} else {
+					sender = createSender(pool, port, size, rate, clients, end);
+				}
+				threads.add(new Thread(sender, "sender-" + ii)); //$NON-NLS-1$
+			}
+
+			for (final Thread thread : threads) {
+				thread.start();
+			}
+			TimeUnit.NANOSECONDS.sleep(WARMUP);
+			latencies.reset();
+			received.set(0L);
+			isMeasuring = true;
+			final long start = System.nanoTime();
+
+			for (final Thread thread : threads) {
+				thread.join();
+			}
+			final double elapsed = (System.nanoTime() - start) / 1.0E9D;
+			isMeasuring = false;
+
+			System.out.printf("%-8s tls=%-5s clients=%-4d size=%-6d rate=%-8s %10.0f msgs/s  p50=%8.1fus  p99=%8.1fus  p999=%8.1fus  max=%8.1fus%n", //$NON-NLS-1$
+					transport, isTls, clients, size, 0 == rate ? "closed" : String.valueOf(rate), received.get() / elapsed, //$NON-NLS-1$
+					toMicros(latencies.getPercentile(50.0D)), toMicros(latencies.getPercentile(99.0D)), toMicros(latencies.getPercentile(99.9D)), toMicros(latencies.getMax()));
+
+			for (final Client client : connections) {
+				client.stop();
+			}
+			if (null != pool) {
+				pool.close();
+			}
+		} finally {
+			server.stop();
+		}
+	}
+
+
+	/*
+	 * Private methods
+	 */
+
+	private static SSLConfig createSSLConfig() throws Exception {
+		final KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA"); //$NON-NLS-1$
+		generator.initialize(2048);
+
+		final SSLConfig result = new SSLConfig();
+		final long now = System.currentTimeMillis();
+		result.setTrustedCertificates(result.setKeyMaterial(new CertificateProviderImpl(), generator.generateKeyPair(), "CN=" + HOST, HOST, new Date(now - TimeUnit.DAYS.toMillis(1L)), new Date(now + TimeUnit.DAYS.toMillis(1L)))); //$NON-NLS-1$
+		return result;
+	}
+
+	private static ServerAbstract createServer(final String transport, final int port, final SSLConfig sslConfig) {
+		final ServerAbstract result;
+
+		if ("nio".equals(transport)) { //$NON-NLS-1$
+			final ServerNioAbstract server = null == sslConfig ? new ServerNioAbstract(port) {
+				@Override
+				public void serverThreadStreamRead(final Event<ServerThread> event) {
+					echo(event.getSource());
+				}
+			} : new ServerSSLNioAbstract(port, sslConfig) {
+				@Override
+				public void serverThreadStreamRead(final Event<ServerThread> event) {
+					echo(event.getSource());
+				}
+			};
+			server.setCodec(CODEC);
+			result = server;
+		} else {
+			if (null == sslConfig) {
+				result = new EchoServer(port);
+			} else {
+				final EchoServerSSL server = new EchoServerSSL(port);
+				server.setSSLConfig(sslConfig);
+				result = server;
+			}
+			result.setVirtualThreads("virtual".equals(transport)); //$NON-NLS-1$
+		}
+		result.setTcpNoDelay(true);
+		return result;
+	}
+
+	private static Client createClient(final int port, final SSLConfig sslConfig, final Semaphore window) {
+		final ClientAbstract result;
+
+		if (null == sslConfig) {
+			result = new ClientAbstract(HOST, port) {
+				@Override
+				public void run() {
+					receive(this, window);
+				}
+
+				@Override
+				public byte[] getData() {
+					return null; //the echos aren't kept
+				}
+			};
+		} else {
+			final ClientSSLAbstract client = new ClientSSLAbstract(HOST, port) {
+				@Override
+				public void run() {
+					receive(this, window);
+				}
+
+				@Override
+				public byte[] getData() {
+					return null; //the echos aren't kept
+				}
+			};
+			client.setSSLConfig(sslConfig);
+			result = client;
+		}
+		result.setCodec(CODEC);
+		result.setTcpNoDelay(true);
+		return result;
+	}
+
+	private static ClientPool createPool(final int clients, final SSLConfig sslConfig) throws Exception {
+		final ClientPool result = new ClientPool(null == sslConfig ? SocketFactory.getDefault() : sslConfig.getSocketFactory(), clients, ClientPool.DEFAULT_EVICTION_INTERVAL);
+		result.setCodec(CODEC);
+		return result;
+	}
+
+	private static Runnable createSender(final Client client, final Semaphore window, final int size, final int rate, final int clients, final long end) {
+		return new Runnable() {
+			@Override
+			public void run() {
+				try {
+					final long interval = 0 == rate ? 0L : TimeUnit.SECONDS.toNanos(clients) / rate;
+					long intended = System.nanoTime();
+
+					while (end > intended) {
+						if (0L == interval) {
+							if (!window.tryAcquire(100L, TimeUnit.MILLISECONDS)) {
+								intended = System.nanoTime();
+								continue;
+							}
+							intended = System.nanoTime();
+						} else {
+							pace(intended);
+						}
+						client.writeStream(createMessage(size, intended));
+						intended += interval;
+					}
+				} catch (IOException | InterruptedException ex) {
+					ex.printStackTrace();
+				}
+			}
+		};
+	}
+
+	private static Runnable createSender(final ClientPool pool, final int port, final int size, final int rate, final int clients, final long end) {
+		return new Runnable() {
+			@Override
+			public void run() {
+				final long interval = 0 == rate ? 0L : TimeUnit.SECONDS.toNanos(clients) / rate;
+				long intended = System.nanoTime();
+
+				while (end > intended) {
+					if (0L == interval) {
+						intended = System.nanoTime();
+					} else {
+						pace(intended);
+					}
+
+					ClientPooled client = null;
+					try {
+						client = pool.borrow(HOST, port);
+						client.writeStream(createMessage(size, intended));
+						client.readStream();
+						record(intended);
+						client.release();
+					} catch (IOException ex) {
+						if (null != client) {
+							pool.invalidate(client);
+						}
+						ex.printStackTrace();
+					}
+					intended += interval;
+				}
+			}
+		};
+	}
+
+	private static void receive(final Client client, final Semaphore window) { //reading thread of a client, the window is null for open-loop
+		try {
+			byte[] data;
+			while (null != (data = client.readStream())) {
+				record(ByteBuffer.wrap(data).getLong());
+				if (null != window) {
+					window.release();
+				}
+			}
+		} catch (IOException ex) {
+			//connection closed
+		}
+	}
+
+	private static void echo(final ServerThread serverThread) {
+		try {
+			serverThread.writeStream(serverThread.getData());
+		} catch (IOException ex) {
+			ex.printStackTrace();
+		}
+	}
+
+	private static void pace(final long intended) { //open-loop: sends at the intended time, even if the previous echo is late
+		long delay;
+		while (0L < (delay = intended - System.nanoTime())) {
+			LockSupport.parkNanos(delay);
+		}
+	}
+
+	private static byte[] createMessage(final int size, final long intended) {
+		final byte[] result = new byte[size];
+		ByteBuffer.wrap(result).putLong(intended);
+		return result;
+	}
+
+	private static void record(final long intended) {
+		if (isMeasuring) {
+			latencies.record(System.nanoTime() - intended);
+			received.incrementAndGet();
+		}
+	}
+
+	private static double toMicros(final long nanos) {
+		return nanos / 1000.0D;
+	}
+
+
+	/*
+	 * Inner classes
+	 */
+
+	private static class EchoThread extends ServerThreadAbstract {
+		EchoThread(final Socket socket) {
+			super(socket);
+			setCodec(CODEC);
+		}
+
+		@Override
+		public byte[] getData() {
+			return null; //the messages aren't kept
+		}
+
+		@Override
+		public void run() {
+			try {
+				byte[] data;
+				while (null != (data = readStream())) {
+					writeStream(data);
+				}
+			} catch (IOException ex) {
+				//connection closed
+			}
+		}
+	}
+
+	private static class EchoServer extends ServerAbstract {
+		EchoServer(final int port) {
+			super(port);
+		}
+
+		@Override
+		public void run() {
+			while (isRunning()) {
+				try {
+					startServerThread(new EchoThread(getServerSocket().accept()));
+				} catch (SocketException ex) {
+					break; //server stopped
+				} catch (IOException ex) {
+					ex.printStackTrace();
+				}
+			}
+		}
+
+		@Override
+		public void serverThreadStreamRead(final Event<ServerThread> event) {
+			//nothing to do
+		}
+	}
+
+	private static class EchoServerSSL extends ServerSSLAbstract {
+		EchoServerSSL(final int port) {
+			super(port);
+		}
+
+		@Override
+		public void run() {
+			while (isRunning()) {
+				try {
+					startServerThread(new EchoThread(getServerSocket().accept()));
+				} catch (SocketException ex) {
+					break; //server stopped
+				} catch (IOException ex) {
+					ex.printStackTrace();
+				}
+			}
+		}
+
+		@Override
+		public void serverThreadStreamRead(final Event<ServerThread> event) {
+			//nothing to do
+		}
+	}
+}
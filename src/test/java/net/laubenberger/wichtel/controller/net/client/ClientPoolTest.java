@@ -0,0 +1,312 @@
+/*
+ * Copyright (c) 2007-2013 by Stefan Laubenberger.
+ *
+ * "wichtel" is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License v3.0.
+ *
+ * "wichtel" is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * See the GNU Lesser General Public License for more details:
+ * -----------------------------------------------------------
+ * http://www.gnu.org/licenses
+ *
+ *
+ * This distribution is available at:
+ * ----------------------------------
+ * https://github.com/slaubenberger/wichtel/
+ *
+ *
+ * Contact information:
+ * --------------------
+ * Stefan Laubenberger
+ * Bullingerstrasse 53
+ * CH-8004 Zuerich
+ *
+ * http://www.laubenberger.net
+ * laubenberger@gmail.com
+ */
+
+package net.laubenberger.wichtel.controller.net.client;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import javax.net.SocketFactory;
+
+import net.laubenberger.wichtel.misc.exception.RuntimeExceptionMustBeGreater;
+
+import org.junit.Test;
+
+
+/**
+ * JUnit test for {@link ClientPool} and {@link ClientPooled}
+ *
+ * @author Stefan Laubenberger
+ * @version 0.3.0, 2026-10-17
+ */
+public class ClientPoolTest {
+	private static final int PORT = 40290;
+	private static final String HOST = "localhost"; //$NON-NLS-1$
+	private static final byte[] DATA = "hello".getBytes(); //$NON-NLS-1$
+
+	@Test
+	public void testBorrow() throws Exception {
+		try (EchoServer server = new EchoServer(PORT)) {
+			final ClientPool pool = new ClientPool(SocketFactory.getDefault(), 2, ClientPool.DEFAULT_EVICTION_INTERVAL);
+			try {
+				final ClientPooled client = pool.borrow(HOST, PORT);
+				assertTrue(client.isBorrowed());
+				assertEquals(1, pool.getActive(HOST, PORT));
+
+				client.writeStream(DATA);
+				assertArrayEquals(DATA, client.readStream());
+				client.release();
+				assertFalse(client.isBorrowed());
+				assertEquals(0, pool.getActive(HOST, PORT));
+				assertEquals(1, pool.getIdle(HOST, PORT));
+
+				final ClientPooled reused = pool.borrow(HOST, PORT);
+				assertSame(client, reused); //recently used, no probe needed
+				reused.writeStream(DATA);
+				assertArrayEquals(DATA, reused.readStream());
+				reused.release();
+			} finally {
+				pool.close();
+			}
+		}
+	}
+
+	@Test
+	public void testBorrowTimeout() throws Exception {
+		try (EchoServer server = new EchoServer(PORT + 1)) {
+			final ClientPool pool = new ClientPool(SocketFactory.getDefault(), 1, ClientPool.DEFAULT_EVICTION_INTERVAL);
+			pool.setBorrowTimeout(100L);
+			try {
+				final ClientPooled client = pool.borrow(HOST, PORT + 1);
+
+				final long start = System.currentTimeMillis();
+				try {
+					pool.borrow(HOST, PORT + 1);
+					fail("all connections are borrowed"); //$NON-NLS-1$
+				} catch (SocketTimeoutException ex) {
+					assertTrue(100L <= System.currentTimeMillis() - start);
+				}
+
+				client.release();
+				pool.borrow(HOST, PORT + 1).release();
+			} finally {
+				pool.close();
+			}
+		}
+	}
+
+	@Test
+	public void testRelease() throws Exception {
+		try (EchoServer server = new EchoServer(PORT + 2)) {
+			final ClientPool pool = new ClientPool(SocketFactory.getDefault(), 1, ClientPool.DEFAULT_EVICTION_INTERVAL);
+			pool.setBorrowTimeout(100L);
+			try {
+				final ClientPooled client = pool.borrow(HOST, PORT + 2);
+				client.release();
+				client.release(); //ignored
+				pool.invalidate(client); //ignored
+				assertTrue(client.isRunning());
+				assertEquals(0, pool.getActive(HOST, PORT + 2));
+				assertEquals(1, pool.getIdle(HOST, PORT + 2));
+
+				//the second release must not free another slot
+				final ClientPooled borrowed = pool.borrow(HOST, PORT + 2);
+				try {
+					pool.borrow(HOST, PORT + 2);
+					fail("maxTotal is exceeded"); //$NON-NLS-1$
+				} catch (SocketTimeoutException ex) {
+					//nothing to do
+				}
+
+				pool.invalidate(borrowed);
+				assertFalse(borrowed.isRunning());
+				pool.invalidate(borrowed); //ignored
+				borrowed.release(); //ignored
+				assertEquals(0, pool.getActive(HOST, PORT + 2));
+				assertEquals(0, pool.getIdle(HOST, PORT + 2));
+
+				final ClientPooled opened = pool.borrow(HOST, PORT + 2);
+				assertNotSame(borrowed, opened);
+				try {
+					pool.borrow(HOST, PORT + 2);
+					fail("maxTotal is exceeded"); //$NON-NLS-1$
+				} catch (SocketTimeoutException ex) {
+					//nothing to do
+				}
+				opened.release();
+			} finally {
+				pool.close();
+			}
+		}
+	}
+
+	@Test
+	public void testEviction() throws Exception {
+		try (EchoServer server = new EchoServer(PORT + 3)) {
+			final ClientPool pool = new ClientPool(SocketFactory.getDefault(), 2, 50L);
+			pool.setIdleTimeout(100L);
+			try {
+				final ClientPooled client = pool.borrow(HOST, PORT + 3);
+				client.release();
+				assertEquals(1, pool.getIdle(HOST, PORT + 3));
+
+				for (int ii = 0; 100 > ii && 0 < pool.getIdle(HOST, PORT + 3); ii++) {
+					Thread.sleep(50L);
+				}
+				assertEquals(0, pool.getIdle(HOST, PORT + 3));
+				assertFalse(client.isRunning());
+			} finally {
+				pool.close();
+			}
+		}
+	}
+
+	@Test
+	public void testMinIdle() throws Exception {
+		try (EchoServer server = new EchoServer(PORT + 5)) {
+			final ClientPool pool = new ClientPool(SocketFactory.getDefault(), 2, 50L);
+			pool.setMinIdle(2);
+			try {
+				final ClientPooled borrowed = pool.borrow(HOST, PORT + 5);
+
+				for (int ii = 0; 100 > ii && 0 == pool.getIdle(HOST, PORT + 5); ii++) {
+					Thread.sleep(50L);
+				}
+				Thread.sleep(200L); //several eviction runs
+				assertEquals(1, pool.getIdle(HOST, PORT + 5)); //borrowed and idle together don't exceed maxTotal
+
+				borrowed.release();
+				assertEquals(2, pool.getIdle(HOST, PORT + 5));
+			} finally {
+				pool.close();
+			}
+
+			pool.setMinIdle(0);
+			try {
+				pool.setMinIdle(-1);
+				fail("minIdle must be greater than -1"); //$NON-NLS-1$
+			} catch (RuntimeExceptionMustBeGreater ex) {
+				// nothing to do
+			}
+			try {
+				pool.setMaxIdle(-1);
+				fail("maxIdle must be greater than -1"); //$NON-NLS-1$
+			} catch (RuntimeExceptionMustBeGreater ex) {
+				// nothing to do
+			}
+		}
+	}
+
+	@Test
+	public void testValidation() throws Exception {
+		try (EchoServer server = new EchoServer(PORT + 4)) {
+			final ClientPool pool = new ClientPool(SocketFactory.getDefault(), 2, ClientPool.DEFAULT_EVICTION_INTERVAL);
+			pool.setValidationInterval(0L); //probe every idle connection
+			try {
+				final ClientPooled client = pool.borrow(HOST, PORT + 4);
+				client.writeStream(DATA);
+				assertArrayEquals(DATA, client.readStream()); //the server has accepted the connection
+				client.release();
+
+				server.closeConnections();
+				for (int ii = 0; 100 > ii && client.isValid(); ii++) {
+					Thread.sleep(50L); //the close reaches the client asynchronously
+				}
+				assertFalse(client.isValid());
+
+				final ClientPooled opened = pool.borrow(HOST, PORT + 4);
+				assertNotSame(client, opened);
+				opened.writeStream(DATA);
+				assertArrayEquals(DATA, opened.readStream());
+				opened.release();
+			} finally {
+				pool.close();
+			}
+		}
+	}
+
+
+	/*
+	 * Inner classes
+	 */
+
+	private static class EchoServer implements AutoCloseable {
+		private final ServerSocket serverSocket;
+		private final List<Socket> sockets = new CopyOnWriteArrayList<>();
+
+		EchoServer(final int port) throws IOException {
+			serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+
+			final Thread thread = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						while (true) {
+							final Socket socket = serverSocket.accept();
+							sockets.add(socket);
+							echo(socket);
+						}
+					} catch (IOException ex) {
+						//server closed
+					}
+				}
+			}, "echo-" + port); //$NON-NLS-1$
+			thread.setDaemon(true);
+			thread.start();
+		}
+
+		void closeConnections() throws IOException {
+			for (final Socket socket : sockets) {
+				socket.close();
+			}
+		}
+
+		@Override
+		public void close() throws IOException {
+			serverSocket.close();
+			closeConnections();
+		}
+
+		private static void echo(final Socket socket) {
+			final Thread thread = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					try (InputStream is = socket.getInputStream(); OutputStream os = socket.getOutputStream()) {
+						final byte[] buffer = new byte[1024];
+						int read;
+						while (0 <= (read = is.read(buffer))) {
+							os.write(buffer, 0, read);
+							os.flush();
+						}
+					} catch (IOException ex) {
+						//connection closed
+					}
+				}
+			});
+			thread.setDaemon(true);
+			thread.start();
+		}
+	}
+}
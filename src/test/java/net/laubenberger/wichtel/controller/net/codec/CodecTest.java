@@ -0,0 +1,473 @@
+/*
+ * Copyright (c) 2007-2013 by Stefan Laubenberger.
+ *
+ * "wichtel" is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License v3.0.
+ *
+ * "wichtel" is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * See the GNU Lesser General Public License for more details:
+ * -----------------------------------------------------------
+ * http://www.gnu.org/licenses
+ *
+ *
+ * This distribution is available at:
+ * ----------------------------------
+ * https://github.com/slaubenberger/wichtel/
+ *
+ *
+ * Contact information:
+ * --------------------
+ * Stefan Laubenberger
+ * Bullingerstrasse 53
+ * CH-8004 Zuerich
+ *
+ * http://www.laubenberger.net
+ * laubenberger@gmail.com
+ */
+
+package net.laubenberger.wichtel.controller.net.codec;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ProtocolException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.Timer;
+
+import net.laubenberger.wichtel.AllTests;
+import net.laubenberger.wichtel.helper.HelperIO;
+import net.laubenberger.wichtel.misc.BufferPool;
+import net.laubenberger.wichtel.misc.exception.RuntimeExceptionIsNull;
+import net.laubenberger.wichtel.misc.exception.RuntimeExceptionMustBeGreater;
+import net.laubenberger.wichtel.misc.exception.RuntimeExceptionMustBeSmaller;
+
+import org.junit.Test;
+
+
+/**
+ * JUnit test for {@link Codec}, {@link FrameDecoder}, {@link FrameWriter} and {@link FrameFile}
+ *
+ * @author Stefan Laubenberger
+ * @version 0.3.0, 2026-10-17
+ */
+public class CodecTest {
+	private static final long TIMEOUT = 10000L;
+	private static final byte[][] FRAMES = {AllTests.DATA.getBytes(StandardCharsets.UTF_8), {}, {1, 2, 3}, new byte[100000]};
+
+	@Test
+	public void testDelimiter() throws IOException {
+		testStream(new CodecDelimiter());
+		testChannel(new CodecDelimiter());
+
+		assertArrayEquals(new byte[]{1, 2, 3, (byte) -1}, encode(new CodecDelimiter(), new byte[]{1, 2, 3}));
+	}
+
+	@Test
+	public void testLength() throws IOException {
+		testStream(new CodecLength());
+		testChannel(new CodecLength());
+
+		assertArrayEquals(new byte[]{0, 0, 0, 3, 1, 2, 3}, encode(new CodecLength(), new byte[]{1, 2, 3}));
+	}
+
+	@Test
+	public void testVarint() throws IOException {
+		testStream(new CodecVarint());
+		testChannel(new CodecVarint());
+
+		assertArrayEquals(new byte[]{3, 1, 2, 3}, encode(new CodecVarint(), new byte[]{1, 2, 3}));
+		assertEquals(2, encode(new CodecVarint(), new byte[200]).length - 200);
+
+		assertEquals(1, CodecVarint.getVarintLength(127));
+		assertEquals(2, CodecVarint.getVarintLength(128));
+		assertEquals(5, CodecVarint.getVarintLength(Integer.MAX_VALUE));
+
+		try {
+			new FrameDecoder(new CodecVarint(), BufferPool.HEAP).read(new ByteArrayInputStream(new byte[]{-1, -1, -1, -1, -1, -1}));
+			fail("varint is malformed"); //$NON-NLS-1$
+		} catch (ProtocolException ex) {
+			// nothing to do
+		} catch (Exception ex) {
+			fail(ex.getMessage());
+		}
+	}
+
+	@Test
+	public void testMaxFrameLength() {
+		try {
+			new FrameDecoder(new CodecLength(10), BufferPool.HEAP).read(new ByteArrayInputStream(encode(new CodecLength(), new byte[11])));
+			fail("frame is too long"); //$NON-NLS-1$
+		} catch (ProtocolException ex) {
+			// nothing to do
+		} catch (Exception ex) {
+			fail(ex.getMessage());
+		}
+
+		try {
+			new FrameDecoder(new CodecDelimiter((byte) -1, 10), BufferPool.HEAP).read(new ByteArrayInputStream(new byte[20]));
+			fail("frame is too long"); //$NON-NLS-1$
+		} catch (ProtocolException ex) {
+			// nothing to do
+		} catch (Exception ex) {
+			fail(ex.getMessage());
+		}
+
+		//the sender rejects frames its peer would refuse
+		for (final Codec codec : new Codec[]{new CodecDelimiter((byte) -1, 10), new CodecLength(10), new CodecVarint(10)}) {
+			assertEquals(2, codec.encode(new byte[10]).length);
+
+			try {
+				codec.encode(new byte[11]);
+				fail("payload is too long"); //$NON-NLS-1$
+			} catch (RuntimeExceptionMustBeSmaller ex) {
+				// nothing to do
+			}
+
+			try {
+				codec.encodeFrame(11);
+				fail("payload is too long"); //$NON-NLS-1$
+			} catch (RuntimeExceptionMustBeSmaller ex) {
+				// nothing to do
+			}
+		}
+
+		//the frame length including the header must fit into an int
+		assertEquals(Integer.MAX_VALUE - CodecLength.HEADER_LENGTH, new CodecLength(Integer.MAX_VALUE - CodecLength.HEADER_LENGTH).getMaxFrameLength());
+		try {
+			new CodecLength(Integer.MAX_VALUE);
+			fail("maxFrameLength is too long"); //$NON-NLS-1$
+		} catch (RuntimeExceptionMustBeSmaller ex) {
+			// nothing to do
+		}
+
+		try {
+			new CodecVarint(Integer.MAX_VALUE);
+			fail("maxFrameLength is too long"); //$NON-NLS-1$
+		} catch (RuntimeExceptionMustBeSmaller ex) {
+			// nothing to do
+		}
+	}
+
+	@Test
+	public void testFrameWriter() throws IOException, InterruptedException {
+		final Codec codec = new CodecLength();
+
+		//gathering writes on a channel
+		final ChannelCounting channel = new ChannelCounting();
+		FrameWriter writer = new FrameWriter(channel);
+		writer.setFlushWindow(60000L);
+		writer.setFlushThreshold(Integer.MAX_VALUE);
+
+		for (final byte[] frame : FRAMES) {
+			writer.write(codec.encode(frame));
+		}
+		assertEquals(0, channel.getWrites());
+		assertEquals(encodeAll(codec).length, writer.getPendingLength());
+
+		writer.flush();
+		assertEquals(1, channel.getWrites());
+		assertEquals(0, writer.getPendingLength());
+		assertArrayEquals(encodeAll(codec), channel.toByteArray());
+
+		//flush threshold
+		writer.setFlushThreshold(10);
+		writer.write(codec.encode(new byte[5]));
+		assertEquals(1, channel.getWrites());
+		writer.write(codec.encode(new byte[6]));
+		assertEquals(2, channel.getWrites());
+
+		//flush window, the coalescing itself is tested above with a long window
+		writer.setFlushWindow(50L);
+		writer.setFlushThreshold(FrameWriter.DEFAULT_FLUSH_THRESHOLD);
+		writer.write(codec.encode(new byte[]{1, 2, 3}));
+		long deadline = System.currentTimeMillis() + TIMEOUT;
+		while (3 > channel.getWrites() && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10L);
+		}
+		assertEquals(3, channel.getWrites());
+		assertEquals(0, writer.getPendingLength());
+
+		//coalescing on a stream
+		final ByteArrayOutputStream os = new ByteArrayOutputStream();
+		writer = new FrameWriter(os);
+		writer.setFlushWindow(60000L);
+
+		writer.write(codec.encode(new byte[]{1, 2, 3}));
+		assertEquals(0, os.size());
+		writer.flush();
+		assertArrayEquals(encode(codec, new byte[]{1, 2, 3}), os.toByteArray());
+
+		//shared timer
+		final Timer timer = new Timer(true);
+		try {
+			writer.setTimer(timer);
+			assertEquals(timer, writer.getTimer());
+			writer.setFlushWindow(50L);
+			writer.write(codec.encode(new byte[]{4}));
+			deadline = System.currentTimeMillis() + TIMEOUT;
+			while (0 < writer.getPendingLength() && System.currentTimeMillis() < deadline) {
+				Thread.sleep(10L);
+			}
+			assertEquals(0, writer.getPendingLength());
+		} finally {
+			timer.cancel();
+		}
+		writer.write(codec.encode(new byte[]{5})); //cancelled timer, written immediately
+		assertEquals(0, writer.getPendingLength());
+
+		//failed timed flush
+		writer = new FrameWriter(new OutputStream() {
+			@Override
+			public void write(final int b) throws IOException {
+				throw new IOException("broken"); //$NON-NLS-1$
+			}
+		});
+		writer.setFlushWindow(50L);
+		writer.write(codec.encode(new byte[]{1, 2, 3}));
+
+		IOException failure = null;
+		deadline = System.currentTimeMillis() + TIMEOUT;
+		while (null == failure && System.currentTimeMillis() < deadline) {
+			try {
+				writer.write(codec.encode(new byte[]{4})); //queued until the timed flush has failed
+				Thread.sleep(10L);
+			} catch (IOException ex) {
+				failure = ex;
+			}
+		}
+		assertNotNull("the timed flush has failed", failure); //$NON-NLS-1$
+		try {
+			writer.flush();
+			fail("the timed flush has failed"); //$NON-NLS-1$
+		} catch (IOException ex) {
+			// nothing to do
+		}
+		writer.cancel();
+
+		try {
+			writer.setTimer(null);
+			fail("timer is null"); //$NON-NLS-1$
+		} catch (RuntimeExceptionIsNull ex) {
+			// nothing to do
+		} catch (Exception ex) {
+			fail(ex.getMessage());
+		}
+
+		try {
+			writer.setFlushThreshold(0);
+			fail("flushThreshold must be greater than 0"); //$NON-NLS-1$
+		} catch (RuntimeExceptionMustBeGreater ex) {
+			// nothing to do
+		} catch (Exception ex) {
+			fail(ex.getMessage());
+		}
+	}
+
+	@Test
+	public void testFrameFile() throws IOException {
+		final byte[] data = new byte[300000];
+		new Random(42L).nextBytes(data);
+
+		final File file = File.createTempFile("wichtel", ".bin"); //$NON-NLS-1$ //$NON-NLS-2$
+		file.deleteOnExit();
+		Files.write(file.toPath(), data);
+
+		for (final Codec codec : new Codec[]{new CodecLength(), new CodecVarint()}) {
+			//range in frames of 100000 bytes
+			final ChannelCounting channel = new ChannelCounting();
+			try (FrameFile frameFile = new FrameFile(codec, file, 1000L, 250000L, 100000)) {
+				assertEquals(true, frameFile.write(channel));
+				assertEquals(true, frameFile.isDone());
+				assertEquals(3L, frameFile.getFrames());
+				assertEquals(channel.toByteArray().length, frameFile.getBytesWritten());
+			}
+
+			final FrameDecoder decoder = new FrameDecoder(codec, BufferPool.HEAP);
+			final InputStream is = new ByteArrayInputStream(channel.toByteArray());
+			assertArrayEquals(Arrays.copyOfRange(data, 1000, 101000), decoder.read(is));
+			assertArrayEquals(Arrays.copyOfRange(data, 101000, 201000), decoder.read(is));
+			assertArrayEquals(Arrays.copyOfRange(data, 201000, 251000), decoder.read(is));
+			assertNull(decoder.read(is));
+
+			//fallback on a stream after pending frames
+			final ByteArrayOutputStream os = new ByteArrayOutputStream();
+			final FrameWriter writer = new FrameWriter(os);
+			writer.setFlushWindow(60000L);
+			writer.write(codec.encode(new byte[]{1, 2, 3}));
+			try (FrameFile frameFile = new FrameFile(codec, file, 0L, data.length)) {
+				writer.write(frameFile);
+			}
+
+			final InputStream stream = new ByteArrayInputStream(os.toByteArray());
+			assertArrayEquals(new byte[]{1, 2, 3}, decoder.read(stream));
+			assertArrayEquals(data, decoder.read(stream));
+			assertNull(decoder.read(stream));
+		}
+
+		assertEquals((byte) -1, new CodecDelimiter().encodeFrame(3)[1].get(0));
+
+		try {
+			new FrameFile(new CodecLength(), file, 1L, data.length);
+			fail("range is outside of the file"); //$NON-NLS-1$
+		} catch (RuntimeExceptionMustBeSmaller ex) {
+			// nothing to do
+		} catch (Exception ex) {
+			fail(ex.getMessage());
+		}
+	}
+
+	@Test
+	public void testBufferPool() {
+		final BufferPool pool = new BufferPool(16, 1, true);
+
+		final ByteBuffer buffer = pool.acquire();
+		assertEquals(16, buffer.capacity());
+		assertEquals(0, pool.getSize());
+
+		pool.release(buffer);
+		assertEquals(1, pool.getSize());
+		pool.release(pool.acquire(32));
+		pool.release(ByteBuffer.allocateDirect(16));
+		assertEquals(1, pool.getSize());
+
+		try {
+			new FrameDecoder(null, pool);
+			fail("codec is null"); //$NON-NLS-1$
+		} catch (RuntimeExceptionIsNull ex) {
+			// nothing to do
+		} catch (Exception ex) {
+			fail(ex.getMessage());
+		}
+	}
+
+
+	/*
+	 * Private methods
+	 */
+
+	private static byte[] encode(final Codec codec, final byte... data) {
+		try {
+			final ByteArrayOutputStream os = new ByteArrayOutputStream();
+			HelperIO.writeStream(os, codec.encode(data));
+			return os.toByteArray();
+		} catch (IOException ex) {
+			throw new IllegalStateException(ex);
+		}
+	}
+
+	private static byte[] encodeAll(final Codec codec) {
+		final ByteArrayOutputStream os = new ByteArrayOutputStream();
+
+		for (final byte[] frame : FRAMES) {
+			final byte[] data = encode(codec, frame);
+			os.write(data, 0, data.length);
+		}
+		return os.toByteArray();
+	}
+
+	private static void testStream(final Codec codec) throws IOException {
+		final FrameDecoder decoder = new FrameDecoder(codec, BufferPool.HEAP);
+		final InputStream is = new ByteArrayInputStream(encodeAll(codec));
+
+		for (final byte[] frame : FRAMES) {
+			assertArrayEquals(frame, decoder.read(is));
+		}
+		assertNull(decoder.read(is));
+		decoder.release();
+	}
+
+	private static void testChannel(final Codec codec) throws IOException {
+		final FrameDecoder decoder = new FrameDecoder(codec, BufferPool.DIRECT);
+		final ReadableByteChannel channel = Channels.newChannel(new ByteArrayInputStream(encodeAll(codec)));
+		final ByteBuffer shared = ByteBuffer.allocateDirect(1000); //forces partial frames
+		final List<byte[]> frames = new ArrayList<>();
+
+		while (-1 != decoder.read(channel, shared, frames)) {
+			// read until the end of the stream
+		}
+
+		assertEquals(FRAMES.length, frames.size());
+		for (int ii = 0; FRAMES.length > ii; ii++) {
+			assertArrayEquals(FRAMES[ii], frames.get(ii));
+		}
+		assertEquals(0, decoder.getPendingLength());
+		decoder.release();
+	}
+
+
+	/*
+	 * Inner classes
+	 */
+
+	private static class ChannelCounting implements GatheringByteChannel {
+		private final ByteArrayOutputStream os = new ByteArrayOutputStream();
+		private int writes;
+
+		ChannelCounting() {
+			super();
+		}
+
+		public int getWrites() {
+			return writes;
+		}
+
+		public byte[] toByteArray() {
+			return os.toByteArray();
+		}
+
+		@Override
+		public long write(final ByteBuffer[] srcs, final int offset, final int length) {
+			writes++;
+
+			long result = 0L;
+			for (int ii = offset; offset + length > ii; ii++) {
+				while (srcs[ii].hasRemaining()) {
+					os.write(srcs[ii].get());
+					result++;
+				}
+			}
+			return result;
+		}
+
+		@Override
+		public long write(final ByteBuffer[] srcs) {
+			return write(srcs, 0, srcs.length);
+		}
+
+		@Override
+		public int write(final ByteBuffer src) {
+			return (int) write(new ByteBuffer[]{src});
+		}
+
+		@Override
+		public boolean isOpen() {
+			return true;
+		}
+
+		@Override
+		public void close() {
+			// nothing to do
+		}
+	}
+}
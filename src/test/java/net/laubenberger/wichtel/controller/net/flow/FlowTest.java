@@ -0,0 +1,260 @@
+/*
+ * Copyright (c) 2007-2013 by Stefan Laubenberger.
+ *
+ * "wichtel" is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License v3.0.
+ *
+ * "wichtel" is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * See the GNU Lesser General Public License for more details:
+ * -----------------------------------------------------------
+ * http://www.gnu.org/licenses
+ *
+ *
+ * This distribution is available at:
+ * ----------------------------------
+ * https://github.com/slaubenberger/wichtel/
+ *
+ *
+ * Contact information:
+ * --------------------
+ * Stefan Laubenberger
+ * Bullingerstrasse 53
+ * CH-8004 Zuerich
+ *
+ * http://www.laubenberger.net
+ * laubenberger@gmail.com
+ */
+
+package net.laubenberger.wichtel.controller.net.flow;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import net.laubenberger.wichtel.controller.net.server.ServerNioAbstract;
+import net.laubenberger.wichtel.controller.net.server.ServerThread;
+import net.laubenberger.wichtel.misc.Event;
+import net.laubenberger.wichtel.misc.exception.RuntimeExceptionMustBeGreater;
+import net.laubenberger.wichtel.model.net.FlowEventType;
+
+import org.junit.Test;
+
+
+/**
+ * JUnit test for {@link FlowPublisher} and {@link ServerPublisher}
+ *
+ * @author Stefan Laubenberger
+ * @version 0.3.0, 2026-10-17
+ */
+public class FlowTest {
+	private static final int PORT = 40270;
+
+	@Test
+	public void testPublisher() {
+		final AtomicInteger suspended = new AtomicInteger();
+		final AtomicInteger resumed = new AtomicInteger();
+		final FlowPublisher<Integer> publisher = new FlowPublisher<Integer>(4) {
+			@Override
+			protected void suspend() {
+				suspended.incrementAndGet();
+			}
+
+			@Override
+			protected void resume() {
+				resumed.incrementAndGet();
+			}
+		};
+		final Recorder<Integer> recorder = new Recorder<>();
+
+		assertTrue(publisher.offer(-1)); //no subscribers, dropped
+
+		publisher.subscribe(recorder);
+		assertEquals(1, publisher.getSubscriberCount());
+
+		for (int ii = 0; 3 > ii; ii++) {
+			assertTrue(publisher.offer(ii));
+		}
+		assertFalse(publisher.offer(3)); //buffer full
+		assertTrue(publisher.isSaturated());
+		assertEquals(1, suspended.get());
+		assertTrue(recorder.items.isEmpty());
+
+		recorder.subscription.request(1);
+		assertEquals(1, recorder.items.size());
+		assertTrue(publisher.isSaturated()); //3 buffered
+
+		recorder.subscription.request(1);
+		assertEquals(2, recorder.items.size());
+		assertFalse(publisher.isSaturated()); //drained to half of the buffer
+		assertEquals(1, resumed.get());
+
+		publisher.close();
+		assertTrue(publisher.isClosed());
+		assertFalse(publisher.offer(4));
+		assertEquals(1, recorder.completed.getCount()); //completed after the buffered items
+
+		recorder.subscription.request(Long.MAX_VALUE);
+		assertEquals(4, recorder.items.size());
+		for (int ii = 0; 4 > ii; ii++) {
+			assertEquals(ii, recorder.items.get(ii).intValue());
+		}
+		assertEquals(0, recorder.completed.getCount());
+		assertNull(recorder.error.get());
+		assertEquals(0, publisher.getSubscriberCount());
+
+		try {
+			new FlowPublisher<Integer>(0);
+			fail("bufferSize must be greater than 0"); //$NON-NLS-1$
+		} catch (RuntimeExceptionMustBeGreater ex) {
+			//nothing to do
+		} catch (Exception ex) {
+			fail(ex.getMessage());
+		}
+	}
+
+	@Test
+	public void testCancel() {
+		final FlowPublisher<Integer> publisher = new FlowPublisher<>(2);
+		final Recorder<Integer> recorder = new Recorder<>();
+		final Recorder<Integer> invalid = new Recorder<>();
+
+		publisher.subscribe(recorder);
+		publisher.subscribe(invalid);
+
+		invalid.subscription.request(0);
+		assertTrue(invalid.error.get() instanceof IllegalArgumentException);
+		assertEquals(1, publisher.getSubscriberCount());
+
+		publisher.offer(1);
+		assertFalse(publisher.offer(2));
+		recorder.subscription.cancel();
+		assertFalse(publisher.isSaturated()); //the buffer of the cancelled subscription is released
+		assertEquals(0, publisher.getSubscriberCount());
+		assertTrue(recorder.items.isEmpty());
+	}
+
+	@Test
+	public void testServerPublisher() throws Exception {
+		final int count = 10000;
+		final byte[] message = new byte[1024];
+		Arrays.fill(message, (byte) 'a');
+		message[message.length - 1] = -1; //default delimiter
+
+		final ServerNioAbstract server = new ServerNioAbstract(PORT) {
+			@Override
+			public void serverThreadStreamRead(final Event<ServerThread> event) {
+				//nothing to do
+			}
+		};
+		server.setLoopCount(1);
+
+		final ServerPublisher publisher = new ServerPublisher(server, 8);
+		final Recorder<FlowEvent<ServerThread>> recorder = new Recorder<>();
+		publisher.subscribe(recorder);
+
+		server.start();
+		try {
+			try (Socket socket = new Socket("localhost", PORT)) { //$NON-NLS-1$
+				final OutputStream os = socket.getOutputStream();
+				final CountDownLatch written = new CountDownLatch(1);
+				final Thread writer = new Thread(new Runnable() {
+					@Override
+					public void run() {
+						try {
+							for (int ii = 0; count > ii; ii++) {
+								os.write(message);
+							}
+							os.flush();
+							written.countDown();
+						} catch (IOException ex) {
+							//socket closed
+						}
+					}
+				});
+				writer.start();
+
+				final long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10L);
+				while (!publisher.isSaturated() && System.currentTimeMillis() < deadline) {
+					Thread.sleep(10L);
+				}
+				assertTrue(publisher.isSaturated());
+				Thread.sleep(100L);
+
+				final ServerThread serverThread = server.getServerThreads().iterator().next();
+				assertTrue(serverThread.isReadSuspended());
+				assertTrue(count > serverThread.getMetrics().getMessagesRead());
+				assertFalse(written.await(100L, TimeUnit.MILLISECONDS)); //the writer is blocked by the full socket buffers
+
+				recorder.subscription.request(Long.MAX_VALUE);
+				while (count + 1 > recorder.items.size() && System.currentTimeMillis() < deadline) {
+					Thread.sleep(10L);
+				}
+				assertTrue(written.await(1L, TimeUnit.SECONDS));
+				assertFalse(publisher.isSaturated());
+				assertFalse(serverThread.isReadSuspended());
+			}
+
+			assertEquals(FlowEventType.STARTED, recorder.items.get(0).getType());
+			for (int ii = 1; count >= ii; ii++) {
+				assertEquals(FlowEventType.READ, recorder.items.get(ii).getType());
+				assertEquals(message.length - 1, recorder.items.get(ii).getData().length);
+			}
+		} finally {
+			publisher.close();
+			server.stop();
+		}
+		assertTrue(recorder.completed.await(5L, TimeUnit.SECONDS));
+	}
+
+
+	/*
+	 * Inner classes
+	 */
+
+	private static class Recorder<T> implements Flow.Subscriber<T> {
+		final List<T> items = new CopyOnWriteArrayList<>();
+		final CountDownLatch completed = new CountDownLatch(1);
+		final AtomicReference<Throwable> error = new AtomicReference<>();
+		volatile Flow.Subscription subscription;
+
+		Recorder() {
+		}
+
+		@Override
+		public void onSubscribe(final Flow.Subscription subscription) {
+			this.subscription = subscription;
+		}
+
+		@Override
+		public void onNext(final T item) {
+			items.add(item);
+		}
+
+		@Override
+		public void onError(final Throwable throwable) {
+			error.set(throwable);
+		}
+
+		@Override
+		public void onComplete() {
+			completed.countDown();
+		}
+	}
+}
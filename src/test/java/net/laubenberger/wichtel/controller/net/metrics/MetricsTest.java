@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2007-2013 by Stefan Laubenberger.
+ *
+ * "wichtel" is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License v3.0.
+ *
+ * "wichtel" is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * See the GNU Lesser General Public License for more details:
+ * -----------------------------------------------------------
+ * http://www.gnu.org/licenses
+ *
+ *
+ * This distribution is available at:
+ * ----------------------------------
+ * https://github.com/slaubenberger/wichtel/
+ *
+ *
+ * Contact information:
+ * --------------------
+ * Stefan Laubenberger
+ * Bullingerstrasse 53
+ * CH-8004 Zuerich
+ *
+ * http://www.laubenberger.net
+ * laubenberger@gmail.com
+ */
+
+package net.laubenberger.wichtel.controller.net.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import net.laubenberger.wichtel.misc.exception.RuntimeExceptionMustBeSmaller;
+
+import org.junit.Test;
+
+
+/**
+ * JUnit test for {@link Histogram} and {@link Metrics}
+ *
+ * @author Stefan Laubenberger
+ * @version 0.3.0, 2026-10-17
+ */
+public class MetricsTest {
+	@Test
+	public void testHistogram() {
+		final Histogram histogram = new Histogram();
+		assertEquals(0L, histogram.getPercentile(99.0D));
+
+		for (long ii = 1L; 1000L >= ii; ii++) {
+			histogram.record(ii * 1000L);
+		}
+
+		assertEquals(1000L, histogram.getCount());
+		assertEquals(500500L, histogram.getMean());
+		assertEquals(1000000L, histogram.getMax());
+		assertAccurate(500000L, histogram.getPercentile(50.0D));
+		assertAccurate(990000L, histogram.getPercentile(99.0D));
+		assertEquals(1000000L, histogram.getPercentile(100.0D));
+
+		histogram.record(-1L);
+		histogram.record(Long.MAX_VALUE);
+		assertEquals(Long.MAX_VALUE, histogram.getPercentile(100.0D));
+		assertEquals(0L, histogram.getPercentile(0.0D));
+
+		histogram.reset();
+		assertEquals(0L, histogram.getCount());
+
+		try {
+			histogram.getPercentile(101.0D);
+			fail("percentile must be smaller than 100"); //$NON-NLS-1$
+		} catch (RuntimeExceptionMustBeSmaller ex) {
+			// nothing to do
+		} catch (Exception ex) {
+			fail(ex.getMessage());
+		}
+
+		final Histogram precise = new Histogram(7);
+		assertEquals(7, precise.getPrecision());
+		for (long ii = 1L; 1000L >= ii; ii++) {
+			precise.record(ii * 1000L);
+		}
+		final long p99 = precise.getPercentile(99.0D);
+		assertTrue(990000L <= p99 && 990000L * 1.01D >= p99); //within 2^-7
+
+		try {
+			new Histogram(Histogram.MAX_PRECISION + 1);
+			fail("precision must be smaller than " + Histogram.MAX_PRECISION); //$NON-NLS-1$
+		} catch (RuntimeExceptionMustBeSmaller ex) {
+			// nothing to do
+		} catch (Exception ex) {
+			fail(ex.getMessage());
+		}
+	}
+
+	@Test
+	public void testParent() {
+		final Metrics parent = new Metrics();
+		final Metrics child = new Metrics();
+		child.setParent(parent);
+
+		child.recordRead(10L, 2L);
+		child.recordWrite(ByteBuffer.allocate(4), ByteBuffer.allocate(6));
+		child.recordExchange(100L);
+		child.recordStart(200L);
+
+		for (final MetricsMXBean metrics : new MetricsMXBean[]{child, parent, parent.getSnapshot()}) {
+			assertEquals(10L, metrics.getBytesRead());
+			assertEquals(2L, metrics.getMessagesRead());
+			assertEquals(10L, metrics.getBytesWritten());
+			assertEquals(1L, metrics.getMessagesWritten());
+			assertEquals(1L, metrics.getExchanges());
+			assertEquals(1L, metrics.getConnections());
+		}
+
+		//only the parent records the latencies
+		assertEquals(100L, parent.getExchangeLatencyMax());
+		assertEquals(200L, parent.getStartLatencyP50());
+		assertEquals(0L, child.getExchangeLatencyMax());
+		assertEquals(0L, child.getStartLatencyP50());
+		assertEquals(0L, child.getExchangeLatency().getCount());
+
+		parent.recordRead(1L, 1L);
+		assertEquals(10L, child.getBytesRead());
+		assertEquals(11L, parent.getBytesRead());
+	}
+
+	@Test
+	public void testMBean() throws JMException {
+		final Metrics metrics = new Metrics();
+		final ObjectName name = Metrics.createObjectName("Test", "MetricsTest"); //$NON-NLS-1$ //$NON-NLS-2$
+		final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+
+		metrics.registerMBean(name);
+		try {
+			metrics.recordRead(42L, 1L);
+			assertEquals(42L, server.getAttribute(name, "BytesRead")); //$NON-NLS-1$
+		} finally {
+			metrics.unregisterMBean();
+		}
+		assertTrue(!server.isRegistered(name));
+	}
+
+
+	/*
+	 * Private methods
+	 */
+
+	private static void assertAccurate(final long expected, final long actual) {
+		assertTrue(actual + " isn't within 12.5% of " + expected, expected <= actual && expected * 1.125D >= actual); //$NON-NLS-1$
+	}
+}
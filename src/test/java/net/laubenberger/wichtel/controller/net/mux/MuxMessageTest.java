@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2007-2013 by Stefan Laubenberger.
+ *
+ * "wichtel" is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License v3.0.
+ *
+ * "wichtel" is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * See the GNU Lesser General Public License for more details:
+ * -----------------------------------------------------------
+ * http://www.gnu.org/licenses
+ *
+ *
+ * This distribution is available at:
+ * ----------------------------------
+ * https://github.com/slaubenberger/wichtel/
+ *
+ *
+ * Contact information:
+ * --------------------
+ * Stefan Laubenberger
+ * Bullingerstrasse 53
+ * CH-8004 Zuerich
+ *
+ * http://www.laubenberger.net
+ * laubenberger@gmail.com
+ */
+
+package net.laubenberger.wichtel.controller.net.mux;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.net.ProtocolException;
+import java.nio.charset.StandardCharsets;
+
+import net.laubenberger.wichtel.AllTests;
+import net.laubenberger.wichtel.misc.exception.RuntimeExceptionIsNull;
+import net.laubenberger.wichtel.model.net.MuxType;
+
+import org.junit.Test;
+
+
+/**
+ * JUnit test for {@link MuxMessage}
+ *
+ * @author Stefan Laubenberger
+ * @version 0.3.0, 2026-10-17
+ */
+public class MuxMessageTest {
+	@Test
+	public void testEncode() {
+		assertArrayEquals(new byte[]{0, 0, 1, 2, 1, 7, 8}, MuxMessage.encode(258, MuxType.RESPONSE, (byte) 7, (byte) 8));
+		assertArrayEquals(new byte[]{-1, -1, -1, -1, 2}, MuxMessage.encode(-1, MuxType.ERROR));
+
+		try {
+			MuxMessage.encode(1, null, new byte[0]);
+			fail("type is null"); //$NON-NLS-1$
+		} catch (RuntimeExceptionIsNull ex) {
+			// nothing to do
+		} catch (Exception ex) {
+			fail(ex.getMessage());
+		}
+
+		try {
+			MuxMessage.encode(1, MuxType.REQUEST, null);
+			fail("payload is null"); //$NON-NLS-1$
+		} catch (RuntimeExceptionIsNull ex) {
+			// nothing to do
+		} catch (Exception ex) {
+			fail(ex.getMessage());
+		}
+	}
+
+	@Test
+	public void testDecode() {
+		final byte[] payload = AllTests.DATA.getBytes(StandardCharsets.UTF_8);
+
+		try {
+			for (final MuxType type : MuxType.values()) {
+				final MuxMessage message = MuxMessage.decode(MuxMessage.encode(Integer.MAX_VALUE, type, payload));
+
+				assertEquals(Integer.MAX_VALUE, message.getStreamId());
+				assertEquals(type, message.getType());
+				assertArrayEquals(payload, message.getPayload());
+			}
+
+			assertEquals(0, MuxMessage.decode(new MuxMessage(42, MuxType.REQUEST).encode()).getPayload().length);
+		} catch (Exception ex) {
+			fail(ex.getMessage());
+		}
+
+		try {
+			MuxMessage.decode(new byte[]{0, 0, 0, 1});
+			fail("message is too short"); //$NON-NLS-1$
+		} catch (ProtocolException ex) {
+			// nothing to do
+		} catch (Exception ex) {
+			fail(ex.getMessage());
+		}
+
+		try {
+			MuxMessage.decode(new byte[]{0, 0, 0, 1, 3});
+			fail("type is invalid"); //$NON-NLS-1$
+		} catch (ProtocolException ex) {
+			// nothing to do
+		} catch (Exception ex) {
+			fail(ex.getMessage());
+		}
+
+		try {
+			MuxMessage.decode(null);
+			fail("data is null"); //$NON-NLS-1$
+		} catch (RuntimeExceptionIsNull ex) {
+			// nothing to do
+		} catch (Exception ex) {
+			fail(ex.getMessage());
+		}
+	}
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright (c) 2007-2013 by Stefan Laubenberger.
+ *
+ * "wichtel" is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License v3.0.
+ *
+ * "wichtel" is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * See the GNU Lesser General Public License for more details:
+ * -----------------------------------------------------------
+ * http://www.gnu.org/licenses
+ *
+ *
+ * This distribution is available at:
+ * ----------------------------------
+ * https://github.com/slaubenberger/wichtel/
+ *
+ *
+ * Contact information:
+ * --------------------
+ * Stefan Laubenberger
+ * Bullingerstrasse 53
+ * CH-8004 Zuerich
+ *
+ * http://www.laubenberger.net
+ * laubenberger@gmail.com
+ */
+
+package net.laubenberger.wichtel.controller.net.mux;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import net.laubenberger.wichtel.controller.net.client.ClientMuxImpl;
+import net.laubenberger.wichtel.controller.net.server.ServerMuxImpl;
+import net.laubenberger.wichtel.controller.net.server.ServerThread;
+
+import org.junit.Test;
+
+
+/**
+ * JUnit test for {@link ServerMuxImpl} and {@link ClientMuxImpl}
+ *
+ * @author Stefan Laubenberger
+ * @version 0.3.0, 2026-10-17
+ */
+public class MuxTest {
+	private static final int PORT = 40300;
+	private static final String HOST = "localhost"; //$NON-NLS-1$
+	private static final long TIMEOUT = 10L;
+
+	@Test
+	public void testRequest() throws Exception {
+		final ServerMuxImpl server = new ServerMuxImpl(PORT, new MuxHandler() {
+			@Override
+			public byte[] handle(final ServerThread serverThread, final byte[] request) throws Exception {
+				Thread.sleep(10L * (10 - ByteBuffer.wrap(request).getInt() % 10)); //the first requests are answered last
+				return request;
+			}
+		});
+		server.start();
+
+		final ClientMuxImpl client = new ClientMuxImpl(HOST, PORT);
+		try {
+			client.start();
+
+			final List<CompletableFuture<byte[]>> futures = new ArrayList<>();
+			for (int ii = 0; 100 > ii; ii++) {
+				futures.add(client.request(ByteBuffer.allocate(4).putInt(ii).array()));
+			}
+
+			for (int ii = 0; 100 > ii; ii++) {
+				assertArrayEquals(ByteBuffer.allocate(4).putInt(ii).array(), futures.get(ii).get(TIMEOUT, TimeUnit.SECONDS));
+			}
+			assertEquals(0, client.getPendingRequests());
+		} finally {
+			client.stop();
+			server.stop();
+		}
+	}
+
+	@Test
+	public void testError() throws Exception {
+		final ServerMuxImpl server = new ServerMuxImpl(PORT + 1, new MuxHandler() {
+			@Override
+			public byte[] handle(final ServerThread serverThread, final byte[] request) throws Exception {
+				if (0 == request.length) {
+					throw new IllegalArgumentException("empty request"); //$NON-NLS-1$
+				}
+				return request;
+			}
+		});
+		server.start();
+
+		final ClientMuxImpl client = new ClientMuxImpl(HOST, PORT + 1);
+		try {
+			client.start();
+
+			try {
+				client.request().get(TIMEOUT, TimeUnit.SECONDS);
+				fail("the handler has failed"); //$NON-NLS-1$
+			} catch (ExecutionException ex) {
+				assertTrue(ex.getCause() instanceof IOException);
+				assertEquals("empty request", ex.getCause().getMessage()); //$NON-NLS-1$
+			}
+
+			//the connection is still usable
+			assertArrayEquals(new byte[]{1}, client.request((byte) 1).get(TIMEOUT, TimeUnit.SECONDS));
+		} finally {
+			client.stop();
+			server.stop();
+		}
+	}
+
+	@Test
+	public void testRejected() throws Exception {
+		final ServerMuxImpl server = new ServerMuxImpl(PORT + 2, new MuxHandler() {
+			@Override
+			public byte[] handle(final ServerThread serverThread, final byte[] request) {
+				return request;
+			}
+		});
+		server.setRequestExecutor(new Executor() {
+			@Override
+			public void execute(final Runnable command) {
+				throw new RejectedExecutionException("saturated"); //$NON-NLS-1$
+			}
+		});
+		server.start();
+
+		final ClientMuxImpl client = new ClientMuxImpl(HOST, PORT + 2);
+		try {
+			client.start();
+
+			for (int ii = 0; 2 > ii; ii++) {
+				try {
+					client.request((byte) ii).get(TIMEOUT, TimeUnit.SECONDS);
+					fail("the request is rejected"); //$NON-NLS-1$
+				} catch (ExecutionException ex) {
+					assertTrue(ex.getCause() instanceof IOException);
+				}
+			}
+			assertTrue(client.isRunning());
+		} finally {
+			client.stop();
+			server.stop();
+		}
+	}
+
+	@Test
+	public void testDisconnect() throws Exception {
+		final CountDownLatch received = new CountDownLatch(3);
+		final CountDownLatch released = new CountDownLatch(1);
+		final ServerMuxImpl server = new ServerMuxImpl(PORT + 3, new MuxHandler() {
+			@Override
+			public byte[] handle(final ServerThread serverThread, final byte[] request) throws Exception {
+				received.countDown();
+				released.await();
+				return request;
+			}
+		});
+		server.start();
+
+		final ClientMuxImpl client = new ClientMuxImpl(HOST, PORT + 3);
+		try {
+			client.start();
+
+			final List<CompletableFuture<byte[]>> futures = new ArrayList<>();
+			for (int ii = 0; 3 > ii; ii++) {
+				futures.add(client.request((byte) ii));
+			}
+			assertTrue(received.await(TIMEOUT, TimeUnit.SECONDS));
+			assertEquals(3, client.getPendingRequests());
+
+			server.stop();
+
+			for (final CompletableFuture<byte[]> future : futures) {
+				try {
+					future.get(TIMEOUT, TimeUnit.SECONDS);
+					fail("the connection is lost"); //$NON-NLS-1$
+				} catch (ExecutionException ex) {
+					assertTrue(ex.getCause() instanceof IOException);
+				}
+			}
+			assertEquals(0, client.getPendingRequests());
+		} finally {
+			released.countDown();
+			client.stop();
+			server.stop();
+		}
+	}
+}
@@ -0,0 +1,387 @@
+/*
+ * Copyright (c) 2007-2013 by Stefan Laubenberger.
+ *
+ * "wichtel" is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License v3.0.
+ *
+ * "wichtel" is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * See the GNU Lesser General Public License for more details:
+ * -----------------------------------------------------------
+ * http://www.gnu.org/licenses
+ *
+ *
+ * This distribution is available at:
+ * ----------------------------------
+ * https://github.com/slaubenberger/wichtel/
+ *
+ *
+ * Contact information:
+ * --------------------
+ * Stefan Laubenberger
+ * Bullingerstrasse 53
+ * CH-8004 Zuerich
+ *
+ * http://www.laubenberger.net
+ * laubenberger@gmail.com
+ */
+
+package net.laubenberger.wichtel.controller.net.server;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+
+import net.laubenberger.wichtel.controller.net.codec.Codec;
+import net.laubenberger.wichtel.controller.net.codec.CodecLength;
+import net.laubenberger.wichtel.controller.net.codec.FrameDecoder;
+import net.laubenberger.wichtel.controller.net.nio.SelectorLoop;
+import net.laubenberger.wichtel.misc.BufferPool;
+import net.laubenberger.wichtel.misc.Event;
+import net.laubenberger.wichtel.misc.exception.RuntimeExceptionMustBeGreater;
+import net.laubenberger.wichtel.model.net.BalancePolicy;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+
+/**
+ * JUnit test for {@link ServerNioAbstract} and {@link ServerThreadNioImpl}
+ *
+ * @author Stefan Laubenberger
+ * @version 0.3.0, 2026-10-17
+ */
+public class ServerNioTest {
+	private static final int PORT = 40320;
+	private static final String HOST = "localhost"; //$NON-NLS-1$
+	private static final long TIMEOUT = 10000L;
+	private static final Codec CODEC = new CodecLength();
+
+	@Test
+	public void testConnections() throws Exception {
+		final EchoServer server = new EchoServer(PORT);
+		server.setLoopCount(1); //all connections on one loop
+		server.start();
+
+		final List<Socket> sockets = new ArrayList<>();
+		try {
+			for (int ii = 0; 100 > ii; ii++) {
+				sockets.add(connect(PORT));
+			}
+
+			for (int ii = 0; 10 > ii; ii++) {
+				for (final Socket socket : sockets) {
+					socket.getOutputStream().write(encode(new byte[]{(byte) ii, (byte) sockets.indexOf(socket)}));
+				}
+			}
+
+			for (final Socket socket : sockets) {
+				final FrameDecoder decoder = new FrameDecoder(CODEC, BufferPool.HEAP);
+				for (int ii = 0; 10 > ii; ii++) {
+					assertArrayEquals(new byte[]{(byte) ii, (byte) sockets.indexOf(socket)}, decoder.read(socket.getInputStream()));
+				}
+			}
+			assertEquals(100, server.getMetrics().getActiveConnections());
+		} finally {
+			for (final Socket socket : sockets) {
+				socket.close();
+			}
+			server.stop();
+		}
+	}
+
+	@Test
+	public void testHighWaterMark() throws Exception {
+		final long highWaterMark = 64L * 1024L;
+
+		final EchoServer server = new EchoServer(PORT + 1);
+		server.setLoopCount(1);
+		server.setHighWaterMark(highWaterMark);
+		server.setSendBufferSize(8192);
+		server.start();
+
+		final Socket socket = new Socket();
+		socket.setReceiveBufferSize(8192);
+		socket.setSendBufferSize(8192);
+		socket.setSoTimeout((int) TIMEOUT);
+		socket.connect(new InetSocketAddress(HOST, PORT + 1));
+
+		final int count = 8192;
+		final byte[] frame = encode(new byte[1024]);
+		final Thread sender = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					final OutputStream os = socket.getOutputStream();
+					for (int ii = 0; count > ii; ii++) {
+						os.write(frame);
+					}
+				} catch (IOException ex) {
+					//connection closed
+				}
+			}
+		});
+
+		try {
+			sender.start();
+			Thread.sleep(1000L); //the client doesn't read, so the echos are queued
+
+			final ServerThreadNioImpl serverThread = server.getServerThread();
+			assertNotNull(serverThread);
+			assertTrue(serverThread.getQueuedLength() + " bytes queued", 4L * highWaterMark >= serverThread.getQueuedLength()); //$NON-NLS-1$
+
+			//reading is resumed as soon as the client reads
+			final FrameDecoder decoder = new FrameDecoder(CODEC, BufferPool.HEAP);
+			for (int ii = 0; count > ii; ii++) {
+				assertEquals(1024, decoder.read(socket.getInputStream()).length);
+			}
+			sender.join(TIMEOUT);
+
+			final long deadline = System.currentTimeMillis() + TIMEOUT;
+			while (0L < serverThread.getQueuedLength() && System.currentTimeMillis() < deadline) {
+				Thread.sleep(10L); //the loop accounts the written bytes after the write
+			}
+			assertEquals(0L, serverThread.getQueuedLength());
+		} finally {
+			socket.close();
+			server.stop();
+		}
+	}
+
+
+	@Test
+	public void testAcceptors() throws Exception {
+		final EchoServer server = new EchoServer(PORT + 2);
+		server.setAcceptorCount(2);
+		server.start();
+
+		try {
+			assertEquals(1, server.getServerSockets().size()); //both acceptors share the socket
+
+			assertEchos(PORT + 2, 50);
+			for (final String name : server.getAcceptors()) {
+				assertTrue(name, name.startsWith(EchoServer.class.getSimpleName() + "-acceptor-")); //$NON-NLS-1$
+			}
+		} finally {
+			server.stop();
+		}
+	}
+
+	@Test
+	public void testAcceptorsReusePort() throws Exception {
+		try (ServerSocket socket = new ServerSocket()) {
+			Assume.assumeTrue(socket.supportedOptions().contains(StandardSocketOptions.SO_REUSEPORT));
+		}
+
+		final EchoServer server = new EchoServer(PORT + 3);
+		server.setAcceptorCount(2);
+		server.setReusePort(true);
+		server.start();
+
+		try {
+			assertEquals(2, server.getServerSockets().size()); //one socket per acceptor
+			for (final ServerSocket socket : server.getServerSockets()) {
+				assertEquals(PORT + 3, socket.getLocalPort());
+			}
+
+			assertEchos(PORT + 3, 50);
+			assertEquals(2, server.getAcceptors().size()); //the kernel balances the connections over both sockets
+		} finally {
+			server.stop();
+		}
+	}
+
+	@Test
+	public void testLeastLoad() throws Exception {
+		final EchoServer server = new EchoServer(PORT + 4);
+		server.setLoopCount(2);
+		server.setBalancePolicy(BalancePolicy.LEAST_LOAD);
+		server.start();
+
+		try (Socket kept = connect(PORT + 4)) {
+			try (Socket closed = connect(PORT + 4)) {
+				assertEcho(closed);
+				assertEcho(kept);
+				assertNotSame(server.getLoops().get(0), server.getLoops().get(1));
+			}
+
+			final SelectorLoop released = server.getLoops().get(1);
+			final long deadline = System.currentTimeMillis() + TIMEOUT;
+			while (0 < released.getChannelCount() && System.currentTimeMillis() < deadline) {
+				Thread.sleep(10L); //the loop deregisters the closed connection
+			}
+
+			try (Socket third = connect(PORT + 4)) {
+				assertEcho(third);
+				assertSame(released, server.getLoops().get(2)); //the loop without connections
+			}
+		} finally {
+			server.stop();
+		}
+	}
+
+	@Test
+	public void testFailingListener() throws Exception {
+		final EchoServer server = new EchoServer(PORT + 6) {
+			@Override
+			public void serverThreadStreamRead(final Event<ServerThread> event) {
+				throw new IllegalStateException("listener failed"); //$NON-NLS-1$
+			}
+		};
+		server.setMaxConnections(1);
+		server.start();
+
+		try {
+			for (int ii = 0; 3 > ii; ii++) { //every failed connection releases its slot
+				try (Socket socket = connect(PORT + 6)) {
+					socket.getOutputStream().write(encode((byte) ii));
+					assertEquals(-1, socket.getInputStream().read());
+				}
+
+				final long deadline = System.currentTimeMillis() + TIMEOUT;
+				while (0 < server.getMetrics().getActiveConnections() && System.currentTimeMillis() < deadline) {
+					Thread.sleep(10L); //the server thread stops after the channel is closed
+				}
+				assertEquals(0, server.getMetrics().getActiveConnections());
+			}
+			assertEquals(0L, server.getMetrics().getRejectedConnections());
+		} finally {
+			server.stop();
+		}
+	}
+
+	@Test
+	public void testBackOffAccept() throws Exception {
+		final EchoServer server = new EchoServer(PORT + 5);
+
+		long start = System.nanoTime();
+		assertTrue(server.backOffAccept(1));
+		assertTrue(ServerAbstract.MIN_ACCEPT_BACKOFF <= (System.nanoTime() - start) / 1000000L);
+
+		start = System.nanoTime();
+		assertTrue(server.backOffAccept(Integer.MAX_VALUE));
+		assertTrue(2L * ServerAbstract.MAX_ACCEPT_BACKOFF > (System.nanoTime() - start) / 1000000L); //capped
+
+		Thread.currentThread().interrupt();
+		assertFalse(server.backOffAccept(1));
+		assertTrue(Thread.interrupted());
+
+		try {
+			server.backOffAccept(0);
+			fail("failures must be greater than 0"); //$NON-NLS-1$
+		} catch (RuntimeExceptionMustBeGreater ex) {
+			// nothing to do
+		}
+	}
+
+
+	/*
+	 * Private methods
+	 */
+
+	private static Socket connect(final int port) throws IOException {
+		final Socket result = new Socket(HOST, port);
+		result.setSoTimeout((int) TIMEOUT);
+		return result;
+	}
+
+	private static byte[] encode(final byte... data) {
+		final ByteArrayOutputStream result = new ByteArrayOutputStream();
+		for (final ByteBuffer buffer : CODEC.encode(data)) {
+			while (buffer.hasRemaining()) {
+				result.write(buffer.get());
+			}
+		}
+		return result.toByteArray();
+	}
+
+	private static void assertEcho(final Socket socket) throws IOException {
+		socket.getOutputStream().write(encode((byte) 1, (byte) 2));
+		assertArrayEquals(new byte[]{1, 2}, new FrameDecoder(CODEC, BufferPool.HEAP).read(socket.getInputStream()));
+	}
+
+	private static void assertEchos(final int port, final int count) throws IOException {
+		final List<Socket> sockets = new ArrayList<>();
+		try {
+			for (int ii = 0; count > ii; ii++) {
+				sockets.add(connect(port));
+			}
+			for (final Socket socket : sockets) {
+				assertEcho(socket);
+			}
+		} finally {
+			for (final Socket socket : sockets) {
+				socket.close();
+			}
+		}
+	}
+
+
+	/*
+	 * Inner classes
+	 */
+
+	private static class EchoServer extends ServerNioAbstract {
+		private final AtomicReference<ServerThreadNioImpl> serverThread = new AtomicReference<>();
+		private final Set<String> acceptors = ConcurrentHashMap.newKeySet();
+		private final List<SelectorLoop> loops = new CopyOnWriteArrayList<>(); //loop of every accepted connection
+
+		EchoServer(final int port) {
+			super(port);
+			setCodec(CODEC);
+		}
+
+		public ServerThreadNioImpl getServerThread() {
+			return serverThread.get();
+		}
+
+		public Set<String> getAcceptors() {
+			return acceptors;
+		}
+
+		public List<SelectorLoop> getLoops() {
+			return loops;
+		}
+
+		@Override
+		protected SelectorLoop nextLoop() {
+			acceptors.add(Thread.currentThread().getName());
+
+			final SelectorLoop result = super.nextLoop();
+			loops.add(result);
+			return result;
+		}
+
+		@Override
+		public void serverThreadStreamRead(final Event<ServerThread> event) {
+			serverThread.set((ServerThreadNioImpl) event.getSource());
+			try {
+				event.getSource().writeStream(event.getSource().getData());
+			} catch (IOException ex) {
+				//connection closed
+			}
+		}
+	}
+}
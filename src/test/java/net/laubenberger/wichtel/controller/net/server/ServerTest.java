@@ -0,0 +1,302 @@
+/*
+ * Copyright (c) 2007-2013 by Stefan Laubenberger.
+ *
+ * "wichtel" is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License v3.0.
+ *
+ * "wichtel" is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * See the GNU Lesser General Public License for more details:
+ * -----------------------------------------------------------
+ * http://www.gnu.org/licenses
+ *
+ *
+ * This distribution is available at:
+ * ----------------------------------
+ * https://github.com/slaubenberger/wichtel/
+ *
+ *
+ * Contact information:
+ * --------------------
+ * Stefan Laubenberger
+ * Bullingerstrasse 53
+ * CH-8004 Zuerich
+ *
+ * http://www.laubenberger.net
+ * laubenberger@gmail.com
+ */
+
+package net.laubenberger.wichtel.controller.net.server;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.management.ObjectName;
+
+import net.laubenberger.wichtel.controller.net.codec.Codec;
+import net.laubenberger.wichtel.controller.net.codec.CodecLength;
+import net.laubenberger.wichtel.controller.net.codec.FrameDecoder;
+import net.laubenberger.wichtel.controller.net.metrics.Metrics;
+import net.laubenberger.wichtel.misc.BufferPool;
+import net.laubenberger.wichtel.misc.Event;
+import net.laubenberger.wichtel.model.net.AcceptPolicy;
+
+import org.junit.Test;
+
+
+/**
+ * JUnit test for {@link ServerAbstract}
+ *
+ * @author Stefan Laubenberger
+ * @version 0.3.0, 2026-10-17
+ */
+public class ServerTest {
+	private static final int PORT = 40330;
+	private static final String HOST = "localhost"; //$NON-NLS-1$
+	private static final int TIMEOUT = 10000;
+	private static final Codec CODEC = new CodecLength();
+
+	@Test
+	public void testReject() throws Exception {
+		final EchoServer server = new EchoServer(PORT);
+		server.setMaxConnections(2);
+		server.start();
+
+		try (Socket first = connect(PORT); Socket second = connect(PORT)) {
+			assertEcho(first);
+			assertEcho(second);
+
+			try (Socket rejected = connect(PORT)) {
+				assertClosed(rejected);
+			}
+			assertEquals(1L, server.getMetrics().getRejectedConnections());
+			assertEquals(2, server.getMetrics().getActiveConnections());
+			assertEcho(first);
+		} finally {
+			server.stop();
+		}
+	}
+
+	@Test
+	public void testQueue() throws Exception {
+		final EchoServer server = new EchoServer(PORT + 1);
+		server.setMaxConnections(1);
+		server.setAcceptPolicy(AcceptPolicy.QUEUE);
+		server.setAcceptQueueSize(1);
+		server.start();
+
+		try (Socket first = connect(PORT + 1); Socket queued = connect(PORT + 1)) {
+			assertEcho(first);
+
+			queued.getOutputStream().write(encode((byte) 42));
+			queued.setSoTimeout(500);
+			try {
+				queued.getInputStream().read();
+				fail("the connection is queued"); //$NON-NLS-1$
+			} catch (SocketTimeoutException ex) {
+				// nothing to do
+			}
+			assertEquals(1, server.getMetrics().getQueuedConnections());
+
+			try (Socket rejected = connect(PORT + 1)) {
+				assertClosed(rejected); //the queue is full
+			}
+			assertEquals(1L, server.getMetrics().getRejectedConnections());
+
+			first.close();
+			queued.setSoTimeout(TIMEOUT);
+			assertArrayEquals(new byte[]{42}, new FrameDecoder(CODEC, BufferPool.HEAP).read(queued.getInputStream())); //started after the first connection is closed
+			assertEquals(0, server.getMetrics().getQueuedConnections());
+		} finally {
+			server.stop();
+		}
+	}
+
+	@Test
+	public void testCloseOldest() throws Exception {
+		final EchoServer server = new EchoServer(PORT + 2);
+		server.setMaxConnections(1);
+		server.setAcceptPolicy(AcceptPolicy.CLOSE_OLDEST);
+		server.start();
+
+		try (Socket oldest = connect(PORT + 2)) {
+			assertEcho(oldest);
+
+			try (Socket newest = connect(PORT + 2)) {
+				assertEcho(newest);
+				assertClosed(oldest);
+				assertEquals(1L, server.getMetrics().getRejectedConnections());
+				assertEquals(1, server.getMetrics().getActiveConnections());
+			}
+		} finally {
+			server.stop();
+		}
+	}
+
+	@Test
+	public void testBoundedExecutor() throws Exception {
+		final EchoServer server = new EchoServer(PORT + 3);
+		server.setMaxConnections(2);
+		server.setAcceptPolicy(AcceptPolicy.QUEUE);
+		server.start();
+
+		try (Socket first = connect(PORT + 3); Socket second = connect(PORT + 3); Socket third = connect(PORT + 3)) {
+			assertEcho(first);
+			assertEcho(second);
+
+			assertEquals(2, server.getThreadNames().size());
+			for (final String name : server.getThreadNames()) {
+				assertTrue(name, name.startsWith(ServerThread.class.getSimpleName())); //threads of the bounded pool
+			}
+			assertEquals(0, server.getHandlerQueueSize());
+
+			second.close();
+			assertEcho(third);
+		} finally {
+			server.stop();
+		}
+	}
+
+	@Test
+	public void testMBean() throws Exception {
+		final ObjectName name = Metrics.createObjectName(Server.class.getSimpleName(), EchoServer.class.getSimpleName() + '-' + (PORT + 4));
+
+		try (ServerSocket blocker = new ServerSocket(PORT + 4)) {
+			final EchoServer server = new EchoServer(PORT + 4);
+			server.setMBeanEnabled(true);
+
+			try {
+				server.start();
+				fail("port is already in use"); //$NON-NLS-1$
+			} catch (IOException ex) {
+				// nothing to do
+			}
+			assertFalse(server.isRunning());
+			assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+		}
+
+		final EchoServer server = new EchoServer(PORT + 4);
+		server.setMBeanEnabled(true);
+		server.start();
+		try {
+			assertTrue(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+		} finally {
+			server.stop();
+		}
+		assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+	}
+
+
+	/*
+	 * Private methods
+	 */
+
+	private static Socket connect(final int port) throws IOException {
+		final Socket result = new Socket(HOST, port);
+		result.setSoTimeout(TIMEOUT);
+		return result;
+	}
+
+	private static byte[] encode(final byte... data) {
+		final ByteArrayOutputStream result = new ByteArrayOutputStream();
+		for (final ByteBuffer buffer : CODEC.encode(data)) {
+			while (buffer.hasRemaining()) {
+				result.write(buffer.get());
+			}
+		}
+		return result.toByteArray();
+	}
+
+	private static void assertEcho(final Socket socket) throws IOException {
+		socket.getOutputStream().write(encode((byte) 1, (byte) 2));
+		assertArrayEquals(new byte[]{1, 2}, new FrameDecoder(CODEC, BufferPool.HEAP).read(socket.getInputStream()));
+	}
+
+	private static void assertClosed(final Socket socket) throws IOException {
+		try {
+			assertEquals(-1, socket.getInputStream().read());
+		} catch (SocketException ex) {
+			// nothing to do, connection reset
+		}
+	}
+
+
+	/*
+	 * Inner classes
+	 */
+
+	private static class EchoServer extends ServerAbstract {
+		private final Set<String> threadNames = ConcurrentHashMap.newKeySet();
+
+		EchoServer(final int port) {
+			super(port);
+		}
+
+		public Set<String> getThreadNames() {
+			return threadNames;
+		}
+
+		@Override
+		public void run() {
+			while (isRunning()) {
+				try {
+					final EchoThread serverThread = new EchoThread(getServerSocket().accept(), threadNames);
+					startServerThread(serverThread);
+				} catch (SocketException ex) {
+					break; //server stopped
+				} catch (IOException ex) {
+					fail(ex.getMessage());
+				}
+			}
+		}
+
+		@Override
+		public void serverThreadStreamRead(final Event<ServerThread> event) {
+			//nothing to do
+		}
+	}
+
+	private static class EchoThread extends ServerThreadAbstract {
+		private final Set<String> threadNames;
+
+		EchoThread(final Socket socket, final Set<String> threadNames) {
+			super(socket);
+			this.threadNames = threadNames;
+			setCodec(CODEC);
+		}
+
+		@Override
+		public byte[] getData() {
+			return null; //the messages aren't kept
+		}
+
+		@Override
+		public void run() {
+			threadNames.add(Thread.currentThread().getName());
+			try {
+				byte[] data;
+				while (null != (data = readStream())) {
+					writeStream(data);
+				}
+			} catch (IOException ex) {
+				//connection closed
+			}
+		}
+	}
+}
@@ -0,0 +1,281 @@
+/*
+ * Copyright (c) 2007-2013 by Stefan Laubenberger.
+ *
+ * "wichtel" is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License v3.0.
+ *
+ * "wichtel" is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * See the GNU Lesser General Public License for more details:
+ * -----------------------------------------------------------
+ * http://www.gnu.org/licenses
+ *
+ *
+ * This distribution is available at:
+ * ----------------------------------
+ * https://github.com/slaubenberger/wichtel/
+ *
+ *
+ * Contact information:
+ * --------------------
+ * Stefan Laubenberger
+ * Bullingerstrasse 53
+ * CH-8004 Zuerich
+ *
+ * http://www.laubenberger.net
+ * laubenberger@gmail.com
+ */
+
+package net.laubenberger.wichtel.controller.net.ssl;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.security.KeyPairGenerator;
+import java.util.Date;
+import java.util.Random;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import net.laubenberger.wichtel.controller.net.client.Client;
+import net.laubenberger.wichtel.controller.net.client.ClientSSLNioAbstract;
+import net.laubenberger.wichtel.controller.net.client.ListenerClient;
+import net.laubenberger.wichtel.controller.net.codec.CodecLength;
+import net.laubenberger.wichtel.controller.net.server.ServerSSLNioAbstract;
+import net.laubenberger.wichtel.controller.net.server.ServerThread;
+import net.laubenberger.wichtel.misc.Event;
+import net.laubenberger.wichtel.service.crypto.CertificateProviderImpl;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+
+/**
+ * JUnit test for {@link SSLChannel}, {@link ServerSSLNioAbstract} and {@link ClientSSLNioAbstract}
+ *
+ * @author Stefan Laubenberger
+ * @version 0.3.0, 2026-10-17
+ */
+public class SSLChannelTest {
+	private static final int PORT = 40310;
+	private static final String HOST = "localhost"; //$NON-NLS-1$
+	private static final long TIMEOUT = 10000L;
+
+	private static SSLConfig sslConfig;
+
+	@BeforeClass
+	public static void setUpClass() throws Exception {
+		final KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA"); //$NON-NLS-1$
+		generator.initialize(2048);
+
+		sslConfig = new SSLConfig();
+		final long now = System.currentTimeMillis();
+		sslConfig.setTrustedCertificates(sslConfig.setKeyMaterial(new CertificateProviderImpl(), generator.generateKeyPair(), "CN=" + HOST, HOST, new Date(now - TimeUnit.DAYS.toMillis(1L)), new Date(now + TimeUnit.DAYS.toMillis(1L)))); //$NON-NLS-1$
+	}
+
+	@Test
+	public void testHandshake() throws Exception {
+		try (ServerSocketChannel serverChannel = ServerSocketChannel.open().bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), PORT))) {
+			final SSLChannel[] channels = connect(serverChannel);
+			try {
+				handshake(channels[0], channels[1]);
+
+				assertFalse(channels[0].isHandshaking());
+				assertFalse(channels[1].isHandshaking());
+				assertEquals(SSLConfig.PROTOCOL_TLS13, channels[0].getEngine().getSession().getProtocol());
+				assertEquals(channels[0].getEngine().getSession().getCipherSuite(), channels[1].getEngine().getSession().getCipherSuite());
+			} finally {
+				close(channels);
+			}
+		}
+	}
+
+	@Test
+	public void testLargeRecords() throws Exception {
+		final byte[] data = new byte[10 * SSLChannel.DEFAULT_BUFFER_SIZE + 123]; //many records, larger than the buffers
+		new Random(42L).nextBytes(data);
+
+		try (ServerSocketChannel serverChannel = ServerSocketChannel.open().bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), PORT + 1))) {
+			final SSLChannel[] channels = connect(serverChannel);
+			try {
+				handshake(channels[0], channels[1]);
+
+				//client to server
+				assertArrayEquals(data, transfer(channels[0], channels[1], data));
+
+				//server to client, with a gathering write
+				final ByteBuffer src = ByteBuffer.wrap(data);
+				final ByteBuffer dst = ByteBuffer.allocate(data.length);
+				final long deadline = System.currentTimeMillis() + TIMEOUT;
+				while (dst.hasRemaining() && System.currentTimeMillis() < deadline) {
+					channels[1].write(new ByteBuffer[]{ByteBuffer.allocate(0), src});
+					channels[1].flush();
+					channels[0].read(dst);
+				}
+				assertArrayEquals(data, dst.array());
+			} finally {
+				close(channels);
+			}
+		}
+	}
+
+	@Test
+	public void testCloseNotify() throws Exception {
+		try (ServerSocketChannel serverChannel = ServerSocketChannel.open().bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), PORT + 2))) {
+			final SSLChannel[] channels = connect(serverChannel);
+			try {
+				handshake(channels[0], channels[1]);
+
+				channels[0].close();
+				assertFalse(channels[0].isOpen());
+				assertTrue(channels[0].getChannel().isOpen()); //the socket stays open, so only the close_notify ends the stream
+
+				final ByteBuffer dst = ByteBuffer.allocate(16);
+				final long deadline = System.currentTimeMillis() + TIMEOUT;
+				int read = 0;
+				while (-1 != read && System.currentTimeMillis() < deadline) {
+					read = channels[1].read(dst);
+				}
+				assertEquals(-1, read);
+				assertTrue(channels[1].getEngine().isInboundDone());
+
+				try {
+					channels[0].write(ByteBuffer.allocate(1));
+					fail("channel is closed"); //$NON-NLS-1$
+				} catch (IOException ex) {
+					// nothing to do
+				}
+			} finally {
+				close(channels);
+			}
+		}
+	}
+
+	@Test
+	public void testLoopback() throws Exception {
+		final ServerSSLNioAbstract server = new ServerSSLNioAbstract(PORT + 3, sslConfig) {
+			@Override
+			public void serverThreadStreamRead(final Event<ServerThread> event) {
+				try {
+					event.getSource().writeStream(event.getSource().getData());
+				} catch (IOException ex) {
+					fail(ex.getMessage());
+				}
+			}
+		};
+		server.setLoopCount(1);
+		server.setCodec(new CodecLength());
+		server.start();
+
+		final BlockingQueue<byte[]> received = new LinkedBlockingQueue<>();
+		final CountDownLatch stopped = new CountDownLatch(1);
+		final ClientSSLNioAbstract client = new ClientSSLNioAbstract(HOST, PORT + 3, sslConfig) {
+			//nothing to do
+		};
+		client.setCodec(new CodecLength());
+		client.addListener(new ListenerClient() {
+			@Override
+			public void clientStreamRead(final Event<Client> event) {
+				received.add(event.getSource().getData());
+			}
+
+			@Override
+			public void clientStarted(final Event<Client> event) {
+				//nothing to do
+			}
+
+			@Override
+			public void clientStopped(final Event<Client> event) {
+				stopped.countDown();
+			}
+		});
+
+		try {
+			client.start();
+
+			final byte[] data = new byte[3 * SSLChannel.DEFAULT_BUFFER_SIZE];
+			new Random(42L).nextBytes(data);
+			client.writeStream(data); //queued until the handshake is finished
+			client.writeStream((byte) 1, (byte) 2);
+
+			assertArrayEquals(data, received.poll(TIMEOUT, TimeUnit.MILLISECONDS));
+			assertArrayEquals(new byte[]{1, 2}, received.poll(TIMEOUT, TimeUnit.MILLISECONDS));
+			assertNotNull(client.getSSLChannel());
+			assertFalse(client.getSSLChannel().isHandshaking());
+			assertEquals(1, server.getMetrics().getActiveConnections());
+
+			client.stop();
+			assertTrue(stopped.await(TIMEOUT, TimeUnit.MILLISECONDS));
+
+			final long deadline = System.currentTimeMillis() + TIMEOUT;
+			while (0 < server.getMetrics().getActiveConnections() && System.currentTimeMillis() < deadline) {
+				Thread.sleep(10L);
+			}
+			assertEquals(0, server.getMetrics().getActiveConnections());
+		} finally {
+			client.stop();
+			server.stop();
+		}
+	}
+
+
+	/*
+	 * Private methods
+	 */
+
+	private static SSLChannel[] connect(final ServerSocketChannel serverChannel) throws Exception {
+		final SocketChannel clientChannel = SocketChannel.open(serverChannel.getLocalAddress());
+		final SocketChannel acceptedChannel = serverChannel.accept();
+		clientChannel.configureBlocking(false);
+		acceptedChannel.configureBlocking(false);
+
+		return new SSLChannel[]{new SSLChannel(clientChannel, sslConfig.createClientEngine(HOST, serverChannel.socket().getLocalPort())), new SSLChannel(acceptedChannel, sslConfig.createServerEngine())};
+	}
+
+	private static void handshake(final SSLChannel client, final SSLChannel server) throws Exception {
+		final ByteBuffer dst = ByteBuffer.allocate(1); //no application data during the handshake
+		final long deadline = System.currentTimeMillis() + TIMEOUT;
+
+		while ((client.isHandshaking() || server.isHandshaking() || client.hasPendingOutput() || server.hasPendingOutput()) && System.currentTimeMillis() < deadline) {
+			client.flush();
+			server.flush();
+			assertEquals(0, client.read(dst));
+			assertEquals(0, server.read(dst));
+			Thread.sleep(1L); //delegated tasks
+		}
+	}
+
+	private static byte[] transfer(final SSLChannel source, final SSLChannel target, final byte[] data) throws IOException {
+		final ByteBuffer src = ByteBuffer.wrap(data);
+		final ByteBuffer dst = ByteBuffer.allocate(data.length);
+		final long deadline = System.currentTimeMillis() + TIMEOUT;
+
+		while (dst.hasRemaining() && System.currentTimeMillis() < deadline) {
+			source.write(src);
+			source.flush();
+			target.read(dst);
+		}
+		return dst.array();
+	}
+
+	private static void close(final SSLChannel... channels) throws IOException {
+		for (final SSLChannel channel : channels) {
+			channel.close();
+			channel.getChannel().close();
+		}
+	}
+}
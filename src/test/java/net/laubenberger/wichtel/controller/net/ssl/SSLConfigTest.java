@@ -0,0 +1,215 @@
+/*
+ * Copyright (c) 2007-2013 by Stefan Laubenberger.
+ *
+ * "wichtel" is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License v3.0.
+ *
+ * "wichtel" is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * See the GNU Lesser General Public License for more details:
+ * -----------------------------------------------------------
+ * http://www.gnu.org/licenses
+ *
+ *
+ * This distribution is available at:
+ * ----------------------------------
+ * https://github.com/slaubenberger/wichtel/
+ *
+ *
+ * Contact information:
+ * --------------------
+ * Stefan Laubenberger
+ * Bullingerstrasse 53
+ * CH-8004 Zuerich
+ *
+ * http://www.laubenberger.net
+ * laubenberger@gmail.com
+ */
+
+package net.laubenberger.wichtel.controller.net.ssl;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.security.KeyPairGenerator;
+import java.security.cert.X509Certificate;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLParameters;
+import javax.net.ssl.SSLServerSocket;
+import javax.net.ssl.SSLSession;
+import javax.net.ssl.SSLSocket;
+
+import net.laubenberger.wichtel.misc.exception.RuntimeExceptionMustBeGreater;
+import net.laubenberger.wichtel.service.crypto.CertificateProviderImpl;
+
+import org.junit.Before;
+import org.junit.Test;
+
+
+/**
+ * JUnit test for {@link SSLConfig}
+ *
+ * @author Stefan Laubenberger
+ * @version 0.3.0, 2026-10-17
+ */
+public class SSLConfigTest {
+	private static final int PORT = 40350;
+	private static final String HOST = "localhost"; //$NON-NLS-1$
+	private static final int TIMEOUT = 10000;
+	private static final String PROPERTY_SERVER_SESSION_TICKETS = "jdk.tls.server.enableSessionTicketExtension"; //$NON-NLS-1$
+	private static final String PROPERTY_CLIENT_SESSION_TICKETS = "jdk.tls.client.enableSessionTicketExtension"; //$NON-NLS-1$
+
+	private SSLConfig sslConfig;
+	private X509Certificate certificate;
+
+	@Before
+	public void setUp() throws Exception {
+		final KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA"); //$NON-NLS-1$
+		generator.initialize(2048);
+
+		sslConfig = new SSLConfig();
+		final long now = System.currentTimeMillis();
+		certificate = sslConfig.setKeyMaterial(new CertificateProviderImpl(), generator.generateKeyPair(), "CN=" + HOST, HOST, new Date(now - TimeUnit.DAYS.toMillis(1L)), new Date(now + TimeUnit.DAYS.toMillis(1L))); //$NON-NLS-1$
+		sslConfig.setTrustedCertificates(certificate);
+	}
+
+	@Test
+	public void testGetContext() throws Exception {
+		final String server = System.getProperty(PROPERTY_SERVER_SESSION_TICKETS);
+		final String client = System.getProperty(PROPERTY_CLIENT_SESSION_TICKETS);
+
+		final SSLContext context = sslConfig.getContext();
+		assertSame(context, sslConfig.getContext()); //shared
+
+		assertEquals(server, System.getProperty(PROPERTY_SERVER_SESSION_TICKETS)); //the VM settings are left to the application
+		assertEquals(client, System.getProperty(PROPERTY_CLIENT_SESSION_TICKETS));
+
+		sslConfig.setTrustedCertificates(certificate);
+		assertNotSame(context, sslConfig.getContext()); //new trust material
+	}
+
+	@Test
+	public void testSessionCache() throws Exception {
+		assertEquals(SSLConfig.DEFAULT_SESSION_CACHE_SIZE, sslConfig.getSessionCacheSize());
+		assertEquals(SSLConfig.DEFAULT_SESSION_TIMEOUT, sslConfig.getSessionTimeout());
+
+		final SSLContext context = sslConfig.getContext();
+		assertEquals(SSLConfig.DEFAULT_SESSION_CACHE_SIZE, context.getServerSessionContext().getSessionCacheSize());
+		assertEquals(SSLConfig.DEFAULT_SESSION_TIMEOUT, context.getClientSessionContext().getSessionTimeout());
+
+		sslConfig.setSessionCacheSize(100);
+		sslConfig.setSessionTimeout(60);
+		assertSame(context, sslConfig.getContext()); //applied to the existing context
+		assertEquals(100, context.getServerSessionContext().getSessionCacheSize());
+		assertEquals(100, context.getClientSessionContext().getSessionCacheSize());
+		assertEquals(60, context.getServerSessionContext().getSessionTimeout());
+		assertEquals(60, context.getClientSessionContext().getSessionTimeout());
+
+		try {
+			sslConfig.setSessionCacheSize(-1);
+			fail("sessionCacheSize must be greater than 0"); //$NON-NLS-1$
+		} catch (RuntimeExceptionMustBeGreater ex) {
+			// nothing to do
+		}
+
+		try {
+			sslConfig.setSessionTimeout(-1);
+			fail("sessionTimeout must be greater than 0"); //$NON-NLS-1$
+		} catch (RuntimeExceptionMustBeGreater ex) {
+			// nothing to do
+		}
+	}
+
+	@Test
+	public void testTls13Only() throws Exception {
+		assertFalse(sslConfig.isTls13Only());
+
+		sslConfig.setTls13Only(true);
+		assertTrue(sslConfig.isTls13Only());
+		assertArrayEquals(new String[]{SSLConfig.PROTOCOL_TLS13}, sslConfig.getProtocols());
+		assertArrayEquals(new String[]{SSLConfig.PROTOCOL_TLS13}, sslConfig.getParameters(true).getProtocols());
+		assertArrayEquals(new String[]{SSLConfig.PROTOCOL_TLS13}, sslConfig.createServerEngine().getEnabledProtocols());
+
+		sslConfig.setTls13Only(false);
+		assertFalse(sslConfig.isTls13Only());
+		assertNull(sslConfig.getProtocols());
+	}
+
+	@Test
+	public void testGetParameters() throws Exception {
+		sslConfig.setApplicationProtocols("h2", "http/1.1"); //$NON-NLS-1$ //$NON-NLS-2$
+		sslConfig.setNeedClientAuth(true);
+
+		final SSLParameters server = sslConfig.getParameters(false);
+		assertArrayEquals(new String[]{"h2", "http/1.1"}, server.getApplicationProtocols()); //$NON-NLS-1$ //$NON-NLS-2$
+		assertTrue(server.getNeedClientAuth());
+		assertTrue(server.getUseCipherSuitesOrder());
+
+		final SSLParameters client = sslConfig.getParameters(true);
+		assertArrayEquals(new String[]{"h2", "http/1.1"}, client.getApplicationProtocols()); //$NON-NLS-1$ //$NON-NLS-2$
+		assertFalse(client.getNeedClientAuth());
+
+		final SSLEngine engine = sslConfig.createClientEngine(HOST, PORT);
+		assertTrue(engine.getUseClientMode());
+		assertEquals(HOST, engine.getPeerHost());
+		assertEquals(PORT, engine.getPeerPort());
+	}
+
+	@Test
+	public void testSessionResumption() throws Exception {
+		sslConfig.setProtocols(SSLConfig.PROTOCOL_TLS12); //the session id identifies a resumed session
+
+		try (SSLServerSocket serverSocket = (SSLServerSocket) sslConfig.getServerSocketFactory().createServerSocket(PORT, 10, InetAddress.getLoopbackAddress())) {
+			assertArrayEquals(new String[]{SSLConfig.PROTOCOL_TLS12}, serverSocket.getEnabledProtocols());
+
+			final Thread server = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					for (int ii = 0; 2 > ii; ii++) {
+						try (SSLSocket socket = (SSLSocket) serverSocket.accept()) {
+							socket.getOutputStream().write(socket.getInputStream().read());
+						} catch (IOException ex) {
+							//server socket closed
+						}
+					}
+				}
+			});
+			server.start();
+
+			final SSLSession first = exchange();
+			final SSLSession second = exchange();
+			assertEquals(SSLConfig.PROTOCOL_TLS12, first.getProtocol());
+			assertArrayEquals(first.getId(), second.getId()); //abbreviated handshake with the cached session
+
+			server.join(TIMEOUT);
+		}
+	}
+
+
+	/*
+	 * Private methods
+	 */
+
+	private SSLSession exchange() throws Exception {
+		try (SSLSocket socket = (SSLSocket) sslConfig.getSocketFactory().createSocket(HOST, PORT)) {
+			socket.setSoTimeout(TIMEOUT);
+			socket.getOutputStream().write(42);
+			assertEquals(42, socket.getInputStream().read());
+			return socket.getSession();
+		}
+	}
+}
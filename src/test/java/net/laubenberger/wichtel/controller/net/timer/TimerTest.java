@@ -0,0 +1,204 @@
+/*
+ * Copyright (c) 2007-2013 by Stefan Laubenberger.
+ *
+ * "wichtel" is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License v3.0.
+ *
+ * "wichtel" is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * See the GNU Lesser General Public License for more details:
+ * -----------------------------------------------------------
+ * http://www.gnu.org/licenses
+ *
+ *
+ * This distribution is available at:
+ * ----------------------------------
+ * https://github.com/slaubenberger/wichtel/
+ *
+ *
+ * Contact information:
+ * --------------------
+ * Stefan Laubenberger
+ * Bullingerstrasse 53
+ * CH-8004 Zuerich
+ *
+ * http://www.laubenberger.net
+ * laubenberger@gmail.com
+ */
+
+package net.laubenberger.wichtel.controller.net.timer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import net.laubenberger.wichtel.misc.Event;
+import net.laubenberger.wichtel.misc.exception.RuntimeExceptionMustBeGreater;
+
+import org.junit.Test;
+
+
+/**
+ * JUnit test for {@link WheelTimer} and {@link Watchdog}
+ *
+ * @author Stefan Laubenberger
+ * @version 0.3.0, 2026-10-17
+ */
+public class TimerTest {
+	private static final long TIMEOUT = 10000L;
+
+	@Test
+	public void testWheelTimer() throws InterruptedException {
+		final WheelTimer timer = new WheelTimer("test", 10L, 8); //$NON-NLS-1$
+
+		try {
+			final CountDownLatch latch = new CountDownLatch(3);
+			final Runnable task = new Runnable() {
+				@Override
+				public void run() {
+					latch.countDown();
+				}
+			};
+
+			final long start = System.nanoTime();
+			timer.schedule(task, 0L);
+			timer.schedule(task, 50L);
+			final Timeout timeout = timer.schedule(task, 200L); //more than one round
+			final Timeout cancelled = timer.schedule(task, 100L);
+
+			assertTrue(cancelled.cancel());
+			assertFalse(cancelled.cancel());
+			assertTrue(cancelled.isCancelled());
+			assertEquals(3, timer.getPendingCount());
+
+			assertTrue(latch.await(5L, TimeUnit.SECONDS));
+			assertTrue(200L <= TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+			assertTrue(timeout.isExpired());
+			assertFalse(timeout.cancel());
+			assertFalse(cancelled.isExpired());
+			assertEquals(0, timer.getPendingCount());
+		} finally {
+			timer.stop();
+		}
+
+		try {
+			timer.schedule(null, -1L);
+			fail("task is null"); //$NON-NLS-1$
+		} catch (RuntimeException ex) {
+			// nothing to do
+		}
+
+		try {
+			new WheelTimer("test", 0L, 8); //$NON-NLS-1$
+			fail("tick must be greater than 0"); //$NON-NLS-1$
+		} catch (RuntimeExceptionMustBeGreater ex) {
+			// nothing to do
+		} catch (Exception ex) {
+			fail(ex.getMessage());
+		}
+	}
+
+	@Test
+	public void testWatchdog() throws InterruptedException {
+		final WheelTimer timer = new WheelTimer("test", 10L, 64); //$NON-NLS-1$
+
+		try {
+			final ListenerCounting listener = new ListenerCounting();
+
+			//heartbeats on a quiet connection, frequent reads keep it from idling for several idle timeouts
+			Watchdog watchdog = new Watchdog(timer, listener);
+			watchdog.setIdleTimeout(500L);
+			watchdog.setHeartbeatInterval(50L);
+			watchdog.start();
+
+			final long start = System.currentTimeMillis();
+			final long deadline = start + TIMEOUT;
+			while ((5 > listener.heartbeats.get() || 1500L > System.currentTimeMillis() - start) && System.currentTimeMillis() < deadline) {
+				Thread.sleep(10L);
+				watchdog.readFinished();
+			}
+			assertTrue(watchdog.isRunning());
+			assertEquals(0, listener.idle.get());
+			assertTrue(5 <= listener.heartbeats.get());
+
+			//idle timeout
+			watchdog.setHeartbeatInterval(0L);
+			await(listener.idle, 1);
+			assertEquals(1, listener.idle.get());
+			assertFalse(watchdog.isRunning());
+
+			//read timeout, a finished read cancels it
+			watchdog = new Watchdog(timer, listener);
+			watchdog.setReadTimeout(100L);
+			watchdog.start();
+			watchdog.readStarted();
+			watchdog.readFinished();
+			Thread.sleep(300L);
+			assertEquals(0, listener.readTimeouts.get());
+
+			watchdog.readStarted();
+			await(listener.readTimeouts, 1);
+			assertEquals(1, listener.readTimeouts.get());
+			assertFalse(watchdog.isRunning());
+
+			//nothing is watched after the stop
+			watchdog = new Watchdog(timer, listener);
+			watchdog.setIdleTimeout(50L);
+			watchdog.start();
+			watchdog.stop();
+			Thread.sleep(200L);
+			assertEquals(1, listener.idle.get());
+		} finally {
+			timer.stop();
+		}
+	}
+
+
+	/*
+	 * Private methods
+	 */
+
+	private static void await(final AtomicInteger counter, final int expected) throws InterruptedException {
+		final long deadline = System.currentTimeMillis() + TIMEOUT;
+		while (expected > counter.get() && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10L);
+		}
+	}
+
+
+	/*
+	 * Inner classes
+	 */
+
+	private static class ListenerCounting implements ListenerWatchdog {
+		final AtomicInteger idle = new AtomicInteger();
+		final AtomicInteger readTimeouts = new AtomicInteger();
+		final AtomicInteger heartbeats = new AtomicInteger();
+
+		ListenerCounting() {
+			super();
+		}
+
+		@Override
+		public void watchdogIdle(final Event<Watchdog> event) {
+			idle.incrementAndGet();
+		}
+
+		@Override
+		public void watchdogReadTimeout(final Event<Watchdog> event) {
+			readTimeouts.incrementAndGet();
+		}
+
+		@Override
+		public void watchdogHeartbeat(final Event<Watchdog> event) {
+			heartbeats.incrementAndGet();
+		}
+	}
+}
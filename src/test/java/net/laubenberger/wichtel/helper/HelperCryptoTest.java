@@ -148,9 +148,10 @@ public class HelperCryptoTest {
 	public void testGetCiphers() {
 //		System.err.println(HelperCrypto.getCiphers(HelperCrypto.DEFAULT_PROVIDER).size());
 		assertTrue(75 <= HelperCrypto.getCiphers(HelperCrypto.DEFAULT_PROVIDER).size());
+		assertNotNull(HelperCrypto.JCE_PROVIDER); //BouncyCastle without SunJCE
 		
 		for (final CryptoSymmetricAlgo algo : CryptoSymmetricAlgo.values()) {
-			assertTrue(HelperCrypto.getCiphers(HelperCrypto.DEFAULT_PROVIDER).contains(algo.getAlgorithm()));
+			assertTrue(HelperCrypto.getCiphers(algo.isAead() ? HelperCrypto.JCE_PROVIDER : HelperCrypto.DEFAULT_PROVIDER).contains(algo.getAlgorithm()));
 		}
 		for (final CryptoAsymmetricAlgo algo : CryptoAsymmetricAlgo.values()) {
 			assertTrue(HelperCrypto.getCiphers(HelperCrypto.DEFAULT_PROVIDER).contains(algo.getAlgorithm()));
@@ -312,7 +313,7 @@ public class HelperCryptoTest {
 		
 		for (final CryptoSymmetricAlgo algo : CryptoSymmetricAlgo.values()) {
 //            System.err.println(algo.getAlgorithm());
-			assertTrue(HelperCrypto.getKeyGenerators(HelperCrypto.DEFAULT_PROVIDER).contains(algo.getAlgorithm()));
+			assertTrue(HelperCrypto.getKeyGenerators(algo.isAead() ? HelperCrypto.JCE_PROVIDER : HelperCrypto.DEFAULT_PROVIDER).contains(algo.getAlgorithm()));
 		}		
 		for (final HmacAlgo algo : HmacAlgo.values()) {
 			assertTrue(HelperCrypto.getKeyGenerators(HelperCrypto.DEFAULT_PROVIDER).contains(algo.getAlgorithm()));
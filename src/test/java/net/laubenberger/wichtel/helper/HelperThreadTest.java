@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2007-2013 by Stefan Laubenberger.
+ *
+ * "wichtel" is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License v3.0.
+ *
+ * "wichtel" is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * See the GNU Lesser General Public License for more details:
+ * -----------------------------------------------------------
+ * http://www.gnu.org/licenses
+ *
+ *
+ * This distribution is available at:
+ * ----------------------------------
+ * https://github.com/slaubenberger/wichtel/
+ *
+ *
+ * Contact information:
+ * --------------------
+ * Stefan Laubenberger
+ * Bullingerstrasse 53
+ * CH-8004 Zuerich
+ *
+ * http://www.laubenberger.net
+ * laubenberger@gmail.com
+ */
+
+package net.laubenberger.wichtel.helper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import net.laubenberger.wichtel.misc.exception.RuntimeExceptionIsNull;
+
+import org.junit.Test;
+
+
+/**
+ * JUnit test for {@link HelperThread}
+ *
+ * @author Stefan Laubenberger
+ * @version 0.3.0, 2026-10-17
+ */
+public class HelperThreadTest {
+	private static final Runnable EMPTY = new Runnable() {
+		@Override
+		public void run() {
+			//do nothing
+		}
+	};
+
+	@Test
+	public void testCreateThreadFactory() {
+		final ThreadFactory factory = HelperThread.createThreadFactory("test", true); //$NON-NLS-1$
+
+		final Thread thread = factory.newThread(EMPTY);
+		assertEquals("test-1", thread.getName()); //$NON-NLS-1$
+		assertTrue(thread.isDaemon());
+		assertEquals("test-2", factory.newThread(EMPTY).getName()); //$NON-NLS-1$
+
+		try {
+			HelperThread.createThreadFactory(null, true);
+			fail("prefix is null"); //$NON-NLS-1$
+		} catch (RuntimeExceptionIsNull ex) {
+			// nothing to do
+		} catch (Exception ex) {
+			fail(ex.getMessage());
+		}
+	}
+
+	@Test
+	public void testCreateVirtualThreadFactory() throws InterruptedException {
+		final ThreadFactory factory = HelperThread.createVirtualThreadFactory("virtual"); //$NON-NLS-1$
+		assertNotNull(factory);
+
+		final Thread thread = factory.newThread(EMPTY);
+		assertEquals("virtual-1", thread.getName()); //$NON-NLS-1$
+		assertTrue(thread.isDaemon()); //virtual threads are always daemon threads
+
+		thread.start();
+		thread.join();
+
+		try {
+			HelperThread.createVirtualThreadFactory(null);
+			fail("prefix is null"); //$NON-NLS-1$
+		} catch (RuntimeExceptionIsNull ex) {
+			// nothing to do
+		} catch (Exception ex) {
+			fail(ex.getMessage());
+		}
+	}
+
+	@Test
+	public void testExecute() throws InterruptedException {
+		final Executor executor = HelperThread.createExecutor(HelperThread.createThreadFactory("pool", true)); //$NON-NLS-1$
+		final CountDownLatch latch = new CountDownLatch(1);
+		final AtomicReference<String> name = new AtomicReference<>();
+
+		HelperThread.execute(executor, new Runnable() {
+			@Override
+			public void run() {
+				name.set(Thread.currentThread().getName());
+				latch.countDown();
+			}
+		}, "connection-1"); //$NON-NLS-1$
+
+		assertTrue(latch.await(10, TimeUnit.SECONDS));
+		assertEquals("connection-1", name.get()); //$NON-NLS-1$
+
+		try {
+			HelperThread.execute(executor, null, "connection-1"); //$NON-NLS-1$
+			fail("task is null"); //$NON-NLS-1$
+		} catch (RuntimeExceptionIsNull ex) {
+			// nothing to do
+		} catch (Exception ex) {
+			fail(ex.getMessage());
+		}
+
+		try {
+			HelperThread.createExecutor(null);
+			fail("factory is null"); //$NON-NLS-1$
+		} catch (RuntimeExceptionIsNull ex) {
+			// nothing to do
+		} catch (Exception ex) {
+			fail(ex.getMessage());
+		}
+	}
+}
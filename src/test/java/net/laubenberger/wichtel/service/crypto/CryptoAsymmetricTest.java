@@ -30,18 +30,35 @@
 
 package net.laubenberger.wichtel.service.crypto;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.fail;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.spec.MGF1ParameterSpec;
+import java.util.Arrays;
+import java.util.Random;
+
+import javax.crypto.AEADBadTagException;
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.OAEPParameterSpec;
+import javax.crypto.spec.PSource;
+import javax.crypto.spec.SecretKeySpec;
 
 import net.laubenberger.wichtel.AllTests;
 import net.laubenberger.wichtel.helper.HelperArray;
+import net.laubenberger.wichtel.helper.HelperCrypto;
 import net.laubenberger.wichtel.misc.exception.RuntimeExceptionIsEmpty;
 import net.laubenberger.wichtel.misc.exception.RuntimeExceptionIsNull;
 import net.laubenberger.wichtel.misc.exception.RuntimeExceptionMustBeGreater;
 import net.laubenberger.wichtel.model.crypto.CryptoAsymmetricAlgo;
+import net.laubenberger.wichtel.model.crypto.CryptoSymmetricAlgo;
 
 import org.junit.Test;
 
@@ -215,6 +232,67 @@ public class CryptoAsymmetricTest {
 			}			
 		}
 	}
-}
 
+	@Test
+	public void testEnvelope() throws Exception {
+		final byte[] data = new byte[1024 * 1024];
+		new Random(42L).nextBytes(data);
+
+		final CryptoAsymmetric cryptoAsymm = new CryptoAsymmetricImpl(CryptoAsymmetricAlgo.RSA);
+		final KeyPairGenerator kpgEc = KeyPairGenerator.getInstance("EC"); //$NON-NLS-1$
+		kpgEc.initialize(256);
+
+		for (final KeyPair keyPair : new KeyPair[]{cryptoAsymm.generateKeyPair(KEYSIZE), kpgEc.generateKeyPair()}) {
+			final byte[] envelope = cryptoAsymm.encryptEnvelope(data, keyPair.getPublic());
+			assertArrayEquals(data, cryptoAsymm.decryptEnvelope(envelope, keyPair.getPrivate()));
+
+			final ByteArrayOutputStream encrypted = new ByteArrayOutputStream();
+			cryptoAsymm.encryptEnvelope(new ByteArrayInputStream(data), encrypted, keyPair.getPublic());
+			assertArrayEquals(data, cryptoAsymm.decryptEnvelope(encrypted.toByteArray(), keyPair.getPrivate())); //same layout
+
+			final ByteArrayOutputStream decrypted = new ByteArrayOutputStream();
+			cryptoAsymm.decryptEnvelope(new ByteArrayInputStream(envelope), decrypted, keyPair.getPrivate());
+			assertArrayEquals(data, decrypted.toByteArray());
+
+			if (keyPair.getPrivate() instanceof RSAPrivateKey) {
+				//the payload only authenticates together with its header
+				final int headerSize = 3 + ((envelope[1] & 0xff) << 8 | envelope[2] & 0xff);
+				final Cipher oaep = Cipher.getInstance("RSA/ECB/OAEPPadding", HelperCrypto.JCE_PROVIDER); //$NON-NLS-1$
+				oaep.init(Cipher.DECRYPT_MODE, keyPair.getPrivate(), new OAEPParameterSpec("SHA-256", "MGF1", MGF1ParameterSpec.SHA256, PSource.PSpecified.DEFAULT)); //$NON-NLS-1$ //$NON-NLS-2$
+				final SecretKey dataKey = new SecretKeySpec(oaep.doFinal(envelope, 3, headerSize - 3), "AES"); //$NON-NLS-1$
+				final CryptoSymmetric cryptoSymm = new CryptoSymmetricImpl(CryptoSymmetricAlgo.AES_GCM);
+				final byte[] payload = Arrays.copyOfRange(envelope, headerSize, envelope.length);
+
+				assertArrayEquals(data, cryptoSymm.decrypt(payload, dataKey, Arrays.copyOf(envelope, headerSize)));
+				try {
+					cryptoSymm.decrypt(payload, dataKey);
+					fail("header is missing"); //$NON-NLS-1$
+				} catch (AEADBadTagException ex) {
+					//nothing to do
+				}
+			}
+
+			envelope[envelope.length - 1] ^= 1;
+			try {
+				cryptoAsymm.decryptEnvelope(envelope, keyPair.getPrivate());
+				fail("envelope is modified"); //$NON-NLS-1$
+			} catch (AEADBadTagException ex) {
+				//nothing to do
+			}
+
+			try {
+				cryptoAsymm.decryptEnvelope(new byte[]{42}, keyPair.getPrivate());
+				fail("input is not an envelope"); //$NON-NLS-1$
+			} catch (IllegalArgumentException ex) {
+				//nothing to do
+			}
 
+			try {
+				cryptoAsymm.encryptEnvelope(HelperArray.EMPTY_ARRAY_BYTE, keyPair.getPublic());
+				fail("input is empty"); //$NON-NLS-1$
+			} catch (RuntimeExceptionIsEmpty ex) {
+				//nothing to do
+			}
+		}
+	}
+}
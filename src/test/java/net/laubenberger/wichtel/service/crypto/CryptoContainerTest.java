@@ -0,0 +1,196 @@
+/*
+ * Copyright (c) 2007-2013 by Stefan Laubenberger.
+ *
+ * "wichtel" is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License v3.0.
+ *
+ * "wichtel" is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * See the GNU Lesser General Public License for more details:
+ * -----------------------------------------------------------
+ * http://www.gnu.org/licenses
+ *
+ *
+ * This distribution is available at:
+ * ----------------------------------
+ * https://github.com/slaubenberger/wichtel/
+ *
+ *
+ * Contact information:
+ * --------------------
+ * Stefan Laubenberger
+ * Bullingerstrasse 53
+ * CH-8004 Zuerich
+ *
+ * http://www.laubenberger.net
+ * laubenberger@gmail.com
+ */
+
+package net.laubenberger.wichtel.service.crypto;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import javax.crypto.AEADBadTagException;
+import javax.crypto.SecretKey;
+
+import net.laubenberger.wichtel.helper.HelperCrypto;
+import net.laubenberger.wichtel.helper.HelperIO;
+import net.laubenberger.wichtel.misc.exception.RuntimeExceptionIsEquals;
+import net.laubenberger.wichtel.misc.exception.RuntimeExceptionMustBeSmaller;
+import net.laubenberger.wichtel.model.crypto.CryptoSymmetricAlgo;
+
+import org.junit.Test;
+
+
+/**
+ * JUnit test for {@link CryptoContainerImpl}
+ *
+ * @author Stefan Laubenberger
+ * @version 0.3.0, 2026-10-17
+ */
+public class CryptoContainerTest {
+	private static final int SEGMENT_SIZE = 1000;
+
+	private static File createFile(final byte... data) throws IOException {
+		final File result = HelperIO.getTemporaryFile();
+		result.deleteOnExit();
+		HelperIO.writeFile(result, data);
+		return result;
+	}
+
+	@Test
+	public void testEncrypt() throws Exception {
+		final byte[] data = new byte[10 * SEGMENT_SIZE + 123];
+		new Random(42L).nextBytes(data);
+
+		for (final CryptoSymmetricAlgo algo : new CryptoSymmetricAlgo[]{CryptoSymmetricAlgo.AES_GCM, CryptoSymmetricAlgo.CHACHA20_POLY1305}) {
+			final CryptoContainerImpl container = new CryptoContainerImpl(algo, HelperCrypto.JCE_PROVIDER, new CipherPool(4), new ForkJoinPool(4));
+			container.setSegmentSize(SEGMENT_SIZE);
+			final SecretKey key = new CryptoSymmetricImpl(algo).generateKey();
+
+			final File input = createFile(data);
+			final File encrypted = createFile();
+			final File decrypted = createFile();
+
+			container.encrypt(input, encrypted, key);
+			assertEquals(11, container.getSegmentCount(encrypted));
+			assertEquals(20 + 11 * (algo.getIvSize() + algo.getTagSize()) + data.length, encrypted.length());
+
+			container.decrypt(encrypted, decrypted, key);
+			assertArrayEquals(data, HelperIO.readFile(decrypted));
+
+			//random access
+			assertArrayEquals(Arrays.copyOfRange(data, 3 * SEGMENT_SIZE, 4 * SEGMENT_SIZE), container.decrypt(encrypted, key, 3));
+			assertArrayEquals(Arrays.copyOfRange(data, 10 * SEGMENT_SIZE, data.length), container.decrypt(encrypted, key, 10));
+
+			try {
+				container.decrypt(encrypted, key, 11);
+				fail("segment is too large"); //$NON-NLS-1$
+			} catch (RuntimeExceptionMustBeSmaller ex) {
+				//nothing to do
+			}
+
+			try {
+				container.encrypt(input, input, key);
+				fail("input is equals output"); //$NON-NLS-1$
+			} catch (RuntimeExceptionIsEquals ex) {
+				//nothing to do
+			}
+
+			//modified segment
+			try (RandomAccessFile raf = new RandomAccessFile(encrypted, "rw")) { //$NON-NLS-1$
+				raf.seek(encrypted.length() - 1L);
+				final int last = raf.read();
+				raf.seek(encrypted.length() - 1L);
+				raf.write(last ^ 1);
+			}
+			try {
+				container.decrypt(encrypted, decrypted, key);
+				fail("segment is modified"); //$NON-NLS-1$
+			} catch (AEADBadTagException ex) {
+				//nothing to do
+			}
+			assertArrayEquals(Arrays.copyOfRange(data, 0, SEGMENT_SIZE), container.decrypt(encrypted, key, 0)); //other segments are still readable
+		}
+	}
+
+	@Test
+	public void testEncryptEmpty() throws Exception {
+		final CryptoContainerImpl container = new CryptoContainerImpl(CryptoSymmetricAlgo.AES_GCM);
+		final SecretKey key = new CryptoSymmetricImpl(CryptoSymmetricAlgo.AES_GCM).generateKey();
+
+		final File encrypted = createFile();
+		final File decrypted = createFile((byte) 1);
+
+		container.encrypt(createFile(), encrypted, key);
+		assertEquals(1, container.getSegmentCount(encrypted)); //one empty segment authenticates the header
+
+		container.decrypt(encrypted, decrypted, key);
+		assertEquals(0L, decrypted.length());
+
+		try {
+			container.decrypt(encrypted, createFile(), new CryptoSymmetricImpl(CryptoSymmetricAlgo.AES_GCM).generateKey());
+			fail("key is wrong"); //$NON-NLS-1$
+		} catch (AEADBadTagException ex) {
+			//nothing to do
+		}
+	}
+
+	@Test
+	public void testInvalid() throws Exception {
+		final CryptoContainerImpl container = new CryptoContainerImpl(CryptoSymmetricAlgo.AES_GCM);
+		final SecretKey key = new CryptoSymmetricImpl(CryptoSymmetricAlgo.AES_GCM).generateKey();
+
+		try {
+			container.decrypt(createFile(new byte[64]), createFile(), key);
+			fail("input is not a container"); //$NON-NLS-1$
+		} catch (IOException ex) {
+			//nothing to do
+		}
+
+		final File encrypted = createFile();
+		container.setSegmentSize(SEGMENT_SIZE);
+		container.encrypt(createFile(new byte[3 * SEGMENT_SIZE]), encrypted, key);
+		try (RandomAccessFile raf = new RandomAccessFile(encrypted, "rw")) { //$NON-NLS-1$
+			raf.setLength(encrypted.length() - 1L);
+		}
+		try {
+			container.getSegmentCount(encrypted);
+			fail("container is truncated"); //$NON-NLS-1$
+		} catch (IOException ex) {
+			//nothing to do
+		}
+
+		//a crafted header with a huge segment count is rejected before the index is allocated
+		try (RandomAccessFile raf = new RandomAccessFile(encrypted, "rw")) { //$NON-NLS-1$
+			raf.seek(4L);
+			raf.writeInt(1);
+			raf.writeLong(Integer.MAX_VALUE / 12);
+			raf.writeInt(Integer.MAX_VALUE / 12);
+		}
+		try {
+			container.getSegmentCount(encrypted);
+			fail("header is crafted"); //$NON-NLS-1$
+		} catch (IOException ex) {
+			//nothing to do
+		}
+
+		try {
+			new CryptoContainerImpl(CryptoSymmetricAlgo.AES);
+			fail("algorithm is not AEAD"); //$NON-NLS-1$
+		} catch (IllegalArgumentException ex) {
+			//nothing to do
+		}
+	}
+}
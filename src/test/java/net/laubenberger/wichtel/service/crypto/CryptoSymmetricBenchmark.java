@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2007-2013 by Stefan Laubenberger.
+ *
+ * "wichtel" is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License v3.0.
+ *
+ * "wichtel" is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * See the GNU Lesser General Public License for more details:
+ * -----------------------------------------------------------
+ * http://www.gnu.org/licenses
+ *
+ *
+ * This distribution is available at:
+ * ----------------------------------
+ * https://github.com/slaubenberger/wichtel/
+ *
+ *
+ * Contact information:
+ * --------------------
+ * Stefan Laubenberger
+ * Bullingerstrasse 53
+ * CH-8004 Zuerich
+ *
+ * http://www.laubenberger.net
+ * laubenberger@gmail.com
+ */
+
+package net.laubenberger.wichtel.service.crypto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.crypto.SecretKey;
+
+import net.laubenberger.wichtel.model.crypto.CryptoSymmetricAlgo;
+
+
+/**
+ * Multi-threaded encrypt throughput benchmark for {@link CryptoSymmetricImpl}.
+ * <p>
+ * N threads encrypt messages of a given size with the same key, either on one shared instance backed by a {@link CipherPool} ("pooled")
+ * or on a new instance per message, which looks up the {@link javax.crypto.Cipher} and {@link javax.crypto.KeyGenerator} every time ("new").
+ * After a warm-up the benchmark prints msgs/s and MB/s.
+ * <p>
+ * Usage: CryptoSymmetricBenchmark [mode] [threads] [message size] [seconds] [algorithm]
+ *
+ * @author Stefan Laubenberger
+ * @version 0.3.0, 2026-10-17
+ */
+public class CryptoSymmetricBenchmark {
+	private static final long WARMUP = TimeUnit.SECONDS.toNanos(2L);
+
+	private static volatile boolean isMeasuring;
+
+	public static void main(final String[] args) throws Exception {
+		final String mode = 0 < args.length ? args[0] : "pooled"; //$NON-NLS-1$
+		final int threads = 1 < args.length ? Integer.parseInt(args[1]) : 8;
+		final int size = 2 < args.length ? Integer.parseInt(args[2]) : 1024;
+		final int seconds = 3 < args.length ? Integer.parseInt(args[3]) : 10;
+		final CryptoSymmetricAlgo algo = 4 < args.length ? CryptoSymmetricAlgo.valueOf(args[4]) : CryptoSymmetricAlgo.AES;
+
+		final boolean isPooled = "pooled".equals(mode); //$NON-NLS-1$
+		final CryptoSymmetric shared = new CryptoSymmetricImpl(algo, new CipherPool(threads));
+		final SecretKey key = shared.generateKey();
+		final byte[] data = new byte[size];
+
+		final long end = System.nanoTime() + WARMUP + TimeUnit.SECONDS.toNanos(seconds);
+		final AtomicLong count = new AtomicLong();
+		final CountDownLatch done = new CountDownLatch(threads);
+		final List<Thread> workers = new ArrayList<>();
+
+		for (int ii = 0; threads > ii; ii++) {
+			workers.add(new Thread(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						while (System.nanoTime() < end) {
+							final CryptoSymmetric crypto = isPooled ? shared : new CryptoSymmetricImpl(algo, new CipherPool(0));
+							crypto.encrypt(data, key);
+							if (isMeasuring) {
+								count.incrementAndGet();
+							}
+						}
+					} catch (Exception ex) {
+						ex.printStackTrace();
+					} finally {
+						done.countDown();
+					}
+				}
+			}, "bench-" + ii)); //$NON-NLS-1$
+		}
+
+		for (final Thread worker : workers) {
+			worker.start();
+		}
+		TimeUnit.NANOSECONDS.sleep(WARMUP);
+		isMeasuring = true;
+		final long start = System.nanoTime();
+		done.await();
+		final double elapsed = (System.nanoTime() - start) / 1.0E9D;
+
+		final double msgs = count.get() / elapsed;
+		System.out.println(String.format("%s %s threads=%d size=%d: %.0f msgs/s, %.1f MB/s", //$NON-NLS-1$
+				mode, algo, threads, size, msgs, msgs * size / (1024.0D * 1024.0D)));
+	}
+}
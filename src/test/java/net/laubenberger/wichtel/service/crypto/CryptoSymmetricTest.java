@@ -30,15 +30,33 @@
 
 package net.laubenberger.wichtel.service.crypto;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.fail;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.crypto.AEADBadTagException;
+import javax.crypto.Cipher;
 import javax.crypto.SecretKey;
+import javax.crypto.ShortBufferException;
 
 import net.laubenberger.wichtel.AllTests;
 import net.laubenberger.wichtel.helper.HelperArray;
+import net.laubenberger.wichtel.helper.HelperCrypto;
 import net.laubenberger.wichtel.misc.exception.RuntimeExceptionIsEmpty;
+import net.laubenberger.wichtel.misc.exception.RuntimeExceptionIsEquals;
 import net.laubenberger.wichtel.misc.exception.RuntimeExceptionIsNull;
 import net.laubenberger.wichtel.misc.exception.RuntimeExceptionMustBeGreater;
 import net.laubenberger.wichtel.model.crypto.CryptoSymmetricAlgo;
@@ -191,6 +209,254 @@ public class CryptoSymmetricTest {
 			}
 		}
 	}
+
+	@Test
+	public void testCipherPool() {
+		final CipherPool pool = new CipherPool(1);
+		final String xform = CryptoSymmetricAlgo.AES.getXform();
+
+		try {
+			final Cipher cipher1 = pool.acquire(xform, HelperCrypto.DEFAULT_PROVIDER);
+			final Cipher cipher2 = pool.acquire(xform, HelperCrypto.DEFAULT_PROVIDER);
+			assertEquals(0, pool.getSize(xform, HelperCrypto.DEFAULT_PROVIDER));
+
+			pool.release(cipher1);
+			pool.release(cipher2); //pool is full
+			assertEquals(1, pool.getSize(xform, HelperCrypto.DEFAULT_PROVIDER));
+
+			assertSame(cipher1, pool.acquire(xform, HelperCrypto.DEFAULT_PROVIDER));
+			assertEquals(0, pool.getSize(xform, HelperCrypto.DEFAULT_PROVIDER));
+		} catch (Exception ex) {
+			fail(ex.getMessage());
+		}
+
+		try {
+			pool.acquire(null, HelperCrypto.DEFAULT_PROVIDER);
+			fail("transformation is null"); //$NON-NLS-1$
+		} catch (RuntimeExceptionIsNull ex) {
+			//nothing to do
+		} catch (Exception ex) {
+			fail(ex.getMessage());
+		}
+
+		try {
+			new CipherPool(-1);
+			fail("maxCiphers is -1"); //$NON-NLS-1$
+		} catch (RuntimeExceptionMustBeGreater ex) {
+			//nothing to do
+		} catch (Exception ex) {
+			fail(ex.getMessage());
+		}
+	}
+
+	@Test
+	public void testConcurrency() {
+		final int threads = 8;
+		final int rounds = 200;
+
+		for (final CryptoSymmetricAlgo algo : CryptoSymmetricAlgo.values()) {
+			try {
+				final CipherPool pool = new CipherPool(threads);
+				final CryptoSymmetricImpl cryptoSymm = new CryptoSymmetricImpl(algo, pool);
+				final SecretKey secretKey = cryptoSymm.generateKey();
+				final CountDownLatch start = new CountDownLatch(1);
+				final CountDownLatch done = new CountDownLatch(threads);
+				final AtomicInteger count = new AtomicInteger();
+				final AtomicReference<Throwable> error = new AtomicReference<>();
+
+				for (int ii = 0; threads > ii; ii++) {
+					final int id = ii;
+					new Thread(new Runnable() {
+						@Override
+						public void run() {
+							try {
+								start.await();
+								final SecretKey ownKey = cryptoSymm.generateKey();
+								for (int jj = 0; rounds > jj; jj++) {
+									final byte[] data = (AllTests.DATA + id + '-' + jj).getBytes();
+									final SecretKey key = 0 == jj % 2 ? secretKey : ownKey;
+									if (!Arrays.equals(data, cryptoSymm.decrypt(cryptoSymm.encrypt(data, key), key))) {
+										throw new IllegalStateException("Round trip failed: " + id + '-' + jj); //$NON-NLS-1$
+									}
+									count.incrementAndGet();
+								}
+							} catch (Throwable ex) {
+								error.compareAndSet(null, ex);
+							} finally {
+								done.countDown();
+							}
+						}
+					}).start();
+				}
+
+				start.countDown();
+				done.await();
+
+				if (null != error.get()) {
+					fail(algo + ": " + error.get()); //$NON-NLS-1$
+				}
+				assertEquals(threads * rounds, count.get());
+				assertEquals(true, threads >= pool.getSize(algo.getXform(), cryptoSymm.getProvider()));
+			} catch (Exception ex) {
+				fail(ex.getMessage());
+			}
+		}
+	}
+
+	@Test
+	public void testEncryptBuffer() {
+		final byte[] data = new byte[5000];
+		new Random(42L).nextBytes(data);
+
+		for (final CryptoSymmetricAlgo algo : CryptoSymmetricAlgo.values()) {
+			try {
+				final CryptoSymmetric cryptoSymm = new CryptoSymmetricImpl(algo);
+				final SecretKey secretKey = cryptoSymm.generateKey();
+
+				final ByteBuffer src = ByteBuffer.allocateDirect(data.length);
+				src.put(data).flip();
+				final ByteBuffer encrypted = ByteBuffer.allocateDirect(data.length + 64);
+				final int length = cryptoSymm.encrypt(src, encrypted, secretKey);
+				assertEquals(data.length + (algo.isAead() ? algo.getIvSize() + algo.getTagSize() : 0), length);
+				assertEquals(0, src.remaining());
+				assertEquals(length, encrypted.position());
+
+				encrypted.flip();
+				final ByteBuffer decrypted = ByteBuffer.allocateDirect(data.length + 64);
+				assertEquals(data.length, cryptoSymm.decrypt(encrypted, decrypted, secretKey));
+				decrypted.flip();
+				final byte[] result = new byte[decrypted.remaining()];
+				decrypted.get(result);
+				assertArrayEquals(data, result);
+
+				//compatible with the byte-array methods
+				encrypted.rewind();
+				final byte[] bytes = new byte[encrypted.remaining()];
+				encrypted.get(bytes);
+				assertArrayEquals(data, cryptoSymm.decrypt(bytes, secretKey));
+
+				src.rewind();
+				try {
+					cryptoSymm.encrypt(src, ByteBuffer.allocate(10), secretKey);
+					fail("dst is too small"); //$NON-NLS-1$
+				} catch (ShortBufferException ex) {
+					assertEquals(data.length, src.remaining());
+				}
+
+				try {
+					cryptoSymm.encrypt(src, src, secretKey);
+					fail("src is equals dst"); //$NON-NLS-1$
+				} catch (RuntimeExceptionIsEquals ex) {
+					//nothing to do
+				}
+
+				try {
+					cryptoSymm.encrypt(null, encrypted, secretKey);
+					fail("src is null"); //$NON-NLS-1$
+				} catch (RuntimeExceptionIsNull ex) {
+					//nothing to do
+				}
+			} catch (Exception ex) {
+				fail(algo + ": " + ex); //$NON-NLS-1$
+			}
+		}
+	}
+
+	@Test
+	public void testEncryptChannel() {
+		final byte[] data = new byte[20000];
+		new Random(42L).nextBytes(data);
+
+		for (final CryptoSymmetricAlgo algo : CryptoSymmetricAlgo.values()) {
+			try {
+				final CryptoSymmetric cryptoSymm = new CryptoSymmetricImpl(algo);
+				final SecretKey secretKey = cryptoSymm.generateKey();
+
+				for (final int bufferSize : new int[]{100, 8192, 65536}) {
+					final ByteArrayOutputStream encrypted = new ByteArrayOutputStream();
+					cryptoSymm.encrypt(Channels.newChannel(new ByteArrayInputStream(data)), Channels.newChannel(encrypted), secretKey, bufferSize);
+					assertEquals(data.length + (algo.isAead() ? algo.getIvSize() + algo.getTagSize() : 0), encrypted.size());
+
+					final ByteArrayOutputStream decrypted = new ByteArrayOutputStream();
+					cryptoSymm.decrypt(Channels.newChannel(new ByteArrayInputStream(encrypted.toByteArray())), Channels.newChannel(decrypted), secretKey, bufferSize);
+					assertArrayEquals(data, decrypted.toByteArray());
+
+					//compatible with the stream methods
+					final ByteArrayOutputStream streamed = new ByteArrayOutputStream();
+					cryptoSymm.decrypt(new ByteArrayInputStream(encrypted.toByteArray()), streamed, secretKey);
+					assertArrayEquals(data, streamed.toByteArray());
+				}
+
+				try {
+					cryptoSymm.encrypt(Channels.newChannel(new ByteArrayInputStream(data)), Channels.newChannel(new ByteArrayOutputStream()), secretKey, 0);
+					fail("bufferSize is 0"); //$NON-NLS-1$
+				} catch (RuntimeExceptionMustBeGreater ex) {
+					//nothing to do
+				}
+			} catch (Exception ex) {
+				fail(algo + ": " + ex); //$NON-NLS-1$
+			}
+		}
+	}
+
+	@Test
+	public void testAead() {
+		final byte[] data = AllTests.DATA.getBytes();
+		final byte[] aad = "header".getBytes(); //$NON-NLS-1$
+
+		for (final CryptoSymmetricAlgo algo : new CryptoSymmetricAlgo[]{CryptoSymmetricAlgo.AES_GCM, CryptoSymmetricAlgo.CHACHA20_POLY1305}) {
+			try {
+				final CryptoSymmetric cryptoSymm = new CryptoSymmetricImpl(algo);
+				final SecretKey secretKey = cryptoSymm.generateKey();
+
+				final byte[] encrypted = cryptoSymm.encrypt(data, secretKey, aad);
+				assertEquals(algo.getIvSize() + data.length + algo.getTagSize(), encrypted.length);
+				assertFalse(Arrays.equals(encrypted, cryptoSymm.encrypt(data, secretKey, aad))); //random nonce
+				assertArrayEquals(data, cryptoSymm.decrypt(encrypted, secretKey, aad));
+				assertArrayEquals(data, cryptoSymm.decrypt(cryptoSymm.encrypt(data, secretKey), secretKey));
+
+				try {
+					cryptoSymm.decrypt(encrypted, secretKey, "other".getBytes()); //$NON-NLS-1$
+					fail("aad is modified"); //$NON-NLS-1$
+				} catch (AEADBadTagException ex) {
+					//nothing to do
+				}
+
+				encrypted[algo.getIvSize()] ^= 1;
+				try {
+					cryptoSymm.decrypt(encrypted, secretKey, aad);
+					fail("data is modified"); //$NON-NLS-1$
+				} catch (AEADBadTagException ex) {
+					//nothing to do
+				}
+
+				try {
+					cryptoSymm.decrypt(new byte[algo.getIvSize()], secretKey, aad);
+					fail("input is too short"); //$NON-NLS-1$
+				} catch (RuntimeExceptionMustBeGreater ex) {
+					//nothing to do
+				}
+
+				final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+				cryptoSymm.encrypt(new ByteArrayInputStream(data), baos, secretKey);
+				final ByteArrayOutputStream decrypted = new ByteArrayOutputStream();
+				cryptoSymm.decrypt(new ByteArrayInputStream(baos.toByteArray()), decrypted, secretKey);
+				assertArrayEquals(data, decrypted.toByteArray());
+			} catch (Exception ex) {
+				fail(algo + ": " + ex); //$NON-NLS-1$
+			}
+		}
+
+		try {
+			final CryptoSymmetric cryptoSymm = new CryptoSymmetricImpl(CryptoSymmetricAlgo.AES);
+			cryptoSymm.encrypt(data, cryptoSymm.generateKey(), aad);
+			fail("aad with a non-AEAD algorithm"); //$NON-NLS-1$
+		} catch (IllegalArgumentException ex) {
+			//nothing to do
+		} catch (Exception ex) {
+			fail(ex.getMessage());
+		}
+	}
 }
 
 
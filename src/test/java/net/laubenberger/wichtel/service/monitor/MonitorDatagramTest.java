@@ -0,0 +1,345 @@
+/*
+ * Copyright (c) 2007-2013 by Stefan Laubenberger.
+ *
+ * "wichtel" is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License v3.0.
+ *
+ * "wichtel" is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * See the GNU Lesser General Public License for more details:
+ * -----------------------------------------------------------
+ * http://www.gnu.org/licenses
+ *
+ *
+ * This distribution is available at:
+ * ----------------------------------
+ * https://github.com/slaubenberger/wichtel/
+ *
+ *
+ * Contact information:
+ * --------------------
+ * Stefan Laubenberger
+ * Bullingerstrasse 53
+ * CH-8004 Zuerich
+ *
+ * http://www.laubenberger.net
+ * laubenberger@gmail.com
+ */
+
+package net.laubenberger.wichtel.service.monitor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import net.laubenberger.wichtel.misc.BufferPool;
+import net.laubenberger.wichtel.misc.Event;
+import net.laubenberger.wichtel.misc.exception.RuntimeExceptionIsEmpty;
+import net.laubenberger.wichtel.misc.exception.RuntimeExceptionIsInvalid;
+import net.laubenberger.wichtel.misc.exception.RuntimeExceptionIsNull;
+import net.laubenberger.wichtel.misc.exception.RuntimeExceptionMustBeGreater;
+
+import org.junit.Test;
+
+
+/**
+ * JUnit test for {@link MonitorDatagramImpl} and {@link DatagramRing}
+ *
+ * @author Stefan Laubenberger
+ * @version 0.3.0, 2026-10-17
+ */
+public class MonitorDatagramTest {
+	private static final int PORT = 40220;
+
+	@Test
+	public void testDatagramRing() {
+		final DatagramRing ring = new DatagramRing(3);
+		final InetSocketAddress address = new InetSocketAddress(PORT);
+
+		assertEquals(4, ring.getCapacity());
+		assertTrue(ring.isEmpty());
+		assertNull(ring.getBuffer());
+		assertNull(ring.remove());
+
+		for (int ii = 0; 4 > ii; ii++) {
+			assertTrue(ring.offer(ByteBuffer.wrap(new byte[]{(byte) ii}), address, PORT + ii));
+		}
+		assertFalse(ring.offer(ByteBuffer.allocate(1), address, PORT));
+		assertEquals(4, ring.getSize());
+
+		for (int ii = 0; 10 > ii; ii++) { //wraps around
+			assertEquals(ii, ring.getBuffer().get(0));
+			assertEquals(address, ring.getAddress());
+			assertEquals(PORT + ii, ring.getPort());
+			assertEquals(ii, ring.remove().get(0));
+			assertTrue(ring.offer(ByteBuffer.wrap(new byte[]{(byte) (ii + 4)}), address, PORT + ii + 4));
+		}
+		assertEquals(4, ring.getSize());
+
+		try {
+			new DatagramRing(0);
+			fail("capacity must be greater than 0"); //$NON-NLS-1$
+		} catch (RuntimeExceptionMustBeGreater ex) {
+			//nothing to do
+		} catch (Exception ex) {
+			fail(ex.getMessage());
+		}
+
+		try {
+			ring.offer(null, address, PORT);
+			fail("buffer is null"); //$NON-NLS-1$
+		} catch (RuntimeExceptionIsNull ex) {
+			//nothing to do
+		} catch (Exception ex) {
+			fail(ex.getMessage());
+		}
+	}
+
+	@Test
+	public void testMonitor() throws Exception {
+		final int count = 100;
+		final CountDownLatch latch = new CountDownLatch(1);
+		final CountDownLatch received = new CountDownLatch(count);
+		final List<DatagramPacket> packets = new CopyOnWriteArrayList<>();
+
+		final MonitorDatagramImpl monitor = new MonitorDatagramImpl(PORT);
+		monitor.setRingSize(16);
+		monitor.addListener(new ListenerDatagram() {
+			@Override
+			public void monitorStarted(final Event<MonitorDatagram> event) {
+				//nothing to do
+			}
+
+			@Override
+			public void monitorStopped(final Event<MonitorDatagram> event) {
+				//nothing to do
+			}
+
+			@Override
+			public void packetReceived(final Event<MonitorDatagram> event) {
+				try {
+					latch.await(); //slow listener
+				} catch (InterruptedException ex) {
+					Thread.currentThread().interrupt();
+				}
+				packets.add(event.getSource().getPacket()); //kept by the listener
+				received.countDown();
+			}
+		});
+		monitor.start();
+
+		try (DatagramSocket socket = new DatagramSocket()) {
+			for (int ii = 0; count > ii; ii++) {
+				final byte[] data = {(byte) ii, 1, 2, 3};
+				socket.send(new DatagramPacket(data, data.length, InetAddress.getLoopbackAddress(), PORT));
+			}
+
+			final long end = System.currentTimeMillis() + 5000L;
+			while (count > monitor.getReceivedCount() && System.currentTimeMillis() < end) {
+				Thread.sleep(10L);
+			}
+			assertEquals(count, monitor.getReceivedCount());
+			assertTrue(0L < monitor.getDroppedCount()); //the ring is full while the listener waits
+
+			latch.countDown();
+			final long delivered = count - monitor.getDroppedCount();
+			final long end2 = System.currentTimeMillis() + 5000L;
+			while (count - delivered < received.getCount() && System.currentTimeMillis() < end2) {
+				Thread.sleep(10L);
+			}
+			assertEquals(count - delivered, received.getCount());
+
+			assertEquals(delivered, packets.size());
+			int previous = -1;
+			for (final DatagramPacket packet : packets) {
+				assertTrue(previous < packet.getData()[0]); //in order
+				previous = packet.getData()[0];
+				assertEquals(4, packet.getLength());
+				assertEquals(3, packet.getData()[3]);
+				assertEquals(socket.getLocalPort(), packet.getPort());
+			}
+		} finally {
+			monitor.stop();
+		}
+
+		assertFalse(monitor.isRunning());
+	}
+
+	@Test
+	public void testPorts() throws Exception {
+		final BlockingQueue<String> received = new LinkedBlockingQueue<>();
+
+		final MonitorDatagramImpl monitor = new MonitorDatagramImpl();
+		monitor.setPorts(PORT + 1, PORT + 2);
+		monitor.setReceiveBufferSize(65536);
+		monitor.addListener(new ListenerDatagram() {
+			@Override
+			public void monitorStarted(final Event<MonitorDatagram> event) {
+				//nothing to do
+			}
+
+			@Override
+			public void monitorStopped(final Event<MonitorDatagram> event) {
+				//nothing to do
+			}
+
+			@Override
+			public void packetReceived(final Event<MonitorDatagram> event) {
+				received.add(event.getSource().getPacketPort() + ":" + event.getSource().getPacket().getLength()); //$NON-NLS-1$
+			}
+		});
+
+		assertEquals(PORT + 1, monitor.getPort());
+		assertEquals(2, monitor.getPorts().length);
+
+		monitor.start();
+		try (DatagramSocket socket = new DatagramSocket()) {
+			socket.send(new DatagramPacket(new byte[1], 1, InetAddress.getLoopbackAddress(), PORT + 1));
+			assertEquals((PORT + 1) + ":1", received.poll(5L, TimeUnit.SECONDS)); //$NON-NLS-1$
+			socket.send(new DatagramPacket(new byte[2], 2, InetAddress.getLoopbackAddress(), PORT + 2));
+			assertEquals((PORT + 2) + ":2", received.poll(5L, TimeUnit.SECONDS)); //$NON-NLS-1$
+			socket.send(new DatagramPacket(new byte[20000], 20000, InetAddress.getLoopbackAddress(), PORT + 1)); //larger than 8kB
+			assertEquals((PORT + 1) + ":20000", received.poll(5L, TimeUnit.SECONDS)); //$NON-NLS-1$
+		} finally {
+			monitor.stop();
+		}
+
+		try {
+			monitor.setPorts();
+			fail("ports is empty"); //$NON-NLS-1$
+		} catch (RuntimeExceptionIsEmpty ex) {
+			//nothing to do
+		} catch (Exception ex) {
+			fail(ex.getMessage());
+		}
+
+		try {
+			monitor.joinGroup(InetAddress.getLoopbackAddress());
+			fail("group is invalid"); //$NON-NLS-1$
+		} catch (RuntimeExceptionIsInvalid ex) {
+			//nothing to do
+		} catch (Exception ex) {
+			fail(ex.getMessage());
+		}
+		assertTrue(monitor.getGroups().isEmpty());
+	}
+
+	@Test
+	public void testDatagramLease() {
+		final BufferPool pool = new BufferPool(16, 4, false);
+		final ByteBuffer buffer = pool.acquire();
+		buffer.put(new byte[]{1, 2, 3}).flip();
+
+		final DatagramLease lease = new DatagramLease(buffer, pool, new InetSocketAddress(PORT), PORT);
+		assertEquals(3, lease.getLength());
+		assertEquals(PORT, lease.getPort());
+
+		final ByteBuffer view = lease.getBuffer();
+		assertTrue(view.isReadOnly());
+		assertEquals(1, view.get());
+		assertEquals(3, lease.getBuffer().remaining()); //independent views
+
+		assertSame(lease, lease.retain());
+		assertEquals(2, lease.getReferenceCount());
+		assertFalse(lease.release());
+		assertEquals(0, pool.getSize());
+		assertTrue(lease.release());
+		assertEquals(1, pool.getSize()); //back in the pool
+
+		try {
+			lease.getBuffer();
+			fail("lease is released"); //$NON-NLS-1$
+		} catch (IllegalStateException ex) {
+			//nothing to do
+		} catch (Exception ex) {
+			fail(ex.getMessage());
+		}
+
+		try {
+			lease.retain();
+			fail("lease is released"); //$NON-NLS-1$
+		} catch (IllegalStateException ex) {
+			//nothing to do
+		} catch (Exception ex) {
+			fail(ex.getMessage());
+		}
+	}
+
+	@Test
+	public void testBufferListener() throws Exception {
+		final int count = 10;
+		final BlockingQueue<DatagramLease> leases = new LinkedBlockingQueue<>();
+		final AtomicInteger packets = new AtomicInteger();
+
+		final MonitorDatagramImpl monitor = new MonitorDatagramImpl(PORT + 3);
+		monitor.addBufferListener(new ListenerDatagramBuffer() {
+			@Override
+			public void datagramReceived(final Event<MonitorDatagram> event, final DatagramLease lease) {
+				assertEquals(PORT + 3, lease.getPort());
+				leases.add(lease.retain()); //kept beyond the call
+			}
+		});
+		monitor.addListener(new ListenerDatagram() {
+			@Override
+			public void monitorStarted(final Event<MonitorDatagram> event) {
+				//nothing to do
+			}
+
+			@Override
+			public void monitorStopped(final Event<MonitorDatagram> event) {
+				//nothing to do
+			}
+
+			@Override
+			public void packetReceived(final Event<MonitorDatagram> event) {
+				packets.incrementAndGet();
+			}
+		});
+		monitor.start();
+
+		try (DatagramSocket socket = new DatagramSocket()) {
+			for (int ii = 0; count > ii; ii++) {
+				final byte[] data = {(byte) ii, 42};
+				socket.send(new DatagramPacket(data, data.length, InetAddress.getLoopbackAddress(), PORT + 3));
+			}
+
+			for (int ii = 0; count > ii; ii++) {
+				final DatagramLease lease = leases.poll(5L, TimeUnit.SECONDS);
+				final long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(5L);
+				while (1 < lease.getReferenceCount() && System.nanoTime() < end) {
+					Thread.sleep(1L); //the monitor releases its reference after the listeners
+				}
+				assertEquals(1, lease.getReferenceCount());
+				assertEquals(socket.getLocalPort(), ((InetSocketAddress) lease.getAddress()).getPort());
+
+				final ByteBuffer buffer = lease.getBuffer(); //decoded in place
+				assertEquals(2, buffer.remaining());
+				assertEquals(ii, buffer.get());
+				assertEquals(42, buffer.get());
+				assertTrue(lease.release());
+			}
+		} finally {
+			monitor.stop();
+		}
+
+		assertEquals(count, packets.get()); //both kinds of listeners are informed
+	}
+}
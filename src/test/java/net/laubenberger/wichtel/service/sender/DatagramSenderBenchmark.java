@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2007-2013 by Stefan Laubenberger.
+ *
+ * "wichtel" is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License v3.0.
+ *
+ * "wichtel" is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * See the GNU Lesser General Public License for more details:
+ * -----------------------------------------------------------
+ * http://www.gnu.org/licenses
+ *
+ *
+ * This distribution is available at:
+ * ----------------------------------
+ * https://github.com/slaubenberger/wichtel/
+ *
+ *
+ * Contact information:
+ * --------------------
+ * Stefan Laubenberger
+ * Bullingerstrasse 53
+ * CH-8004 Zuerich
+ *
+ * http://www.laubenberger.net
+ * laubenberger@gmail.com
+ */
+
+package net.laubenberger.wichtel.service.sender;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ProtocolException;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import net.laubenberger.wichtel.controller.net.codec.Codec;
+import net.laubenberger.wichtel.controller.net.codec.CodecVarint;
+import net.laubenberger.wichtel.controller.net.codec.FrameDecoder;
+import net.laubenberger.wichtel.misc.Event;
+import net.laubenberger.wichtel.service.monitor.DatagramLease;
+import net.laubenberger.wichtel.service.monitor.ListenerDatagramBuffer;
+import net.laubenberger.wichtel.service.monitor.MonitorDatagram;
+import net.laubenberger.wichtel.service.monitor.MonitorDatagramImpl;
+
+
+/**
+ * Loopback benchmark for {@link DatagramSenderImpl} against {@link MonitorDatagramImpl}.
+ * <p>
+ * Sends small records once with one datagram per record and once packed by the sender, and prints the sent datagrams and the records per second arriving at the monitor.
+ * Usage: DatagramSenderBenchmark [records] [record length] [port]
+ *
+ * @author Stefan Laubenberger
+ * @version 0.3.0, 2026-10-17
+ */
+public class DatagramSenderBenchmark {
+	private static final Codec CODEC = new CodecVarint();
+
+	private static final AtomicLong received = new AtomicLong();
+
+	public static void main(final String[] args) throws Exception {
+		final int records = 0 < args.length ? Integer.parseInt(args[0]) : 1000000;
+		final int length = 1 < args.length ? Integer.parseInt(args[1]) : 32;
+		final int port = 2 < args.length ? Integer.parseInt(args[2]) : 40260;
+
+		final MonitorDatagramImpl monitor = new MonitorDatagramImpl(port);
+		monitor.setReceiveBufferSize(4 * 1024 * 1024);
+		monitor.addBufferListener(new ListenerDatagramBuffer() {
+			private final List<byte[]> frames = new ArrayList<>();
+
+			@Override
+			public void datagramReceived(final Event<MonitorDatagram> event, final DatagramLease lease) {
+				try {
+					received.addAndGet(FrameDecoder.decodeAll(CODEC, lease.getBuffer(), frames)); //decoded in place
+				} catch (ProtocolException ex) {
+					ex.printStackTrace();
+				}
+				frames.clear();
+			}
+		});
+		monitor.start();
+
+		try {
+			final InetSocketAddress target = new InetSocketAddress(InetAddress.getLoopbackAddress(), port);
+			final byte[] record = new byte[length];
+
+			runSingle(target, record, records);
+			runSender(target, record, records);
+		} finally {
+			monitor.stop();
+			MonitorDatagramImpl.EXECUTOR.shutdown();
+		}
+	}
+
+
+	/*
+	 * Private methods
+	 */
+
+	private static void runSingle(final InetSocketAddress target, final byte[] record, final int records) throws Exception {
+		received.set(0L);
+		final long start = System.nanoTime();
+
+		try (DatagramChannel channel = DatagramChannel.open()) {
+			channel.connect(target);
+			final ByteBuffer buffer = ByteBuffer.allocateDirect(CodecVarint.MAX_HEADER_LENGTH + record.length);
+
+			for (int ii = 0; records > ii; ii++) {
+				buffer.clear();
+				for (final ByteBuffer part : CODEC.encode(record)) {
+					buffer.put(part);
+				}
+				buffer.flip();
+				channel.write(buffer);
+			}
+		}
+
+		print("one datagram per record", start, records, records);
+	}
+
+	private static void runSender(final InetSocketAddress target, final byte[] record, final int records) throws Exception {
+		received.set(0L);
+		final long start = System.nanoTime();
+
+		final DatagramSenderImpl sender = new DatagramSenderImpl(target);
+		sender.setCodec(CODEC);
+		sender.start();
+		try {
+			for (int ii = 0; records > ii; ii++) {
+				while (!sender.send(record)) { //queue full, the benchmark wants every record
+					Thread.yield();
+				}
+			}
+		} finally {
+			sender.stop();
+		}
+
+		print("packed by the sender", start, sender.getDatagramCount(), records);
+	}
+
+	private static void print(final String name, final long start, final long datagrams, final int records) throws InterruptedException {
+		TimeUnit.MILLISECONDS.sleep(500L); //lets the monitor catch up
+		final double seconds = (System.nanoTime() - start) / 1.0E9D;
+
+		System.out.printf("%-24s %9d datagrams %9d/%d records received %12.0f records/s%n", name, datagrams, received.get(), records, received.get() / seconds); //$NON-NLS-1$
+	}
+}
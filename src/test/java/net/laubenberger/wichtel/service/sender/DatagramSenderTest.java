@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) 2007-2013 by Stefan Laubenberger.
+ *
+ * "wichtel" is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License v3.0.
+ *
+ * "wichtel" is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ *
+ * See the GNU Lesser General Public License for more details:
+ * -----------------------------------------------------------
+ * http://www.gnu.org/licenses
+ *
+ *
+ * This distribution is available at:
+ * ----------------------------------
+ * https://github.com/slaubenberger/wichtel/
+ *
+ *
+ * Contact information:
+ * --------------------
+ * Stefan Laubenberger
+ * Bullingerstrasse 53
+ * CH-8004 Zuerich
+ *
+ * http://www.laubenberger.net
+ * laubenberger@gmail.com
+ */
+
+package net.laubenberger.wichtel.service.sender;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.net.DatagramPacket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ProtocolException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import net.laubenberger.wichtel.controller.net.codec.Codec;
+import net.laubenberger.wichtel.controller.net.codec.CodecVarint;
+import net.laubenberger.wichtel.controller.net.codec.FrameDecoder;
+import net.laubenberger.wichtel.misc.Event;
+import net.laubenberger.wichtel.misc.exception.RuntimeExceptionIsNull;
+import net.laubenberger.wichtel.misc.exception.RuntimeExceptionMustBeSmaller;
+import net.laubenberger.wichtel.service.monitor.ListenerDatagram;
+import net.laubenberger.wichtel.service.monitor.MonitorDatagram;
+import net.laubenberger.wichtel.service.monitor.MonitorDatagramImpl;
+
+import org.junit.Test;
+
+
+/**
+ * JUnit test for {@link DatagramSenderImpl}
+ *
+ * @author Stefan Laubenberger
+ * @version 0.3.0, 2026-10-17
+ */
+public class DatagramSenderTest {
+	private static final int PORT = 40250;
+
+	@Test
+	public void testSend() throws Exception {
+		final Codec codec = new CodecVarint();
+		final List<byte[]> records = new CopyOnWriteArrayList<>();
+		final AtomicInteger datagrams = new AtomicInteger();
+
+		final MonitorDatagramImpl monitor = new MonitorDatagramImpl(PORT);
+		monitor.addListener(new ListenerDatagram() {
+			@Override
+			public void monitorStarted(final Event<MonitorDatagram> event) {
+				//nothing to do
+			}
+
+			@Override
+			public void monitorStopped(final Event<MonitorDatagram> event) {
+				//nothing to do
+			}
+
+			@Override
+			public void packetReceived(final Event<MonitorDatagram> event) {
+				final DatagramPacket packet = event.getSource().getPacket();
+				assertTrue(DatagramSenderImpl.DEFAULT_MAX_DATAGRAM_LENGTH >= packet.getLength());
+				try {
+					FrameDecoder.decodeAll(codec, ByteBuffer.wrap(packet.getData(), 0, packet.getLength()), records);
+				} catch (ProtocolException ex) {
+					fail(ex.getMessage());
+				}
+				datagrams.incrementAndGet();
+			}
+		});
+		monitor.start();
+
+		final DatagramSenderImpl sender = new DatagramSenderImpl(new InetSocketAddress(InetAddress.getLoopbackAddress(), PORT));
+		sender.setCodec(codec);
+		sender.setLinger(10L);
+
+		assertFalse(sender.send(new byte[1])); //not running
+		assertEquals(1L, sender.getDroppedCount());
+
+		final int count = 1000;
+		try {
+			sender.start();
+			for (int ii = 0; count > ii; ii++) {
+				assertTrue(sender.send(String.valueOf(ii).getBytes()));
+			}
+			assertTrue(sender.send(new byte[2000])); //queued, but too long for a datagram
+		} finally {
+			sender.stop();
+		}
+
+		assertFalse(sender.isRunning());
+		assertEquals(count, sender.getRecordCount());
+		assertEquals(2L, sender.getDroppedCount());
+		assertTrue(count / 100 > sender.getDatagramCount()); //more than 100 records per datagram
+
+		try {
+			final long end = System.currentTimeMillis() + 5000L;
+			while (count > records.size() && System.currentTimeMillis() < end) {
+				Thread.sleep(10L);
+			}
+		} finally {
+			monitor.stop();
+		}
+
+		assertEquals(count, records.size());
+		for (int ii = 0; count > ii; ii++) {
+			assertEquals(String.valueOf(ii), new String(records.get(ii)));
+		}
+		assertEquals(sender.getDatagramCount(), datagrams.get());
+
+		try {
+			sender.send((byte[]) null);
+			fail("record is null"); //$NON-NLS-1$
+		} catch (RuntimeExceptionIsNull ex) {
+			//nothing to do
+		} catch (Exception ex) {
+			fail(ex.getMessage());
+		}
+
+		try {
+			sender.setMaxDatagramLength(DatagramSenderImpl.MAX_DATAGRAM_LENGTH + 1);
+			fail("maxDatagramLength must be smaller than " + DatagramSenderImpl.MAX_DATAGRAM_LENGTH); //$NON-NLS-1$
+		} catch (RuntimeExceptionMustBeSmaller ex) {
+			//nothing to do
+		} catch (Exception ex) {
+			fail(ex.getMessage());
+		}
+	}
+
+	@Test
+	public void testRate() throws Exception {
+		final DatagramSenderImpl sender = new DatagramSenderImpl(new InetSocketAddress(InetAddress.getLoopbackAddress(), PORT + 1));
+		sender.setMaxDatagramLength(16);
+		sender.setLinger(0L);
+		sender.setRate(100);
+		assertEquals(100, sender.getRate());
+
+		final long start = System.nanoTime();
+		try {
+			sender.start();
+			for (int ii = 0; 20 > ii; ii++) {
+				sender.send(new byte[10]); //one record per datagram
+			}
+		} finally {
+			sender.stop();
+		}
+
+		assertEquals(20L, sender.getDatagramCount() + sender.getDroppedCount()); //nobody listens, the sends may fail
+		assertTrue(190L <= (System.nanoTime() - start) / 1000000L); //20 datagrams at 100 per second
+	}
+}